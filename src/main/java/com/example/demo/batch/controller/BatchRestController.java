@@ -1,9 +1,16 @@
 package com.example.demo.batch.controller;
 
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,19 +18,36 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.demo.batch.dto.ArtifactResponse;
 import com.example.demo.batch.dto.BatchHistoryPageResponse;
 import com.example.demo.batch.dto.BatchHistorySearchRequest;
+import com.example.demo.batch.dto.BatchMetricsResponse;
+import com.example.demo.batch.dto.BulkExecuteResponse;
 import com.example.demo.batch.dto.ExecuteRequest;
 import com.example.demo.batch.dto.ExecuteResponse;
 import com.example.demo.batch.dto.HistoryResponse;
 import com.example.demo.batch.dto.JobResponse;
+import com.example.demo.batch.dto.ResourceUsageResponse;
 import com.example.demo.batch.dto.StatusResponse;
+import com.example.demo.batch.dto.WorkflowResponse;
+import com.example.demo.batch.dto.WorkflowStatusResponse;
+import com.example.demo.batch.exception.BatchDomainException;
+import com.example.demo.batch.exception.BatchErrorCode;
 import com.example.demo.batch.service.BatchExecuteService;
 import com.example.demo.batch.service.BatchHistoryService;
+import com.example.demo.batch.service.BatchMetricsService;
+import com.example.demo.batch.service.BatchOutputService;
+import com.example.demo.batch.service.ExecutionArtifactStore;
+import com.example.demo.batch.service.ExecutionResourceService;
+import com.example.demo.batch.service.WorkflowService;
+import com.example.demo.config.BatchConfig;
 import com.example.demo.security.AuthenticationUtil;
 
 import lombok.extern.slf4j.Slf4j;
@@ -37,15 +61,37 @@ import lombok.extern.slf4j.Slf4j;
 @PreAuthorize("isAuthenticated()")
 public class BatchRestController {
 
+    private static final String OUTPUT_OFFSET_HEADER = "X-Output-Offset";
+    private static final String OUTPUT_NEXT_OFFSET_HEADER = "X-Output-Next-Offset";
+    private static final String OUTPUT_LENGTH_HEADER = "X-Output-Length";
+    private static final String OUTPUT_COMPLETE_HEADER = "X-Output-Complete";
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String EXECUTION_NODE_HEADER = "X-Batch-Node";
+
     @Autowired
     private BatchExecuteService batchService;
 
     @Autowired
     private BatchHistoryService batchHistoryService;
 
+    @Autowired
+    private BatchOutputService batchOutputService;
+
+    @Autowired
+    private BatchMetricsService batchMetricsService;
+
+    @Autowired
+    private ExecutionResourceService executionResourceService;
+
+    @Autowired
+    private WorkflowService workflowService;
+
     @Autowired
     private AuthenticationUtil authenticationUtil;
 
+    @Autowired
+    private BatchConfig batchConfig;
+
     /**
      * 有効なジョブ一覧を取得する
      * 
@@ -59,23 +105,24 @@ public class BatchRestController {
 
     /**
      * バッチを実行する
+     * Idempotency-Key を指定した再送、およびジョブの重複統合期間内の同じ要求には既存の実行IDを返す
      * 
-     * @param request 実行リクエスト（jobId を含む）
+     * @param request        実行リクエスト（jobId と実行時パラメータを含む）
+     * @param idempotencyKey Idempotency-Key ヘッダー（任意）
      * @return 実行ID
      */
     @PostMapping("/execute")
-    public ResponseEntity<ExecuteResponse> executeBatch(@RequestBody ExecuteRequest request) {
+    public ResponseEntity<ExecuteResponse> executeBatch(@RequestBody ExecuteRequest request,
+            @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         log.info("Execute batch for job: {}", request.getJobId());
 
         try {
             // メインスレッドで事前にユーザーIDを取得
             Long userId = authenticationUtil.getCurrentUserId();
-            ExecuteResponse response = batchService.startBatch(request, userId);
+            ExecuteResponse response = batchService.startBatch(request, userId, idempotencyKey);
             return ResponseEntity.ok(response);
-        } catch (IllegalArgumentException e) {
-            log.warn("Job not found: {}", request);
-            return ResponseEntity.badRequest()
-                    .body(new ExecuteResponse(null, "Job not found: " + request));
+        } catch (BatchDomainException e) {
+            return toErrorResponse(request, e);
         } catch (Exception e) {
             log.error("Failed to start batch execution", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -83,6 +130,80 @@ public class BatchRestController {
         }
     }
 
+    /**
+     * 複数のバッチをまとめて実行する
+     * 要求ごとに受け付けた実行ID、または受け付けなかった理由を返す（実行待ちキューの上限を超えた分は受け付けない）
+     * 
+     * @param requests 実行リクエストのリスト
+     * @return 要求ごとの結果（1件も受け付けず、実行待ちキューが満杯の場合は 429）
+     */
+    @PostMapping("/execute/bulk")
+    public ResponseEntity<BulkExecuteResponse> executeBatches(@RequestBody List<ExecuteRequest> requests) {
+        int maxRequests = batchConfig.getExecutor().getMaxBulkRequests();
+        if (requests == null || requests.isEmpty() || requests.size() > maxRequests) {
+            return ResponseEntity.badRequest()
+                    .body(BulkExecuteResponse.builder()
+                            .error("Number of requests must be between 1 and " + maxRequests)
+                            .build());
+        }
+        log.info("Execute {} batches in bulk", requests.size());
+
+        try {
+            Long userId = authenticationUtil.getCurrentUserId();
+            BulkExecuteResponse response = batchService.startBatches(requests, userId);
+            boolean queueFull = response.getResults().stream()
+                    .anyMatch(result -> BatchErrorCode.EXECUTION_QUEUE_FULL.name().equals(result.getErrorCode()));
+            if (!queueFull) {
+                return ResponseEntity.ok(response);
+            }
+            return ResponseEntity.status(response.getAccepted() == 0 ? HttpStatus.TOO_MANY_REQUESTS : HttpStatus.OK)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(batchConfig.getExecutor().getRetryAfterSeconds()))
+                    .body(response);
+        } catch (Exception e) {
+            log.error("Failed to start batch executions in bulk", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(BulkExecuteResponse.builder().error("Failed to start batch executions").build());
+        }
+    }
+
+    /**
+     * バッチ実行のドメイン例外をレスポンスに変換する
+     * 
+     * @param request 実行リクエスト（ログ出力用）
+     * @param e       ドメイン例外
+     * @return エラーレスポンス
+     */
+    private ResponseEntity<ExecuteResponse> toErrorResponse(Object request, BatchDomainException e) {
+        switch (e.getErrorCode()) {
+            case EXECUTION_QUEUE_FULL:
+                log.warn("Execution queue is full: {}", request);
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER,
+                                String.valueOf(batchConfig.getExecutor().getRetryAfterSeconds()))
+                        .body(new ExecuteResponse(null, "Execution queue is full"));
+            case WORKFLOW_NOT_FOUND:
+                log.warn("Workflow not found: {}", request);
+                return ResponseEntity.badRequest()
+                        .body(new ExecuteResponse(null, "Workflow not found: " + request));
+            case IDEMPOTENCY_KEY_REUSED:
+                log.warn("Idempotency key reused for another job: {}", request);
+                return ResponseEntity.unprocessableEntity()
+                        .body(new ExecuteResponse(null, "Idempotency-Key is already used for another job"));
+            case INVALID_JOB_PARAMETER:
+                log.warn("Invalid job parameter: {}, {}", request, e.getMessage());
+                return ResponseEntity.badRequest()
+                        .body(new ExecuteResponse(null, "Invalid parameter: " + e.getMessage()));
+            case WORKFLOW_NOT_RERUNNABLE:
+                log.warn("Workflow is not rerunnable: {}", request);
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(new ExecuteResponse(null, "Only failed workflow executions can be rerun"));
+            default:
+                log.warn("Job not found: {}", request);
+                return ResponseEntity.badRequest()
+                        .body(new ExecuteResponse(null, "Job not found: " + request));
+        }
+    }
+
     /**
      * バッチ実行のステータスを取得する
      * 
@@ -98,6 +219,203 @@ public class BatchRestController {
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    /**
+     * バッチ実行をキャンセルする
+     * 実行中の場合はプロセスツリーに SIGTERM を送り、猶予時間後も残っていれば SIGKILL で停止する
+     * 
+     * @param executionId 実行ID
+     * @return 202（停止処理を開始した、またはキャンセル済み）と現在のステータス、完了済みの場合は 409
+     */
+    @PostMapping("/executions/{executionId}/cancel")
+    public ResponseEntity<StatusResponse> cancelExecution(@PathVariable String executionId) {
+        log.info("Cancel execution: {}", executionId);
+
+        try {
+            Long userId = authenticationUtil.getCurrentUserId();
+            return batchService.cancelExecution(executionId, userId, authenticationUtil.hasAdminRole())
+                    .map(status -> ResponseEntity.status(HttpStatus.ACCEPTED).body(status))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (BatchDomainException e) {
+            log.warn("Execution is not cancellable: {}", executionId);
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    /**
+     * バッチ実行のステータス遷移と出力行を Server-Sent Events で配信する
+     * 
+     * @param executionId 実行ID
+     * @return SSE ストリーム（status / output / dropped イベント）
+     */
+    @GetMapping(path = "/executions/{executionId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamEvents(@PathVariable String executionId) {
+        log.debug("Subscribe events for execution: {}", executionId);
+
+        Long userId = authenticationUtil.getCurrentUserId();
+        try {
+            return batchService.subscribeEvents(executionId, userId, authenticationUtil.hasAdminRole())
+                    .map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (BatchDomainException e) {
+            return toOtherNodeResponse(executionId, e);
+        }
+    }
+
+    /**
+     * バッチ実行の出力を取得する（オフセット指定による追従読み取り対応）
+     * 内容はヒープを経由せず、保存ファイルから直接レスポンスへ転送する
+     * 
+     * @param executionId 実行ID
+     * @param offset      開始オフセット（バイト）
+     * @param limit       最大取得バイト数（省略時は既定値）
+     * @return 出力のバイト列（次回オフセット等はレスポンスヘッダに設定）
+     */
+    @GetMapping("/executions/{executionId}/output")
+    public ResponseEntity<StreamingResponseBody> getOutput(
+            @PathVariable String executionId,
+            @RequestParam(defaultValue = "0") long offset,
+            @RequestParam(required = false) Integer limit) {
+        log.debug("Get output for execution: {}, offset={}, limit={}", executionId, offset, limit);
+
+        Long userId = authenticationUtil.getCurrentUserId();
+        try {
+            return batchOutputService.readOutput(executionId, offset, limit, userId, authenticationUtil.hasAdminRole())
+                    .map(range -> ResponseEntity.ok()
+                            .contentType(MediaType.TEXT_PLAIN)
+                            .contentLength(range.count())
+                            .header(OUTPUT_OFFSET_HEADER, String.valueOf(range.offset()))
+                            .header(OUTPUT_NEXT_OFFSET_HEADER, String.valueOf(range.nextOffset()))
+                            .header(OUTPUT_LENGTH_HEADER, String.valueOf(range.totalLength()))
+                            .header(OUTPUT_COMPLETE_HEADER, String.valueOf(range.complete()))
+                            .body((StreamingResponseBody) out -> range.transferTo(Channels.newChannel(out))))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (BatchDomainException e) {
+            return toOtherNodeResponse(executionId, e);
+        }
+    }
+
+    /**
+     * バッチ実行の成果物の一覧を取得する
+     * 
+     * @param executionId 実行ID
+     * @return 成果物の一覧
+     */
+    @GetMapping("/executions/{executionId}/artifacts")
+    public ResponseEntity<List<ArtifactResponse>> getArtifacts(@PathVariable String executionId) {
+        log.debug("Get artifacts for execution: {}", executionId);
+
+        Long userId = authenticationUtil.getCurrentUserId();
+        try {
+            return batchOutputService.listArtifacts(executionId, userId, authenticationUtil.hasAdminRole())
+                    .map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (BatchDomainException e) {
+            return toOtherNodeResponse(executionId, e);
+        }
+    }
+
+    /**
+     * バッチ実行の成果物をダウンロードする（Range ヘッダーによる部分取得に対応）
+     * 内容はヒープを経由せず、保存ファイルから直接レスポンスへ転送する
+     * （複数範囲の指定には対応せず、全体を返す）
+     * 
+     * @param executionId 実行ID
+     * @param name        成果物名
+     * @param range       Range ヘッダー（任意）
+     * @return 成果物の内容（範囲指定の場合は 206、範囲が不正な場合は 416）
+     */
+    @GetMapping("/executions/{executionId}/artifacts/{name}")
+    public ResponseEntity<StreamingResponseBody> getArtifact(@PathVariable String executionId,
+            @PathVariable String name,
+            @RequestHeader(name = HttpHeaders.RANGE, required = false) String range) {
+        log.debug("Get artifact for execution: {}, name={}, range={}", executionId, name, range);
+
+        Long userId = authenticationUtil.getCurrentUserId();
+        try {
+            return batchOutputService.findArtifact(executionId, name, userId, authenticationUtil.hasAdminRole())
+                    .map(artifact -> toArtifactResponse(artifact, range))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (BatchDomainException e) {
+            return toOtherNodeResponse(executionId, e);
+        }
+    }
+
+    /**
+     * 他のノードで実行された実行のローカルデータ（出力・成果物・イベント）の参照を 409 で拒否する
+     * 実行したノードが決まっている場合は X-Batch-Node ヘッダーにノードIDを設定する（クライアントはそのノードに問い合わせる）
+     * 
+     * @param executionId 実行ID
+     * @param e           ドメイン例外
+     * @return エラーレスポンス
+     */
+    private <T> ResponseEntity<T> toOtherNodeResponse(String executionId, BatchDomainException e) {
+        log.warn("Execution {} is not local to this node: {}", executionId, e.getMessage());
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(HttpStatus.CONFLICT);
+        if (e.getMessage() != null) {
+            builder.header(EXECUTION_NODE_HEADER, e.getMessage());
+        }
+        return builder.build();
+    }
+
+    private ResponseEntity<StreamingResponseBody> toArtifactResponse(ExecutionArtifactStore.Artifact artifact,
+            String range) {
+        long length = artifact.length();
+        long start = 0;
+        long end = length - 1;
+        boolean partial = false;
+        if (range != null) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(range);
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                    partial = true;
+                    if (start >= length || start > end) {
+                        throw new IllegalArgumentException("Range not satisfiable: " + range);
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length)
+                        .build();
+            }
+        }
+
+        long offset = start;
+        long count = Math.max(0, end - start + 1);
+        MediaType contentType = MediaTypeFactory.getMediaType(artifact.name())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+        ResponseEntity.BodyBuilder builder = ResponseEntity
+                .status(partial ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK)
+                .contentType(contentType)
+                .contentLength(count)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(artifact.name(), StandardCharsets.UTF_8)
+                        .build()
+                        .toString());
+        if (partial) {
+            builder.header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+        return builder.body(out -> artifact.transferTo(offset, count, Channels.newChannel(out)));
+    }
+
+    /**
+     * バッチ実行のリソース使用量（CPU・メモリ・I/O）の時系列と集計を取得する
+     * 
+     * @param executionId 実行ID
+     * @return リソース使用量
+     */
+    @GetMapping("/executions/{executionId}/resources")
+    public ResponseEntity<ResourceUsageResponse> getResources(@PathVariable String executionId) {
+        log.debug("Get resources for execution: {}", executionId);
+
+        Long userId = authenticationUtil.getCurrentUserId();
+        return executionResourceService.getResourceUsage(executionId, userId, authenticationUtil.hasAdminRole())
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     /**
      * バッチ実行履歴を取得する（ページネーション対応）
      * 
@@ -120,7 +438,7 @@ public class BatchRestController {
      * バッチ実行履歴を検索する（高度な検索条件対応）
      * 
      * @param request 検索条件DTO（クエリパラメータにマッピング）
-     * @return 検索結果のページネーション
+     * @return 検索結果のページネーション（クラスタ構成で出力を全文検索する場合は 409）
      */
     @GetMapping("/history/search")
     public ResponseEntity<BatchHistoryPageResponse> searchBatchHistory(
@@ -129,9 +447,85 @@ public class BatchRestController {
 
         // Application Service にビジネスロジックを委譲
         Long userId = authenticationUtil.getCurrentUserId();
-        BatchHistoryPageResponse response = batchHistoryService.searchBatchHistory(request, userId);
+        try {
+            BatchHistoryPageResponse response = batchHistoryService.searchBatchHistory(request, userId);
+            return ResponseEntity.ok(response);
+        } catch (BatchDomainException e) {
+            log.warn("Output search is not available in cluster mode: {}", request);
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    /**
+     * 有効なワークフロー一覧を取得する
+     * 
+     * @return ワークフローのDTO リスト
+     */
+    @GetMapping("/workflows")
+    public ResponseEntity<List<WorkflowResponse>> getWorkflows() {
+        return ResponseEntity.ok(workflowService.getAvailableWorkflows());
+    }
+
+    /**
+     * ワークフローを実行する
+     * 
+     * @param workflowId ワークフローID
+     * @return ワークフロー実行ID
+     */
+    @PostMapping("/workflows/{workflowId}/execute")
+    public ResponseEntity<ExecuteResponse> executeWorkflow(@PathVariable String workflowId) {
+        log.info("Execute workflow: {}", workflowId);
+
+        try {
+            Long userId = authenticationUtil.getCurrentUserId();
+            return ResponseEntity.ok(workflowService.startWorkflow(workflowId, userId));
+        } catch (BatchDomainException e) {
+            return toErrorResponse(workflowId, e);
+        }
+    }
+
+    /**
+     * ワークフロー実行の状態（ノードごとの状態・クリティカルパス）を取得する
+     * 
+     * @param workflowExecutionId ワークフロー実行ID
+     * @return ワークフロー実行のステータス
+     */
+    @GetMapping("/workflows/executions/{workflowExecutionId}")
+    public ResponseEntity<WorkflowStatusResponse> getWorkflowStatus(@PathVariable String workflowExecutionId) {
+        Long userId = authenticationUtil.getCurrentUserId();
+        return workflowService.getWorkflowStatus(workflowExecutionId, userId, authenticationUtil.hasAdminRole())
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * 失敗したワークフロー実行の未成功ノードを再実行する
+     * 
+     * @param workflowExecutionId ワークフロー実行ID
+     * @return ワークフロー実行ID
+     */
+    @PostMapping("/workflows/executions/{workflowExecutionId}/rerun")
+    public ResponseEntity<ExecuteResponse> rerunWorkflow(@PathVariable String workflowExecutionId) {
+        log.info("Rerun workflow execution: {}", workflowExecutionId);
 
-        return ResponseEntity.ok(response);
+        try {
+            Long userId = authenticationUtil.getCurrentUserId();
+            return workflowService.rerun(workflowExecutionId, userId, authenticationUtil.hasAdminRole())
+                    .map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (BatchDomainException e) {
+            return toErrorResponse(workflowExecutionId, e);
+        }
+    }
+
+    /**
+     * バッチ実行エンジンのメトリクスを取得する（管理者のみ）
+     * 
+     * @return メトリクス
+     */
+    @GetMapping("/metrics")
+    public ResponseEntity<BatchMetricsResponse> getMetrics() {
+        return ResponseEntity.ok(batchMetricsService.getMetrics());
     }
 
 }
@@ -0,0 +1,21 @@
+package com.example.demo.batch.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 実行の成果物のレスポンス
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArtifactResponse {
+    private String name; // 成果物名（ファイル名）
+    private long size; // サイズ（バイト）
+    private LocalDateTime modifiedAt; // 最終更新時刻
+}
@@ -1,6 +1,7 @@
 package com.example.demo.batch.dto;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -23,4 +24,5 @@ public class BatchHistoryResponse {
     private String userName; // ユーザー名（管理者用に表示）
     private LocalDateTime startTime; // 開始時刻
     private LocalDateTime endTime; // 終了時刻
+    private List<Long> outputMatchOffsets; // 出力中の一致位置（outputText で検索した場合のみ。バイトオフセット）
 }
@@ -23,6 +23,7 @@ public class BatchHistorySearchRequest {
     private LocalDateTime startDateFrom; // 開始日時の下限（optional）
     private LocalDateTime endDateTo; // 終了日時の上限（optional）
     private String userName; // 検索対象ユーザー名（管理者用、optional）
+    private String outputText; // 出力に含まれる文字列（全文検索索引で絞り込む、optional）
 
     @Builder.Default
     private Integer page = 0; // ページ番号（0から始まる、デフォルト0）
@@ -0,0 +1,25 @@
+package com.example.demo.batch.dto;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * バッチ実行エンジンのメトリクスレスポンス
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchMetricsResponse {
+    private int runningCount; // 実行中の件数
+    private int queuedCount; // 実行待ちの件数
+    private ConcurrencyLimitMetrics concurrencyLimit; // 全体の同時実行数上限
+    private Map<Long, QueueWaitMetrics> queueWaitByUser; // ユーザー別の実行待ち時間
+    private Map<Integer, QueueWaitMetrics> queueWaitByPriority; // 優先度別の実行待ち時間
+    private HistoryWriterMetrics historyWriter; // 実行履歴書き込み
+    private Map<String, WorkerPoolMetrics> workerPools; // ジョブ別の常駐ワーカーJVMプール
+}
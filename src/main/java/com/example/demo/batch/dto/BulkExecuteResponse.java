@@ -0,0 +1,22 @@
+package com.example.demo.batch.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 一括実行レスポンス
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkExecuteResponse {
+    private int accepted; // 受け付けた件数
+    private int rejected; // 受け付けなかった件数
+    private List<BulkExecuteResult> results; // 要求ごとの結果（要求と同じ順）
+    private String error; // 要求全体を受け付けなかった場合のエラー
+}
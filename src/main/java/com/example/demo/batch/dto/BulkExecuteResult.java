@@ -0,0 +1,22 @@
+package com.example.demo.batch.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 一括実行の要求ごとの結果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkExecuteResult {
+    private int index; // 要求の位置（0 始まり）
+    private String jobId; // ジョブID
+    private String executionId; // 実行ID（受け付けなかった場合は null）
+    private boolean deduplicated; // 重複した要求として既存の実行IDを返した場合 true
+    private String errorCode; // 受け付けなかった理由（JOB_NOT_FOUND / INVALID_JOB_PARAMETER / EXECUTION_QUEUE_FULL）
+    private String error; // 受け付けなかった理由の詳細
+}
@@ -0,0 +1,26 @@
+package com.example.demo.batch.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 全体の同時実行数上限の変更履歴
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ConcurrencyLimitChange {
+    private LocalDateTime changedAt; // 変更時刻
+    private int previousLimit; // 変更前の上限
+    private int limit; // 変更後の上限
+    private String reason; // 変更理由（LOAD / MEMORY / TIMEOUTS / QUEUE_WAIT）
+    private Double loadPerCpu; // 変更時の1分間のロードアベレージ / CPU数（取得できない場合は null）
+    private Double availableMemoryRatio; // 変更時の空きメモリの割合（取得できない場合は null）
+    private double timeoutRate; // 変更時のタイムアウト率
+    private double averageQueueWaitMillis; // 変更時の平均待ち時間（ミリ秒）
+}
@@ -0,0 +1,27 @@
+package com.example.demo.batch.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 全体の同時実行数上限の自動調整のメトリクス
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ConcurrencyLimitMetrics {
+    private boolean adaptive; // 自動調整が有効な場合 true
+    private int limit; // 現在の同時実行数上限
+    private int minLimit; // 自動調整する上限の下限
+    private int maxLimit; // 自動調整する上限の上限
+    private Double loadPerCpu; // 直近の1分間のロードアベレージ / CPU数（取得できない場合は null）
+    private Double availableMemoryRatio; // 直近の空きメモリの割合（取得できない場合は null）
+    private double timeoutRate; // 直近の調整期間のタイムアウト率
+    private double averageQueueWaitMillis; // 直近の調整期間の平均待ち時間（ミリ秒）
+    private List<ConcurrencyLimitChange> history; // 上限の変更履歴（古い順）
+}
@@ -1,5 +1,7 @@
 package com.example.demo.batch.dto;
 
+import java.util.Map;
+
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -14,4 +16,9 @@ import lombok.ToString;
 @ToString
 public class ExecuteRequest {
     private String jobId;
+    private Map<String, String> parameters; // 実行時パラメータ（省略時は既定値）
+
+    public ExecuteRequest(String jobId) {
+        this.jobId = jobId;
+    }
 }
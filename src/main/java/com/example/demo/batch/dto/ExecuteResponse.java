@@ -15,9 +15,15 @@ import lombok.NoArgsConstructor;
 public class ExecuteResponse {
     private String executionId;
     private String error;
+    private boolean deduplicated; // 重複した要求として既存の実行IDを返した場合 true
 
     public ExecuteResponse(String executionId) {
         this.executionId = executionId;
         this.error = null;
     }
+
+    public ExecuteResponse(String executionId, String error) {
+        this.executionId = executionId;
+        this.error = error;
+    }
 }
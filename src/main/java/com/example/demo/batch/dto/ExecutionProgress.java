@@ -0,0 +1,22 @@
+package com.example.demo.batch.dto;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * ジョブが出力した進捗マーカー行（##progress）の最新の内容
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExecutionProgress {
+    private Integer percent; // 進捗率（0〜100。マーカー行で省略された場合 null）
+    private Map<String, String> details; // key=value 形式の付加情報（例: processed=1200）
+    private LocalDateTime updatedAt; // マーカー行を受信した時刻
+}
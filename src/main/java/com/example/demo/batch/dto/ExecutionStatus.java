@@ -4,9 +4,12 @@ package com.example.demo.batch.dto;
  * バッチ実行ステータスの定義
  */
 public enum ExecutionStatus {
+    QUEUED("待機中"),
     RUNNING("実行中"),
     COMPLETED_SUCCESS("完了（成功）"),
-    FAILED("失敗");
+    FAILED("失敗"),
+    CANCELLED("キャンセル"),
+    LOST("結果不明");
 
     private final String displayName;
 
@@ -18,6 +21,15 @@ public enum ExecutionStatus {
         return displayName;
     }
 
+    /**
+     * 終了状態（これ以上遷移しない状態）かどうかを判定する
+     * 
+     * @return 終了状態の場合 true
+     */
+    public boolean isTerminal() {
+        return this != QUEUED && this != RUNNING;
+    }
+
     public static ExecutionStatus fromValue(String value) {
         try {
             return ExecutionStatus.valueOf(value);
@@ -22,4 +22,5 @@ public class HistoryItem {
     private LocalDateTime startTime;
     private LocalDateTime endTime;
     private Integer exitCode;
+    private ResourceUsageSummary resourceUsage; // リソース使用量の集計（完了後のみ）
 }
@@ -0,0 +1,26 @@
+package com.example.demo.batch.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 実行履歴書き込みのメトリクス
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HistoryWriterMetrics {
+    private String mode; // DIRECT / WRITE_BEHIND
+    private String durability; // SYNC / ASYNC（write-behind のみ）
+    private int queueDepth; // 書き込み待ちの件数
+    private long flushCount; // フラッシュ回数
+    private long flushedRows; // フラッシュした行数
+    private long failedRows; // 書き込みに失敗した行数
+    private double averageBatchSize; // 1回あたりの平均行数
+    private double averageFlushMillis; // 平均フラッシュ時間（ミリ秒）
+    private double maxFlushMillis; // 最大フラッシュ時間（ミリ秒）
+    private double lastFlushMillis; // 直近のフラッシュ時間（ミリ秒）
+}
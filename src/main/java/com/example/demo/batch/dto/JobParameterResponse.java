@@ -0,0 +1,26 @@
+package com.example.demo.batch.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * ジョブの実行時パラメータ定義のDTOレスポンス
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JobParameterResponse {
+    private String name;
+    private String description;
+    private String type; // STRING / INTEGER / BOOLEAN / DATE
+    private boolean required;
+    private String defaultValue;
+    private List<String> allowedValues; // 指定できる値（空の場合は制限なし）
+    private Long min; // INTEGER の最小値
+    private Long max; // INTEGER の最大値
+}
@@ -21,4 +21,6 @@ public class JobResponse {
     private String command;
     private List<String> arguments;
     private int timeout;
+    private List<JobParameterResponse> parameters; // 実行時に指定できるパラメータ
+    private List<String> artifacts; // 完了時に収集する成果物の glob
 }
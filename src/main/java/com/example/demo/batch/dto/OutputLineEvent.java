@@ -0,0 +1,16 @@
+package com.example.demo.batch.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 出力行イベント（SSE で配信する）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutputLineEvent {
+    private String stream; // STDOUT / STDERR
+    private String line; // 出力行
+}
@@ -0,0 +1,20 @@
+package com.example.demo.batch.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 実行待ち時間のメトリクス（ユーザー別・優先度別）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class QueueWaitMetrics {
+    private int queued; // 現在の待機件数
+    private long dispatched; // 待機キューから取り出した件数
+    private double averageWaitMillis; // 平均待ち時間（ミリ秒）
+    private double maxWaitMillis; // 最大待ち時間（ミリ秒）
+}
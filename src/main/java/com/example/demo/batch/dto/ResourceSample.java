@@ -0,0 +1,22 @@
+package com.example.demo.batch.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * リソース使用量のサンプル
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResourceSample {
+    private long elapsedMillis; // 計測開始からの経過時間（ミリ秒）
+    private double cpuPercent; // 前のサンプルからのCPU使用率（%、1コア = 100）
+    private long cpuTimeMillis; // 累積CPU時間（ミリ秒）
+    private long rssKb; // 常駐メモリ（KB）
+    private long readKb; // 累積読み込み量（KB）
+    private long writeKb; // 累積書き込み量（KB）
+}
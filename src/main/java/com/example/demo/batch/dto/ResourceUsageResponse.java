@@ -0,0 +1,23 @@
+package com.example.demo.batch.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 実行のリソース使用量レスポンス
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResourceUsageResponse {
+    private String executionId; // 実行ID
+    private boolean complete; // 計測が終了している場合 true
+    private long intervalMillis; // サンプルの間隔（ミリ秒）
+    private ResourceUsageSummary summary; // 集計
+    private List<ResourceSample> samples; // サンプル
+}
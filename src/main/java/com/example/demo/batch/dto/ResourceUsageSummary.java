@@ -0,0 +1,23 @@
+package com.example.demo.batch.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * リソース使用量の集計レスポンス
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResourceUsageSummary {
+    private Long cpuTimeMillis; // CPU時間の合計（ミリ秒）
+    private Double avgCpuPercent; // 平均CPU使用率（%）
+    private Double peakCpuPercent; // 最大CPU使用率（%）
+    private Long avgRssKb; // 平均常駐メモリ（KB）
+    private Long peakRssKb; // 最大常駐メモリ（KB）
+    private Long ioReadKb; // 読み込み量（KB）
+    private Long ioWriteKb; // 書き込み量（KB）
+}
@@ -1,6 +1,7 @@
 package com.example.demo.batch.dto;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -20,4 +21,10 @@ public class StatusResponse {
     private LocalDateTime startTime;
     private LocalDateTime endTime;
     private String jobName;
+    private Map<String, String> parameters; // 実行時パラメータ
+    private Long pid; // 子プロセスのPID（実行中のみ）
+    private Long outputBytes; // 受信済み出力バイト数（待機中・実行中のみ）
+    private LocalDateTime lastOutputTime; // 最終出力時刻（待機中・実行中のみ）
+    private ExecutionProgress progress; // ジョブが出力した最新の進捗（実行中のみ）
+    private ResourceUsageSummary resourceUsage; // リソース使用量の集計（完了後のみ）
 }
@@ -0,0 +1,22 @@
+package com.example.demo.batch.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 常駐ワーカーJVMプールのメトリクス（ジョブ単位）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WorkerPoolMetrics {
+    private int workers; // 起動中・待機中・実行中のワーカー数
+    private int idle; // 待機中のワーカー数
+    private int waiting; // ワーカーの空き待ちの件数
+    private long started; // 起動したワーカーの累計
+    private long recycled; // 実行回数・ヒープ増加により入れ替えたワーカーの累計
+    private long completedRuns; // 完了したタスクの累計
+}
@@ -0,0 +1,21 @@
+package com.example.demo.batch.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * ワークフローノードのDTOレスポンス
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WorkflowNodeResponse {
+    private String id;
+    private String jobId;
+    private List<String> dependsOn;
+}
@@ -0,0 +1,30 @@
+package com.example.demo.batch.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * ワークフローノードの実行状態
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WorkflowNodeStatus {
+    private String nodeId;
+    private String jobId;
+    private List<String> dependsOn;
+    private String status; // PENDING / SKIPPED、または直近の実行のステータス
+    private String executionId; // 直近の実行ID（未実行の場合は null）
+    private Integer exitCode;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private long durationMillis;
+    private int attempts; // 実行回数（再実行を含む）
+    private boolean critical; // クリティカルパス上のノードの場合 true
+}
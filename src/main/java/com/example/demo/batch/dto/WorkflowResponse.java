@@ -0,0 +1,22 @@
+package com.example.demo.batch.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * ワークフローのDTOレスポンス
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WorkflowResponse {
+    private String id;
+    private String name;
+    private String description;
+    private List<WorkflowNodeResponse> nodes;
+}
@@ -0,0 +1,28 @@
+package com.example.demo.batch.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * ワークフロー実行のステータスレスポンス
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WorkflowStatusResponse {
+    private String workflowExecutionId;
+    private String workflowId;
+    private String workflowName;
+    private ExecutionStatus status;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private List<WorkflowNodeStatus> nodes; // トポロジカル順
+    private List<String> criticalPath; // 所要時間が最長となる依存経路のノードID
+    private long criticalPathMillis; // クリティカルパスの所要時間（ミリ秒）
+}
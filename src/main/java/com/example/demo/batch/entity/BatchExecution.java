@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 import com.example.demo.batch.dto.ExecutionStatus;
 import com.example.demo.batch.exception.BatchDomainException;
@@ -18,38 +19,81 @@ import com.example.demo.batch.exception.BatchErrorCode;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class BatchExecution {
+
+    /**
+     * タイムアウトで失敗したことを示す終了コード
+     */
+    public static final int TIMEOUT_EXIT_CODE = -1;
+
     private String id; // UUID
     private String jobId; // ジョブID
     private String jobName; // ジョブ名
-    private ExecutionStatus status; // ステータス（実行中、完了成功、失敗）
+    private ExecutionStatus status; // ステータス（待機中、実行中、完了成功、失敗）
     private Integer exitCode; // 終了コード
     private Long userId; // ユーザーID
     private LocalDateTime startTime; // 開始時刻
     private LocalDateTime endTime; // 終了時刻
     private LocalDateTime createdAt; // 作成時刻
+    private String workflowExecutionId; // 親ワークフロー実行ID（ワークフローのノードとして実行した場合）
+    private String workflowNodeId; // ワークフローのノードID
+    private ResourceUsage resourceUsage; // リソース使用量の集計（完了時に記録）
+    private String nodeId; // 受け付けた、または実行したノード名
+    private Long pid; // 実行中のプロセスのPID（再起動時の再接続用）
+    private Map<String, String> parameters; // 正規化済みの実行時パラメータ（パラメータのないジョブは空）
 
     /**
-     * 新規バッチ実行を開始するファクトリメソッド
+     * 新規バッチ実行を待機状態で受け付けるファクトリメソッド
      * 
      * @param jobId   ジョブID
      * @param jobName ジョブ名
      * @param userId  ユーザーID
-     * @return 実行中状態の新規バッチ実行オブジェクト
+     * @return 待機中状態の新規バッチ実行オブジェクト
      */
-    public static BatchExecution startNew(String jobId, String jobName, Long userId) {
+    public static BatchExecution queueNew(String jobId, String jobName, Long userId) {
         return BatchExecution.builder()
                 .id(java.util.UUID.randomUUID().toString())
                 .jobId(jobId)
                 .jobName(jobName)
-                .status(ExecutionStatus.RUNNING)
+                .status(ExecutionStatus.QUEUED)
                 .userId(userId)
                 .startTime(LocalDateTime.now())
                 .createdAt(LocalDateTime.now())
                 .build();
     }
 
+    /**
+     * ワークフローのノードとして新規バッチ実行を待機状態で受け付けるファクトリメソッド
+     * 
+     * @param jobId               ジョブID
+     * @param jobName             ジョブ名
+     * @param userId              ユーザーID
+     * @param workflowExecutionId 親ワークフロー実行ID
+     * @param workflowNodeId      ノードID
+     * @return 待機中状態の新規バッチ実行オブジェクト
+     */
+    public static BatchExecution queueWorkflowNode(String jobId, String jobName, Long userId,
+            String workflowExecutionId, String workflowNodeId) {
+        return queueNew(jobId, jobName, userId).toBuilder()
+                .workflowExecutionId(workflowExecutionId)
+                .workflowNodeId(workflowNodeId)
+                .build();
+    }
+
+    /**
+     * 待機中のバッチ実行を実行中にする
+     * 
+     * @throws BatchDomainException 待機中以外の状態で呼び出された場合
+     */
+    public void start() {
+        if (this.status != ExecutionStatus.QUEUED) {
+            throw new BatchDomainException(BatchErrorCode.INVALID_STATUS_TRANSITION);
+        }
+        this.status = ExecutionStatus.RUNNING;
+        this.startTime = LocalDateTime.now();
+    }
+
     /**
      * バッチ実行を成功で完了させる
      * 
@@ -92,10 +136,59 @@ public class BatchExecution {
             throw new BatchDomainException(BatchErrorCode.INVALID_STATUS_TRANSITION);
         }
         this.status = ExecutionStatus.FAILED;
-        this.exitCode = -1; // タイムアウトを示す特殊な終了コード
+        this.exitCode = TIMEOUT_EXIT_CODE;
+        this.endTime = LocalDateTime.now();
+    }
+
+    /**
+     * 待機中・実行中のバッチ実行をキャンセルで終了させる
+     * 
+     * @throws BatchDomainException 完了済みの状態で呼び出された場合
+     */
+    public void cancel() {
+        if (isCompleted()) {
+            throw new BatchDomainException(BatchErrorCode.INVALID_STATUS_TRANSITION);
+        }
+        this.status = ExecutionStatus.CANCELLED;
+        this.endTime = LocalDateTime.now();
+    }
+
+    /**
+     * 担当ノードの再起動で結果がわからなくなったバッチ実行を終了させる
+     * 
+     * @throws BatchDomainException 完了済みの状態で呼び出された場合
+     */
+    public void markLost() {
+        if (isCompleted()) {
+            throw new BatchDomainException(BatchErrorCode.INVALID_STATUS_TRANSITION);
+        }
+        this.status = ExecutionStatus.LOST;
         this.endTime = LocalDateTime.now();
     }
 
+    /**
+     * 実行中のまま担当ノードが停止したバッチ実行を待機中に戻す（別のノードで再実行するため）
+     * 
+     * @throws BatchDomainException 実行中以外の状態で呼び出された場合
+     */
+    public void requeue() {
+        if (this.status != ExecutionStatus.RUNNING) {
+            throw new BatchDomainException(BatchErrorCode.INVALID_STATUS_TRANSITION);
+        }
+        this.status = ExecutionStatus.QUEUED;
+        this.exitCode = null;
+        this.endTime = null;
+    }
+
+    /**
+     * バッチ実行が待機中かどうかを判定する
+     * 
+     * @return 待機中の場合 true、そうでない場合 false
+     */
+    public boolean isQueued() {
+        return this.status == ExecutionStatus.QUEUED;
+    }
+
     /**
      * バッチ実行が実行中かどうかを判定する
      * 
@@ -111,7 +204,7 @@ public class BatchExecution {
      * @return 完了している場合 true、そうでない場合 false
      */
     public boolean isCompleted() {
-        return this.status != ExecutionStatus.RUNNING;
+        return this.status != ExecutionStatus.QUEUED && this.status != ExecutionStatus.RUNNING;
     }
 
     /**
@@ -122,4 +215,13 @@ public class BatchExecution {
     public boolean isSuccessful() {
         return this.status == ExecutionStatus.COMPLETED_SUCCESS;
     }
+
+    /**
+     * バッチ実行がタイムアウトで失敗したかどうかを判定する
+     * 
+     * @return タイムアウトで失敗した場合 true、そうでない場合 false
+     */
+    public boolean isTimedOut() {
+        return this.status == ExecutionStatus.FAILED && this.exitCode != null && this.exitCode == TIMEOUT_EXIT_CODE;
+    }
 }
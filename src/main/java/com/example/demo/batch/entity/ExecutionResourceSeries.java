@@ -0,0 +1,20 @@
+package com.example.demo.batch.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 実行ごとのリソース使用量の時系列（符号化済み）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExecutionResourceSeries {
+    private String executionId; // 実行ID
+    private long intervalMillis; // サンプルの間隔（ミリ秒）
+    private int sampleCount; // サンプル数
+    private byte[] samples; // 差分を zigzag + varint で符号化したサンプル列
+}
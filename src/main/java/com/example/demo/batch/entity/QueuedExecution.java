@@ -0,0 +1,28 @@
+package com.example.demo.batch.entity;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 複数ノードで共有する実行待ちキューの行
+ * いずれかのノードがリース付きで取得して実行し、完了時に削除する
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class QueuedExecution {
+    private String executionId; // 実行ID
+    private String jobId; // ジョブID
+    private Long userId; // ユーザーID
+    private int priority; // ジョブの優先度（大きいほど先に取得される）
+    private LocalDateTime enqueuedAt; // 投入時刻
+    private String leaseOwner; // 取得したノードID（未取得の場合は null）
+    private LocalDateTime leaseExpiresAt; // リースの有効期限（期限切れの行は他のノードが取得できる）
+    private int attempts; // 取得された回数
+    private boolean cancelRequested; // 取得したノードにキャンセルを依頼する場合 true
+}
@@ -0,0 +1,24 @@
+package com.example.demo.batch.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 実行中のリソース使用量の集計（子プロセスツリー全体）
+ * 実行履歴の行に保存する
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResourceUsage {
+    private Long cpuTimeMillis; // CPU時間の合計（ミリ秒）
+    private Double avgCpuPercent; // 平均CPU使用率（%、1コア = 100）
+    private Double peakCpuPercent; // 計測間隔ごとのCPU使用率の最大値（%）
+    private Long avgRssKb; // 平均常駐メモリ（KB）
+    private Long peakRssKb; // 最大常駐メモリ（KB）
+    private Long ioReadKb; // ストレージからの読み込み量（KB）
+    private Long ioWriteKb; // ストレージへの書き込み量（KB）
+}
@@ -0,0 +1,88 @@
+package com.example.demo.batch.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+import com.example.demo.batch.dto.ExecutionStatus;
+import com.example.demo.batch.exception.BatchDomainException;
+import com.example.demo.batch.exception.BatchErrorCode;
+
+/**
+ * ワークフロー実行のドメインエンティティ
+ * 各ノードの実行は BatchExecution として記録し、workflowExecutionId で関連付ける
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class WorkflowExecution {
+    private String id; // UUID
+    private String workflowId; // ワークフローID
+    private String workflowName; // ワークフロー名
+    private ExecutionStatus status; // ステータス（実行中、完了成功、失敗）
+    private Long userId; // ユーザーID
+    private LocalDateTime startTime; // 開始時刻
+    private LocalDateTime endTime; // 終了時刻
+    private LocalDateTime createdAt; // 作成時刻
+    private String nodeId; // 進行を管理しているノード名
+
+    /**
+     * 新規ワークフロー実行を実行中状態で開始するファクトリメソッド
+     * 
+     * @param workflowId   ワークフローID
+     * @param workflowName ワークフロー名
+     * @param userId       ユーザーID
+     * @return 実行中状態の新規ワークフロー実行オブジェクト
+     */
+    public static WorkflowExecution startNew(String workflowId, String workflowName, Long userId) {
+        return WorkflowExecution.builder()
+                .id(java.util.UUID.randomUUID().toString())
+                .workflowId(workflowId)
+                .workflowName(workflowName)
+                .status(ExecutionStatus.RUNNING)
+                .userId(userId)
+                .startTime(LocalDateTime.now())
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * ワークフロー実行を完了させる
+     * 
+     * @param successful すべてのノードが成功した場合 true
+     * @throws BatchDomainException 実行中以外の状態で呼び出された場合
+     */
+    public void complete(boolean successful) {
+        if (this.status != ExecutionStatus.RUNNING) {
+            throw new BatchDomainException(BatchErrorCode.INVALID_STATUS_TRANSITION);
+        }
+        this.status = successful ? ExecutionStatus.COMPLETED_SUCCESS : ExecutionStatus.FAILED;
+        this.endTime = LocalDateTime.now();
+    }
+
+    /**
+     * 失敗したワークフロー実行を再実行のために実行中に戻す
+     * 
+     * @throws BatchDomainException 失敗以外の状態で呼び出された場合
+     */
+    public void rerun() {
+        if (this.status != ExecutionStatus.FAILED) {
+            throw new BatchDomainException(BatchErrorCode.WORKFLOW_NOT_RERUNNABLE);
+        }
+        this.status = ExecutionStatus.RUNNING;
+        this.endTime = null;
+    }
+
+    /**
+     * ワークフロー実行が完了しているかどうかを判定する
+     * 
+     * @return 完了している場合 true、そうでない場合 false
+     */
+    public boolean isCompleted() {
+        return this.status.isTerminal();
+    }
+}
@@ -16,6 +16,11 @@ public class BatchDomainException extends RuntimeException {
         this.errorCode = errorCode;
     }
 
+    public BatchDomainException(BatchErrorCode errorCode, String detail) {
+        super(detail);
+        this.errorCode = errorCode;
+    }
+
     public BatchErrorCode getErrorCode() {
         return errorCode;
     }
@@ -9,7 +9,16 @@ public enum BatchErrorCode {
     BATCH_NOT_FOUND("batch.error.batch.not.found"),
     BATCH_TIMEOUT("batch.error.batch.timeout"),
     BATCH_EXECUTION_FAILED("batch.error.batch.execution.failed"),
-    INVALID_STATUS_TRANSITION("batch.error.invalid.status.transition");
+    INVALID_STATUS_TRANSITION("batch.error.invalid.status.transition"),
+    EXECUTION_QUEUE_FULL("batch.error.execution.queue.full"),
+    WORKFLOW_NOT_FOUND("batch.error.workflow.not.found"),
+    INVALID_WORKFLOW("batch.error.invalid.workflow"),
+    WORKFLOW_NOT_RERUNNABLE("batch.error.workflow.not.rerunnable"),
+    EXECUTION_NOT_CANCELLABLE("batch.error.execution.not.cancellable"),
+    IDEMPOTENCY_KEY_REUSED("batch.error.idempotency.key.reused"),
+    INVALID_JOB_PARAMETER("batch.error.invalid.job.parameter"),
+    EXECUTION_ON_OTHER_NODE("batch.error.execution.on.other.node"),
+    OUTPUT_SEARCH_UNAVAILABLE("batch.error.output.search.unavailable");
 
     private final String messageKey;
 
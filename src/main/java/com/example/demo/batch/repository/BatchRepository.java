@@ -1,10 +1,13 @@
 package com.example.demo.batch.repository;
 
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 
+import com.example.demo.batch.dto.ExecutionStatus;
 import com.example.demo.batch.entity.BatchExecution;
 import com.example.demo.batch.service.BatchSearchCriteria;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,8 +21,17 @@ public interface BatchRepository {
          * バッチ実行レコードを挿入する
          * 
          * @param execution 実行レコード
+         * @return 挿入件数
          */
-        void insert(BatchExecution execution);
+        int insert(BatchExecution execution);
+
+        /**
+         * バッチ実行レコードを1つの INSERT 文でまとめて挿入する
+         * 
+         * @param executions 実行レコードのリスト（空でないこと）
+         * @return 挿入件数
+         */
+        int insertAll(@Param("executions") List<BatchExecution> executions);
 
         /**
          * 実行IDでバッチ実行レコードを取得する
@@ -30,11 +42,63 @@ public interface BatchRepository {
         Optional<BatchExecution> findById(String id);
 
         /**
-         * バッチ実行レコードを更新する
+         * 現在のステータスが期待値と一致する場合のみ状態遷移を書き込む（compare-and-set）
          * 
-         * @param execution 実行レコード
+         * @param execution      遷移後の実行レコード
+         * @param expectedStatus 遷移前のステータス
+         * @return 更新件数（他の遷移が先に書き込まれていた場合は 0）
+         */
+        int updateIfStatus(@Param("execution") BatchExecution execution,
+                        @Param("expectedStatus") ExecutionStatus expectedStatus);
+
+        /**
+         * 実行中のプロセスのPIDを記録する
+         * 
+         * @param executionId 実行ID
+         * @param pid         PID
+         * @return 更新件数
+         */
+        int updateProcess(@Param("executionId") String executionId, @Param("pid") long pid);
+
+        /**
+         * ノードの再起動前から待機中・実行中のままの実行を ID 順に取得する
+         * （DB の実行待ちキューにあるものは、このノードがリースを持つもののみ）
+         * 
+         * @param nodeId        ノード名
+         * @param createdBefore この時刻より前に作成された実行のみを対象にする
+         * @param afterId       この ID より後のものを取得する（先頭から取得する場合は null）
+         * @param limit         最大件数
+         * @return 実行レコードのリスト
+         */
+        List<BatchExecution> findOrphaned(@Param("nodeId") String nodeId,
+                        @Param("createdBefore") LocalDateTime createdBefore, @Param("afterId") String afterId,
+                        @Param("limit") int limit);
+
+        /**
+         * 待機中・実行中の実行をまとめて結果不明にする
+         * 
+         * @param ids     実行IDのリスト
+         * @param endTime 終了時刻
+         * @return 更新件数
+         */
+        int markLost(@Param("ids") List<String> ids, @Param("endTime") LocalDateTime endTime);
+
+        /**
+         * ワークフロー実行に属するノードの実行レコードを作成順に取得する
+         * 
+         * @param workflowExecutionId ワークフロー実行ID
+         * @return 実行レコードのリスト（再実行したノードは複数件含まれる）
          */
-        void update(BatchExecution execution);
+        List<BatchExecution> findByWorkflowExecutionId(String workflowExecutionId);
+
+        /**
+         * ジョブ・ユーザーの直近の実行作成時刻を取得する
+         * 
+         * @param jobId  ジョブID
+         * @param userId ユーザーID
+         * @return 直近の作成時刻（実行がない場合は空のOptional）
+         */
+        Optional<LocalDateTime> findLatestCreatedAt(@Param("jobId") String jobId, @Param("userId") Long userId);
 
         /**
          * ユーザーの実行履歴の総件数を取得する
@@ -60,4 +124,12 @@ public interface BatchRepository {
          */
         long countBatchExecution(BatchSearchCriteria params);
 
+        /**
+         * 実行IDの候補のうち、検索条件に一致するものを取得する
+         * 
+         * @param params 検索パラメータオブジェクト（executionIds に候補を指定すること）
+         * @return 検索条件に一致する実行ID
+         */
+        List<String> filterExecutionIds(BatchSearchCriteria params);
+
 }
@@ -0,0 +1,127 @@
+package com.example.demo.batch.repository;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import com.example.demo.batch.entity.QueuedExecution;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 複数ノードで共有する実行待ちキューのリポジトリインターフェース
+ */
+@Mapper
+public interface ExecutionQueueRepository {
+
+        /**
+         * 実行待ちの行を挿入する
+         * 
+         * @param queued 実行待ちの行
+         */
+        void insert(QueuedExecution queued);
+
+        /**
+         * 実行待ちの行を1つの INSERT 文でまとめて挿入する
+         * 
+         * @param queued 実行待ちの行のリスト（空でないこと）
+         * @return 挿入件数
+         */
+        int insertAll(@Param("queued") List<QueuedExecution> queued);
+
+        /**
+         * 取得可能な行（未取得、または DB の現在時刻でリースが期限切れ）を優先度・投入順に取得する
+         * PostgreSQL では FOR UPDATE SKIP LOCKED で他のノードが取得中の行を読み飛ばす
+         * 
+         * @param limit 最大件数
+         * @return 取得候補の行
+         */
+        List<QueuedExecution> findClaimable(@Param("limit") int limit);
+
+        /**
+         * 取得可能な行である場合のみリースを設定する（compare-and-set）
+         * 
+         * @param executionId 実行ID
+         * @param owner       取得するノードID
+         * @param leaseMillis リースの有効期間（ミリ秒。DB の現在時刻から数える）
+         * @return 更新件数（他のノードが先に取得していた場合は 0）
+         */
+        int claim(@Param("executionId") String executionId, @Param("owner") String owner,
+                        @Param("leaseMillis") long leaseMillis);
+
+        /**
+         * ノードが保持しているリースのうち、指定した行のリースをまとめて延長する（ハートビート）
+         * 
+         * @param owner        ノードID
+         * @param executionIds 延長する実行ID（空でないこと）
+         * @param leaseMillis  リースの有効期間（ミリ秒。DB の現在時刻から数える）
+         * @return 延長した件数（リースを他のノードに取得し直された行は含まない）
+         */
+        int renewLeases(@Param("owner") String owner, @Param("executionIds") Collection<String> executionIds,
+                        @Param("leaseMillis") long leaseMillis);
+
+        /**
+         * ノードがリースを保持している実行IDを取得する
+         * 
+         * @param owner ノードID
+         * @return 実行IDのリスト
+         */
+        List<String> findOwned(String owner);
+
+        /**
+         * リースを手放して他のノードが取得できるようにする
+         * 
+         * @param executionId 実行ID
+         * @param owner       ノードID
+         * @return 更新件数
+         */
+        int release(@Param("executionId") String executionId, @Param("owner") String owner);
+
+        /**
+         * ノードが保持している行のうちキャンセルを依頼された実行IDを取得する
+         * 
+         * @param owner ノードID
+         * @return 実行IDのリスト
+         */
+        List<String> findCancelRequested(String owner);
+
+        /**
+         * 取得済みの行に、取得したノードへのキャンセルを依頼する
+         * 
+         * @param executionId 実行ID
+         * @return 更新件数
+         */
+        int requestCancel(String executionId);
+
+        /**
+         * 未取得（またはリースが期限切れ）の行を削除する
+         * 
+         * @param executionId 実行ID
+         * @return 削除件数（既にいずれかのノードが取得している場合は 0）
+         */
+        int deleteUnclaimed(String executionId);
+
+        /**
+         * ノードがリースを保持している行を削除する
+         * 
+         * @param executionId 実行ID
+         * @param owner       ノードID
+         * @return 削除件数（リースを他のノードに取得し直されていた場合は 0）
+         */
+        int delete(@Param("executionId") String executionId, @Param("owner") String owner);
+
+        /**
+         * 実行IDの行が存在するかを判定する
+         * 
+         * @param executionId 実行ID
+         * @return 存在する場合 true
+         */
+        boolean exists(String executionId);
+
+        /**
+         * 未取得の行の件数を取得する
+         * 
+         * @return 件数
+         */
+        long countUnclaimed();
+}
@@ -0,0 +1,29 @@
+package com.example.demo.batch.repository;
+
+import org.apache.ibatis.annotations.Mapper;
+
+import com.example.demo.batch.entity.ExecutionResourceSeries;
+
+import java.util.Optional;
+
+/**
+ * 実行ごとのリソース使用量の時系列のリポジトリインターフェース
+ */
+@Mapper
+public interface ExecutionResourceRepository {
+
+        /**
+         * 時系列を挿入する
+         * 
+         * @param series 符号化済みの時系列
+         */
+        void insert(ExecutionResourceSeries series);
+
+        /**
+         * 実行IDで時系列を取得する
+         * 
+         * @param executionId 実行ID
+         * @return 符号化済みの時系列（計測がない場合は空のOptional）
+         */
+        Optional<ExecutionResourceSeries> findByExecutionId(String executionId);
+}
@@ -0,0 +1,67 @@
+package com.example.demo.batch.repository;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 実行時パラメータ（Map）を JSON 文字列の列として読み書きする TypeHandler
+ * 空のパラメータは NULL として保存する
+ */
+public class JobParametersTypeHandler extends BaseTypeHandler<Map<String, String>> {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<LinkedHashMap<String, String>> MAP_TYPE = new TypeReference<>() {
+    };
+
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, Map<String, String> parameter, JdbcType jdbcType)
+            throws SQLException {
+        if (parameter.isEmpty()) {
+            ps.setNull(i, java.sql.Types.VARCHAR);
+            return;
+        }
+        try {
+            ps.setString(i, OBJECT_MAPPER.writeValueAsString(parameter));
+        } catch (JsonProcessingException e) {
+            throw new SQLException("Failed to serialize job parameters", e);
+        }
+    }
+
+    @Override
+    public Map<String, String> getNullableResult(ResultSet rs, String columnName) throws SQLException {
+        return parse(rs.getString(columnName));
+    }
+
+    @Override
+    public Map<String, String> getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+        return parse(rs.getString(columnIndex));
+    }
+
+    @Override
+    public Map<String, String> getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+        return parse(cs.getString(columnIndex));
+    }
+
+    private static Map<String, String> parse(String json) throws SQLException {
+        if (json == null || json.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            return Collections.unmodifiableMap(OBJECT_MAPPER.readValue(json, MAP_TYPE));
+        } catch (JsonProcessingException e) {
+            throw new SQLException("Failed to parse job parameters", e);
+        }
+    }
+}
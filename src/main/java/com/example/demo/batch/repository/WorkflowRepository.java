@@ -0,0 +1,53 @@
+package com.example.demo.batch.repository;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import com.example.demo.batch.dto.ExecutionStatus;
+import com.example.demo.batch.entity.WorkflowExecution;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * ワークフロー実行のリポジトリインターフェース
+ */
+@Mapper
+public interface WorkflowRepository {
+
+        /**
+         * ワークフロー実行レコードを挿入する
+         * 
+         * @param execution ワークフロー実行レコード
+         */
+        void insert(WorkflowExecution execution);
+
+        /**
+         * 実行IDでワークフロー実行レコードを取得する
+         * 
+         * @param id ワークフロー実行ID
+         * @return ワークフロー実行レコード（取得できない場合は空のOptional）
+         */
+        Optional<WorkflowExecution> findById(String id);
+
+        /**
+         * 現在のステータスが期待値と一致する場合のみ状態遷移を書き込む（compare-and-set）
+         * 
+         * @param execution      遷移後のワークフロー実行レコード
+         * @param expectedStatus 遷移前のステータス
+         * @return 更新件数（他の遷移が先に書き込まれていた場合は 0）
+         */
+        int updateIfStatus(@Param("execution") WorkflowExecution execution,
+                        @Param("expectedStatus") ExecutionStatus expectedStatus);
+
+        /**
+         * ノードの再起動で進行が途切れた実行中のワークフロー実行をまとめて失敗にする
+         * 
+         * @param nodeId        ノード名
+         * @param createdBefore この時刻より前に作成された実行のみを対象にする
+         * @param endTime       終了時刻
+         * @return 更新件数
+         */
+        int failOrphaned(@Param("nodeId") String nodeId, @Param("createdBefore") LocalDateTime createdBefore,
+                        @Param("endTime") LocalDateTime endTime);
+}
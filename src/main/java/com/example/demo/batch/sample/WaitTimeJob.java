@@ -0,0 +1,51 @@
+package com.example.demo.batch.sample;
+
+/**
+ * 常駐JVMで実行するサンプルジョブ：指定回数ループして待機
+ * batch/wait_time.sh と同じ引数・出力で動作する
+ * 第一引数：ループ回数
+ * 第二引数：終了コード
+ * 第三引数：出力先（0=標準出力、1=標準エラー）
+ */
+public final class WaitTimeJob {
+
+    private WaitTimeJob() {
+    }
+
+    /**
+     * 単独のプロセスとして実行する
+     */
+    public static void main(String[] args) throws InterruptedException {
+        System.exit(run(args));
+    }
+
+    /**
+     * 常駐ワーカーから実行する
+     *
+     * @param args 引数
+     * @return 終了コード
+     */
+    public static int run(String[] args) throws InterruptedException {
+        if (args.length < 1) {
+            System.err.println("Usage: WaitTimeJob <loop_count> [exit_code] [output_type]");
+            return 1;
+        }
+
+        int loopCount = Integer.parseInt(args[0]);
+        int exitCode = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        boolean stderr = args.length > 2 && Integer.parseInt(args[2]) != 0;
+        var out = stderr ? System.err : System.out;
+
+        out.println("start wait_time");
+        for (int i = 1; i <= loopCount; i++) {
+            out.println("loop " + i);
+            Thread.sleep(1000);
+            if (!stderr) {
+                // 進捗マーカー行（##progress <進捗率> [key=value ...]）
+                out.println("##progress " + i * 100 / loopCount + " loop=" + i);
+            }
+        }
+        out.println("finish wait_time");
+        return exitCode;
+    }
+}
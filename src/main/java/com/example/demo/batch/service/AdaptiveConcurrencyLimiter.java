@@ -0,0 +1,266 @@
+package com.example.demo.batch.service;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.batch.dto.ConcurrencyLimitChange;
+import com.example.demo.batch.dto.ConcurrencyLimitMetrics;
+import com.example.demo.batch.entity.BatchExecution;
+import com.example.demo.config.BatchConfig;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 全体の同時実行数上限の自動調整（AIMD）
+ * 一定間隔でホストの負荷（/proc/loadavg）・空きメモリ（/proc/meminfo）・前回の調整以降のタイムアウト率・待ち時間を確認し、
+ * いずれかの閾値を超えていれば上限を乗算的に下げ、上限まで実行中で待ち時間が目標を超えていれば 1 上げる
+ * （/proc がない環境では OperatingSystemMXBean の値を使う）
+ * 1分間のロードアベレージは下げた後もしばらく高いままのため、下げてから load-decrease-cooldown-millis の間は
+ * 負荷を理由に下げない（負荷が閾値を超えている間は上げもしない）
+ */
+@Component
+@Slf4j
+public class AdaptiveConcurrencyLimiter implements ExecutionStatusListener {
+
+    private static final Path LOADAVG = Path.of("/proc/loadavg");
+    private static final Path MEMINFO = Path.of("/proc/meminfo");
+
+    @Autowired
+    private BatchConfig batchConfig;
+
+    @Autowired
+    private BatchExecutor batchExecutor;
+
+    private final AtomicLong completions = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+
+    // 以下は this で保護する
+    private final Deque<ConcurrencyLimitChange> history = new ArrayDeque<>();
+    private long lastCompletions;
+    private long lastTimeouts;
+    private BatchExecutor.DispatchTotals lastTotals;
+    private long lastDecreaseMillis;
+    private Observation lastObservation = new Observation(null, null, 0, 0);
+
+    private ScheduledExecutorService ticker;
+
+    @PostConstruct
+    void init() {
+        lastTotals = batchExecutor.getDispatchTotals();
+        BatchConfig.Limiter config = batchConfig.getLimiter();
+        if (!config.isEnabled()) {
+            return;
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "batch-concurrency-limiter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(this::adjustSafely, config.getAdjustIntervalMillis(),
+                config.getAdjustIntervalMillis(), TimeUnit.MILLISECONDS);
+        log.info("Adaptive concurrency limiter initialized: {}", config);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    @Override
+    public void onStatusChanged(BatchExecution execution) {
+        if (!execution.isCompleted()) {
+            return;
+        }
+        completions.incrementAndGet();
+        if (execution.isTimedOut()) {
+            timeouts.incrementAndGet();
+        }
+    }
+
+    /**
+     * 前回の調整以降の状況から上限を調整する
+     *
+     * @return 調整後の同時実行数上限
+     */
+    public synchronized int adjust() {
+        BatchConfig.Limiter config = batchConfig.getLimiter();
+        Observation observation = observe();
+        lastObservation = observation;
+
+        int limit = batchExecutor.getConcurrencyLimit();
+        int next = limit;
+        String reason = null;
+        boolean overloaded = observation.loadPerCpu() != null && observation.loadPerCpu() > config.getMaxLoadPerCpu();
+        boolean coolingDown = System.currentTimeMillis() - lastDecreaseMillis < config.getLoadDecreaseCooldownMillis();
+        if (overloaded && !coolingDown) {
+            reason = "LOAD";
+        } else if (observation.availableMemoryRatio() != null
+                && observation.availableMemoryRatio() < config.getMinAvailableMemoryRatio()) {
+            reason = "MEMORY";
+        } else if (observation.timeoutRate() > config.getMaxTimeoutRate()) {
+            reason = "TIMEOUTS";
+        }
+        if (reason != null) {
+            next = (int) Math.floor(limit * config.getDecreaseFactor());
+        } else if (!overloaded && lastTotals.queued() > 0 && lastTotals.running() >= limit
+                && observation.averageQueueWaitMillis() > config.getTargetQueueWaitMillis()) {
+            reason = "QUEUE_WAIT";
+            next = limit + 1;
+        }
+        next = Math.max(config.getMinConcurrency(), Math.min(config.getMaxConcurrency(), next));
+        if (next == limit) {
+            return limit;
+        }
+        if (next < limit) {
+            lastDecreaseMillis = System.currentTimeMillis();
+        }
+
+        batchExecutor.setConcurrencyLimit(next);
+        history.addLast(ConcurrencyLimitChange.builder()
+                .changedAt(LocalDateTime.now())
+                .previousLimit(limit)
+                .limit(next)
+                .reason(reason)
+                .loadPerCpu(observation.loadPerCpu())
+                .availableMemoryRatio(observation.availableMemoryRatio())
+                .timeoutRate(observation.timeoutRate())
+                .averageQueueWaitMillis(observation.averageQueueWaitMillis())
+                .build());
+        while (history.size() > config.getHistorySize()) {
+            history.removeFirst();
+        }
+        log.info("Concurrency limit changed: {} -> {} ({}, {})", limit, next, reason, observation);
+        return next;
+    }
+
+    /**
+     * 現在のメトリクスを取得する
+     *
+     * @return メトリクス
+     */
+    public synchronized ConcurrencyLimitMetrics metrics() {
+        BatchConfig.Limiter config = batchConfig.getLimiter();
+        return ConcurrencyLimitMetrics.builder()
+                .adaptive(config.isEnabled())
+                .limit(batchExecutor.getConcurrencyLimit())
+                .minLimit(config.getMinConcurrency())
+                .maxLimit(config.getMaxConcurrency())
+                .loadPerCpu(lastObservation.loadPerCpu())
+                .availableMemoryRatio(lastObservation.availableMemoryRatio())
+                .timeoutRate(lastObservation.timeoutRate())
+                .averageQueueWaitMillis(lastObservation.averageQueueWaitMillis())
+                .history(List.copyOf(history))
+                .build();
+    }
+
+    private void adjustSafely() {
+        try {
+            adjust();
+        } catch (RuntimeException e) {
+            log.warn("Failed to adjust concurrency limit", e);
+        }
+    }
+
+    /**
+     * 前回の調整以降の差分を取って状況を集計する
+     * 呼び出し元で this を保持していること
+     */
+    private Observation observe() {
+        long completed = completions.get();
+        long timedOut = timeouts.get();
+        long completedDelta = completed - lastCompletions;
+        long timedOutDelta = timedOut - lastTimeouts;
+        lastCompletions = completed;
+        lastTimeouts = timedOut;
+        double timeoutRate = completedDelta >= batchConfig.getLimiter().getMinCompletions()
+                ? (double) timedOutDelta / completedDelta
+                : 0;
+
+        BatchExecutor.DispatchTotals totals = batchExecutor.getDispatchTotals();
+        long dispatchedDelta = totals.dispatched() - lastTotals.dispatched();
+        double averageQueueWaitMillis;
+        if (dispatchedDelta > 0) {
+            averageQueueWaitMillis = (totals.waitNanos() - lastTotals.waitNanos()) / 1_000_000.0 / dispatchedDelta;
+        } else if (totals.queued() > 0) {
+            // 1件も開始できていない間は、調整間隔の分だけ待たせたものとみなす
+            averageQueueWaitMillis = batchConfig.getLimiter().getAdjustIntervalMillis();
+        } else {
+            averageQueueWaitMillis = 0;
+        }
+        lastTotals = totals;
+
+        return new Observation(readLoadPerCpu(), readAvailableMemoryRatio(), timeoutRate, averageQueueWaitMillis);
+    }
+
+    private static Double readLoadPerCpu() {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        try {
+            String loadavg = Files.readString(LOADAVG);
+            return Double.parseDouble(loadavg.substring(0, loadavg.indexOf(' '))) / cpus;
+        } catch (IOException | RuntimeException e) {
+            // /proc がない環境
+        }
+        double load = ManagementFactory.getOperatingSystemMXBean().getSystemLoadAverage();
+        return load < 0 ? null : load / cpus;
+    }
+
+    private static Double readAvailableMemoryRatio() {
+        try {
+            long total = -1;
+            long available = -1;
+            for (String line : Files.readAllLines(MEMINFO)) {
+                if (line.startsWith("MemTotal:")) {
+                    total = parseKilobytes(line);
+                } else if (line.startsWith("MemAvailable:")) {
+                    available = parseKilobytes(line);
+                }
+            }
+            if (total > 0 && available >= 0) {
+                return (double) available / total;
+            }
+        } catch (IOException | RuntimeException e) {
+            // /proc がない環境
+        }
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean sunOs && sunOs.getTotalMemorySize() > 0) {
+            return (double) sunOs.getFreeMemorySize() / sunOs.getTotalMemorySize();
+        }
+        return null;
+    }
+
+    private static long parseKilobytes(String line) {
+        String value = line.substring(line.indexOf(':') + 1).trim();
+        int space = value.indexOf(' ');
+        return Long.parseLong(space < 0 ? value : value.substring(0, space));
+    }
+
+    /**
+     * 調整時の状況
+     *
+     * @param loadPerCpu             1分間のロードアベレージ / CPU数（取得できない場合は null）
+     * @param availableMemoryRatio   空きメモリの割合（取得できない場合は null）
+     * @param timeoutRate            前回の調整以降に完了した実行のうちタイムアウトの割合
+     * @param averageQueueWaitMillis 前回の調整以降の平均待ち時間（ミリ秒）
+     */
+    private record Observation(Double loadPerCpu, Double availableMemoryRatio, double timeoutRate,
+            double averageQueueWaitMillis) {
+    }
+}
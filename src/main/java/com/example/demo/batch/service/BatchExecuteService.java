@@ -1,30 +1,40 @@
 package com.example.demo.batch.service;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.time.ZoneId;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.example.demo.batch.dto.BulkExecuteResponse;
+import com.example.demo.batch.dto.BulkExecuteResult;
 import com.example.demo.batch.dto.ExecuteRequest;
 import com.example.demo.batch.dto.ExecuteResponse;
 import com.example.demo.batch.dto.ExecutionStatus;
 import com.example.demo.batch.dto.JobResponse;
 import com.example.demo.batch.dto.StatusResponse;
 import com.example.demo.batch.entity.BatchExecution;
+import com.example.demo.batch.entity.QueuedExecution;
+import com.example.demo.batch.entity.ResourceUsage;
 import com.example.demo.batch.exception.BatchDomainException;
 import com.example.demo.batch.exception.BatchErrorCode;
 import com.example.demo.batch.repository.BatchRepository;
+import com.example.demo.batch.repository.ExecutionResourceRepository;
 import com.example.demo.config.BatchConfig;
 
 import lombok.extern.slf4j.Slf4j;
@@ -43,14 +53,54 @@ public class BatchExecuteService {
     @Autowired
     private CommandBuilder commandBuilder;
 
+    @Autowired
+    private JobRegistry jobRegistry;
+
     @Autowired
     private BatchConfig batchConfig;
 
     @Autowired
     private BatchMapper batchMapper;
 
-    // 実行中のバッチを追跡するマップ
-    private final ConcurrentHashMap<String, CompletableFuture<BatchExecution>> executionMap = new ConcurrentHashMap<>();
+    @Autowired
+    private BatchExecutor batchExecutor;
+
+    @Autowired
+    private ProcessOutputPump outputPump;
+
+    @Autowired
+    private ProcessSupervisor processSupervisor;
+
+    @Autowired
+    private JvmWorkerPool workerPool;
+
+    @Autowired
+    private ResourceSampler resourceSampler;
+
+    @Autowired
+    private ExecutionResourceRepository resourceRepository;
+
+    @Autowired
+    private ExecutionEventBroadcaster eventBroadcaster;
+
+    // リスナー側からこのサービスを参照できるよう、取得は通知時まで遅らせる
+    @Autowired
+    private ObjectProvider<ExecutionStatusListener> statusListeners;
+
+    @Autowired
+    private LiveExecutionRegistry liveExecutions;
+
+    @Autowired
+    private ExecutionHistoryWriter historyWriter;
+
+    @Autowired
+    private ExecutionDeduplicator deduplicator;
+
+    @Autowired
+    private ClusterExecutionQueue clusterQueue;
+
+    @Autowired
+    private ExecutionArtifactStore artifactStore;
 
     /**
      * バッチを開始する（ジョブID・ユーザーID指定）
@@ -59,68 +109,407 @@ public class BatchExecuteService {
      * @param jobId  ジョブID
      * @param userId ユーザーID（メインスレッドで取得済み）
      * @return 実行ID
-     * @throws BatchDomainException ジョブが見つからない場合
+     * @throws BatchDomainException ジョブが見つからない場合、または実行待ちキューが満杯の場合
      */
     public ExecuteResponse startBatch(ExecuteRequest request, Long userId) {
+        return startBatch(request, userId, null);
+    }
+
+    /**
+     * バッチを開始する（重複要求の統合あり）
+     * 同じ Idempotency-Key の再送、およびジョブの重複統合期間内の同じ要求には既存の実行IDを返す
+     * 
+     * @param request        実行リクエスト
+     * @param userId         ユーザーID（メインスレッドで取得済み）
+     * @param idempotencyKey Idempotency-Key ヘッダーの値（未指定の場合は null）
+     * @return 実行ID
+     * @throws BatchDomainException ジョブが見つからない場合、パラメータが不正な場合、実行待ちキューが満杯の場合、
+     *                              または Idempotency-Key が別のジョブに使われている場合
+     */
+    public ExecuteResponse startBatch(ExecuteRequest request, Long userId, String idempotencyKey) {
         log.info("Starting batch execution for job: {}, userId: {}", request, userId);
 
         // ジョブ設定を取得
-        BatchConfig.Job job = getJobByIdOptional(request.getJobId())
+        BatchConfig.Job job = jobRegistry.find(request.getJobId())
                 .orElseThrow(() -> new BatchDomainException(
                         BatchErrorCode.JOB_NOT_FOUND));
 
-        BatchExecution execution = BatchExecution.startNew(job.getId(), job.getName(), userId);
-        String executionId = execution.getId();
+        // パラメータを検証し、既定値を補う（重複の判定にも正規化後の値を使う）
+        Map<String, String> parameters = jobRegistry.launchSpec(job).template().resolve(request.getParameters());
 
-        // データベースに実行レコードを作成
-        batchExecutionRepository.insert(execution);
-        log.info("Created execution record: {}", executionId);
+        return deduplicator.execute(job, userId, parameters, idempotencyKey, () -> {
+            BatchExecution execution = BatchExecution.queueNew(job.getId(), job.getName(), userId);
+            execution.setParameters(parameters);
+            return start(job, execution).getExecutionId();
+        });
+    }
 
-        // 非同期実行を開始
-        CompletableFuture<BatchExecution> future = CompletableFuture.supplyAsync(() -> {
+    /**
+     * 複数のバッチをまとめて開始する
+     * 全件をジョブ定義・パラメータで検証したうえで、受け付けた実行レコードをまとめて挿入し、実行エンジンにまとめて投入する
+     * 実行待ちキューの上限を超えた分と検証に失敗した分は受け付けず、要求ごとの結果として返す
+     * （ジョブの重複統合期間を指定したジョブは、1件ずつ重複を統合して開始する。同じ要求内の重複はこの中で統合する）
+     * 
+     * @param requests 実行リクエストのリスト
+     * @param userId   ユーザーID（メインスレッドで取得済み）
+     * @return 要求ごとの結果（要求と同じ順）
+     */
+    public BulkExecuteResponse startBatches(List<ExecuteRequest> requests, Long userId) {
+        log.info("Starting {} batch executions in bulk, userId: {}", requests.size(), userId);
+
+        BulkExecuteResult[] results = new BulkExecuteResult[requests.size()];
+        List<PendingExecution> pending = new ArrayList<>();
+        List<Integer> pendingIndexes = new ArrayList<>();
+        // 統合先の実行IDはこのトランザクションのコミット後に公開されるため、同じ要求内の重複は待ち合わせずにここで統合する
+        Map<BulkKey, String> coalesced = new HashMap<>();
+        String nodeName = batchConfig.getRecovery().getNodeName();
+        for (int i = 0; i < requests.size(); i++) {
+            ExecuteRequest request = requests.get(i);
             try {
-                return executeBatch(executionId, job);
-            } catch (Exception e) {
-                log.error("Batch execution failed: {}", executionId, e);
-                return handleExecutionError(executionId, e);
+                BatchConfig.Job job = jobRegistry.find(request.getJobId())
+                        .orElseThrow(() -> new BatchDomainException(BatchErrorCode.JOB_NOT_FOUND));
+                Map<String, String> parameters = jobRegistry.launchSpec(job).template()
+                        .resolve(request.getParameters());
+                if (job.getDedupWindowSeconds() > 0) {
+                    BulkKey key = new BulkKey(job.getId(), parameters);
+                    String coalescedId = coalesced.get(key);
+                    if (coalescedId != null) {
+                        results[i] = accepted(i, request, coalescedId, true);
+                        continue;
+                    }
+                    ExecuteResponse response = deduplicator.execute(job, userId, parameters, null, () -> {
+                        BatchExecution execution = BatchExecution.queueNew(job.getId(), job.getName(), userId);
+                        execution.setParameters(parameters);
+                        return start(job, execution).getExecutionId();
+                    });
+                    coalesced.put(key, response.getExecutionId());
+                    results[i] = accepted(i, request, response.getExecutionId(), response.isDeduplicated());
+                    continue;
+                }
+                BatchExecution execution = BatchExecution.queueNew(job.getId(), job.getName(), userId);
+                execution.setParameters(parameters);
+                execution.setNodeId(nodeName);
+                pending.add(new PendingExecution(job, execution));
+                pendingIndexes.add(i);
+            } catch (BatchDomainException e) {
+                results[i] = rejected(i, request, e);
             }
-        });
+        }
+
+        int accepted = pending.isEmpty() ? 0 : startAll(pending);
+        for (int i = 0; i < pending.size(); i++) {
+            int index = pendingIndexes.get(i);
+            results[index] = i < accepted
+                    ? accepted(index, requests.get(index), pending.get(i).execution().getId(), false)
+                    : rejected(index, requests.get(index),
+                            new BatchDomainException(BatchErrorCode.EXECUTION_QUEUE_FULL));
+        }
+
+        List<BulkExecuteResult> items = List.of(results);
+        int acceptedCount = (int) items.stream().filter(item -> item.getExecutionId() != null).count();
+        log.info("Bulk execute request accepted {} of {}", acceptedCount, items.size());
+        return BulkExecuteResponse.builder()
+                .accepted(acceptedCount)
+                .rejected(items.size() - acceptedCount)
+                .results(items)
+                .build();
+    }
 
-        // メモリマップに保存（高速ステータス確認用）
-        executionMap.put(executionId, future);
+    /**
+     * 検証済みの実行をまとめて開始する
+     * 実行枠（クラスタの場合は DB の実行待ちキュー）に収まる分だけを先頭から受け付け、
+     * 実行レコードをまとめて挿入し、コミット後に実行エンジンにまとめて投入する
+     * 
+     * @param pending 検証済みの実行
+     * @return 受け付けた件数（先頭からこの件数分を開始した）
+     */
+    private int startAll(List<PendingExecution> pending) {
+        if (clusterQueue.isEnabled()) {
+            int accepted = clusterQueue.enqueueAll(pending);
+            historyWriter.insertAll(executionsOf(pending.subList(0, accepted)));
+            return accepted;
+        }
+
+        List<BatchExecutor.Admission> admissions = batchExecutor.admit(pending.size());
+        List<PendingExecution> admitted = pending.subList(0, admissions.size());
+        if (admitted.isEmpty()) {
+            return 0;
+        }
+        try {
+            historyWriter.insertAll(executionsOf(admitted));
+        } catch (RuntimeException e) {
+            admissions.forEach(BatchExecutor.Admission::cancel);
+            throw e;
+        }
 
-        // 完了時にメモリマップから削除
-        future.thenRun(() -> {
-            executionMap.remove(executionId);
-            log.info("Removed execution from memory map: {}", executionId);
+        List<LiveExecution> lives = new ArrayList<>(admitted.size());
+        for (PendingExecution entry : admitted) {
+            lives.add(liveExecutions.register(entry.execution()));
+        }
+        afterCommit(() -> {
+            List<BatchExecutor.Submission> submissions = new ArrayList<>(admitted.size());
+            for (int i = 0; i < admitted.size(); i++) {
+                BatchConfig.Job job = admitted.get(i).job();
+                BatchExecution execution = admitted.get(i).execution();
+                submissions.add(new BatchExecutor.Submission(admissions.get(i), job, execution.getId(),
+                        execution.getUserId(), bodyOf(job, lives.get(i), execution.getParameters())));
+            }
+            batchExecutor.submitAll(submissions);
+        }, () -> {
+            admissions.forEach(BatchExecutor.Admission::cancel);
+            lives.forEach(live -> liveExecutions.remove(live.getId()));
         });
+        return admitted.size();
+    }
+
+    /**
+     * 一括実行の要求内で重複を判定するキー（ユーザーは要求全体で共通）
+     */
+    private record BulkKey(String jobId, Map<String, String> parameters) {
+    }
+
+    private static List<BatchExecution> executionsOf(List<PendingExecution> pending) {
+        return pending.stream().map(PendingExecution::execution).toList();
+    }
+
+    private static BulkExecuteResult accepted(int index, ExecuteRequest request, String executionId,
+            boolean deduplicated) {
+        return BulkExecuteResult.builder()
+                .index(index)
+                .jobId(request.getJobId())
+                .executionId(executionId)
+                .deduplicated(deduplicated)
+                .build();
+    }
+
+    private static BulkExecuteResult rejected(int index, ExecuteRequest request, BatchDomainException e) {
+        String error = switch (e.getErrorCode()) {
+            case JOB_NOT_FOUND -> "Job not found: " + request.getJobId();
+            case EXECUTION_QUEUE_FULL -> "Execution queue is full";
+            case INVALID_JOB_PARAMETER -> "Invalid parameter: " + e.getMessage();
+            case BATCH_EXECUTION_FAILED -> "Failed to start execution of job: " + request.getJobId();
+            default -> "Execution rejected: " + e.getErrorCode();
+        };
+        return BulkExecuteResult.builder()
+                .index(index)
+                .jobId(request.getJobId())
+                .errorCode(e.getErrorCode().name())
+                .error(error)
+                .build();
+    }
+
+    /**
+     * ワークフローのノードとしてバッチを開始する
+     * ジョブのパラメータはすべて既定値で実行する
+     * 
+     * @param jobId               ジョブID
+     * @param userId              ユーザーID
+     * @param workflowExecutionId 親ワークフロー実行ID
+     * @param nodeId              ノードID
+     * @return 実行ID
+     * @throws BatchDomainException ジョブが見つからない場合、既定値のない必須パラメータがある場合、
+     *                              または実行待ちキューが満杯の場合
+     */
+    public ExecuteResponse startWorkflowNode(String jobId, Long userId, String workflowExecutionId, String nodeId) {
+        log.info("Starting workflow node: {}/{}, job: {}", workflowExecutionId, nodeId, jobId);
+
+        BatchConfig.Job job = jobRegistry.find(jobId)
+                .orElseThrow(() -> new BatchDomainException(
+                        BatchErrorCode.JOB_NOT_FOUND));
+
+        Map<String, String> parameters = jobRegistry.launchSpec(job).template().resolve(null);
+        BatchExecution execution = BatchExecution.queueWorkflowNode(job.getId(), job.getName(), userId,
+                workflowExecutionId, nodeId);
+        execution.setParameters(parameters);
+        return start(job, execution);
+    }
+
+    /**
+     * 待機中の実行レコードを作成し、実行エンジンに投入する
+     * batch.cluster.enabled の場合は DB の実行待ちキューに積み、空きのあるノードに実行を任せる
+     * （ワークフローのノードは進行を管理するこのノードで実行する）
+     * 
+     * @param job       ジョブ定義
+     * @param execution 待機中の実行レコード
+     * @return 実行ID
+     * @throws BatchDomainException 実行待ちキューが満杯の場合
+     */
+    private ExecuteResponse start(BatchConfig.Job job, BatchExecution execution) {
+        String executionId = execution.getId();
+        execution.setNodeId(batchConfig.getRecovery().getNodeName());
+
+        if (clusterQueue.isEnabled() && execution.getWorkflowExecutionId() == null) {
+            clusterQueue.enqueue(job, execution);
+            historyWriter.insert(execution);
+            log.info("Created execution record on cluster queue: {}", executionId);
+            return new ExecuteResponse(executionId);
+        }
+
+        // 実行枠を予約（キューが満杯の場合はここで拒否される）
+        BatchExecutor.Admission admission = batchExecutor.admit();
+
+        // データベースに実行レコードを作成
+        try {
+            historyWriter.insert(execution);
+        } catch (RuntimeException e) {
+            admission.cancel();
+            throw e;
+        }
+        log.info("Created execution record: {}", executionId);
+
+        // 待機中・実行中の状態はメモリ上で管理する（ステータス照会用）
+        LiveExecution live = liveExecutions.register(execution);
+
+        // コミット後に実行エンジンに投入（空きがなければ待機キューで順番を待つ）
+        submitAfterCommit(admission, live,
+                () -> submit(admission, job, live, execution.getUserId(), execution.getParameters()));
 
         log.info("Batch execution started asynchronously: {}", executionId);
         return new ExecuteResponse(executionId);
     }
 
     /**
-     * 有効なジョブ一覧を取得する
+     * 実行待ちキュー（DB）から取得した実行をこのノードで開始する
+     * 前回取得したノードが実行中に停止していた場合は、待機中に戻して再実行する
      * 
-     * @return 有効なジョブのリスト
+     * @param queued      取得した行
+     * @param maxAttempts 取得回数の上限（超えた中断済みの実行は失敗にする）
+     * @return 取得した実行の扱い
+     * @throws BatchDomainException ローカルの実行待ちキューが満杯の場合
      */
-    public List<JobResponse> getAvailableJobs() {
-        return batchConfig.getJobs().stream()
-                .filter(BatchConfig.Job::isEnabled)
-                .map(job -> batchMapper.toJobResponse(job))
-                .collect(Collectors.toList());
+    public ClusterExecutionQueue.ClaimOutcome runClaimed(QueuedExecution queued, int maxAttempts) {
+        String executionId = queued.getExecutionId();
+        Optional<BatchExecution> found = batchExecutionRepository.findById(executionId);
+        if (found.isEmpty()) {
+            // 受け付けたノードの履歴の書き込み（write-behind）が追いついていない
+            return ClusterExecutionQueue.ClaimOutcome.DEFERRED;
+        }
+        BatchExecution execution = found.get();
+        if (execution.isCompleted()) {
+            return ClusterExecutionQueue.ClaimOutcome.DISCARDED;
+        }
+        Optional<BatchConfig.Job> job = jobRegistry.find(queued.getJobId());
+
+        BatchExecutor.Admission admission = batchExecutor.admit();
+        execution.setNodeId(batchConfig.getRecovery().getNodeName());
+        LiveExecution live = liveExecutions.register(execution);
+        if (execution.isRunning()) {
+            if (job.isEmpty() || queued.getAttempts() > maxAttempts) {
+                log.warn("Giving up interrupted execution: {}, attempts: {}", executionId, queued.getAttempts());
+                admission.cancel();
+                complete(live, interrupted -> interrupted.completeFailed(1));
+                return ClusterExecutionQueue.ClaimOutcome.STARTED;
+            }
+            log.warn("Re-running interrupted execution: {}, attempt: {}", executionId, queued.getAttempts());
+            transition(live, BatchExecution::requeue);
+        }
+        if (job.isEmpty()) {
+            log.warn("Job of claimed execution is not configured on this node: {}", queued.getJobId());
+            admission.cancel();
+            handleExecutionError(live, null);
+            return ClusterExecutionQueue.ClaimOutcome.STARTED;
+        }
+
+        submitAfterCommit(admission, live,
+                () -> submit(admission, job.get(), live, execution.getUserId(), execution.getParameters()));
+        log.info("Claimed execution started: {}", executionId);
+        return ClusterExecutionQueue.ClaimOutcome.STARTED;
     }
 
     /**
-     * ジョブIDでジョブ設定を取得する（Optional版）
+     * 予約した実行枠に実行本体を投入する
      * 
-     * @param jobId ジョブID
-     * @return ジョブ設定をラップしたOptional
+     * @param admission 実行枠の予約
+     * @param job       ジョブ定義
+     * @param live       実行状態
+     * @param userId     実行ユーザーID
+     * @param parameters 正規化済みのパラメータ
      */
-    private Optional<BatchConfig.Job> getJobByIdOptional(String jobId) {
-        return batchConfig.getJobs().stream()
-                .filter(job -> job.getId().equals(jobId))
-                .findFirst();
+    private void submit(BatchExecutor.Admission admission, BatchConfig.Job job, LiveExecution live, Long userId,
+            Map<String, String> parameters) {
+        admission.submit(job, live.getId(), userId, bodyOf(job, live, parameters));
+    }
+
+    /**
+     * 実行本体を作る
+     * 
+     * @param job        ジョブ定義
+     * @param live       実行状態
+     * @param parameters 正規化済みのパラメータ
+     * @return 実行本体（完了を表す CompletionStage を返す）
+     */
+    private Supplier<CompletableFuture<BatchExecution>> bodyOf(BatchConfig.Job job, LiveExecution live,
+            Map<String, String> parameters) {
+        String executionId = live.getId();
+        return () -> {
+            CompletableFuture<BatchExecution> completion;
+            if (live.isCancelRequested()) {
+                // 待機キューから取り除く前に開始された場合
+                return CompletableFuture.completedFuture(complete(live, BatchExecution::cancel));
+            }
+            try {
+                if (!transition(live, BatchExecution::start).isRunning()) {
+                    // 開始の遷移が失われた（他の経路が先にキャンセルなどで完了させていた）
+                    log.warn("Execution was completed before start: {}", executionId);
+                    liveExecutions.remove(executionId);
+                    return CompletableFuture.completedFuture(live.copy());
+                }
+                completion = executeBatch(live, job, parameters != null ? parameters : Map.of());
+            } catch (Exception e) {
+                completion = CompletableFuture.failedFuture(e);
+            }
+            return completion.exceptionally(e -> {
+                log.error("Batch execution failed: {}", executionId, e);
+                return handleExecutionError(live, e);
+            });
+        };
+    }
+
+    /**
+     * 実行レコードのコミット後にタスクを投入する
+     * ワーカーが未コミットのレコードを参照しないよう、トランザクション完了まで投入を遅らせる
+     * 
+     * @param admission 実行枠の予約（ロールバック時に取り消す）
+     * @param live      実行状態（ロールバック時に破棄する）
+     * @param submit    投入処理
+     */
+    private void submitAfterCommit(BatchExecutor.Admission admission, LiveExecution live, Runnable submit) {
+        afterCommit(submit, () -> {
+            admission.cancel();
+            liveExecutions.remove(live.getId());
+        });
+    }
+
+    /**
+     * トランザクションの完了後に処理を実行する（トランザクション外の場合は即座にコミット時の処理を実行する）
+     * 
+     * @param onCommit   コミットされた場合の処理
+     * @param onRollback ロールバックされた場合の処理
+     */
+    private void afterCommit(Runnable onCommit, Runnable onRollback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            onCommit.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    onCommit.run();
+                } else {
+                    onRollback.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * 有効なジョブ一覧を取得する
+     * 
+     * @return 有効なジョブのリスト
+     */
+    public List<JobResponse> getAvailableJobs() {
+        return jobRegistry.availableJobs();
     }
 
     /**
@@ -130,160 +519,408 @@ public class BatchExecuteService {
      * @return ステータスレスポンス（Optional）
      */
     public Optional<StatusResponse> getExecutionStatus(String executionId) {
+        // 待機中・実行中はメモリ上の状態のみで応答する
+        Optional<StatusResponse> live = liveExecutions.get(executionId)
+                .map(execution -> batchMapper.toStatusResponse(execution.snapshot()));
+        if (live.isPresent()) {
+            return live;
+        }
         return getExecutionEntity(executionId)
                 .map(exec -> batchMapper.toStatusResponse(exec));
     }
 
     /**
-     * 実行ステータスを取得する（Entity版）
+     * バッチ実行をキャンセルする
+     * 待機中の場合は待機キューから取り除いて即座にキャンセルし、実行中の場合はプロセスツリーの停止を開始する
+     * （停止の完了後にキャンセル状態になる）
      * 
      * @param executionId 実行ID
-     * @return 実行レコード（Optional）
+     * @param userId      要求ユーザーID
+     * @param admin       要求ユーザーが管理者の場合 true
+     * @return キャンセル要求後のステータス（実行が存在しない、または参照権限がない場合は空）
+     * @throws BatchDomainException 既に完了している場合
      */
-    private Optional<BatchExecution> getExecutionEntity(String executionId) {
-        // メモリマップで実行中のプロセスを確認
-        CompletableFuture<BatchExecution> future = executionMap.get(executionId);
-        if (future != null && !future.isDone()) {
-            // 実行中の場合、メモリマップの情報を優先
-            return batchExecutionRepository.findById(executionId)
-                    .or(() -> Optional.of(createRunningExecution(executionId)));
+    public Optional<StatusResponse> cancelExecution(String executionId, Long userId, boolean admin) {
+        Optional<LiveExecution> found = liveExecutions.get(executionId)
+                .filter(live -> admin || live.copy().getUserId().equals(userId));
+        if (found.isEmpty()) {
+            // 完了済み、他のノードで待機中・実行中、または存在しない
+            return getExecutionEntity(executionId)
+                    .filter(execution -> admin || execution.getUserId().equals(userId))
+                    .map(execution -> {
+                        if (execution.isCompleted() || !clusterQueue.contains(executionId)) {
+                            throw new BatchDomainException(BatchErrorCode.EXECUTION_NOT_CANCELLABLE);
+                        }
+                        return cancelOnCluster(execution);
+                    });
         }
 
-        // メモリにない場合（または完了した場合）はDBから取得
-        return batchExecutionRepository.findById(executionId)
-                .or(() -> {
-                    log.warn("Batch execution not found: {}", executionId);
-                    return Optional.empty();
+        LiveExecution live = found.get();
+        log.info("Cancel requested: {}", executionId);
+        if (batchExecutor.cancelQueued(executionId)) {
+            complete(live, BatchExecution::cancel);
+        } else {
+            live.requestCancel();
+        }
+        return getExecutionStatus(executionId);
+    }
+
+    /**
+     * クラスタのリースを失った実行をこのノードで放棄する
+     * プロセスを停止し、以降の状態遷移を履歴に記録しない（取得し直したノードの実行が正となる）
+     * 
+     * @param executionId 実行ID
+     * @return このノードで待機中・実行中だった場合 true
+     */
+    public boolean abandonExecution(String executionId) {
+        Optional<LiveExecution> found = liveExecutions.get(executionId);
+        if (found.isEmpty()) {
+            return false;
+        }
+        LiveExecution live = found.get();
+        live.abandon();
+        if (batchExecutor.cancelQueued(executionId)) {
+            liveExecutions.remove(executionId);
+        }
+        return true;
+    }
+
+    /**
+     * DB の実行待ちキューにある実行をキャンセルする
+     * 未取得の場合はキューから取り除いて即座にキャンセルし、取得済みの場合は取得したノードに依頼する
+     * 
+     * @param execution 実行レコード（待機中・実行中）
+     * @return キャンセル要求後のステータス
+     */
+    private StatusResponse cancelOnCluster(BatchExecution execution) {
+        log.info("Cancel requested on cluster queue: {}", execution.getId());
+        if (clusterQueue.cancel(execution.getId())) {
+            ExecutionStatus from = execution.getStatus();
+            execution.cancel();
+            if (historyWriter.updateIfStatus(execution, from)) {
+                notifyStatusChanged(execution);
+            }
+        }
+        return batchMapper.toStatusResponse(execution);
+    }
+
+    /**
+     * 実行イベント（ステータス遷移・出力行）を購読する
+     * 
+     * @param executionId 実行ID
+     * @param userId      購読ユーザーID
+     * @param admin       購読ユーザーが管理者の場合 true
+     * @return SSE エミッター（実行が存在しない、または参照権限がない場合は空）
+     * @throws BatchDomainException クラスタ構成で他のノードが実行する場合（イベントは実行したノードにしか流れない）。
+     *                              未取得の実行はまだ実行するノードが決まっていないため詳細を持たない
+     */
+    @Transactional(readOnly = true)
+    public Optional<SseEmitter> subscribeEvents(String executionId, Long userId, boolean admin) {
+        return findExecution(executionId)
+                .filter(execution -> admin || execution.getUserId().equals(userId))
+                .map(execution -> {
+                    if (clusterQueue.isEnabled() && execution.isQueued() && liveExecutions.get(executionId).isEmpty()) {
+                        throw new BatchDomainException(BatchErrorCode.EXECUTION_ON_OTHER_NODE);
+                    }
+                    clusterQueue.requireLocal(execution);
+                    return eventBroadcaster.subscribe(executionId, () -> getExecutionStatus(executionId));
                 });
     }
 
     /**
-     * 実行中のバッチ実行オブジェクトを作成する
+     * 実行レコードを取得する
+     * 待機中・実行中の場合はメモリ上の状態を返す
      * 
      * @param executionId 実行ID
-     * @return 実行中ステータスの BatchExecution
+     * @return 実行レコード（Optional）
      */
-    private BatchExecution createRunningExecution(String executionId) {
-        BatchExecution execution = new BatchExecution();
-        execution.setId(executionId);
-        execution.setStatus(ExecutionStatus.RUNNING);
-        return execution;
+    @Transactional(readOnly = true)
+    public Optional<BatchExecution> findExecution(String executionId) {
+        return liveExecutions.get(executionId)
+                .map(LiveExecution::copy)
+                .or(() -> getExecutionEntity(executionId));
     }
 
     /**
-     * バッチを実行する
+     * 実行ステータスを取得する（Entity版）
      * 
      * @param executionId 実行ID
-     * @param job         ジョブ定義
-     * @return 実行レコード
-     * @throws Exception 実行エラー
+     * @return 実行レコード（Optional）
      */
-    private BatchExecution executeBatch(String executionId, BatchConfig.Job job) throws Exception {
+    private Optional<BatchExecution> getExecutionEntity(String executionId) {
+        return batchExecutionRepository.findById(executionId)
+                .or(() -> {
+                    log.warn("Batch execution not found: {}", executionId);
+                    return Optional.empty();
+                });
+    }
+
+    /**
+     * バッチを実行する
+     * プロセスを起動して監視を登録するだけで、終了は待機しない
+     * type: JVM のジョブは常駐ワーカーJVMに渡す
+     * 
+     * @param live       実行状態
+     * @param job        ジョブ定義
+     * @param parameters 正規化済みのパラメータ
+     * @return プロセス終了後に完了状態の実行レコードで完了する Future
+     * @throws IOException プロセスの起動に失敗した場合
+     */
+    private CompletableFuture<BatchExecution> executeBatch(LiveExecution live, BatchConfig.Job job,
+            Map<String, String> parameters) throws IOException {
+        String executionId = live.getId();
+        long startTime = System.currentTimeMillis();
+        LaunchSpec launch = jobRegistry.launchSpec(job);
+        JobTemplate template = launch.template();
+
+        if (job.getType() == BatchConfig.JobType.JVM) {
+            // 常駐ワーカーJVMで実行する（プロセスの起動は行わない）
+            log.info("Execute batch: {} on JVM worker with main class: {}", executionId, job.getMainClass());
+            live.onCancel(() -> workerPool.cancel(executionId));
+            return workerPool.run(executionId, job, template.arguments(parameters), pid -> {
+                live.setPid(pid);
+                resourceSampler.start(executionId, pid, false);
+            })
+                    .thenApply(outcome -> completeWith(live, job, outcome, startTime));
+        }
+
         log.info("Execute batch: {} with command: {}", executionId, job.getCommand());
 
         // ProcessBuilder を作成
-        List<String> command = commandBuilder.buildCommand(job);
+        if (!launch.isLaunchable()) {
+            launch = jobRegistry.recheck(launch);
+            if (!launch.isLaunchable()) {
+                throw new IOException("Cannot launch job " + job.getId() + ": " + launch.problem());
+            }
+        }
+        List<String> command = commandBuilder.buildCommand(launch, parameters);
         ProcessBuilder processBuilder = new ProcessBuilder(command);
 
         // 作業ディレクトリを設定（デフォルト値は"./"）
-        processBuilder.directory(new File(job.getWorkingDirectory()));
+        processBuilder.directory(launch.workingDirectory());
 
         // 環境変数を設定（デフォルト値は空マップ）
-        processBuilder.environment().putAll(job.getEnvironment());
+        processBuilder.environment().putAll(template.environment(parameters));
 
         // プロセスを開始
-        long startTime = System.currentTimeMillis();
         Process process = processBuilder.start();
+        live.setPid(process.pid());
+        recordProcess(executionId, process.pid());
+        resourceSampler.start(executionId, process.pid(), true);
+        live.onCancel(() -> processSupervisor.terminate(executionId, process.toHandle()));
 
         // 標準出力と標準エラーを読み取る
-        readProcessOutput(process);
+        CompletableFuture<Void> outputDrained = outputPump.pump(executionId, process);
 
-        // プロセスの終了を待機（タイムアウト設定）
-        boolean finished = process.waitFor(job.getTimeout(), TimeUnit.SECONDS);
+        // プロセスの終了・タイムアウトはコールバックで処理する
+        return processSupervisor.supervise(executionId, process, job.getTimeout(), outputDrained)
+                .thenApply(outcome -> completeWith(live, job, outcome, startTime));
+    }
+
+    /**
+     * 実行中のプロセスのPIDを記録する（記録の失敗で実行を妨げない）
+     * 
+     * @param executionId 実行ID
+     * @param pid         PID
+     */
+    private void recordProcess(String executionId, long pid) {
+        try {
+            historyWriter.recordProcess(executionId, pid);
+        } catch (RuntimeException e) {
+            log.warn("Failed to record process of execution: {}", executionId, e);
+        }
+    }
+
+    /**
+     * 再起動前から実行中のプロセスに再接続し、終了を監視する
+     * このプロセスの子ではないため出力と終了コードは取得できず、終了時は結果不明として記録する
+     * （キャンセルとジョブのタイムアウトは再接続後も有効。実行エンジンの実行枠は使わない）
+     * 
+     * @param execution 実行中の実行レコード
+     * @param process   実行中のプロセス
+     */
+    public void reattach(BatchExecution execution, ProcessHandle process) {
+        String executionId = execution.getId();
+        LiveExecution live = liveExecutions.register(execution);
+        live.setPid(process.pid());
+        live.onCancel(() -> processSupervisor.terminate(executionId, process));
+
+        AtomicBoolean timedOut = new AtomicBoolean();
+        jobRegistry.find(execution.getJobId()).ifPresent(job -> {
+            long deadline = execution.getStartTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                    + TimeUnit.SECONDS.toMillis(job.getTimeout());
+            processSupervisor.schedule(() -> {
+                if (process.isAlive()) {
+                    log.warn("Batch execution timeout: {}", executionId);
+                    timedOut.set(true);
+                    processSupervisor.terminate(executionId, process);
+                }
+            }, Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        });
 
-        if (!finished) {
-            log.warn("Batch execution timeout: {}", executionId);
-            process.destroyForcibly();
+        log.info("Reattached to running process of execution: {}, pid: {}", executionId, process.pid());
+        process.onExit().thenRun(() -> complete(live, reattached -> {
+            if (live.isCancelRequested()) {
+                reattached.cancel();
+            } else if (timedOut.get()) {
+                reattached.timeout();
+            } else {
+                reattached.markLost();
+            }
+        }));
+    }
+
+    /**
+     * プロセス（またはワーカーでのタスク）の終了結果で実行を完了させる
+     * 
+     * 完了を記録する前に成果物を収集する（完了を確認した利用者がすぐに成果物を取得できるようにする）
+     * 
+     * @param live      実行中の状態
+     * @param job       ジョブ定義
+     * @param outcome   終了結果
+     * @param startTime 開始時刻（エポックミリ秒）
+     * @return 完了した実行
+     */
+    private BatchExecution completeWith(LiveExecution live, BatchConfig.Job job,
+            ProcessSupervisor.ProcessOutcome outcome, long startTime) {
+        ResourceUsage resourceUsage = finishSampling(live.getId());
+        artifactStore.collect(live.getId(), job, startTime);
+        if (live.isCancelRequested()) {
+            log.info("Batch execution cancelled: {}, exitCode: {}", live.getId(), outcome.exitCode());
+            return complete(live, execution -> {
+                execution.cancel();
+                execution.setResourceUsage(resourceUsage);
+            });
+        }
+        if (outcome.timedOut()) {
             // ドメインメソッドでタイムアウトを処理
-            updateExecution(executionId, execution -> execution.timeout());
-            return batchExecutionRepository.findById(executionId).orElse(null);
+            return complete(live, execution -> {
+                execution.timeout();
+                execution.setResourceUsage(resourceUsage);
+            });
         }
 
-        int exitCode = process.exitValue();
-        long endTime = System.currentTimeMillis();
-        log.info("Batch execution completed: {}, exitCode: {}, duration: {}ms", executionId, exitCode,
-                endTime - startTime);
+        int exitCode = outcome.exitCode();
+        log.info("Batch execution completed: {}, exitCode: {}, duration: {}ms", live.getId(), exitCode,
+                System.currentTimeMillis() - startTime);
 
         // ドメインメソッドでステータスを更新
-        final int code = exitCode;
-        updateExecution(executionId, execution -> {
-            if (code == 0) {
+        return complete(live, execution -> {
+            if (exitCode == 0) {
                 execution.completeSuccessfully();
             } else {
-                execution.completeFailed(code);
+                execution.completeFailed(exitCode);
             }
+            execution.setResourceUsage(resourceUsage);
         });
+    }
 
-        // 更新された実行レコードを返す
-        return batchExecutionRepository.findById(executionId).orElse(null);
+    /**
+     * リソース使用量の計測を終了し、時系列を保存する
+     * 
+     * @param executionId 実行ID
+     * @return 集計（計測していない場合は null）
+     */
+    private ResourceUsage finishSampling(String executionId) {
+        return resourceSampler.finish(executionId)
+                .map(series -> {
+                    if (series.size() > 0) {
+                        try {
+                            resourceRepository.insert(series.toEntity(executionId));
+                        } catch (RuntimeException e) {
+                            // 計測値の保存失敗で実行の完了を妨げない
+                            log.warn("Failed to save resource series: {}", executionId, e);
+                        }
+                    }
+                    return series.summary();
+                })
+                .orElse(null);
     }
 
     /**
      * 実行エラーを処理する
      * 
-     * @param executionId 実行ID
-     * @param e           例外
+     * @param live 実行状態
+     * @param e    例外
      * @return 実行レコード
      */
-    private BatchExecution handleExecutionError(String executionId, Exception e) {
-        updateExecution(executionId, execution -> execution.completeFailed(1));
-        return batchExecutionRepository.findById(executionId).orElse(null);
+    private BatchExecution handleExecutionError(LiveExecution live, Throwable e) {
+        ResourceUsage resourceUsage = finishSampling(live.getId());
+        return complete(live, execution -> {
+            // 起動前に失敗した場合は実行中を経由して失敗させる
+            if (execution.isQueued()) {
+                execution.start();
+            }
+            execution.completeFailed(1);
+            execution.setResourceUsage(resourceUsage);
+        });
     }
 
     /**
-     * プロセスの標準出力と標準エラーを読み取る
+     * 実行を完了状態に遷移させ、データベースへ引き渡してメモリ上の状態を破棄する
      * 
-     * @param process プロセス
+     * @param live       実行状態
+     * @param transition 完了への状態遷移
+     * @return 完了状態の実行レコード
      */
-    private void readProcessOutput(Process process) {
-        readStreamAsync(process.getInputStream(), "Process output");
-        readStreamAsync(process.getErrorStream(), "Process error");
+    private BatchExecution complete(LiveExecution live, Consumer<BatchExecution> transition) {
+        try {
+            return transition(live, transition);
+        } finally {
+            // 非同期の履歴書き込みでは、行が最終状態になるまでメモリ上の状態をステータス照会に返す
+            historyWriter.afterFlush(() -> liveExecutions.remove(live.getId()));
+        }
     }
 
     /**
-     * プロセスのストリームを非同期で読み取る
+     * ドメインメソッドを使用して実行ステータスを更新する
+     * メモリ上の状態を遷移させてから、遷移前のステータスを条件とした UPDATE を1回だけ発行する
      * 
-     * @param stream    ストリーム
-     * @param logPrefix ログプレフィックス
+     * @param live       実行状態
+     * @param transition 実行オブジェクトを更新する関数型インターフェース
+     * @return 更新後の実行レコード（遷移が失われた場合は DB の行に合わせた状態）
      */
-    private void readStreamAsync(InputStream stream, String logPrefix) {
-        new Thread(() -> {
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    log.debug("{}: {}", logPrefix, line);
-                }
-            } catch (Exception e) {
-                log.warn("Error reading {}", logPrefix, e);
-            }
-        }).start();
+    private BatchExecution transition(LiveExecution live, Consumer<BatchExecution> transition) {
+        LiveExecution.Transition result;
+        try {
+            result = live.apply(transition);
+        } catch (BatchDomainException e) {
+            log.warn("Domain validation failed: {}", e.getErrorCode());
+            return live.copy();
+        }
+        BatchExecution execution = result.execution();
+        if (live.isAbandoned()) {
+            // リースを失った実行は取得し直したノードの実行が正となるため、記録しない
+            log.info("Status transition of abandoned execution discarded: {}, {} -> {}", execution.getId(),
+                    result.from(), execution.getStatus());
+            return execution;
+        }
+        if (!historyWriter.updateIfStatus(execution, result.from())) {
+            // 他の経路（別ノード・起動時の整合処理など）が先に遷移させていた。
+            // 照会が DB と食い違わないよう、メモリ上の状態を DB の行に戻す（通知もしない）
+            log.warn("Status transition lost: {}, {} -> {}", execution.getId(), result.from(),
+                    execution.getStatus());
+            batchExecutionRepository.findById(execution.getId())
+                    .ifPresent(persisted -> live.revert(execution, persisted));
+            return live.copy();
+        }
+        log.info("Updated execution status: {}, status: {}, exitCode: {}", execution.getId(), execution.getStatus(),
+                execution.getExitCode());
+        notifyStatusChanged(execution);
+        return execution;
     }
 
     /**
-     * ドメインメソッドを使用して実行ステータスを更新する
+     * 状態遷移をリスナーに通知する
      * 
-     * @param executionId 実行ID
-     * @param updater     実行オブジェクトを更新する関数型インターフェース
+     * @param execution 遷移後の実行レコード
      */
-    private void updateExecution(String executionId, Consumer<BatchExecution> updater) {
-        batchExecutionRepository.findById(executionId).ifPresent(execution -> {
+    private void notifyStatusChanged(BatchExecution execution) {
+        statusListeners.orderedStream().forEach(listener -> {
             try {
-                updater.accept(execution);
-                batchExecutionRepository.update(execution);
-                log.info("Updated execution status: {}, status: {}, exitCode: {}", executionId, execution.getStatus(),
-                        execution.getExitCode());
-            } catch (BatchDomainException e) {
-                log.warn("Domain validation failed: {}", e.getMessage());
+                listener.onStatusChanged(execution);
+            } catch (RuntimeException e) {
+                log.warn("Execution status listener failed: {}", listener, e);
             }
         });
     }
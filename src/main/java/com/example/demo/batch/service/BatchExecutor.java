@@ -0,0 +1,407 @@
+package com.example.demo.batch.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.batch.dto.QueueWaitMetrics;
+import com.example.demo.batch.exception.BatchDomainException;
+import com.example.demo.batch.exception.BatchErrorCode;
+import com.example.demo.config.BatchConfig;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * バッチ実行エンジン
+ * 全体・ジョブ単位の同時実行数を制御し、上限を超えた実行は待機キューに積む
+ * 待機キューはジョブの優先度順に、同一優先度内ではユーザー間で重み付きの公平な順番で取り出す
+ * 全体の同時実行数上限は {@link AdaptiveConcurrencyLimiter} が実行中に変更する場合がある
+ */
+@Component
+@Slf4j
+public class BatchExecutor {
+
+    @Autowired
+    private BatchConfig batchConfig;
+
+    // 状態（実行数・待機キュー）はすべて lock で保護する
+    private final Object lock = new Object();
+    private final FairShareQueue<Task> waitQueue = new FairShareQueue<>(Task::userId,
+            task -> task.job.getPriority(), this::weightOf);
+    private final Map<Long, WaitStats> waitByUser = new HashMap<>();
+    private final Map<Integer, WaitStats> waitByPriority = new HashMap<>();
+    private final Map<String, Integer> runningPerJob = new HashMap<>();
+    private int running;
+    private int reserved;
+    private int concurrencyLimit;
+    // 全体の待ち時間の累計（上限の調整で前回からの差分を取るために使う）
+    private long totalDispatched;
+    private long totalWaitNanos;
+
+    // プロセスの起動のみを担当する（終了待ちはしないため少数で足りる）
+    private ExecutorService launcherPool;
+
+    @PostConstruct
+    void init() {
+        concurrencyLimit = batchConfig.getExecutor().getMaxConcurrency();
+        AtomicInteger threadCount = new AtomicInteger();
+        launcherPool = Executors.newFixedThreadPool(batchConfig.getExecutor().getLauncherThreads(), r -> {
+            Thread thread = new Thread(r, "batch-launcher-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Batch executor initialized: {}", batchConfig.getExecutor());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        launcherPool.shutdownNow();
+    }
+
+    /**
+     * 実行枠を予約する
+     * 実行中・待機中・予約中の合計が「現在の同時実行数上限 + キュー容量」を超える場合は即座に拒否する
+     *
+     * @return 予約（submit または cancel のいずれかを必ず呼び出すこと）
+     * @throws BatchDomainException キューが満杯の場合
+     */
+    public Admission admit() {
+        BatchConfig.Executor config = batchConfig.getExecutor();
+        synchronized (lock) {
+            int pending = running + waitQueue.size() + reserved;
+            if (pending >= concurrencyLimit + config.getQueueCapacity()) {
+                log.warn("Batch execution rejected: queue is full (running={}, queued={})", running,
+                        waitQueue.size());
+                throw new BatchDomainException(BatchErrorCode.EXECUTION_QUEUE_FULL);
+            }
+            reserved++;
+        }
+        return new Admission();
+    }
+
+    /**
+     * 実行枠をまとめて予約する（一括投入用）
+     * 「現在の同時実行数上限 + キュー容量」に収まる分だけを予約し、超える分は予約しない
+     *
+     * @param count 予約したい件数
+     * @return 予約（件数は count 以下。キューが満杯の場合は空）
+     */
+    public List<Admission> admit(int count) {
+        BatchConfig.Executor config = batchConfig.getExecutor();
+        List<Admission> admissions = new ArrayList<>(count);
+        synchronized (lock) {
+            int pending = running + waitQueue.size() + reserved;
+            int granted = Math.max(0, Math.min(count, concurrencyLimit + config.getQueueCapacity() - pending));
+            if (granted < count) {
+                log.warn("Batch executions rejected: queue is full ({} of {} admitted, running={}, queued={})",
+                        granted, count, running, waitQueue.size());
+            }
+            reserved += granted;
+            for (int i = 0; i < granted; i++) {
+                admissions.add(new Admission());
+            }
+        }
+        return admissions;
+    }
+
+    /**
+     * 予約した枠にまとめてタスクを投入する（一括投入用）
+     * ロックの取得と待機キューからの取り出しを1回にまとめる
+     *
+     * @param submissions 投入するタスク
+     */
+    public void submitAll(List<Submission> submissions) {
+        synchronized (lock) {
+            long now = System.nanoTime();
+            for (Submission submission : submissions) {
+                submission.admission().consume();
+                enqueue(new Task(submission.job(), submission.executionId(), submission.userId(),
+                        submission.body(), now));
+            }
+            dispatch();
+        }
+    }
+
+    /**
+     * 現在の待機件数を取得する
+     *
+     * @return 待機キューの件数
+     */
+    public int getQueuedCount() {
+        synchronized (lock) {
+            return waitQueue.size();
+        }
+    }
+
+    /**
+     * 現在の実行件数を取得する
+     *
+     * @return 実行中の件数
+     */
+    public int getRunningCount() {
+        synchronized (lock) {
+            return running;
+        }
+    }
+
+    /**
+     * 現在の全体の同時実行数上限を取得する
+     *
+     * @return 同時実行数上限
+     */
+    public int getConcurrencyLimit() {
+        synchronized (lock) {
+            return concurrencyLimit;
+        }
+    }
+
+    /**
+     * 全体の同時実行数上限を変更する
+     * 引き上げた場合は空いた枠の分だけ待機キューから開始する（引き下げた場合、実行中の実行はそのまま続ける）
+     *
+     * @param limit 同時実行数上限（1 以上）
+     */
+    public void setConcurrencyLimit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Concurrency limit must be positive: " + limit);
+        }
+        synchronized (lock) {
+            concurrencyLimit = limit;
+            dispatch();
+        }
+    }
+
+    /**
+     * 全体の待ち時間の累計を取得する
+     *
+     * @return 待ち時間の累計
+     */
+    public DispatchTotals getDispatchTotals() {
+        synchronized (lock) {
+            return new DispatchTotals(totalDispatched, totalWaitNanos, running, waitQueue.size());
+        }
+    }
+
+    /**
+     * ユーザー別の待ち時間を取得する
+     *
+     * @return ユーザーIDごとの待ち時間
+     */
+    public Map<Long, QueueWaitMetrics> getQueueWaitByUser() {
+        synchronized (lock) {
+            return toMetrics(waitByUser);
+        }
+    }
+
+    /**
+     * 優先度別の待ち時間を取得する
+     *
+     * @return 優先度ごとの待ち時間
+     */
+    public Map<Integer, QueueWaitMetrics> getQueueWaitByPriority() {
+        synchronized (lock) {
+            return toMetrics(waitByPriority);
+        }
+    }
+
+    /**
+     * 待機キュー内のタスクを取り除く
+     *
+     * @param executionId 実行ID
+     * @return 取り除いた場合 true（既に開始している、または存在しない場合は false）
+     */
+    public boolean cancelQueued(String executionId) {
+        synchronized (lock) {
+            Task task = waitQueue.remove(candidate -> candidate.executionId.equals(executionId));
+            if (task == null) {
+                return false;
+            }
+            waitByUser.get(task.userId).queued--;
+            waitByPriority.get(task.job.getPriority()).queued--;
+            log.info("Queued batch task cancelled: {}", executionId);
+            return true;
+        }
+    }
+
+    private static <K extends Comparable<K>> Map<K, QueueWaitMetrics> toMetrics(Map<K, WaitStats> stats) {
+        Map<K, QueueWaitMetrics> metrics = new TreeMap<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+        stats.forEach((key, value) -> metrics.put(key, value.toMetrics()));
+        return metrics;
+    }
+
+    private int weightOf(Long userId) {
+        BatchConfig.Executor config = batchConfig.getExecutor();
+        return config.getUserWeights().getOrDefault(userId, config.getDefaultUserWeight());
+    }
+
+    /**
+     * タスクを待機キューに積む
+     * 呼び出し元で lock を保持していること
+     */
+    private void enqueue(Task task) {
+        waitQueue.add(task);
+        waitByUser.computeIfAbsent(task.userId, id -> new WaitStats()).queued++;
+        waitByPriority.computeIfAbsent(task.job.getPriority(), priority -> new WaitStats()).queued++;
+    }
+
+    /**
+     * 実行可能なタスクを待機キューから取り出してワーカーに渡す
+     * 呼び出し元で lock を保持していること
+     */
+    private void dispatch() {
+        while (running < concurrencyLimit) {
+            Task task = waitQueue.poll(candidate -> hasJobCapacity(candidate.job));
+            if (task == null) {
+                return;
+            }
+            running++;
+            runningPerJob.merge(task.job.getId(), 1, Integer::sum);
+            recordDispatch(task, System.nanoTime() - task.enqueuedNanos);
+            launcherPool.execute(() -> run(task));
+        }
+    }
+
+    private void recordDispatch(Task task, long waitNanos) {
+        totalDispatched++;
+        totalWaitNanos += waitNanos;
+        waitByUser.computeIfAbsent(task.userId, id -> new WaitStats()).dispatched(waitNanos);
+        waitByPriority.computeIfAbsent(task.job.getPriority(), priority -> new WaitStats()).dispatched(waitNanos);
+    }
+
+    private boolean hasJobCapacity(BatchConfig.Job job) {
+        int limit = job.concurrencyLimit();
+        return limit <= 0 || runningPerJob.getOrDefault(job.getId(), 0) < limit;
+    }
+
+    private void run(Task task) {
+        CompletionStage<?> completion;
+        try {
+            completion = task.body.get();
+        } catch (RuntimeException e) {
+            log.error("Unhandled error in batch task: {}", task.executionId, e);
+            completion = CompletableFuture.completedFuture(null);
+        }
+        // 実行枠は起動スレッドの終了ではなく、タスクの完了時に解放する
+        completion.whenComplete((result, error) -> release(task));
+    }
+
+    private void release(Task task) {
+        synchronized (lock) {
+            running--;
+            runningPerJob.computeIfPresent(task.job.getId(), (id, count) -> count > 1 ? count - 1 : null);
+            dispatch();
+        }
+    }
+
+    /**
+     * 実行枠の予約
+     */
+    public class Admission {
+
+        private boolean consumed;
+
+        /**
+         * 予約した枠にタスクを投入する
+         * 実行枠が空いていれば即座に開始し、空いていなければ待機キューに積む
+         *
+         * @param job         ジョブ定義
+         * @param executionId 実行ID
+         * @param userId      実行ユーザーID（公平な順番付けに使用）
+         * @param body        実行本体（完了を表す CompletionStage を返す）
+         */
+        public void submit(BatchConfig.Job job, String executionId, Long userId,
+                Supplier<? extends CompletionStage<?>> body) {
+            synchronized (lock) {
+                consume();
+                enqueue(new Task(job, executionId, userId, body, System.nanoTime()));
+                dispatch();
+            }
+        }
+
+        /**
+         * 予約を取り消す
+         */
+        public void cancel() {
+            synchronized (lock) {
+                consume();
+            }
+        }
+
+        private void consume() {
+            if (consumed) {
+                throw new IllegalStateException("Admission already consumed");
+            }
+            consumed = true;
+            reserved--;
+        }
+    }
+
+    /**
+     * 一括投入するタスク
+     *
+     * @param admission   実行枠の予約
+     * @param job         ジョブ定義
+     * @param executionId 実行ID
+     * @param userId      実行ユーザーID
+     * @param body        実行本体（完了を表す CompletionStage を返す）
+     */
+    public record Submission(Admission admission, BatchConfig.Job job, String executionId, Long userId,
+            Supplier<? extends CompletionStage<?>> body) {
+    }
+
+    /**
+     * 全体の待ち時間の累計
+     *
+     * @param dispatched 待機キューから取り出した件数
+     * @param waitNanos  待ち時間の合計（ナノ秒）
+     * @param running    実行中の件数
+     * @param queued     待機中の件数
+     */
+    public record DispatchTotals(long dispatched, long waitNanos, int running, int queued) {
+    }
+
+    private record Task(BatchConfig.Job job, String executionId, Long userId,
+            Supplier<? extends CompletionStage<?>> body, long enqueuedNanos) {
+    }
+
+    /**
+     * 待ち時間の集計（lock で保護する）
+     */
+    private static final class WaitStats {
+
+        private int queued;
+        private long dispatched;
+        private long totalWaitNanos;
+        private long maxWaitNanos;
+
+        void dispatched(long waitNanos) {
+            queued--;
+            dispatched++;
+            totalWaitNanos += waitNanos;
+            maxWaitNanos = Math.max(maxWaitNanos, waitNanos);
+        }
+
+        QueueWaitMetrics toMetrics() {
+            return QueueWaitMetrics.builder()
+                    .queued(queued)
+                    .dispatched(dispatched)
+                    .averageWaitMillis(dispatched == 0 ? 0 : totalWaitNanos / 1_000_000.0 / dispatched)
+                    .maxWaitMillis(maxWaitNanos / 1_000_000.0)
+                    .build();
+        }
+    }
+}
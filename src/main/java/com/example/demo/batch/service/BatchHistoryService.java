@@ -1,5 +1,6 @@
 package com.example.demo.batch.service;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -16,6 +17,8 @@ import com.example.demo.batch.dto.BatchHistorySearchRequest;
 import com.example.demo.batch.dto.HistoryItem;
 import com.example.demo.batch.dto.HistoryResponse;
 import com.example.demo.batch.entity.BatchExecution;
+import com.example.demo.batch.exception.BatchDomainException;
+import com.example.demo.batch.exception.BatchErrorCode;
 import com.example.demo.batch.repository.BatchRepository;
 import com.example.demo.users.entity.User;
 import com.example.demo.users.exception.UserDomainException;
@@ -44,6 +47,12 @@ public class BatchHistoryService {
         @Autowired
         private BatchMapper batchMapper;
 
+        @Autowired
+        private ExecutionOutputIndex outputIndex;
+
+        @Autowired
+        private ClusterExecutionQueue clusterQueue;
+
         /**
          * ユーザーのバッチ実行履歴を取得する（ページネーション対応）
          * 
@@ -82,6 +91,7 @@ public class BatchHistoryService {
          * 
          * @param request 検索条件DTO
          * @return バッチ履歴ページレスポンス
+         * @throws BatchDomainException クラスタ構成で出力を全文検索する場合（索引は各ノードのローカルにしかない）
          */
         public BatchHistoryPageResponse searchBatchHistory(BatchHistorySearchRequest request, Long userId) {
                 log.info("Search batch history: {}", request);
@@ -95,6 +105,22 @@ public class BatchHistoryService {
                 // 検索パラメータオブジェクトを作成
                 BatchSearchCriteria searchParams = BatchSearchCriteria.of(request, searchUserId);
 
+                // 出力の全文検索（索引で一致した実行に他の条件とアクセス制御を DB で適用してから件数の上限を数える）
+                Map<String, List<Long>> outputMatches = null;
+                if (StringUtil.isTrimmedNotEmpty(request.getOutputText())) {
+                        if (clusterQueue.isEnabled()) {
+                                throw new BatchDomainException(BatchErrorCode.OUTPUT_SEARCH_UNAVAILABLE);
+                        }
+                        outputMatches = outputIndex.search(request.getOutputText().trim(),
+                                        candidates -> batchRepository.filterExecutionIds(
+                                                        searchParams.toBuilder().executionIds(candidates).build()));
+                        if (outputMatches.isEmpty()) {
+                                return emptyPage(request);
+                        }
+                        searchParams.setExecutionIds(new ArrayList<>(outputMatches.keySet()));
+                }
+                final Map<String, List<Long>> matchOffsets = outputMatches;
+
                 // バッチ実行履歴を検索
                 List<BatchExecution> executions = batchRepository.searchBatchExecution(searchParams);
 
@@ -117,7 +143,12 @@ public class BatchHistoryService {
                                         String userName = user.hasAdminRole()
                                                         ? userNameMap.getOrDefault(exec.getUserId(), "Unknown")
                                                         : null;
-                                        return batchMapper.toHistoryResponse(exec, userName, exec.getUserId());
+                                        BatchHistoryResponse response = batchMapper.toHistoryResponse(exec, userName,
+                                                        exec.getUserId());
+                                        if (matchOffsets != null) {
+                                                response.setOutputMatchOffsets(matchOffsets.get(exec.getId()));
+                                        }
+                                        return response;
                                 })
                                 .collect(Collectors.toList());
 
@@ -135,6 +166,23 @@ public class BatchHistoryService {
                                 .build();
         }
 
+        /**
+         * 該当なしのページを返す
+         * 
+         * @param request 検索条件DTO
+         * @return 空のバッチ履歴ページレスポンス
+         */
+        private BatchHistoryPageResponse emptyPage(BatchHistorySearchRequest request) {
+                return BatchHistoryPageResponse.builder()
+                                .content(List.of())
+                                .totalCount(0L)
+                                .totalPages(0)
+                                .currentPage(request.getPage())
+                                .hasNextPage(false)
+                                .hasPrevPage(PaginationHelper.hasPrevPage(request.getPage()))
+                                .build();
+        }
+
         /**
          * 検索対象ユーザーIDを決定する
          * ユーザーのロールに基づいてアクセス制御を行う
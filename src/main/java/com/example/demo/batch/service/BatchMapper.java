@@ -5,8 +5,11 @@ import org.mapstruct.Mapper;
 import com.example.demo.batch.dto.BatchHistoryResponse;
 import com.example.demo.batch.dto.HistoryItem;
 import com.example.demo.batch.dto.JobResponse;
+import com.example.demo.batch.dto.ResourceUsageSummary;
 import com.example.demo.batch.dto.StatusResponse;
+import com.example.demo.batch.dto.WorkflowResponse;
 import com.example.demo.batch.entity.BatchExecution;
+import com.example.demo.batch.entity.ResourceUsage;
 import com.example.demo.config.BatchConfig;
 
 /**
@@ -24,6 +27,14 @@ public interface BatchMapper {
      */
     JobResponse toJobResponse(BatchConfig.Job job);
 
+    /**
+     * BatchConfig.Workflow を WorkflowResponse に変換する
+     * 
+     * @param workflow ワークフロー定義
+     * @return ワークフロー情報
+     */
+    WorkflowResponse toWorkflowResponse(BatchConfig.Workflow workflow);
+
     /**
      * BatchExecution を StatusResponse に変換する
      * 
@@ -32,6 +43,29 @@ public interface BatchMapper {
      */
     StatusResponse toStatusResponse(BatchExecution execution);
 
+    /**
+     * 実行中の状態スナップショットを StatusResponse に変換する
+     * 
+     * @param snapshot 実行状態のスナップショット
+     * @return ステータスレスポンス
+     */
+    default StatusResponse toStatusResponse(LiveExecution.Snapshot snapshot) {
+        StatusResponse response = toStatusResponse(snapshot.execution());
+        response.setPid(snapshot.pid());
+        response.setOutputBytes(snapshot.outputBytes());
+        response.setLastOutputTime(snapshot.lastOutputTime());
+        response.setProgress(snapshot.progress());
+        return response;
+    }
+
+    /**
+     * ResourceUsage を ResourceUsageSummary に変換する
+     * 
+     * @param usage リソース使用量の集計
+     * @return 集計レスポンス
+     */
+    ResourceUsageSummary toResourceUsageSummary(ResourceUsage usage);
+
     /**
      * BatchExecution を HistoryItem に変換する
      * 
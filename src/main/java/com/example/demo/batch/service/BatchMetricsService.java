@@ -0,0 +1,42 @@
+package com.example.demo.batch.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.batch.dto.BatchMetricsResponse;
+
+/**
+ * バッチ実行エンジンのメトリクスを集約する
+ */
+@Service
+public class BatchMetricsService {
+
+    @Autowired
+    private BatchExecutor batchExecutor;
+
+    @Autowired
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    @Autowired
+    private ExecutionHistoryWriter historyWriter;
+
+    @Autowired
+    private JvmWorkerPool workerPool;
+
+    /**
+     * 現在のメトリクスを取得する
+     * 
+     * @return メトリクス
+     */
+    public BatchMetricsResponse getMetrics() {
+        return BatchMetricsResponse.builder()
+                .runningCount(batchExecutor.getRunningCount())
+                .queuedCount(batchExecutor.getQueuedCount())
+                .concurrencyLimit(concurrencyLimiter.metrics())
+                .queueWaitByUser(batchExecutor.getQueueWaitByUser())
+                .queueWaitByPriority(batchExecutor.getQueueWaitByPriority())
+                .historyWriter(historyWriter.metrics())
+                .workerPools(workerPool.metrics())
+                .build();
+    }
+}
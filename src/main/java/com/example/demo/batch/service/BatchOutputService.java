@@ -0,0 +1,112 @@
+package com.example.demo.batch.service;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.batch.dto.ArtifactResponse;
+import com.example.demo.batch.exception.BatchDomainException;
+import com.example.demo.config.BatchConfig;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * バッチ実行出力の参照サービス
+ * ユーザーアクセス制御と読み取り範囲の決定を担当
+ */
+@Service
+@Slf4j
+@Transactional(readOnly = true)
+public class BatchOutputService {
+
+    @Autowired
+    private BatchExecuteService batchExecuteService;
+
+    @Autowired
+    private ExecutionOutputStore outputStore;
+
+    @Autowired
+    private ExecutionArtifactStore artifactStore;
+
+    @Autowired
+    private ClusterExecutionQueue clusterQueue;
+
+    @Autowired
+    private BatchConfig batchConfig;
+
+    /**
+     * 実行出力の指定範囲を取得する
+     * 
+     * @param executionId 実行ID
+     * @param offset      開始オフセット
+     * @param limit       最大バイト数（null または 0 以下の場合は既定値）
+     * @param userId      参照ユーザーID
+     * @param admin       参照ユーザーが管理者の場合 true
+     * @return 読み取り範囲（実行が存在しない、または参照権限がない場合は空）
+     * @throws BatchDomainException クラスタ構成で他のノードが実行した場合
+     */
+    public Optional<ExecutionOutputRange> readOutput(String executionId, long offset, Integer limit, Long userId,
+            boolean admin) {
+        return batchExecuteService.findExecution(executionId)
+                .filter(execution -> admin || execution.getUserId().equals(userId))
+                .map(execution -> {
+                    clusterQueue.requireLocal(execution);
+                    ExecutionOutputStore.OutputView view = outputStore.view(executionId);
+                    long start = Math.min(Math.max(0, offset), view.length());
+                    long count = Math.min(resolveLimit(limit), view.length() - start);
+                    boolean complete = view.isClosed() || execution.isCompleted();
+                    log.debug("Read output: {}, offset={}, count={}, complete={}", executionId, start, count,
+                            complete);
+                    return new ExecutionOutputRange(view, start, count, complete);
+                });
+    }
+
+    /**
+     * 実行の成果物の一覧を取得する
+     * 
+     * @param executionId 実行ID
+     * @param userId      参照ユーザーID
+     * @param admin       参照ユーザーが管理者の場合 true
+     * @return 成果物の一覧（実行が存在しない、または参照権限がない場合は空）
+     * @throws BatchDomainException クラスタ構成で他のノードが実行した場合
+     */
+    public Optional<List<ArtifactResponse>> listArtifacts(String executionId, Long userId, boolean admin) {
+        return batchExecuteService.findExecution(executionId)
+                .filter(execution -> admin || execution.getUserId().equals(userId))
+                .map(execution -> {
+                    clusterQueue.requireLocal(execution);
+                    return artifactStore.list(executionId);
+                });
+    }
+
+    /**
+     * 実行の成果物を取得する
+     * 
+     * @param executionId 実行ID
+     * @param name        成果物名
+     * @param userId      参照ユーザーID
+     * @param admin       参照ユーザーが管理者の場合 true
+     * @return 成果物（実行・成果物が存在しない、または参照権限がない場合は空）
+     * @throws BatchDomainException クラスタ構成で他のノードが実行した場合
+     */
+    public Optional<ExecutionArtifactStore.Artifact> findArtifact(String executionId, String name, Long userId,
+            boolean admin) {
+        return batchExecuteService.findExecution(executionId)
+                .filter(execution -> admin || execution.getUserId().equals(userId))
+                .flatMap(execution -> {
+                    clusterQueue.requireLocal(execution);
+                    return artifactStore.find(executionId, name);
+                });
+    }
+
+    private long resolveLimit(Integer limit) {
+        BatchConfig.Output config = batchConfig.getOutput();
+        if (limit == null || limit <= 0) {
+            return config.getDefaultReadLength();
+        }
+        return Math.min(limit, config.getMaxReadLength());
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.demo.batch.service;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import com.example.demo.batch.dto.BatchHistorySearchRequest;
 import com.example.demo.util.PaginationHelper;
@@ -18,13 +19,14 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class BatchSearchCriteria {
     private Long userId; // 検索対象ユーザーID（null = 全員）
     private String jobName; // ジョブ名（部分一致、optional）
     private String status; // ステータス（optional）
     private LocalDateTime startDateFrom; // 開始日時の下限（optional）
     private LocalDateTime endDateTo; // 終了日時の上限（optional）
+    private List<String> executionIds; // 実行IDの候補（全文検索の結果、null = 条件なし）
     private Integer offset; // ページング用オフセット
     private Integer pageSize; // ページサイズ
 
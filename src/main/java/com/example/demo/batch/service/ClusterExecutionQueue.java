@@ -0,0 +1,352 @@
+package com.example.demo.batch.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.batch.entity.BatchExecution;
+import com.example.demo.batch.entity.QueuedExecution;
+import com.example.demo.batch.exception.BatchDomainException;
+import com.example.demo.batch.exception.BatchErrorCode;
+import com.example.demo.batch.repository.ExecutionQueueRepository;
+import com.example.demo.config.BatchConfig;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 複数ノードで共有する DB の実行待ちキュー（batch.cluster.enabled の場合のみ動作する）
+ * 各ノードはローカルの空き枠の分だけ行をリース付きで取得して実行し、ハートビートでリースを延長する
+ * 停止したノードのリースは期限切れになり、他のノードが取得して再実行する
+ * （リースの期限は DB の時刻で判定する。ハートビートの遅れでリースを失ったノードは、ローカルの実行を履歴に記録せずに停止する）
+ * ノードIDには実行履歴と同じ batch.recovery.node-name を使い、再起動後も同じノードとして再接続した実行のリースを引き継ぐ
+ */
+@Component
+@Slf4j
+public class ClusterExecutionQueue implements ExecutionStatusListener {
+
+    @Autowired
+    private BatchConfig batchConfig;
+
+    @Autowired
+    private ExecutionQueueRepository queueRepository;
+
+    @Autowired
+    private BatchExecutor batchExecutor;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // 取得した実行をサービス経由で開始するため、取得は実行時まで遅らせる（サービスもこのキューを参照する）
+    @Autowired
+    private ObjectProvider<BatchExecuteService> batchExecuteService;
+
+    // このノードが取得して未完了の実行ID → キャンセル依頼を転送済みの場合 true
+    private final Map<String, Boolean> owned = new ConcurrentHashMap<>();
+
+    private String nodeId;
+    private ScheduledExecutorService ticker;
+
+    @PostConstruct
+    void init() {
+        BatchConfig.Cluster config = batchConfig.getCluster();
+        if (!config.isEnabled()) {
+            return;
+        }
+        nodeId = batchConfig.getRecovery().getNodeName();
+    }
+
+    /**
+     * ポーリングとハートビートを開始する
+     * 再起動前に取得した行を起動時の整合処理で引き継ぐまで、このノード自身が取得し直して二重に実行しないよう、
+     * 整合処理の後に呼び出す
+     */
+    public synchronized void startPolling() {
+        BatchConfig.Cluster config = batchConfig.getCluster();
+        if (!config.isEnabled() || ticker != null) {
+            return;
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        // ポーリングが DB で待たされてもハートビートが遅れないよう、スレッドを分ける
+        ticker = Executors.newScheduledThreadPool(2, r -> {
+            Thread thread = new Thread(r, "batch-cluster-queue-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(this::poll, config.getPollIntervalMillis(), config.getPollIntervalMillis(),
+                TimeUnit.MILLISECONDS);
+        ticker.scheduleWithFixedDelay(this::heartbeat, config.getHeartbeatIntervalMillis(),
+                config.getHeartbeatIntervalMillis(), TimeUnit.MILLISECONDS);
+        log.info("Cluster execution queue started: node {}", nodeId);
+    }
+
+    @PreDestroy
+    synchronized void shutdown() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    /**
+     * @return DB の実行待ちキューを使う場合 true
+     */
+    public boolean isEnabled() {
+        return batchConfig.getCluster().isEnabled();
+    }
+
+    /**
+     * @return このノードがリースを持つ行の実行ID（再起動前に取得したものを含む）
+     */
+    public Set<String> leasedExecutionIds() {
+        return isEnabled() ? new HashSet<>(queueRepository.findOwned(nodeId)) : Set.of();
+    }
+
+    /**
+     * 再起動前に取得した行のリースを手放す（プロセスが残っていない実行を他のノードに再実行させる）
+     *
+     * @param executionId 実行ID
+     * @return 手放した場合 true
+     */
+    public boolean release(String executionId) {
+        return isEnabled() && queueRepository.release(executionId, nodeId) > 0;
+    }
+
+    /**
+     * 起動時の整合処理で再接続する実行のリースを引き継ぐ
+     * 再起動前に取得した行がまだ他のノードに取得し直されていなければ、このノードの実行として延長を再開する
+     *
+     * @param executionId 実行ID
+     * @return リースを引き継いだ場合 true
+     */
+    public boolean adopt(String executionId) {
+        if (!isEnabled()) {
+            return false;
+        }
+        if (queueRepository.renewLeases(nodeId, List.of(executionId), batchConfig.getCluster().getLeaseMillis()) == 0) {
+            return false;
+        }
+        owned.put(executionId, false);
+        return true;
+    }
+
+    /**
+     * 実行を実行待ちキューに積む（呼び出し元のトランザクションで挿入する）
+     *
+     * @param job       ジョブ定義
+     * @param execution 待機中の実行レコード
+     * @throws BatchDomainException 未取得の実行が上限に達している場合
+     */
+    public void enqueue(BatchConfig.Job job, BatchExecution execution) {
+        if (queueRepository.countUnclaimed() >= batchConfig.getCluster().getQueueCapacity()) {
+            log.warn("Batch execution rejected: cluster queue is full");
+            throw new BatchDomainException(BatchErrorCode.EXECUTION_QUEUE_FULL);
+        }
+        queueRepository.insert(QueuedExecution.builder()
+                .executionId(execution.getId())
+                .jobId(job.getId())
+                .userId(execution.getUserId())
+                .priority(job.getPriority())
+                .enqueuedAt(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * 実行をまとめて実行待ちキューに積む（呼び出し元のトランザクションで挿入する）
+     * 未取得の実行の上限までの分だけを先頭から受け付ける
+     *
+     * @param pending 投入前の実行
+     * @return 受け付けた件数（先頭からこの件数分を積んだ）
+     */
+    public int enqueueAll(List<PendingExecution> pending) {
+        long free = batchConfig.getCluster().getQueueCapacity() - queueRepository.countUnclaimed();
+        int accepted = (int) Math.max(0, Math.min(pending.size(), free));
+        if (accepted < pending.size()) {
+            log.warn("Batch executions rejected: cluster queue is full ({} of {} accepted)", accepted,
+                    pending.size());
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<QueuedExecution> rows = new ArrayList<>(accepted);
+        for (PendingExecution entry : pending.subList(0, accepted)) {
+            rows.add(QueuedExecution.builder()
+                    .executionId(entry.execution().getId())
+                    .jobId(entry.job().getId())
+                    .userId(entry.execution().getUserId())
+                    .priority(entry.job().getPriority())
+                    .enqueuedAt(now)
+                    .build());
+        }
+        int chunkSize = batchConfig.getHistory().getMaxBatchSize();
+        for (int from = 0; from < rows.size(); from += chunkSize) {
+            queueRepository.insertAll(rows.subList(from, Math.min(rows.size(), from + chunkSize)));
+        }
+        return accepted;
+    }
+
+    /**
+     * @param executionId 実行ID
+     * @return 実行待ちキューにある（未取得、またはいずれかのノードで実行中の）場合 true
+     */
+    public boolean contains(String executionId) {
+        return isEnabled() && queueRepository.exists(executionId);
+    }
+
+    /**
+     * 実行したノードのローカルにしかないデータ（出力・成果物・実行イベント）をこのノードで参照できるか確認する
+     * 未取得の実行はまだどのノードにもデータがないため、受け付けたノードに関係なく参照できる
+     *
+     * @param execution 実行レコード
+     * @throws BatchDomainException 他のノードで実行された場合（詳細は実行したノードID）
+     */
+    public void requireLocal(BatchExecution execution) {
+        if (isEnabled() && !execution.isQueued() && execution.getNodeId() != null
+                && !execution.getNodeId().equals(nodeId)) {
+            throw new BatchDomainException(BatchErrorCode.EXECUTION_ON_OTHER_NODE, execution.getNodeId());
+        }
+    }
+
+    /**
+     * このノードで実行していない実行をキャンセルする
+     *
+     * @param executionId 実行ID
+     * @return 未取得の行を取り除いた場合 true（呼び出し元でキャンセル状態にする）。
+     *         取得済みの場合は取得したノードに依頼して false を返す
+     */
+    public boolean cancel(String executionId) {
+        if (queueRepository.deleteUnclaimed(executionId) > 0) {
+            return true;
+        }
+        queueRepository.requestCancel(executionId);
+        return false;
+    }
+
+    /**
+     * 完了した実行の行を削除する
+     */
+    @Override
+    public void onStatusChanged(BatchExecution execution) {
+        if (execution.isCompleted() && owned.remove(execution.getId()) != null) {
+            queueRepository.delete(execution.getId(), nodeId);
+        }
+    }
+
+    /**
+     * ローカルの空き枠の分だけ実行を取得して開始する
+     */
+    private void poll() {
+        try {
+            int free = batchExecutor.getConcurrencyLimit() - batchExecutor.getRunningCount()
+                    - batchExecutor.getQueuedCount();
+            if (free <= 0) {
+                return;
+            }
+            List<QueuedExecution> claimed = transactionTemplate.execute(status -> claim(free));
+            for (QueuedExecution queued : claimed) {
+                start(queued);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Polling the cluster execution queue failed", e);
+        }
+    }
+
+    private List<QueuedExecution> claim(int limit) {
+        long leaseMillis = batchConfig.getCluster().getLeaseMillis();
+        List<QueuedExecution> claimed = new ArrayList<>();
+        for (QueuedExecution candidate : queueRepository.findClaimable(limit)) {
+            // 他のノードが先に取得した行は更新件数が 0 になる
+            if (queueRepository.claim(candidate.getExecutionId(), nodeId, leaseMillis) > 0) {
+                candidate.setLeaseOwner(nodeId);
+                candidate.setAttempts(candidate.getAttempts() + 1);
+                claimed.add(candidate);
+            }
+        }
+        return claimed;
+    }
+
+    private void start(QueuedExecution queued) {
+        String executionId = queued.getExecutionId();
+        owned.put(executionId, false);
+        ClaimOutcome outcome;
+        try {
+            outcome = batchExecuteService.getObject().runClaimed(queued, batchConfig.getCluster().getMaxAttempts());
+        } catch (RuntimeException e) {
+            log.warn("Failed to start claimed execution: {}", executionId, e);
+            outcome = ClaimOutcome.DEFERRED;
+        }
+        if (outcome == ClaimOutcome.STARTED || owned.remove(executionId) == null) {
+            return;
+        }
+        if (outcome == ClaimOutcome.DEFERRED) {
+            // 他のノード（または次回のポーリング）に任せる
+            queueRepository.release(executionId, nodeId);
+        } else {
+            queueRepository.delete(executionId, nodeId);
+        }
+    }
+
+    /**
+     * 取得中の行のリースを延長し、キャンセル依頼をローカルの実行に転送する
+     * 延長できなかった行は他のノードに取得し直されているため、ローカルの実行を停止する
+     */
+    private void heartbeat() {
+        List<String> held = new ArrayList<>(owned.keySet());
+        if (held.isEmpty()) {
+            return;
+        }
+        try {
+            int renewed = queueRepository.renewLeases(nodeId, held, batchConfig.getCluster().getLeaseMillis());
+            log.debug("Renewed {} leases of node {}", renewed, nodeId);
+            if (renewed < held.size()) {
+                abandonLostLeases(held);
+            }
+
+            for (String executionId : queueRepository.findCancelRequested(nodeId)) {
+                if (owned.replace(executionId, false, true)) {
+                    log.info("Forwarding cancel request to local execution: {}", executionId);
+                    batchExecuteService.getObject().cancelExecution(executionId, null, true);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Cluster execution queue heartbeat failed: node {}", nodeId, e);
+        }
+    }
+
+    /**
+     * リースを失った実行をローカルで停止する
+     * 停止した実行の状態遷移は履歴に記録しない（取得し直したノードの実行が正となる）
+     *
+     * @param held 延長を試みた実行ID
+     */
+    private void abandonLostLeases(List<String> held) {
+        Set<String> stillOwned = new HashSet<>(queueRepository.findOwned(nodeId));
+        for (String executionId : held) {
+            // 完了して行を削除した実行は owned から先に取り除かれている
+            if (!stillOwned.contains(executionId) && owned.remove(executionId) != null) {
+                log.warn("Lease of execution {} was lost by node {}, abandoning local run", executionId, nodeId);
+                batchExecuteService.getObject().abandonExecution(executionId);
+            }
+        }
+    }
+
+    /**
+     * 取得した実行の扱い
+     */
+    public enum ClaimOutcome {
+        STARTED, // このノードで引き受けた（完了時に行を削除する）
+        DEFERRED, // 開始できなかった（リースを手放して再取得を待つ）
+        DISCARDED // 既に完了していた（行を削除する）
+    }
+}
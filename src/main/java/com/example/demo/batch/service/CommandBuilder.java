@@ -1,6 +1,9 @@
 package com.example.demo.batch.service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+
 import com.example.demo.config.BatchConfig;
 
 /**
@@ -9,10 +12,26 @@ import com.example.demo.config.BatchConfig;
  */
 public interface CommandBuilder {
     /**
-     * ジョブ定義からコマンドをビルドする
+     * ジョブ定義のコマンド名から実行ファイル名を決める
+     * ジョブの登録時に1回だけ呼ばれ、結果は起動仕様に保持される
      * 
      * @param job ジョブ定義
+     * @return 実行ファイル名（相対パスの場合は作業ディレクトリ、パスを含まない場合は PATH から解決される）
+     */
+    String executableName(BatchConfig.Job job);
+
+    /**
+     * 起動仕様にパラメータを埋め込んでコマンドをビルドする
+     * 
+     * @param launch     ジョブの起動仕様
+     * @param parameters 正規化済みのパラメータ
      * @return コマンドリスト
      */
-    List<String> buildCommand(BatchConfig.Job job);
+    default List<String> buildCommand(LaunchSpec launch, Map<String, String> parameters) {
+        List<String> arguments = launch.template().arguments(parameters);
+        List<String> command = new ArrayList<>(arguments.size() + 1);
+        command.add(launch.executable());
+        command.addAll(arguments);
+        return command;
+    }
 }
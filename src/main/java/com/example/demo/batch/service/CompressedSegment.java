@@ -0,0 +1,189 @@
+package com.example.demo.batch.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * チャンク単位で圧縮した出力セグメント
+ * 元のセグメントを一定サイズのチャンクに分けて個別に deflate し、チャンクごとの圧縮後の位置を末尾の索引に持つ
+ * 読み取りは指定範囲にかかるチャンクだけを展開する
+ *
+ * <pre>
+ * [チャンク0][チャンク1]...[チャンクn-1]
+ * [索引: 各チャンクの開始位置 n 個 + 終端位置（long）]
+ * [トレーラー: 索引の開始位置（long）, チャンクサイズ（int）, MAGIC（int）]
+ * </pre>
+ */
+final class CompressedSegment {
+
+    private static final int MAGIC = 0x42534547; // "BSEG"
+    private static final int TRAILER_SIZE = Long.BYTES + Integer.BYTES + Integer.BYTES;
+
+    private final Path path;
+    private final int chunkSize;
+    private final long[] chunkOffsets;
+
+    private CompressedSegment(Path path, int chunkSize, long[] chunkOffsets) {
+        this.path = path;
+        this.chunkSize = chunkSize;
+        this.chunkOffsets = chunkOffsets;
+    }
+
+    /**
+     * 元のセグメントを圧縮して書き出す
+     * 一時ファイルに書き出してから置き換えるため、読み取り側が書き込み途中の内容を参照することはない
+     *
+     * @param source    元のセグメント
+     * @param length    元のセグメントの有効な長さ（事前確保した末尾の領域は含めない）
+     * @param target    書き出し先
+     * @param chunkSize チャンクサイズ（バイト）
+     * @param level     deflate の圧縮レベル
+     * @throws IOException 読み取り・書き込みに失敗した場合
+     */
+    static void write(Path source, long length, Path target, int chunkSize, int level) throws IOException {
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        int chunks = (int) ((length + chunkSize - 1) / chunkSize);
+        long[] offsets = new long[chunks + 1];
+        Deflater deflater = new Deflater(level, true);
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer input = ByteBuffer.allocate(chunkSize);
+            ByteBuffer output = ByteBuffer.allocate(chunkSize + chunkSize / 8 + 64);
+            long position = 0;
+            for (int i = 0; i < chunks; i++) {
+                offsets[i] = out.position();
+                input.clear().limit((int) Math.min(chunkSize, length - position));
+                while (input.hasRemaining()) {
+                    if (in.read(input, position + input.position()) < 0) {
+                        throw new IOException("Unexpected end of output segment: " + source);
+                    }
+                }
+                input.flip();
+                position += input.remaining();
+
+                // チャンクごとに辞書を捨て、単独で展開できるようにする
+                deflater.reset();
+                deflater.setInput(input);
+                deflater.finish();
+                while (!deflater.finished()) {
+                    output.clear();
+                    deflater.deflate(output);
+                    output.flip();
+                    while (output.hasRemaining()) {
+                        out.write(output);
+                    }
+                }
+            }
+            offsets[chunks] = out.position();
+
+            ByteBuffer index = ByteBuffer.allocate(offsets.length * Long.BYTES + TRAILER_SIZE);
+            for (long offset : offsets) {
+                index.putLong(offset);
+            }
+            index.putLong(offsets[chunks]).putInt(chunkSize).putInt(MAGIC).flip();
+            while (index.hasRemaining()) {
+                out.write(index);
+            }
+            out.force(true);
+        } finally {
+            deflater.end();
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 圧縮済みのセグメントを開き、索引を読み込む
+     *
+     * @param path 圧縮済みのセグメント
+     * @return 圧縮済みのセグメント
+     * @throws IOException 読み取りに失敗した場合、または形式が不正な場合
+     */
+    static CompressedSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < TRAILER_SIZE) {
+                throw new IOException("Corrupted compressed segment: " + path);
+            }
+            ByteBuffer trailer = readFully(channel, size - TRAILER_SIZE, TRAILER_SIZE);
+            long indexOffset = trailer.getLong();
+            int chunkSize = trailer.getInt();
+            if (trailer.getInt() != MAGIC || indexOffset < 0 || indexOffset > size - TRAILER_SIZE) {
+                throw new IOException("Corrupted compressed segment: " + path);
+            }
+            ByteBuffer index = readFully(channel, indexOffset, (int) (size - TRAILER_SIZE - indexOffset));
+            long[] offsets = new long[index.remaining() / Long.BYTES];
+            index.asLongBuffer().get(offsets);
+            return new CompressedSegment(path, chunkSize, offsets);
+        }
+    }
+
+    /**
+     * 展開後の指定範囲を転送する（範囲にかかるチャンクだけを展開する）
+     *
+     * @param position 展開後の開始位置
+     * @param count    転送バイト数
+     * @param target   転送先
+     * @throws IOException 読み取り・書き込みに失敗した場合、または形式が不正な場合
+     */
+    void transferTo(long position, long count, WritableByteChannel target) throws IOException {
+        if (count <= 0) {
+            return;
+        }
+        int first = (int) (position / chunkSize);
+        int last = (int) ((position + count - 1) / chunkSize);
+        if (last >= chunkOffsets.length - 1) {
+            throw new IOException("Read beyond compressed segment: " + path);
+        }
+        Inflater inflater = new Inflater(true);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer chunk = ByteBuffer.allocate(chunkSize);
+            for (int i = first; i <= last; i++) {
+                ByteBuffer compressed = readFully(channel, chunkOffsets[i],
+                        (int) (chunkOffsets[i + 1] - chunkOffsets[i]));
+                inflater.reset();
+                inflater.setInput(compressed);
+                chunk.clear();
+                try {
+                    while (!inflater.finished() && chunk.hasRemaining()) {
+                        if (inflater.inflate(chunk) == 0 && inflater.needsInput()) {
+                            break;
+                        }
+                    }
+                } catch (DataFormatException e) {
+                    throw new IOException("Corrupted chunk " + i + " of compressed segment: " + path, e);
+                }
+                chunk.flip();
+
+                long chunkStart = (long) i * chunkSize;
+                int from = (int) Math.max(0, position - chunkStart);
+                int to = (int) Math.min(chunk.limit(), position + count - chunkStart);
+                chunk.position(from).limit(to);
+                while (chunk.hasRemaining()) {
+                    target.write(chunk);
+                }
+            }
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of compressed segment");
+            }
+        }
+        return buffer.flip();
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.demo.batch.service;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.batch.dto.ExecuteRequest;
+import com.example.demo.batch.exception.BatchDomainException;
+import com.example.demo.batch.repository.BatchRepository;
+import com.example.demo.config.BatchConfig;
+import com.example.demo.users.entity.User;
+import com.example.demo.users.repository.UserRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * cron 式による定期実行
+ * すべての予定を1つのタイミングホイールで管理し、1本のスレッドで tick を進める
+ * 起動した実行はシステムユーザーの実行として履歴に記録する
+ */
+@Component
+@Slf4j
+public class CronScheduler {
+
+    @Autowired
+    private BatchConfig batchConfig;
+
+    @Autowired
+    private BatchExecuteService batchExecuteService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BatchRepository batchRepository;
+
+    // wheel は ticker スレッドのみが操作する
+    private TimingWheel<Schedule> wheel;
+    private ScheduledExecutorService ticker;
+    private ExecutorService triggers;
+    private ZoneId zone;
+    private Long systemUserId;
+
+    /**
+     * アプリケーション起動完了後に定期実行を開始する
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!loadSchedules(System.currentTimeMillis())) {
+            return;
+        }
+
+        BatchConfig.Scheduler config = batchConfig.getScheduler();
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "batch-cron");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, config.getTickMillis(), config.getTickMillis(),
+                TimeUnit.MILLISECONDS);
+        log.info("Cron scheduler started: {} schedules, zone: {}", wheel.size(), zone);
+    }
+
+    /**
+     * 定期実行の予定をタイミングホイールに登録する（停止中に過ぎた予定はここで起動する）
+     *
+     * @param now 現在時刻（エポックミリ秒）
+     * @return 登録した予定がある場合 true
+     */
+    boolean loadSchedules(long now) {
+        BatchConfig.Scheduler config = batchConfig.getScheduler();
+        if (!config.isEnabled()) {
+            log.info("Cron scheduler is disabled");
+            return false;
+        }
+        systemUserId = userRepository.findByName(config.getSystemUser())
+                .map(User::getId)
+                .orElse(null);
+        if (systemUserId == null) {
+            log.warn("Cron scheduler is disabled: system user not found: {}", config.getSystemUser());
+            return false;
+        }
+        zone = config.getZone() != null ? ZoneId.of(config.getZone()) : ZoneId.systemDefault();
+
+        wheel = new TimingWheel<>(config.getTickMillis(), config.getWheelSize(), now);
+        triggers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("batch-cron-trigger-", 0).factory());
+        for (BatchConfig.Job job : batchConfig.getJobs()) {
+            if (!job.isEnabled() || job.getCron() == null || job.getCron().isBlank()) {
+                continue;
+            }
+            try {
+                Schedule schedule = new Schedule(job, CronExpression.parse(job.getCron()));
+                if (missedWhileStopped(schedule, now)) {
+                    log.warn("Firing schedule missed while stopped: {}", job.getId());
+                    triggers.execute(() -> trigger(job));
+                }
+                scheduleNext(schedule, now);
+            } catch (IllegalArgumentException e) {
+                log.error("Invalid cron expression for job {}: {}", job.getId(), job.getCron(), e);
+            }
+        }
+        if (wheel.size() == 0) {
+            triggers.shutdown();
+            triggers = null;
+            return false;
+        }
+        return true;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+        if (triggers != null) {
+            triggers.shutdownNow();
+        }
+    }
+
+    private void tick() {
+        tick(System.currentTimeMillis());
+    }
+
+    /**
+     * 現在時刻までに予定時刻を迎えた定期実行を起動する
+     *
+     * @param now 現在時刻（エポックミリ秒）
+     */
+    void tick(long now) {
+        try {
+            wheel.advance(now, (schedule, deadline) -> fire(schedule, deadline, now));
+        } catch (RuntimeException e) {
+            // 例外で定期タスクが止まらないようにする
+            log.error("Cron scheduler tick failed", e);
+        }
+    }
+
+    private void fire(Schedule schedule, long deadline, long now) {
+        BatchConfig.Job job = schedule.job;
+        long lateness = now - deadline;
+        // 次回は現在時刻から計算する（遅延中に過ぎた予定をまとめて起動しない）
+        scheduleNext(schedule, Math.max(now, deadline));
+
+        if (lateness > batchConfig.getScheduler().getMisfireThresholdMillis()
+                && job.getMisfirePolicy() == BatchConfig.MisfirePolicy.SKIP) {
+            log.warn("Skipped misfired schedule: {}, late by {}ms", job.getId(), lateness);
+            return;
+        }
+        triggers.execute(() -> trigger(job));
+    }
+
+    private void trigger(BatchConfig.Job job) {
+        try {
+            String executionId = batchExecuteService.startBatch(new ExecuteRequest(job.getId()), systemUserId)
+                    .getExecutionId();
+            log.info("Triggered scheduled execution: {}, job: {}", executionId, job.getId());
+        } catch (BatchDomainException e) {
+            log.warn("Scheduled execution rejected: {}, {}", job.getId(), e.getErrorCode());
+        } catch (RuntimeException e) {
+            log.error("Failed to trigger scheduled execution: {}", job.getId(), e);
+        }
+    }
+
+    /**
+     * 停止中に予定時刻を過ぎた定期実行があるかを判定する（FIRE_ONCE のみ）
+     * 直近の定期実行の作成時刻より後の予定時刻が現在時刻を過ぎていればミスファイアとみなす
+     */
+    private boolean missedWhileStopped(Schedule schedule, long now) {
+        if (schedule.job.getMisfirePolicy() != BatchConfig.MisfirePolicy.FIRE_ONCE) {
+            return false;
+        }
+        return batchRepository.findLatestCreatedAt(schedule.job.getId(), systemUserId)
+                .map(last -> schedule.cron.next(last.atZone(ZoneId.systemDefault()).withZoneSameInstant(zone)))
+                .filter(next -> next.toInstant().toEpochMilli() < now)
+                .isPresent();
+    }
+
+    private void scheduleNext(Schedule schedule, long afterMillis) {
+        ZonedDateTime next = schedule.cron.next(ZonedDateTime.ofInstant(Instant.ofEpochMilli(afterMillis), zone));
+        if (next == null) {
+            log.info("No further schedule for job: {}", schedule.job.getId());
+            return;
+        }
+        wheel.schedule(next.toInstant().toEpochMilli(), schedule);
+    }
+
+    private record Schedule(BatchConfig.Job job, CronExpression cron) {
+    }
+}
@@ -1,8 +1,5 @@
 package com.example.demo.batch.service;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
@@ -19,29 +16,15 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class DevCommandBuilder implements CommandBuilder {
 
-    @Override
-    public List<String> buildCommand(BatchConfig.Job job) {
-        List<String> command = new ArrayList<>();
-        String commandWithExtension = addOsSpecificExtension(job.getCommand());
-        command.add(commandWithExtension);
-        command.addAll(job.getArguments());
-
-        log.debug("Built dev command: {} with arguments: {}", commandWithExtension, job.getArguments());
+    // OS は実行中に変わらないため、拡張子は一度だけ決める
+    private static final String EXTENSION = System.getProperty("os.name").toLowerCase().contains("windows")
+            ? ".bat"
+            : ".sh";
 
-        return command;
-    }
-
-    /**
-     * OSに応じて拡張子を付与する
-     * 
-     * @param command コマンド名（拡張子なし）
-     * @return 拡張子付きコマンド名
-     */
-    private String addOsSpecificExtension(String command) {
-        String osName = System.getProperty("os.name").toLowerCase();
-        String extension = osName.contains("windows") ? ".bat" : ".sh";
-        String commandWithExtension = command + extension;
-        log.info("OS: {}, Command: {} -> {}", osName, command, commandWithExtension);
+    @Override
+    public String executableName(BatchConfig.Job job) {
+        String commandWithExtension = job.getCommand() + EXTENSION;
+        log.debug("Command: {} -> {}", job.getCommand(), commandWithExtension);
         return commandWithExtension;
     }
 }
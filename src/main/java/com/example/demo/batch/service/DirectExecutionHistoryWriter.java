@@ -0,0 +1,61 @@
+package com.example.demo.batch.service;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.batch.dto.ExecutionStatus;
+import com.example.demo.batch.dto.HistoryWriterMetrics;
+import com.example.demo.batch.entity.BatchExecution;
+import com.example.demo.batch.repository.BatchRepository;
+import com.example.demo.config.BatchConfig;
+
+/**
+ * バッチ実行履歴を呼び出し元のトランザクションで即時に書き込む（既定）
+ */
+@Component
+@ConditionalOnProperty(prefix = "batch.history", name = "write-behind", havingValue = "false", matchIfMissing = true)
+public class DirectExecutionHistoryWriter implements ExecutionHistoryWriter {
+
+    @Autowired
+    private BatchConfig batchConfig;
+
+    @Autowired
+    private BatchRepository batchRepository;
+
+    @Override
+    public void insert(BatchExecution execution) {
+        batchRepository.insert(execution);
+    }
+
+    /**
+     * max-batch-size 件ずつ複数行の INSERT 文で挿入する
+     * （呼び出し元のトランザクションの SqlSession を共有するため、BATCH 実行ではなく1文にまとめる）
+     */
+    @Override
+    public void insertAll(List<BatchExecution> executions) {
+        int chunkSize = batchConfig.getHistory().getMaxBatchSize();
+        for (int from = 0; from < executions.size(); from += chunkSize) {
+            batchRepository.insertAll(executions.subList(from, Math.min(executions.size(), from + chunkSize)));
+        }
+    }
+
+    @Override
+    public boolean updateIfStatus(BatchExecution execution, ExecutionStatus expectedStatus) {
+        return batchRepository.updateIfStatus(execution, expectedStatus) > 0;
+    }
+
+    @Override
+    public void recordProcess(String executionId, long pid) {
+        batchRepository.updateProcess(executionId, pid);
+    }
+
+    @Override
+    public HistoryWriterMetrics metrics() {
+        return HistoryWriterMetrics.builder()
+                .mode("DIRECT")
+                .build();
+    }
+}
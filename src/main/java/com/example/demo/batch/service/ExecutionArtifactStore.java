@@ -0,0 +1,237 @@
+package com.example.demo.batch.service;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.batch.dto.ArtifactResponse;
+import com.example.demo.config.BatchConfig;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 実行ごとの成果物を保存するストア
+ * ジョブの完了時に作業ディレクトリから artifacts の glob に一致したファイルを収集し、実行ごとのディレクトリへコピーする
+ * （作業ディレクトリは実行間で共有されるため、実行の開始より前に更新されたファイルは対象にしない）
+ *
+ * <pre>
+ * {directory}/{executionId}/{ファイル名}
+ * </pre>
+ */
+@Component
+@Slf4j
+public class ExecutionArtifactStore {
+
+    @Autowired
+    private BatchConfig batchConfig;
+
+    /**
+     * 成果物を収集する（収集の失敗で実行の完了を妨げない）
+     *
+     * @param executionId   実行ID
+     * @param job           ジョブ定義
+     * @param startedMillis 実行の開始時刻（エポックミリ秒。これより前に更新されたファイルは収集しない）
+     * @return 収集したファイル数
+     */
+    public int collect(String executionId, BatchConfig.Job job, long startedMillis) {
+        if (job.getArtifacts().isEmpty()) {
+            return 0;
+        }
+        BatchConfig.Artifacts config = batchConfig.getArtifacts();
+        Path base = Path.of(job.getWorkingDirectory()).toAbsolutePath().normalize();
+        // ファイルの更新時刻の精度が秒単位のファイルシステムに合わせる
+        long notBefore = startedMillis - startedMillis % 1000;
+
+        // glob ごとに、ワイルドカードを含まない先頭部分のディレクトリから必要な深さだけを探す
+        Set<Path> matched = new TreeSet<>();
+        for (String glob : job.getArtifacts()) {
+            PathMatcher matcher = base.getFileSystem().getPathMatcher("glob:" + glob);
+            SearchRoot root = SearchRoot.of(base, glob, config.getMaxDepth());
+            if (root == null || !Files.isDirectory(root.directory())) {
+                continue;
+            }
+            try (Stream<Path> files = Files.find(root.directory(), root.depth(),
+                    (path, attributes) -> attributes.isRegularFile()
+                            && attributes.lastModifiedTime().toMillis() >= notBefore
+                            && matcher.matches(base.relativize(path)))) {
+                files.forEach(matched::add);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to search artifacts of execution {}: {}", executionId, glob, e);
+            }
+        }
+
+        List<Path> found = new ArrayList<>(matched);
+        if (found.size() > config.getMaxFiles()) {
+            log.warn("Too many artifacts in execution {}, collecting first {}", executionId, config.getMaxFiles());
+            found = found.subList(0, config.getMaxFiles());
+        }
+
+        Path target = executionDirectory(executionId);
+        Set<String> names = new HashSet<>();
+        int collected = 0;
+        for (Path file : found) {
+            String name = file.getFileName().toString();
+            if (!names.add(name)) {
+                log.warn("Duplicate artifact name in execution {}, skipping: {}", executionId, base.relativize(file));
+                continue;
+            }
+            try {
+                Files.createDirectories(target);
+                Files.copy(file, target.resolve(name), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.COPY_ATTRIBUTES);
+                collected++;
+            } catch (IOException e) {
+                log.warn("Failed to collect artifact of execution {}: {}", executionId, file, e);
+            }
+        }
+        log.info("Collected {} artifacts of execution: {}", collected, executionId);
+        return collected;
+    }
+
+    /**
+     * 成果物の一覧を取得する
+     *
+     * @param executionId 実行ID
+     * @return 成果物の一覧（名前順。成果物がない場合は空）
+     */
+    public List<ArtifactResponse> list(String executionId) {
+        Path directory = executionDirectory(executionId);
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(Files::isRegularFile)
+                    .sorted(Comparator.comparing(Path::getFileName))
+                    .map(ExecutionArtifactStore::toResponse)
+                    .flatMap(Optional::stream)
+                    .toList();
+        } catch (IOException e) {
+            log.warn("Failed to list artifacts of execution: {}", executionId, e);
+            return List.of();
+        }
+    }
+
+    /**
+     * 成果物を参照する
+     *
+     * @param executionId 実行ID
+     * @param name        成果物名
+     * @return 成果物（存在しない、または名前が不正な場合は空）
+     */
+    public Optional<Artifact> find(String executionId, String name) {
+        if (name == null || name.isEmpty() || name.equals(".") || name.equals("..") || name.indexOf('/') >= 0
+                || name.indexOf('\\') >= 0) {
+            return Optional.empty();
+        }
+        Path file = executionDirectory(executionId).resolve(name);
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return attributes.isRegularFile()
+                    ? Optional.of(new Artifact(file, name, attributes.size()))
+                    : Optional.empty();
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    private Path executionDirectory(String executionId) {
+        return Path.of(batchConfig.getArtifacts().getDirectory()).resolve(executionId);
+    }
+
+    private static Optional<ArtifactResponse> toResponse(Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return Optional.of(ArtifactResponse.builder()
+                    .name(file.getFileName().toString())
+                    .size(attributes.size())
+                    .modifiedAt(LocalDateTime.ofInstant(attributes.lastModifiedTime().toInstant(),
+                            ZoneId.systemDefault()))
+                    .build());
+        } catch (IOException e) {
+            // 一覧の取得中に削除された
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * glob の探索開始ディレクトリ
+     *
+     * @param directory 探索を開始するディレクトリ
+     * @param depth     探索する深さ
+     */
+    private record SearchRoot(Path directory, int depth) {
+
+        private static final String WILDCARDS = "*?[{\\";
+
+        /**
+         * @return 探索開始ディレクトリ（作業ディレクトリの外を指す glob の場合は null）
+         */
+        static SearchRoot of(Path base, String glob, int maxDepth) {
+            String[] segments = glob.split("/");
+            int fixed = 0;
+            while (fixed < segments.length - 1 && segments[fixed].chars().noneMatch(c -> WILDCARDS.indexOf(c) >= 0)) {
+                fixed++;
+            }
+            Path directory = base.resolve(String.join("/", List.of(segments).subList(0, fixed))).normalize();
+            if (!directory.startsWith(base)) {
+                return null;
+            }
+            boolean recursive = List.of(segments).subList(fixed, segments.length).stream()
+                    .anyMatch(segment -> segment.contains("**"));
+            return new SearchRoot(directory, recursive ? maxDepth : segments.length - fixed);
+        }
+    }
+
+    /**
+     * 保存済みの成果物
+     * 内容はヒープに載せず、FileChannel.transferTo で転送する
+     *
+     * @param file   保存先のファイル
+     * @param name   成果物名
+     * @param length サイズ（バイト）
+     */
+    public record Artifact(Path file, String name, long length) {
+
+        /**
+         * 指定範囲の内容を転送する
+         *
+         * @param offset 開始オフセット
+         * @param count  転送バイト数
+         * @param target 転送先
+         * @throws IOException 読み取り・書き込みに失敗した場合
+         */
+        public void transferTo(long offset, long count, WritableByteChannel target) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long position = offset;
+                long remaining = count;
+                while (remaining > 0) {
+                    long transferred = channel.transferTo(position, remaining, target);
+                    if (transferred <= 0) {
+                        throw new IOException("Unexpected end of artifact: " + name);
+                    }
+                    position += transferred;
+                    remaining -= transferred;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.example.demo.batch.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.demo.batch.dto.ExecuteResponse;
+import com.example.demo.batch.entity.BatchExecution;
+import com.example.demo.batch.exception.BatchDomainException;
+import com.example.demo.batch.exception.BatchErrorCode;
+import com.example.demo.config.BatchConfig;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 重複した実行要求の統合（single-flight）
+ * 同じジョブ・パラメータ・ユーザーの要求が待機中・実行中の実行と重なった場合（ジョブの dedup-window-seconds を指定した場合のみ）、
+ * および同じ Idempotency-Key の要求が再送された場合に、新しい実行を作らず既存の実行IDを返す
+ * 同時に届いた要求は最初の1件だけが実行を作成し、残りはその実行レコードのコミットを待って同じ実行IDを受け取る
+ * 統合先の記録は実行の完了時に取り除き、他のノードで完了した実行の分は dedup-window-seconds を過ぎたものを定期的に掃除する
+ */
+@Component
+@Slf4j
+public class ExecutionDeduplicator implements ExecutionStatusListener {
+
+    // 期限切れの統合先を掃除する最短間隔
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @Autowired
+    private BatchConfig batchConfig;
+
+    @Autowired
+    private LiveExecutionRegistry liveExecutions;
+
+    @Autowired
+    private ClusterExecutionQueue clusterQueue;
+
+    private final Map<JobKey, Flight> inFlight = new ConcurrentHashMap<>();
+
+    // 統合先として記録した実行ID → キー（完了時に inFlight から取り除くため）
+    private final Map<String, JobKey> inFlightKeys = new ConcurrentHashMap<>();
+
+    private final AtomicLong lastSweepNanos = new AtomicLong(System.nanoTime());
+
+    // this で保護する（挿入順に保持し、先頭から期限切れを取り除く）
+    private final LinkedHashMap<IdempotencyKey, Flight> idempotencyKeys = new LinkedHashMap<>();
+
+    /**
+     * 重複を統合して実行を開始する
+     *
+     * @param job            ジョブ定義
+     * @param userId         ユーザーID
+     * @param parameters     正規化済みのパラメータ
+     * @param idempotencyKey Idempotency-Key ヘッダーの値（未指定の場合は null）
+     * @param starter        新しい実行を開始して実行IDを返す処理
+     * @return 実行ID（既存の実行を返した場合は deduplicated が true）
+     * @throws BatchDomainException 同じ Idempotency-Key が別のジョブに使われている場合、
+     *                              または統合先の実行の開始に失敗した場合
+     */
+    public ExecuteResponse execute(BatchConfig.Job job, Long userId, Map<String, String> parameters,
+            String idempotencyKey, Supplier<String> starter) {
+        Flight keyed = null;
+        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
+            Flight flight = new Flight(job.getId());
+            Flight existing = claimIdempotencyKey(new IdempotencyKey(userId, idempotencyKey), flight);
+            if (existing != null) {
+                if (!existing.jobId.equals(job.getId())) {
+                    throw new BatchDomainException(BatchErrorCode.IDEMPOTENCY_KEY_REUSED);
+                }
+                log.info("Replaying idempotent execute request: {}", idempotencyKey);
+                return deduplicated(existing);
+            }
+            keyed = flight;
+        }
+
+        try {
+            ExecuteResponse response = executeOnce(job, userId, parameters, starter);
+            if (keyed != null) {
+                completeAfterCommit(keyed, response.getExecutionId());
+            }
+            return response;
+        } catch (RuntimeException e) {
+            if (keyed != null) {
+                abandon(keyed, e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 待機中・実行中の同じ要求があればその実行IDを返し、なければ新しい実行を開始する
+     */
+    private ExecuteResponse executeOnce(BatchConfig.Job job, Long userId, Map<String, String> parameters,
+            Supplier<String> starter) {
+        if (job.getDedupWindowSeconds() <= 0) {
+            return new ExecuteResponse(starter.get());
+        }
+
+        sweepExpired();
+        JobKey key = new JobKey(job.getId(), userId, parameters);
+        Flight flight = new Flight(job.getId(), TimeUnit.SECONDS.toNanos(job.getDedupWindowSeconds()));
+        // 統合先の生存確認は DB を参照することがあるため、マップのロックの外で行い、入れ替えは値の比較で行う
+        Flight existing;
+        while ((existing = inFlight.putIfAbsent(key, flight)) != null) {
+            if (isJoinable(existing)) {
+                log.info("Coalescing duplicate execute request for job: {}, userId: {}", job.getId(), userId);
+                return deduplicated(existing);
+            }
+            if (inFlight.replace(key, existing, flight)) {
+                existing.executionId.thenAccept(inFlightKeys::remove);
+                break;
+            }
+        }
+
+        String executionId;
+        try {
+            executionId = starter.get();
+        } catch (RuntimeException e) {
+            inFlight.remove(key, flight);
+            flight.executionId.completeExceptionally(e);
+            throw e;
+        }
+        flight.executionId.thenAccept(id -> inFlightKeys.put(id, key));
+        completeAfterCommit(flight, executionId);
+        return new ExecuteResponse(executionId);
+    }
+
+    /**
+     * 完了した実行を統合先から取り除く
+     */
+    @Override
+    public void onStatusChanged(BatchExecution execution) {
+        if (!execution.isCompleted()) {
+            return;
+        }
+        JobKey key = inFlightKeys.remove(execution.getId());
+        if (key != null) {
+            inFlight.computeIfPresent(key,
+                    (k, flight) -> execution.getId().equals(flight.committedExecutionId()) ? null : flight);
+        }
+    }
+
+    /**
+     * 統合先にできなくなった記録を取り除く（他のノードで完了した実行や、開始に失敗した実行の分）
+     * 要求のたびに全件を走査しないよう、SWEEP_INTERVAL_NANOS に1回だけ行う
+     */
+    private void sweepExpired() {
+        long now = System.nanoTime();
+        long last = lastSweepNanos.get();
+        if (now - last < SWEEP_INTERVAL_NANOS || !lastSweepNanos.compareAndSet(last, now)) {
+            return;
+        }
+        inFlight.forEach((key, flight) -> {
+            if (flight.isExpired(now) && inFlight.remove(key, flight)) {
+                String executionId = flight.committedExecutionId();
+                if (executionId != null) {
+                    inFlightKeys.remove(executionId, key);
+                }
+            }
+        });
+    }
+
+    /**
+     * 統合先にできるかを判定する
+     * 開始処理中、または受付から dedup-window-seconds 以内で待機中・実行中のものが対象
+     */
+    private boolean isJoinable(Flight flight) {
+        CompletableFuture<String> executionId = flight.executionId;
+        if (!executionId.isDone()) {
+            return true;
+        }
+        if (flight.isExpired(System.nanoTime())) {
+            return false;
+        }
+        String id = executionId.join();
+        return liveExecutions.get(id).isPresent() || clusterQueue.contains(id);
+    }
+
+    private synchronized Flight claimIdempotencyKey(IdempotencyKey key, Flight flight) {
+        BatchConfig.Executor config = batchConfig.getExecutor();
+        long ttlNanos = TimeUnit.SECONDS.toNanos(config.getIdempotencyKeyTtlSeconds());
+        long now = System.nanoTime();
+        Iterator<Flight> eldest = idempotencyKeys.values().iterator();
+        while (eldest.hasNext()) {
+            Flight next = eldest.next();
+            if (now - next.startedNanos < ttlNanos && idempotencyKeys.size() < config.getIdempotencyKeyMaxEntries()) {
+                break;
+            }
+            eldest.remove();
+        }
+
+        Flight existing = idempotencyKeys.putIfAbsent(key, flight);
+        if (existing != null && existing.executionId.isCompletedExceptionally()) {
+            idempotencyKeys.put(key, flight);
+            return null;
+        }
+        return existing;
+    }
+
+    private synchronized void abandon(Flight flight, RuntimeException cause) {
+        idempotencyKeys.values().remove(flight);
+        flight.executionId.completeExceptionally(cause);
+    }
+
+    /**
+     * 実行レコードのコミット後に実行IDを公開する
+     * 待っている要求に未コミットの実行IDを返さないよう、トランザクション完了まで遅らせる
+     */
+    private void completeAfterCommit(Flight flight, String executionId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            flight.executionId.complete(executionId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    flight.executionId.complete(executionId);
+                } else {
+                    flight.executionId.completeExceptionally(
+                            new BatchDomainException(BatchErrorCode.BATCH_EXECUTION_FAILED));
+                }
+            }
+        });
+    }
+
+    private static ExecuteResponse deduplicated(Flight flight) {
+        try {
+            ExecuteResponse response = new ExecuteResponse(flight.executionId.join());
+            response.setDeduplicated(true);
+            return response;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record JobKey(String jobId, Long userId, Map<String, String> parameters) {
+    }
+
+    private record IdempotencyKey(Long userId, String key) {
+    }
+
+    /**
+     * 開始処理中または開始済みの実行
+     */
+    private static final class Flight {
+        private final String jobId;
+        private final long windowNanos; // 統合できる期間（Idempotency-Key の場合は使わない）
+        private final long startedNanos = System.nanoTime();
+        private final CompletableFuture<String> executionId = new CompletableFuture<>();
+
+        Flight(String jobId) {
+            this(jobId, 0);
+        }
+
+        Flight(String jobId, long windowNanos) {
+            this.jobId = jobId;
+            this.windowNanos = windowNanos;
+        }
+
+        /**
+         * @return コミット済みの実行ID（開始処理中、または開始に失敗した場合は null）
+         */
+        String committedExecutionId() {
+            return executionId.isDone() && !executionId.isCompletedExceptionally() ? executionId.join() : null;
+        }
+
+        /**
+         * @return 開始に失敗した、または統合できる期間を過ぎた場合 true（開始処理中は false）
+         */
+        boolean isExpired(long now) {
+            return executionId.isDone()
+                    && (executionId.isCompletedExceptionally() || now - startedNanos >= windowNanos);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.demo.batch.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.demo.batch.dto.OutputLineEvent;
+import com.example.demo.batch.dto.StatusResponse;
+import com.example.demo.batch.entity.BatchExecution;
+import com.example.demo.config.BatchConfig;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 実行状態と出力行を Server-Sent Events で配信する
+ * 購読者ごとに上限付きのバッファを持ち、遅い購読者は出力行を間引き、ステータスは最新のみに集約する
+ */
+@Component
+@Slf4j
+public class ExecutionEventBroadcaster implements OutputSink, ExecutionStatusListener {
+
+    private static final int MAX_LINE_LENGTH = 8192;
+
+    @Autowired
+    private BatchConfig batchConfig;
+
+    @Autowired
+    private BatchMapper batchMapper;
+
+    private final ConcurrentHashMap<String, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    private ExecutorService senders;
+
+    @PostConstruct
+    void init() {
+        senders = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("batch-events-", 0).factory());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        senders.shutdownNow();
+    }
+
+    /**
+     * 実行イベントを購読する
+     *
+     * @param executionId   実行ID
+     * @param currentStatus 登録後に現在のステータスを取得する関数（登録前の遷移を取りこぼさないため）
+     * @return SSE エミッター
+     */
+    public SseEmitter subscribe(String executionId, Supplier<Optional<StatusResponse>> currentStatus) {
+        SseEmitter emitter = new SseEmitter(batchConfig.getEvents().getTimeoutMillis());
+        Subscriber subscriber = new Subscriber(executionId, emitter);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        subscribers.computeIfAbsent(executionId, id -> new CopyOnWriteArrayList<>()).add(subscriber);
+
+        currentStatus.get().ifPresent(subscriber::offerStatus);
+        log.debug("Subscribed to execution events: {}", executionId);
+        return emitter;
+    }
+
+    @Override
+    public void onStatusChanged(BatchExecution execution) {
+        List<Subscriber> targets = subscribers.get(execution.getId());
+        if (targets == null || targets.isEmpty()) {
+            return;
+        }
+        StatusResponse status = batchMapper.toStatusResponse(execution);
+        targets.forEach(subscriber -> subscriber.offerStatus(status));
+    }
+
+    @Override
+    public Channel open(String executionId, OutputStreamType type) {
+        LineBuffer lineBuffer = new LineBuffer(MAX_LINE_LENGTH);
+        LineBuffer.LineConsumer publisher = (line, length) -> {
+            List<Subscriber> targets = subscribers.get(executionId);
+            if (targets == null || targets.isEmpty()) {
+                return;
+            }
+            // 購読者がいる場合のみ文字列化する
+            OutputLineEvent event = new OutputLineEvent(type.name(),
+                    new String(line, 0, length, Charset.defaultCharset()));
+            targets.forEach(subscriber -> subscriber.offerLine(event));
+        };
+
+        return new Channel() {
+            @Override
+            public void write(ByteBuffer data) {
+                lineBuffer.append(data, publisher);
+            }
+
+            @Override
+            public void close() {
+                lineBuffer.flush(publisher);
+            }
+        };
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.executionId, (id, list) -> {
+            list.remove(subscriber);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    /**
+     * 購読者
+     * offer* はバッファへの追加のみを行い、送信は購読者ごとに直列化された仮想スレッドで行う
+     */
+    private final class Subscriber {
+
+        private final String executionId;
+        private final SseEmitter emitter;
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        // 以下は this で保護する
+        private final ArrayDeque<OutputLineEvent> lines = new ArrayDeque<>();
+        private StatusResponse pendingStatus;
+        private boolean terminal;
+        private int dropped;
+
+        Subscriber(String executionId, SseEmitter emitter) {
+            this.executionId = executionId;
+            this.emitter = emitter;
+        }
+
+        void offerLine(OutputLineEvent event) {
+            BatchConfig.Events config = batchConfig.getEvents();
+            synchronized (this) {
+                if (terminal) {
+                    return;
+                }
+                if (lines.size() >= config.getMaxBufferedLines()) {
+                    dropped++;
+                    if (config.getOverflowPolicy() == BatchConfig.OverflowPolicy.DROP_NEWEST) {
+                        return;
+                    }
+                    lines.pollFirst();
+                }
+                lines.addLast(event);
+            }
+            scheduleDrain();
+        }
+
+        void offerStatus(StatusResponse status) {
+            synchronized (this) {
+                // 終了ステータスは後から届いた古いステータスで上書きしない
+                if (terminal) {
+                    return;
+                }
+                pendingStatus = status;
+                terminal = status.getStatus().isTerminal();
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                while (true) {
+                    List<OutputLineEvent> batch;
+                    StatusResponse status;
+                    int droppedCount;
+                    boolean complete;
+                    synchronized (this) {
+                        if (lines.isEmpty() && pendingStatus == null && dropped == 0) {
+                            draining.set(false);
+                            return;
+                        }
+                        batch = new ArrayList<>(lines);
+                        lines.clear();
+                        status = pendingStatus;
+                        pendingStatus = null;
+                        droppedCount = dropped;
+                        dropped = 0;
+                        complete = terminal && status != null;
+                    }
+                    if (droppedCount > 0) {
+                        emitter.send(SseEmitter.event().name("dropped").data(droppedCount));
+                    }
+                    for (OutputLineEvent line : batch) {
+                        emitter.send(SseEmitter.event().name("output").data(line));
+                    }
+                    if (status != null) {
+                        emitter.send(SseEmitter.event().name("status").data(status));
+                    }
+                    if (complete) {
+                        emitter.complete();
+                        unsubscribe(this);
+                        return;
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // 切断済みのクライアント
+                log.debug("Execution event subscriber disconnected: {}", executionId);
+                unsubscribe(this);
+            }
+        }
+    }
+}
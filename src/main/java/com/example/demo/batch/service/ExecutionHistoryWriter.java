@@ -0,0 +1,61 @@
+package com.example.demo.batch.service;
+
+import java.util.List;
+
+import com.example.demo.batch.dto.ExecutionStatus;
+import com.example.demo.batch.dto.HistoryWriterMetrics;
+import com.example.demo.batch.entity.BatchExecution;
+
+/**
+ * バッチ実行履歴の書き込み
+ * batch.history.write-behind の設定により、同期書き込みとまとめ書き（write-behind）を切り替える
+ */
+public interface ExecutionHistoryWriter {
+
+    /**
+     * 実行レコードを挿入する
+     * 
+     * @param execution 実行レコード
+     */
+    void insert(BatchExecution execution);
+
+    /**
+     * 実行レコードをまとめて挿入する（一括投入用）
+     * 
+     * @param executions 実行レコードのリスト
+     */
+    void insertAll(List<BatchExecution> executions);
+
+    /**
+     * 現在のステータスが期待値と一致する場合のみ状態遷移を書き込む
+     * 
+     * @param execution      遷移後の実行レコード
+     * @param expectedStatus 遷移前のステータス
+     * @return 書き込めた場合 true（非同期書き込みで結果を待たない場合は常に true）
+     */
+    boolean updateIfStatus(BatchExecution execution, ExecutionStatus expectedStatus);
+
+    /**
+     * 実行中のプロセスのPIDを記録する（再起動時の再接続用。完了を待たない）
+     * 
+     * @param executionId 実行ID
+     * @param pid         PID
+     */
+    void recordProcess(String executionId, long pid);
+
+    /**
+     * それまでに受け付けた書き込みが DB に反映された後に処理を実行する
+     * 非同期書き込みでは、完了した実行をメモリ上の状態から取り除くのを行が最終状態になるまで遅らせるために使う
+     * （先に取り除くと、その間のステータス照会がフラッシュ前の古い行を返す）
+     * 
+     * @param action 実行する処理（同期書き込みの場合は呼び出し元のスレッドで即座に実行する）
+     */
+    default void afterFlush(Runnable action) {
+        action.run();
+    }
+
+    /**
+     * @return 書き込みのメトリクス
+     */
+    HistoryWriterMetrics metrics();
+}
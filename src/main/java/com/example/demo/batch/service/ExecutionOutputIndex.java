@@ -0,0 +1,438 @@
+package com.example.demo.batch.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.batch.entity.BatchExecution;
+import com.example.demo.config.BatchConfig;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 実行出力の全文検索索引（語 → 実行IDと出現位置の転置索引）
+ * 完了した実行の出力をバックグラウンドで語に分割してメモリ上に登録し、一定間隔で不変のセグメントとしてディスクに書き出す
+ * セグメント数が上限を超えた場合は小さいものから統合し、統合時に出力が削除済みの実行を取り除く
+ * 起動時は出力が終了しているのに索引にない実行（停止中に完了した実行など）を登録し直す
+ *
+ * <pre>
+ * {directory}/0000000000.idx, 0000000001.idx, ... セグメント（{@link OutputIndexSegment}）
+ * </pre>
+ */
+@Component
+@Slf4j
+public class ExecutionOutputIndex implements ExecutionStatusListener {
+
+    private static final String SEGMENT_SUFFIX = ".idx";
+
+    @Autowired
+    private BatchConfig batchConfig;
+
+    @Autowired
+    private ExecutionOutputStore outputStore;
+
+    // 古い順。差し替えは this を保持して行い、検索はロックを取らずにその時点の一覧を読む
+    private volatile List<OutputIndexSegment> segments = List.of();
+
+    // 以下は this で保護する
+    private OutputIndexSegment.Builder pending;
+    private final Set<String> indexed = new HashSet<>();
+    private long nextSequence;
+
+    // 書き出しと統合を直列化する
+    private final Object flushLock = new Object();
+
+    // 登録・書き出し・統合を1スレッドで順に行う
+    private ScheduledExecutorService indexer;
+
+    @PostConstruct
+    void init() throws IOException {
+        BatchConfig.Search config = batchConfig.getSearch();
+        if (!config.isEnabled()) {
+            return;
+        }
+        Path directory = Path.of(config.getDirectory());
+        Files.createDirectories(directory);
+        List<OutputIndexSegment> loaded = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.sorted().toList()) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    // 書き出しの途中で停止した
+                    Files.deleteIfExists(file);
+                } else if (name.endsWith(SEGMENT_SUFFIX)) {
+                    try {
+                        OutputIndexSegment segment = OutputIndexSegment.open(file);
+                        loaded.add(segment);
+                        indexed.addAll(segment.executionIds());
+                        nextSequence = Math.max(nextSequence, sequenceOf(file) + 1);
+                    } catch (IOException | RuntimeException e) {
+                        log.warn("Ignoring unreadable index segment: {}", file, e);
+                    }
+                }
+            }
+        }
+        segments = List.copyOf(loaded);
+        pending = new OutputIndexSegment.Builder(config.getMaxOffsetsPerTerm());
+
+        indexer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "batch-output-indexer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        indexer.execute(this::catchUp);
+        indexer.scheduleWithFixedDelay(this::flushSafely, config.getFlushIntervalMillis(),
+                config.getFlushIntervalMillis(), TimeUnit.MILLISECONDS);
+        log.info("Output index initialized: {} segments, {} executions", loaded.size(), indexed.size());
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        if (indexer == null) {
+            return;
+        }
+        // 登録待ちの実行は次回起動時に登録し直す
+        indexer.shutdownNow();
+        indexer.awaitTermination(5, TimeUnit.SECONDS);
+        flushSafely();
+    }
+
+    @Override
+    public void onStatusChanged(BatchExecution execution) {
+        if (indexer == null || !execution.isCompleted()) {
+            return;
+        }
+        submit(() -> index(execution.getId(), 0));
+    }
+
+    /**
+     * 出力に文字列を含む実行を検索する
+     * 文字列を語に分割し、すべての語が文字列と同じ間隔で並んで出現する位置を探す
+     * （出現位置を記録しきれていない語を含む場合は、並びを確認できないため語がすべて出現していれば一致とみなす）
+     * 一致した実行は maxHits 件ずつ filter に渡し、filter が返した実行だけを件数の上限に数える
+     * （参照権限や他の検索条件で除かれる実行が上限を埋めないようにする）
+     *
+     * @param text   検索する文字列
+     * @param filter 一致した実行IDのうち結果に含めるものを返す（最大 maxHits 件ずつ呼び出す）
+     * @return 実行IDごとの一致位置（先頭の語の、出力先頭からのバイトオフセット。新しく登録された実行から順に最大 maxHits 件）
+     */
+    public Map<String, List<Long>> search(String text, Function<List<String>, Collection<String>> filter) {
+        BatchConfig.Search config = batchConfig.getSearch();
+        List<QueryTerm> query = new ArrayList<>();
+        OutputTokenizer.tokenize(text, config.getMaxTokenLength(),
+                (token, offset) -> query.add(new QueryTerm(token, offset)));
+        if (indexer == null || query.isEmpty()) {
+            return Map.of();
+        }
+        List<String> terms = query.stream().map(QueryTerm::token).distinct().toList();
+
+        for (int attempt = 0;; attempt++) {
+            Map<String, List<Long>> hits = new LinkedHashMap<>();
+            try {
+                Map<String, List<Long>> candidates;
+                synchronized (this) {
+                    candidates = collect(query, terms, pending::postings, hits);
+                }
+                // filter はデータベースを参照するため、索引のロックの外で呼び出す
+                accept(candidates, filter, hits, config.getMaxHits());
+                List<OutputIndexSegment> current = segments;
+                for (int i = current.size() - 1; i >= 0 && hits.size() < config.getMaxHits(); i--) {
+                    OutputIndexSegment segment = current.get(i);
+                    accept(collect(query, terms, segment::postings, hits), filter, hits, config.getMaxHits());
+                }
+                return hits;
+            } catch (NoSuchFileException e) {
+                // 検索中に統合された。統合後のセグメントで検索し直す
+                if (attempt > 0) {
+                    throw new UncheckedIOException(e);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * 登録待ちの内容をセグメントとして書き出し、必要であればセグメントを統合する
+     *
+     * @throws IOException 書き込みに失敗した場合
+     */
+    public void flush() throws IOException {
+        synchronized (flushLock) {
+            synchronized (this) {
+                if (pending == null || pending.isEmpty()) {
+                    return;
+                }
+                OutputIndexSegment segment = pending.write(segmentPath(nextSequence++));
+                List<OutputIndexSegment> next = new ArrayList<>(segments);
+                next.add(segment);
+                segments = List.copyOf(next);
+                pending = new OutputIndexSegment.Builder(batchConfig.getSearch().getMaxOffsetsPerTerm());
+                log.debug("Flushed output index segment: {} ({} executions, {} terms)", segment.path(),
+                        segment.executionIds().size(), segment.termCount());
+            }
+            if (segments.size() > batchConfig.getSearch().getMaxSegments()) {
+                merge();
+            }
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to flush output index", e);
+        }
+    }
+
+    /**
+     * 出力が終了していれば語に分割して登録する（終了していなければ間隔をあけて待つ）
+     */
+    private void index(String executionId, int attempt) {
+        BatchConfig.Search config = batchConfig.getSearch();
+        synchronized (this) {
+            if (indexed.contains(executionId)) {
+                return;
+            }
+        }
+        ExecutionOutputStore.OutputView view = outputStore.view(executionId);
+        if (!view.isClosed()) {
+            if (attempt < config.getMaxRetries()) {
+                try {
+                    indexer.schedule(() -> index(executionId, attempt + 1), config.getRetryIntervalMillis(),
+                            TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    // 停止中。次回起動時に登録する
+                }
+            } else {
+                log.debug("Output of execution {} is not finished, not indexing", executionId);
+            }
+            return;
+        }
+
+        // 分割は別の登録先で行い、検索を待たせないようにする
+        OutputIndexSegment.Builder builder = new OutputIndexSegment.Builder(config.getMaxOffsetsPerTerm());
+        try {
+            builder.add(executionId, view, config.getMaxTokenLength());
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Failed to index output of execution: {}", executionId, e);
+            return;
+        }
+        synchronized (this) {
+            if (indexed.add(executionId)) {
+                pending.addAll(builder);
+            }
+        }
+    }
+
+    /**
+     * 出力が終了しているのに索引にない実行を登録する
+     */
+    private void catchUp() {
+        try {
+            List<String> missing;
+            synchronized (this) {
+                missing = outputStore.finishedExecutionIds().stream()
+                        .filter(executionId -> !indexed.contains(executionId))
+                        .toList();
+            }
+            if (!missing.isEmpty()) {
+                log.info("Indexing output of {} executions not in the index", missing.size());
+            }
+            missing.forEach(executionId -> index(executionId, 0));
+        } catch (RuntimeException e) {
+            log.warn("Failed to index existing output", e);
+        }
+    }
+
+    /**
+     * 小さいセグメントから、上限の半分まで減るように統合する
+     * 統合中も検索できるよう this は一覧の差し替え時にのみ保持する（呼び出し元で flushLock を保持していること）
+     */
+    private void merge() throws IOException {
+        int maxSegments = batchConfig.getSearch().getMaxSegments();
+        List<OutputIndexSegment> current = segments;
+        int count = Math.max(2, current.size() - maxSegments / 2);
+        List<OutputIndexSegment> targets = current.stream()
+                .sorted(Comparator.comparingLong(ExecutionOutputIndex::sizeOf))
+                .limit(count)
+                .sorted(Comparator.comparing(OutputIndexSegment::path))
+                .toList();
+
+        OutputIndexSegment.Builder builder = new OutputIndexSegment.Builder(
+                batchConfig.getSearch().getMaxOffsetsPerTerm());
+        Set<String> removed = new HashSet<>();
+        for (OutputIndexSegment segment : targets) {
+            segment.copyTo(builder, executionId -> {
+                if (outputStore.exists(executionId)) {
+                    return true;
+                }
+                removed.add(executionId);
+                return false;
+            });
+        }
+
+        long sequence;
+        synchronized (this) {
+            sequence = nextSequence++;
+        }
+        OutputIndexSegment merged = builder.isEmpty() ? null : builder.write(segmentPath(sequence));
+        synchronized (this) {
+            List<OutputIndexSegment> next = new ArrayList<>(segments);
+            next.removeAll(targets);
+            if (merged != null) {
+                next.add(merged);
+            }
+            segments = List.copyOf(next);
+            indexed.removeAll(removed);
+        }
+        for (OutputIndexSegment segment : targets) {
+            try {
+                Files.deleteIfExists(segment.path());
+            } catch (IOException e) {
+                log.warn("Failed to delete merged index segment: {}", segment.path(), e);
+            }
+        }
+        log.info("Merged {} output index segments ({} executions removed)", targets.size(), removed.size());
+    }
+
+    private void submit(Runnable task) {
+        try {
+            indexer.execute(task);
+        } catch (RejectedExecutionException e) {
+            // 停止中。次回起動時に登録する
+        }
+    }
+
+    private Path segmentPath(long sequence) {
+        return Path.of(batchConfig.getSearch().getDirectory()).resolve(String.format("%010d%s", sequence,
+                SEGMENT_SUFFIX));
+    }
+
+    private static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static long sizeOf(OutputIndexSegment segment) {
+        try {
+            return Files.size(segment.path());
+        } catch (IOException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * 1つの登録先（セグメントまたは登録待ちの内容）から一致する実行を集める
+     *
+     * @return 一致した実行IDごとの一致位置（hits に含まれる実行を除く。登録順）
+     */
+    private static Map<String, List<Long>> collect(List<QueryTerm> query, List<String> terms,
+            PostingsSource source, Map<String, List<Long>> hits) throws IOException {
+        Map<String, Map<String, OutputIndexSegment.Occurrences>> byTerm = new LinkedHashMap<>();
+        for (String term : terms) {
+            Map<String, OutputIndexSegment.Occurrences> postings = source.postings(term);
+            if (postings.isEmpty()) {
+                return Map.of();
+            }
+            byTerm.put(term, postings);
+        }
+        Map<String, List<Long>> candidates = new LinkedHashMap<>();
+        for (String executionId : byTerm.get(terms.get(0)).keySet()) {
+            if (hits.containsKey(executionId)
+                    || !byTerm.values().stream().allMatch(postings -> postings.containsKey(executionId))) {
+                continue;
+            }
+            List<Long> matched = match(query, term -> byTerm.get(term).get(executionId));
+            if (matched != null) {
+                candidates.put(executionId, matched);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * 一致した実行を maxHits 件ずつ filter に通し、残った実行を上限まで hits に加える
+     */
+    private static void accept(Map<String, List<Long>> candidates, Function<List<String>, Collection<String>> filter,
+            Map<String, List<Long>> hits, int maxHits) {
+        List<String> ids = new ArrayList<>(candidates.keySet());
+        for (int from = 0; from < ids.size() && hits.size() < maxHits; from += maxHits) {
+            List<String> chunk = ids.subList(from, Math.min(ids.size(), from + maxHits));
+            Set<String> accepted = new HashSet<>(filter.apply(chunk));
+            for (String executionId : chunk) {
+                if (hits.size() >= maxHits) {
+                    return;
+                }
+                if (accepted.contains(executionId)) {
+                    hits.put(executionId, candidates.get(executionId));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return 一致位置（一致しない場合は null）
+     */
+    private static List<Long> match(List<QueryTerm> query,
+            Function<String, OutputIndexSegment.Occurrences> occurrences) {
+        QueryTerm anchor = query.get(0);
+        long[] anchorOffsets = occurrences.apply(anchor.token()).offsets();
+        List<Long> matched = new ArrayList<>();
+        for (long offset : anchorOffsets) {
+            long start = offset - anchor.offset();
+            boolean all = query.stream().skip(1).allMatch(term -> Arrays.binarySearch(
+                    occurrences.apply(term.token()).offsets(), start + term.offset()) >= 0);
+            if (all) {
+                matched.add(offset);
+            }
+        }
+        if (!matched.isEmpty()) {
+            return matched;
+        }
+        if (query.stream().anyMatch(term -> occurrences.apply(term.token()).isTruncated())) {
+            // 並びを確認できない
+            return Arrays.stream(anchorOffsets).boxed().toList();
+        }
+        return null;
+    }
+
+    /**
+     * 転置リストの取得元
+     */
+    @FunctionalInterface
+    private interface PostingsSource {
+        Map<String, OutputIndexSegment.Occurrences> postings(String term) throws IOException;
+    }
+
+    /**
+     * 検索語
+     *
+     * @param token  語
+     * @param offset 検索文字列の先頭からのバイトオフセット
+     */
+    private record QueryTerm(String token, long offset) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo.batch.service;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * 実行出力の読み取り範囲
+ * 
+ * @param view     出力ビュー
+ * @param offset   開始オフセット
+ * @param count    転送バイト数
+ * @param complete 出力がすべて揃っている（以降追記されない）場合 true
+ */
+public record ExecutionOutputRange(ExecutionOutputStore.OutputView view, long offset, long count,
+        boolean complete) {
+
+    /**
+     * @return 次回の読み取り開始オフセット
+     */
+    public long nextOffset() {
+        return offset + count;
+    }
+
+    /**
+     * @return 現時点で保存済みの総バイト数
+     */
+    public long totalLength() {
+        return view.length();
+    }
+
+    /**
+     * 範囲の内容を転送する
+     * 
+     * @param target 転送先
+     * @throws IOException 転送に失敗した場合
+     */
+    public void transferTo(WritableByteChannel target) throws IOException {
+        view.transferTo(offset, count, target);
+    }
+}
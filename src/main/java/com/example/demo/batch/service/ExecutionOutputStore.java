@@ -0,0 +1,464 @@
+package com.example.demo.batch.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.config.BatchConfig;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 実行ごとのプロセス出力を保存するストア
+ * 標準出力・標準エラーを到着順に1本のログとして、追記専用のセグメントファイルへメモリマップ経由で書き込む
+ * 確定したセグメントはバックグラウンドでチャンク単位に圧縮し、元のセグメントを削除する
+ * （書き込み中のセグメントは圧縮しないため、追従読み取りは未圧縮のまま読む）
+ * 保持日数を過ぎた実行の出力は一定間隔で削除する
+ *
+ * <pre>
+ * {directory}/{executionId}/00000.seg, 00001.seg, ...   セグメント本体
+ * {directory}/{executionId}/00000.segz, 00001.segz, ... 圧縮済みのセグメント（{@link CompressedSegment}）
+ * {directory}/{executionId}/segments                    確定済みセグメント長の一覧（出力終了時に作成）
+ * </pre>
+ */
+@Component
+@Slf4j
+public class ExecutionOutputStore implements OutputSink {
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String COMPRESSED_SUFFIX = ".segz";
+    private static final String INDEX_FILE = "segments";
+
+    @Autowired
+    private BatchConfig batchConfig;
+
+    // 書き込み中の実行
+    private final ConcurrentHashMap<String, SegmentWriter> writers = new ConcurrentHashMap<>();
+
+    // セグメントの圧縮と保持期間の確認を1スレッドで順に行う
+    private ScheduledExecutorService compactor;
+
+    @PostConstruct
+    void init() {
+        compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "batch-output-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = batchConfig.getOutput().getRetentionIntervalMinutes();
+        if (interval > 0) {
+            compactor.scheduleWithFixedDelay(this::sweepSafely, interval, interval, TimeUnit.MINUTES);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // 中断された圧縮は元のセグメントを残すため、次回起動後の確認で圧縮し直す
+        compactor.shutdownNow();
+    }
+
+    @Override
+    public Channel open(String executionId, OutputStreamType type) {
+        SegmentWriter writer = writers.compute(executionId, (id, existing) -> {
+            SegmentWriter target = existing != null ? existing : new SegmentWriter(id, executionDirectory(id));
+            target.openChannels++;
+            return target;
+        });
+        return new Channel() {
+            @Override
+            public void write(ByteBuffer data) {
+                writer.append(data);
+            }
+
+            @Override
+            public void close() {
+                release(writer);
+            }
+        };
+    }
+
+    /**
+     * 保存済みの出力を参照する
+     *
+     * @param executionId 実行ID
+     * @return 出力ビュー（出力が存在しない場合は長さ 0 のビュー）
+     */
+    public OutputView view(String executionId) {
+        SegmentWriter writer = writers.get(executionId);
+        if (writer != null) {
+            return writer.snapshot();
+        }
+        Path directory = executionDirectory(executionId);
+        Path index = directory.resolve(INDEX_FILE);
+        if (!Files.exists(index)) {
+            return new OutputView(directory, new long[0], false);
+        }
+        try {
+            return new OutputView(directory, readIndex(index), true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @param executionId 実行ID
+     * @return 出力が保存されている（保持日数を過ぎて削除されていない）場合 true
+     */
+    public boolean exists(String executionId) {
+        return Files.isDirectory(executionDirectory(executionId));
+    }
+
+    /**
+     * 出力が終了した実行の一覧を取得する
+     *
+     * @return 実行IDの一覧（順不同）
+     */
+    public List<String> finishedExecutionIds() {
+        Path root = Path.of(batchConfig.getOutput().getDirectory());
+        if (!Files.isDirectory(root)) {
+            return List.of();
+        }
+        try (Stream<Path> children = Files.list(root)) {
+            return children.filter(directory -> Files.exists(directory.resolve(INDEX_FILE)))
+                    .map(directory -> directory.getFileName().toString())
+                    .filter(executionId -> !writers.containsKey(executionId))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 保持日数を過ぎた実行の出力を削除し、終了済みの実行に残っている未圧縮のセグメントを圧縮する
+     * （書き込み中の実行は対象にしない）
+     *
+     * @return 削除した実行数
+     */
+    public int sweep() {
+        BatchConfig.Output config = batchConfig.getOutput();
+        Path root = Path.of(config.getDirectory());
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+        FileTime expiry = config.getRetentionDays() > 0
+                ? FileTime.from(Instant.now().minus(Duration.ofDays(config.getRetentionDays())))
+                : null;
+        List<Path> directories;
+        try (Stream<Path> children = Files.list(root)) {
+            directories = children.filter(Files::isDirectory).toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        int deleted = 0;
+        for (Path directory : directories) {
+            if (writers.containsKey(directory.getFileName().toString())) {
+                continue;
+            }
+            try {
+                // 出力の終了時刻（索引の作成時刻）で判定する。索引がなければ異常終了した実行として最終更新時刻で判定する
+                Path index = directory.resolve(INDEX_FILE);
+                boolean finished = Files.exists(index);
+                FileTime modified = Files.getLastModifiedTime(finished ? index : directory);
+                if (expiry != null && modified.compareTo(expiry) < 0) {
+                    deleteDirectory(directory);
+                    deleted++;
+                } else if (finished && config.isCompress()) {
+                    long[] lengths = readIndex(index);
+                    for (int i = 0; i < lengths.length; i++) {
+                        compact(directory, i, lengths[i]);
+                    }
+                }
+            } catch (IOException e) {
+                log.warn("Failed to sweep output: {}", directory, e);
+            }
+        }
+        if (deleted > 0) {
+            log.info("Deleted output of {} executions older than {} days", deleted, config.getRetentionDays());
+        }
+        return deleted;
+    }
+
+    private void sweepSafely() {
+        try {
+            sweep();
+        } catch (RuntimeException e) {
+            log.warn("Failed to sweep output", e);
+        }
+    }
+
+    /**
+     * セグメントを圧縮し、元のセグメントを削除する（圧縮済みの場合は元のセグメントの削除のみ行う）
+     * 圧縮済みのセグメントを置き換えてから元のセグメントを削除するため、読み取り側は常にどちらかを参照できる
+     */
+    private synchronized void compact(Path directory, int segment, long length) {
+        Path source = segmentPath(directory, segment);
+        Path target = compressedPath(directory, segment);
+        try {
+            if (!Files.exists(source)) {
+                return;
+            }
+            if (!Files.exists(target)) {
+                BatchConfig.Output config = batchConfig.getOutput();
+                CompressedSegment.write(source, length, target, config.getCompressionChunkSize(),
+                        config.getCompressionLevel());
+            }
+            Files.delete(source);
+        } catch (IOException e) {
+            // 元のセグメントを残し、次回の確認で圧縮し直す
+            log.warn("Failed to compress output segment: {}", source, e);
+        }
+    }
+
+    private void scheduleCompaction(Path directory, int segment, long length) {
+        if (!batchConfig.getOutput().isCompress()) {
+            return;
+        }
+        try {
+            compactor.execute(() -> compact(directory, segment, length));
+        } catch (RejectedExecutionException e) {
+            // 停止中。次回起動後の確認で圧縮する
+        }
+    }
+
+    private Path executionDirectory(String executionId) {
+        return Path.of(batchConfig.getOutput().getDirectory()).resolve(executionId);
+    }
+
+    private static long[] readIndex(Path index) throws IOException {
+        return Files.readAllLines(index, StandardCharsets.US_ASCII).stream()
+                .filter(line -> !line.isBlank())
+                .mapToLong(Long::parseLong)
+                .toArray();
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        List<Path> paths;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            paths = walk.sorted(Comparator.reverseOrder()).toList();
+        }
+        for (Path path : paths) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private static Path segmentPath(Path directory, int segment) {
+        return directory.resolve(String.format("%05d%s", segment, SEGMENT_SUFFIX));
+    }
+
+    private static Path compressedPath(Path directory, int segment) {
+        return directory.resolve(String.format("%05d%s", segment, COMPRESSED_SUFFIX));
+    }
+
+    private void release(SegmentWriter writer) {
+        boolean last = writers.compute(writer.executionId, (id, existing) -> {
+            existing.openChannels--;
+            return existing;
+        }).openChannels == 0;
+        if (last) {
+            // 索引を書き終えてからマップから外し、読み取り側が常にどちらかを参照できるようにする
+            writer.finish();
+            writers.remove(writer.executionId, writer);
+        }
+    }
+
+    /**
+     * 1実行分のセグメント書き込み
+     */
+    private final class SegmentWriter {
+
+        private final String executionId;
+        private final Path directory;
+        private final List<Long> closedLengths = new ArrayList<>();
+        private int openChannels;
+        private FileChannel channel;
+        private MappedByteBuffer mapped;
+        private boolean failed;
+
+        SegmentWriter(String executionId, Path directory) {
+            this.executionId = executionId;
+            this.directory = directory;
+        }
+
+        synchronized void append(ByteBuffer data) {
+            if (failed) {
+                return;
+            }
+            try {
+                while (data.hasRemaining()) {
+                    if (mapped == null || !mapped.hasRemaining()) {
+                        roll();
+                    }
+                    int count = Math.min(data.remaining(), mapped.remaining());
+                    int limit = data.limit();
+                    data.limit(data.position() + count);
+                    mapped.put(data);
+                    data.limit(limit);
+                }
+            } catch (IOException e) {
+                // ディスク障害時も実行自体は継続させ、以降の保存のみ諦める
+                failed = true;
+                log.error("Failed to store output of execution {}", executionId, e);
+            }
+        }
+
+        synchronized OutputView snapshot() {
+            long[] lengths = new long[closedLengths.size() + (mapped != null ? 1 : 0)];
+            for (int i = 0; i < closedLengths.size(); i++) {
+                lengths[i] = closedLengths.get(i);
+            }
+            if (mapped != null) {
+                lengths[lengths.length - 1] = mapped.position();
+            }
+            return new OutputView(directory, lengths, false);
+        }
+
+        synchronized void finish() {
+            try {
+                closeSegment();
+                Files.createDirectories(directory);
+                StringBuilder index = new StringBuilder();
+                closedLengths.forEach(length -> index.append(length).append('\n'));
+                Files.writeString(directory.resolve(INDEX_FILE), index, StandardCharsets.US_ASCII);
+            } catch (IOException e) {
+                log.error("Failed to finalize output of execution {}", executionId, e);
+            }
+        }
+
+        private void roll() throws IOException {
+            closeSegment();
+            Files.createDirectories(directory);
+            Path path = segmentPath(directory, closedLengths.size());
+            channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, batchConfig.getOutput().getSegmentSize());
+        }
+
+        private void closeSegment() throws IOException {
+            if (mapped == null) {
+                return;
+            }
+            long length = mapped.position();
+            mapped.force();
+            try {
+                // 事前確保した末尾の領域を解放する（マップ中の切り詰めを許さない OS では索引の長さを正とする）
+                channel.truncate(length);
+            } catch (IOException e) {
+                log.debug("Could not truncate output segment of {}", executionId, e);
+            }
+            channel.close();
+            scheduleCompaction(directory, closedLengths.size(), length);
+            closedLengths.add(length);
+            mapped = null;
+            channel = null;
+        }
+    }
+
+    /**
+     * 保存済み出力の読み取りビュー
+     * 未圧縮のセグメントはヒープに載せず FileChannel.transferTo で転送し、圧縮済みのセグメントは範囲にかかるチャンクだけを展開する
+     */
+    public static final class OutputView {
+
+        private final Path directory;
+        private final long[] segmentLengths;
+        private final boolean closed;
+        private final long length;
+
+        OutputView(Path directory, long[] segmentLengths, boolean closed) {
+            this.directory = directory;
+            this.segmentLengths = segmentLengths;
+            this.closed = closed;
+            long total = 0;
+            for (long segmentLength : segmentLengths) {
+                total += segmentLength;
+            }
+            this.length = total;
+        }
+
+        /**
+         * @return 現時点で読み取り可能なバイト数
+         */
+        public long length() {
+            return length;
+        }
+
+        /**
+         * @return 出力が終了し、これ以上追記されない場合 true
+         */
+        public boolean isClosed() {
+            return closed;
+        }
+
+        /**
+         * 指定範囲を転送する
+         *
+         * @param offset 開始オフセット
+         * @param count  最大転送バイト数
+         * @param target 転送先
+         * @throws IOException 読み取り・書き込みに失敗した場合
+         */
+        public void transferTo(long offset, long count, WritableByteChannel target) throws IOException {
+            long segmentStart = 0;
+            long remaining = Math.min(count, Math.max(0, length - offset));
+            for (int i = 0; i < segmentLengths.length && remaining > 0; i++) {
+                long segmentEnd = segmentStart + segmentLengths[i];
+                if (offset < segmentEnd) {
+                    long position = offset - segmentStart;
+                    long chunk = Math.min(remaining, segmentLengths[i] - position);
+                    transferSegment(i, position, chunk, target);
+                    offset += chunk;
+                    remaining -= chunk;
+                }
+                segmentStart = segmentEnd;
+            }
+        }
+
+        private void transferSegment(int segment, long position, long count, WritableByteChannel target)
+                throws IOException {
+            FileChannel channel;
+            try {
+                channel = FileChannel.open(segmentPath(directory, segment), StandardOpenOption.READ);
+            } catch (NoSuchFileException e) {
+                // 圧縮済み（圧縮済みのセグメントを置き換えてから元のセグメントを削除している）
+                CompressedSegment.open(compressedPath(directory, segment)).transferTo(position, count, target);
+                return;
+            }
+            try (channel) {
+                while (count > 0) {
+                    long transferred = channel.transferTo(position, count, target);
+                    if (transferred <= 0) {
+                        throw new IOException("Unexpected end of output segment " + segment);
+                    }
+                    position += transferred;
+                    count -= transferred;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.demo.batch.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.batch.entity.BatchExecution;
+import com.example.demo.batch.repository.BatchRepository;
+import com.example.demo.batch.repository.WorkflowRepository;
+import com.example.demo.config.BatchConfig;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 起動時の整合処理
+ * 待機中・実行中の状態はメモリ上にしかないため、再起動前の実行はそのままでは終わらない
+ * このノードの実行のうち、プロセスが生きているものは再接続して終了を監視し、それ以外は結果不明にする
+ * （クラスタの実行待ちキューからこのノードが取得していた実行は、再接続する場合はリースを引き継ぎ、
+ * プロセスが残っていない場合はリースを手放して他のノード（またはこのノード）に再実行させる。
+ * 引き継ぐ前に自身で取得し直さないよう、キューのポーリングは整合処理の後に開始する）
+ * 件数が多くても起動時間が延びないよう、取得・更新は batch-size 件ずつまとめて行う
+ */
+@Component
+@Slf4j
+public class ExecutionRecovery {
+
+    @Autowired
+    private BatchConfig batchConfig;
+
+    @Autowired
+    private BatchRepository batchRepository;
+
+    @Autowired
+    private WorkflowRepository workflowRepository;
+
+    @Autowired
+    private BatchExecuteService batchExecuteService;
+
+    @Autowired
+    private ClusterExecutionQueue clusterQueue;
+
+    // 起動後に作成された実行を対象にしないための境界
+    private LocalDateTime startedAt;
+
+    @PostConstruct
+    void init() {
+        startedAt = LocalDateTime.now();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void onApplicationReady() {
+        if (batchConfig.getRecovery().isEnabled()) {
+            recover(startedAt);
+        }
+        clusterQueue.startPolling();
+    }
+
+    /**
+     * 指定時刻より前に作成された、このノードの待機中・実行中の実行を回収する
+     *
+     * @param createdBefore この時刻より前に作成された実行のみを対象にする
+     * @return 回収の結果
+     */
+    public Result recover(LocalDateTime createdBefore) {
+        BatchConfig.Recovery config = batchConfig.getRecovery();
+        String nodeName = config.getNodeName();
+        long started = System.nanoTime();
+        int reattached = 0;
+        int lost = 0;
+        int released = 0;
+        Set<String> leased = clusterQueue.leasedExecutionIds();
+
+        String afterId = null;
+        List<BatchExecution> page;
+        do {
+            page = batchRepository.findOrphaned(nodeName, createdBefore, afterId, config.getBatchSize());
+            List<String> lostIds = new ArrayList<>();
+            for (BatchExecution execution : page) {
+                Optional<ProcessHandle> process = findOwnProcess(execution, config);
+                if (leased.contains(execution.getId())) {
+                    if (process.isEmpty()) {
+                        // 結果不明にせず、キューの再実行に任せる
+                        released += clusterQueue.release(execution.getId()) ? 1 : 0;
+                    } else if (clusterQueue.adopt(execution.getId())) {
+                        batchExecuteService.reattach(execution, process.get());
+                        reattached++;
+                    } else {
+                        log.warn("Lease of running execution {} was taken over by another node", execution.getId());
+                    }
+                } else if (process.isPresent()) {
+                    batchExecuteService.reattach(execution, process.get());
+                    reattached++;
+                } else {
+                    lostIds.add(execution.getId());
+                }
+            }
+            if (!lostIds.isEmpty()) {
+                lost += batchRepository.markLost(lostIds, LocalDateTime.now());
+            }
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == config.getBatchSize());
+
+        int workflows = workflowRepository.failOrphaned(nodeName, createdBefore, LocalDateTime.now());
+        Result result = new Result(reattached, lost, released, workflows);
+        log.info("Recovered executions of node {}: {} in {}ms", nodeName, result,
+                Duration.ofNanos(System.nanoTime() - started).toMillis());
+        return result;
+    }
+
+    /**
+     * 実行を開始したプロセスがまだ生きていれば取得する
+     * PID は再利用されるため、実行の開始より後に起動したプロセスは別物とみなす
+     */
+    private Optional<ProcessHandle> findOwnProcess(BatchExecution execution, BatchConfig.Recovery config) {
+        if (!execution.isRunning() || execution.getPid() == null) {
+            return Optional.empty();
+        }
+        Instant executionStart = execution.getStartTime().atZone(ZoneId.systemDefault()).toInstant();
+        Instant latestStart = executionStart.plusMillis(config.getPidStartToleranceMillis());
+        return ProcessHandle.of(execution.getPid())
+                .filter(ProcessHandle::isAlive)
+                .filter(process -> process.info().startInstant()
+                        .map(processStart -> !processStart.isAfter(latestStart))
+                        .orElse(false));
+    }
+
+    /**
+     * 回収の結果
+     *
+     * @param reattached 再接続した実行数
+     * @param lost       結果不明にした実行数
+     * @param released   クラスタの実行待ちキューで再実行させるためにリースを手放した実行数
+     * @param workflows  失敗にしたワークフロー実行数
+     */
+    public record Result(int reattached, int lost, int released, int workflows) {
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demo.batch.service;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.batch.dto.ResourceUsageResponse;
+import com.example.demo.batch.entity.BatchExecution;
+import com.example.demo.batch.repository.ExecutionResourceRepository;
+
+/**
+ * 実行のリソース使用量の参照サービス
+ * 計測中はメモリ上の時系列、完了後は保存済みの時系列を返す
+ */
+@Service
+@Transactional(readOnly = true)
+public class ExecutionResourceService {
+
+    @Autowired
+    private BatchExecuteService batchExecuteService;
+
+    @Autowired
+    private ResourceSampler resourceSampler;
+
+    @Autowired
+    private ExecutionResourceRepository resourceRepository;
+
+    @Autowired
+    private BatchMapper batchMapper;
+
+    /**
+     * 実行のリソース使用量を取得する
+     * 
+     * @param executionId 実行ID
+     * @param userId      参照ユーザーID
+     * @param admin       参照ユーザーが管理者の場合 true
+     * @return リソース使用量（実行が存在しない、または参照権限がない場合は空）
+     */
+    public Optional<ResourceUsageResponse> getResourceUsage(String executionId, Long userId, boolean admin) {
+        return batchExecuteService.findExecution(executionId)
+                .filter(execution -> admin || execution.getUserId().equals(userId))
+                .map(execution -> resourceSampler.snapshot(executionId)
+                        .map(live -> ResourceUsageResponse.builder()
+                                .executionId(executionId)
+                                .complete(false)
+                                .intervalMillis(live.intervalMillis())
+                                .summary(batchMapper.toResourceUsageSummary(live.summary()))
+                                .samples(live.samples())
+                                .build())
+                        .orElseGet(() -> stored(execution)));
+    }
+
+    private ResourceUsageResponse stored(BatchExecution execution) {
+        ResourceUsageResponse.ResourceUsageResponseBuilder response = ResourceUsageResponse.builder()
+                .executionId(execution.getId())
+                .complete(execution.isCompleted())
+                .summary(batchMapper.toResourceUsageSummary(execution.getResourceUsage()))
+                .samples(List.of());
+        resourceRepository.findByExecutionId(execution.getId())
+                .ifPresent(series -> response
+                        .intervalMillis(series.getIntervalMillis())
+                        .samples(ResourceSeries.decode(series.getSamples(), series.getSampleCount())));
+        return response.build();
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.demo.batch.service;
+
+import com.example.demo.batch.entity.BatchExecution;
+
+/**
+ * バッチ実行の状態遷移を受け取るリスナー
+ * Spring Bean として登録すると BatchExecuteService から通知される
+ */
+public interface ExecutionStatusListener {
+
+    /**
+     * 状態遷移が永続化された後に呼び出される
+     * 
+     * @param execution 遷移後の実行レコード（参照のみ、変更してはならない）
+     */
+    void onStatusChanged(BatchExecution execution);
+}
@@ -0,0 +1,185 @@
+package com.example.demo.batch.service;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * 優先度とユーザー間の公平性を考慮した待機キュー
+ * 優先度の高い帯域から順に取り出し、同一優先度内ではユーザーごとのサブキューを
+ * 重み付きの Deficit Round Robin で巡回する（1実行 = コスト 1）
+ *
+ * <p>
+ * スレッドセーフではない。呼び出し元で排他すること。
+ * </p>
+ *
+ * @param <T> 要素の型
+ */
+class FairShareQueue<T> {
+
+    private final Function<T, Long> userOf;
+    private final ToIntFunction<T> priorityOf;
+    private final Function<Long, Integer> weightOf;
+
+    // 優先度の降順
+    private final TreeMap<Integer, Band> bands = new TreeMap<>(Comparator.reverseOrder());
+    private int size;
+
+    /**
+     * @param userOf     要素の所有ユーザーを返す関数
+     * @param priorityOf 要素の優先度を返す関数（大きいほど優先）
+     * @param weightOf   ユーザーの重み（1巡あたりに取り出せる件数）を返す関数
+     */
+    FairShareQueue(Function<T, Long> userOf, ToIntFunction<T> priorityOf, Function<Long, Integer> weightOf) {
+        this.userOf = userOf;
+        this.priorityOf = priorityOf;
+        this.weightOf = weightOf;
+    }
+
+    void add(T element) {
+        bands.computeIfAbsent(priorityOf.applyAsInt(element), priority -> new Band())
+                .add(userOf.apply(element), element);
+        size++;
+    }
+
+    /**
+     * 次に実行すべき要素を取り出す
+     *
+     * @param eligible 取り出し可能かどうかの判定（ジョブ単位の上限などで実行できない要素を飛ばす）
+     * @return 取り出した要素（取り出せる要素がない場合は null）
+     */
+    T poll(Predicate<T> eligible) {
+        Iterator<Band> iterator = bands.values().iterator();
+        while (iterator.hasNext()) {
+            Band band = iterator.next();
+            T element = band.poll(eligible);
+            if (element != null) {
+                size--;
+                if (band.isEmpty()) {
+                    iterator.remove();
+                }
+                return element;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 条件に一致する最初の要素を取り除く（取り出し順の状態は変えない）
+     *
+     * @param matcher 取り除く要素の条件
+     * @return 取り除いた要素（一致する要素がない場合は null）
+     */
+    T remove(Predicate<T> matcher) {
+        Iterator<Band> iterator = bands.values().iterator();
+        while (iterator.hasNext()) {
+            Band band = iterator.next();
+            T element = band.remove(matcher);
+            if (element != null) {
+                size--;
+                if (band.isEmpty()) {
+                    iterator.remove();
+                }
+                return element;
+            }
+        }
+        return null;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 同一優先度の要素群
+     */
+    private final class Band {
+
+        private final Map<Long, UserQueue> users = new HashMap<>();
+        // 待機中の要素を持つユーザーの巡回順
+        private final ArrayDeque<UserQueue> ring = new ArrayDeque<>();
+
+        void add(Long userId, T element) {
+            UserQueue queue = users.computeIfAbsent(userId, UserQueue::new);
+            if (queue.elements.isEmpty()) {
+                ring.addLast(queue);
+            }
+            queue.elements.addLast(element);
+        }
+
+        T poll(Predicate<T> eligible) {
+            // 各ユーザーを最大1回ずつ訪問する
+            for (int visits = ring.size(); visits > 0; visits--) {
+                UserQueue queue = ring.peekFirst();
+                if (queue.deficit < 1) {
+                    // 実行できずに溜まった分でまとめて割り込まないよう、補充は重みまでに留める
+                    queue.deficit = Math.max(1, weightOf.apply(queue.userId));
+                }
+                T element = queue.pollFirst(eligible);
+                if (element == null) {
+                    ring.addLast(ring.pollFirst());
+                    continue;
+                }
+                queue.deficit--;
+                if (queue.elements.isEmpty()) {
+                    ring.pollFirst();
+                    users.remove(queue.userId);
+                } else if (queue.deficit < 1) {
+                    ring.addLast(ring.pollFirst());
+                }
+                return element;
+            }
+            return null;
+        }
+
+        T remove(Predicate<T> matcher) {
+            for (UserQueue queue : users.values()) {
+                T element = queue.pollFirst(matcher);
+                if (element != null) {
+                    if (queue.elements.isEmpty()) {
+                        ring.remove(queue);
+                        users.remove(queue.userId);
+                    }
+                    return element;
+                }
+            }
+            return null;
+        }
+
+        boolean isEmpty() {
+            return ring.isEmpty();
+        }
+    }
+
+    /**
+     * ユーザーごとのサブキュー（到着順）
+     */
+    private final class UserQueue {
+
+        private final Long userId;
+        private final ArrayDeque<T> elements = new ArrayDeque<>();
+        private int deficit;
+
+        UserQueue(Long userId) {
+            this.userId = userId;
+        }
+
+        T pollFirst(Predicate<T> predicate) {
+            Iterator<T> iterator = elements.iterator();
+            while (iterator.hasNext()) {
+                T element = iterator.next();
+                if (predicate.test(element)) {
+                    iterator.remove();
+                    return element;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.example.demo.batch.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.bind.PropertySourcesPlaceholdersResolver;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.batch.dto.JobResponse;
+import com.example.demo.config.BatchConfig;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ジョブ定義の登録
+ * ジョブ定義から ID 索引・有効なジョブ一覧・起動仕様を一度だけ作り、不変のスナップショットとして公開する
+ * batch.registry.watch-file を指定した場合は設定ファイルの変更を監視し、新しいスナップショットに差し替える
+ * （参照側はロックを取らず、その時点のスナップショットを読む。定義が不正な場合は差し替えない）
+ */
+@Component
+@Slf4j
+public class JobRegistry {
+
+    @Autowired
+    private BatchConfig batchConfig;
+
+    @Autowired
+    private CommandBuilder commandBuilder;
+
+    @Autowired
+    private BatchMapper batchMapper;
+
+    @Autowired
+    private Environment environment;
+
+    private volatile Snapshot snapshot;
+
+    private WatchService watchService;
+    private Thread watcher;
+
+    // 前回読み込んだ設定ファイルの内容（書き込みのない変更通知では再読み込みしない）
+    private byte[] loadedContent;
+
+    @PostConstruct
+    void init() throws IOException {
+        snapshot = build(batchConfig.getJobs());
+        log.info("Registered {} jobs", snapshot.jobs().size());
+
+        String watchFile = batchConfig.getRegistry().getWatchFile();
+        if (watchFile != null && !watchFile.isBlank()) {
+            Path file = Path.of(watchFile).toAbsolutePath().normalize();
+            loadedContent = Files.exists(file) ? Files.readAllBytes(file) : null;
+            watchService = FileSystems.getDefault().newWatchService();
+            file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+            watcher = new Thread(() -> watch(file), "batch-job-registry-watcher");
+            watcher.setDaemon(true);
+            watcher.start();
+            log.info("Watching job definitions: {}", file);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    /**
+     * ジョブIDでジョブ定義を取得する
+     *
+     * @param jobId ジョブID
+     * @return ジョブ定義（Optional）
+     */
+    public Optional<BatchConfig.Job> find(String jobId) {
+        return Optional.ofNullable(snapshot.jobs().get(jobId));
+    }
+
+    /**
+     * @return 有効なジョブの一覧（変更不可）
+     */
+    public List<JobResponse> availableJobs() {
+        return snapshot.availableJobs();
+    }
+
+    /**
+     * ジョブ定義の起動仕様を取得する
+     * 再読み込み前に取得したジョブ定義の場合は、その定義から起動仕様を作り直す
+     *
+     * @param job ジョブ定義
+     * @return 起動仕様
+     */
+    public LaunchSpec launchSpec(BatchConfig.Job job) {
+        LaunchSpec launch = snapshot.launchSpecs().get(job.getId());
+        if (launch != null && launch.template().job() == job) {
+            return launch;
+        }
+        return launchSpecOf(job);
+    }
+
+    /**
+     * 起動できないと判定された起動仕様を作り直す
+     * 登録後に実行ファイルが配置された、または実行権限が付与された場合に備え、起動直前に確認し直す
+     *
+     * @param launch 起動仕様
+     * @return 作り直した起動仕様
+     */
+    public LaunchSpec recheck(LaunchSpec launch) {
+        return launchSpecOf(launch.template().job());
+    }
+
+    /**
+     * 設定ファイルからジョブ定義を読み込み、スナップショットを差し替える
+     *
+     * @param file 設定ファイル（batch.jobs を含む YAML）
+     * @return 登録したジョブ数
+     * @throws IOException              設定ファイルを読み込めない場合
+     * @throws IllegalArgumentException ジョブ定義が不正な場合（スナップショットは差し替えない）
+     */
+    public synchronized int reload(Path file) throws IOException {
+        byte[] content = Files.readAllBytes(file);
+        List<PropertySource<?>> sources = new YamlPropertySourceLoader()
+                .load(file.toString(), new ByteArrayResource(content));
+        Binder binder = new Binder(ConfigurationPropertySources.from(sources),
+                new PropertySourcesPlaceholdersResolver(environment));
+        List<BatchConfig.Job> jobs = binder.bind("batch.jobs", Bindable.listOf(BatchConfig.Job.class))
+                .orElse(List.of());
+
+        Snapshot built = build(jobs);
+        snapshot = built;
+        loadedContent = content;
+        log.info("Reloaded {} jobs from {}", built.jobs().size(), file);
+        return built.jobs().size();
+    }
+
+    /**
+     * 設定ファイルの変更を監視し、変更があれば再読み込みする
+     */
+    private void watch(Path file) {
+        long delayMillis = batchConfig.getRegistry().getReloadDelayMillis();
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = key.pollEvents().stream()
+                        .map(WatchEvent::context)
+                        .anyMatch(file.getFileName()::equals);
+                key.reset();
+                if (!changed) {
+                    continue;
+                }
+                // 書き込み途中の内容を読まないよう、変更が落ち着くまで待つ
+                TimeUnit.MILLISECONDS.sleep(delayMillis);
+                WatchKey pending;
+                while ((pending = watchService.poll()) != null) {
+                    pending.pollEvents();
+                    pending.reset();
+                }
+                reloadIfChanged(file);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // 停止
+        }
+    }
+
+    private synchronized void reloadIfChanged(Path file) {
+        try {
+            if (!Files.exists(file) || Arrays.equals(Files.readAllBytes(file), loadedContent)) {
+                return;
+            }
+            reload(file);
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to reload job definitions, keeping current ones: {}", file, e);
+        }
+    }
+
+    /**
+     * ジョブ定義からスナップショットを作る
+     *
+     * @throws IllegalArgumentException ジョブIDの重複、またはパラメータ・テンプレートの定義が不正な場合
+     */
+    private Snapshot build(List<BatchConfig.Job> definitions) {
+        Map<String, BatchConfig.Job> jobs = new HashMap<>();
+        Map<String, LaunchSpec> launchSpecs = new HashMap<>();
+        List<JobResponse> availableJobs = new ArrayList<>();
+        for (BatchConfig.Job job : definitions) {
+            if (jobs.putIfAbsent(job.getId(), job) != null) {
+                throw new IllegalArgumentException("Duplicate job id: " + job.getId());
+            }
+            LaunchSpec launch = launchSpecOf(job);
+            if (!launch.isLaunchable() && job.isEnabled()) {
+                log.warn("Job {} is not launchable: {}", job.getId(), launch.problem());
+            }
+            launchSpecs.put(job.getId(), launch);
+            if (job.isEnabled()) {
+                availableJobs.add(batchMapper.toJobResponse(job));
+            }
+        }
+        return new Snapshot(Collections.unmodifiableMap(jobs), Collections.unmodifiableMap(launchSpecs),
+                Collections.unmodifiableList(availableJobs));
+    }
+
+    private LaunchSpec launchSpecOf(BatchConfig.Job job) {
+        JobTemplate template = JobTemplate.compile(job);
+        File workingDirectory = new File(job.getWorkingDirectory());
+        if (job.getType() == BatchConfig.JobType.JVM) {
+            return new LaunchSpec(template, null, workingDirectory, null);
+        }
+        if (job.getCommand() == null || job.getCommand().isBlank()) {
+            return new LaunchSpec(template, job.getCommand(), workingDirectory, "command is not specified");
+        }
+
+        String name = commandBuilder.executableName(job);
+        Path executable;
+        if (name.indexOf('/') >= 0 || name.indexOf(File.separatorChar) >= 0) {
+            // 子プロセスは作業ディレクトリに移動してから起動されるため、相対パスは作業ディレクトリから解決する
+            executable = workingDirectory.toPath().resolve(name).toAbsolutePath().normalize();
+        } else {
+            Optional<Path> found = searchPath(name);
+            if (found.isEmpty()) {
+                return new LaunchSpec(template, name, workingDirectory, "not found on PATH: " + name);
+            }
+            executable = found.get();
+        }
+
+        String problem = null;
+        if (!Files.isRegularFile(executable)) {
+            problem = "not found: " + executable;
+        } else if (!Files.isExecutable(executable)) {
+            problem = "not executable: " + executable;
+        }
+        return new LaunchSpec(template, executable.toString(), workingDirectory, problem);
+    }
+
+    private static Optional<Path> searchPath(String name) {
+        String path = System.getenv("PATH");
+        if (path == null) {
+            return Optional.empty();
+        }
+        for (String directory : path.split(File.pathSeparator)) {
+            if (directory.isEmpty()) {
+                continue;
+            }
+            Path candidate = Path.of(directory, name);
+            if (Files.isRegularFile(candidate) && Files.isExecutable(candidate)) {
+                return Optional.of(candidate.toAbsolutePath());
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * ジョブ定義のスナップショット
+     *
+     * @param jobs          ジョブIDごとのジョブ定義
+     * @param launchSpecs   ジョブIDごとの起動仕様
+     * @param availableJobs 有効なジョブの一覧
+     */
+    private record Snapshot(Map<String, BatchConfig.Job> jobs, Map<String, LaunchSpec> launchSpecs,
+            List<JobResponse> availableJobs) {
+    }
+}
@@ -0,0 +1,336 @@
+package com.example.demo.batch.service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import com.example.demo.batch.exception.BatchDomainException;
+import com.example.demo.batch.exception.BatchErrorCode;
+import com.example.demo.config.BatchConfig;
+
+/**
+ * コンパイル済みのジョブテンプレート
+ * 引数・環境変数のテンプレートとパラメータの検証規則をジョブ定義から一度だけ解析した不変の形式
+ * 実行時はパラメータ値の検証と埋め込みだけを行い、テンプレートの解析や正規表現のコンパイルは行わない
+ */
+public final class JobTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private final BatchConfig.Job job;
+    private final List<ParameterRule> rules;
+    private final Map<String, ParameterRule> rulesByName;
+    private final Template[] arguments;
+    private final String[] environmentNames;
+    private final Template[] environmentValues;
+
+    // パラメータを参照しない場合は埋め込み結果を使い回す
+    private final List<String> constantArguments;
+    private final Map<String, String> constantEnvironment;
+
+    private JobTemplate(BatchConfig.Job job, List<ParameterRule> rules, Template[] arguments,
+            String[] environmentNames, Template[] environmentValues) {
+        this.job = job;
+        this.rules = rules;
+        this.rulesByName = new HashMap<>();
+        rules.forEach(rule -> rulesByName.put(rule.name, rule));
+        this.arguments = arguments;
+        this.environmentNames = environmentNames;
+        this.environmentValues = environmentValues;
+        this.constantArguments = isConstant(arguments) ? List.copyOf(renderArguments(Map.of())) : null;
+        this.constantEnvironment = isConstant(environmentValues)
+                ? Collections.unmodifiableMap(renderEnvironment(Map.of()))
+                : null;
+    }
+
+    /**
+     * ジョブ定義をコンパイルする
+     *
+     * @param job ジョブ定義
+     * @return コンパイル済みのテンプレート
+     * @throws IllegalArgumentException パラメータの定義が不正な場合、
+     *                                  またはテンプレートが未定義のパラメータを参照している場合
+     */
+    public static JobTemplate compile(BatchConfig.Job job) {
+        List<ParameterRule> rules = new ArrayList<>();
+        Set<String> names = new LinkedHashSet<>();
+        for (BatchConfig.JobParameter parameter : job.getParameters()) {
+            if (parameter.getName() == null || parameter.getName().isBlank() || !names.add(parameter.getName())) {
+                throw new IllegalArgumentException(
+                        "Invalid or duplicate parameter name in job " + job.getId() + ": " + parameter.getName());
+            }
+            rules.add(ParameterRule.compile(job.getId(), parameter));
+        }
+
+        Template[] arguments = job.getArguments().stream()
+                .map(argument -> Template.parse(job.getId(), argument, names))
+                .toArray(Template[]::new);
+
+        String[] environmentNames = job.getEnvironment().keySet().toArray(String[]::new);
+        Template[] environmentValues = new Template[environmentNames.length];
+        for (int i = 0; i < environmentNames.length; i++) {
+            environmentValues[i] = Template.parse(job.getId(), job.getEnvironment().get(environmentNames[i]), names);
+            if (job.getType() == BatchConfig.JobType.JVM && !environmentValues[i].isConstant()) {
+                // 常駐ワーカーJVMの環境変数はワーカーの起動時に決まり、実行ごとには変えられない
+                throw new IllegalArgumentException(
+                        "Environment of JVM job " + job.getId() + " cannot reference parameters: "
+                                + environmentNames[i]);
+            }
+        }
+        return new JobTemplate(job, List.copyOf(rules), arguments, environmentNames, environmentValues);
+    }
+
+    /**
+     * @return コンパイル元のジョブ定義
+     */
+    public BatchConfig.Job job() {
+        return job;
+    }
+
+    /**
+     * 要求されたパラメータを検証し、既定値を補って正規化する
+     *
+     * @param requested 要求されたパラメータ（null の場合は未指定）
+     * @return 定義順に並んだ正規化済みのパラメータ（変更不可）
+     * @throws BatchDomainException 未定義のパラメータがある場合、必須のパラメータがない場合、または値が不正な場合
+     */
+    public Map<String, String> resolve(Map<String, String> requested) {
+        Map<String, String> values = requested != null ? requested : Map.of();
+        if (rules.isEmpty()) {
+            if (!values.isEmpty()) {
+                throw invalid("Job " + job.getId() + " takes no parameters");
+            }
+            return Map.of();
+        }
+        for (String name : values.keySet()) {
+            if (!rulesByName.containsKey(name)) {
+                throw invalid("Unknown parameter: " + name);
+            }
+        }
+
+        Map<String, String> resolved = new LinkedHashMap<>();
+        for (ParameterRule rule : rules) {
+            resolved.put(rule.name, rule.resolve(values.get(rule.name)));
+        }
+        return Collections.unmodifiableMap(resolved);
+    }
+
+    /**
+     * 引数のテンプレートに値を埋め込む
+     *
+     * @param values 正規化済みのパラメータ（{@link #resolve} の結果）
+     * @return 引数
+     */
+    public List<String> arguments(Map<String, String> values) {
+        return constantArguments != null ? constantArguments : renderArguments(values);
+    }
+
+    /**
+     * 環境変数のテンプレートに値を埋め込む
+     *
+     * @param values 正規化済みのパラメータ（{@link #resolve} の結果）
+     * @return 環境変数
+     */
+    public Map<String, String> environment(Map<String, String> values) {
+        return constantEnvironment != null ? constantEnvironment : renderEnvironment(values);
+    }
+
+    private List<String> renderArguments(Map<String, String> values) {
+        List<String> rendered = new ArrayList<>(arguments.length);
+        for (Template argument : arguments) {
+            rendered.add(argument.render(values));
+        }
+        return rendered;
+    }
+
+    private Map<String, String> renderEnvironment(Map<String, String> values) {
+        Map<String, String> rendered = new HashMap<>(environmentNames.length * 2);
+        for (int i = 0; i < environmentNames.length; i++) {
+            rendered.put(environmentNames[i], environmentValues[i].render(values));
+        }
+        return rendered;
+    }
+
+    private static boolean isConstant(Template[] templates) {
+        for (Template template : templates) {
+            if (!template.isConstant()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static BatchDomainException invalid(String detail) {
+        return new BatchDomainException(BatchErrorCode.INVALID_JOB_PARAMETER, detail);
+    }
+
+    /**
+     * 解析済みのテンプレート文字列
+     * literals[0] names[0] literals[1] names[1] ... literals[n] の順に連結する
+     */
+    private static final class Template {
+        private final String[] literals;
+        private final String[] names;
+        private final int literalLength;
+
+        private Template(String[] literals, String[] names) {
+            this.literals = literals;
+            this.names = names;
+            int length = 0;
+            for (String literal : literals) {
+                length += literal.length();
+            }
+            this.literalLength = length;
+        }
+
+        static Template parse(String jobId, String text, Set<String> declared) {
+            String source = text != null ? text : "";
+            List<String> literals = new ArrayList<>();
+            List<String> names = new ArrayList<>();
+            int from = 0;
+            int open;
+            while ((open = source.indexOf(OPEN, from)) >= 0) {
+                int close = source.indexOf(CLOSE, open + OPEN.length());
+                if (close < 0) {
+                    break;
+                }
+                String name = source.substring(open + OPEN.length(), close).trim();
+                if (!declared.contains(name)) {
+                    throw new IllegalArgumentException(
+                            "Template of job " + jobId + " references undeclared parameter: " + name);
+                }
+                literals.add(source.substring(from, open));
+                names.add(name);
+                from = close + CLOSE.length();
+            }
+            literals.add(source.substring(from));
+            return new Template(literals.toArray(String[]::new), names.toArray(String[]::new));
+        }
+
+        boolean isConstant() {
+            return names.length == 0;
+        }
+
+        String render(Map<String, String> values) {
+            if (names.length == 0) {
+                return literals[0];
+            }
+            StringBuilder rendered = new StringBuilder(literalLength + names.length * 16);
+            for (int i = 0; i < names.length; i++) {
+                rendered.append(literals[i]).append(values.getOrDefault(names[i], ""));
+            }
+            return rendered.append(literals[names.length]).toString();
+        }
+    }
+
+    /**
+     * コンパイル済みのパラメータの検証規則
+     */
+    private static final class ParameterRule {
+        private final String name;
+        private final BatchConfig.ParameterType type;
+        private final boolean required;
+        private final Set<String> allowedValues;
+        private final Pattern pattern;
+        private final Long min;
+        private final Long max;
+        private final int maxLength;
+        private final String defaultValue;
+
+        private ParameterRule(BatchConfig.JobParameter parameter, Pattern pattern) {
+            this.name = parameter.getName();
+            this.type = parameter.getType();
+            this.required = parameter.isRequired();
+            this.allowedValues = Set.copyOf(parameter.getAllowedValues());
+            this.pattern = pattern;
+            this.min = parameter.getMin();
+            this.max = parameter.getMax();
+            this.maxLength = parameter.getMaxLength();
+            this.defaultValue = parameter.getDefaultValue() != null ? normalize(parameter.getDefaultValue()) : null;
+        }
+
+        static ParameterRule compile(String jobId, BatchConfig.JobParameter parameter) {
+            Pattern pattern = null;
+            if (parameter.getPattern() != null) {
+                try {
+                    pattern = Pattern.compile(parameter.getPattern());
+                } catch (PatternSyntaxException e) {
+                    throw new IllegalArgumentException(
+                            "Invalid pattern of parameter " + parameter.getName() + " in job " + jobId, e);
+                }
+            }
+            try {
+                return new ParameterRule(parameter, pattern);
+            } catch (BatchDomainException e) {
+                throw new IllegalArgumentException(
+                        "Invalid default value of parameter " + parameter.getName() + " in job " + jobId + ": "
+                                + e.getMessage());
+            }
+        }
+
+        String resolve(String value) {
+            if (value == null) {
+                if (defaultValue != null) {
+                    return defaultValue;
+                }
+                if (required) {
+                    throw invalid("Missing required parameter: " + name);
+                }
+                return "";
+            }
+            return normalize(value);
+        }
+
+        private String normalize(String value) {
+            String normalized = switch (type) {
+                case STRING -> {
+                    if (value.length() > maxLength || value.indexOf('\0') >= 0
+                            || (pattern != null && !pattern.matcher(value).matches())) {
+                        throw invalid("Invalid value of parameter " + name);
+                    }
+                    yield value;
+                }
+                case INTEGER -> {
+                    long number;
+                    try {
+                        number = Long.parseLong(value.trim());
+                    } catch (NumberFormatException e) {
+                        throw invalid("Parameter " + name + " must be an integer");
+                    }
+                    if ((min != null && number < min) || (max != null && number > max)) {
+                        throw invalid("Parameter " + name + " is out of range");
+                    }
+                    yield Long.toString(number);
+                }
+                case BOOLEAN -> {
+                    String trimmed = value.trim();
+                    if (!trimmed.equalsIgnoreCase("true") && !trimmed.equalsIgnoreCase("false")) {
+                        throw invalid("Parameter " + name + " must be true or false");
+                    }
+                    yield trimmed.toLowerCase();
+                }
+                case DATE -> {
+                    try {
+                        yield LocalDate.parse(value.trim()).toString();
+                    } catch (DateTimeParseException e) {
+                        throw invalid("Parameter " + name + " must be a date (yyyy-MM-dd)");
+                    }
+                }
+            };
+            if (!allowedValues.isEmpty() && !allowedValues.contains(normalized)) {
+                throw invalid("Parameter " + name + " must be one of " + allowedValues);
+            }
+            return normalized;
+        }
+    }
+}
@@ -0,0 +1,576 @@
+package com.example.demo.batch.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongConsumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.batch.dto.WorkerPoolMetrics;
+import com.example.demo.batch.service.ProcessSupervisor.ProcessOutcome;
+import com.example.demo.batch.worker.BatchWorkerMain;
+import com.example.demo.batch.worker.WorkerProtocol;
+import com.example.demo.config.BatchConfig;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 常駐ワーカーJVMのプール（type: JVM のジョブ用）
+ * ジョブごとに起動済みのワーカーJVMを保持し、パイプ経由でタスクを1件ずつ渡して JVM の起動・JIT のコストを省く
+ * 一定回数の実行、またはヒープ使用量の増加でワーカーを入れ替える
+ */
+@Component
+@Slf4j
+public class JvmWorkerPool {
+
+    @Autowired
+    private BatchConfig batchConfig;
+
+    @Autowired
+    private ProcessOutputPump outputPump;
+
+    @Autowired
+    private ProcessSupervisor processSupervisor;
+
+    private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+    private final Map<String, Worker> busy = new ConcurrentHashMap<>(); // 実行IDごとの実行中のワーカー
+    private final Map<String, Run> runs = new ConcurrentHashMap<>(); // 実行IDごとのワーカー待ち・実行中のタスク
+
+    // ワーカーに渡さずに終えたタスクの結果
+    private static final ProcessOutcome CANCELLED = new ProcessOutcome(-1, false);
+
+    private ExecutorService readers;
+    private volatile boolean closed;
+
+    @PostConstruct
+    void init() {
+        readers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("batch-worker-", 0).factory());
+    }
+
+    /**
+     * 有効な JVM ジョブのワーカーを起動しておく
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void prestart() {
+        if (!batchConfig.getWorkerPool().isPrestart()) {
+            return;
+        }
+        batchConfig.getJobs().stream()
+                .filter(job -> job.isEnabled() && job.getType() == BatchConfig.JobType.JVM)
+                .forEach(job -> pool(job).fill());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        closed = true;
+        pools.values().forEach(Pool::close);
+        readers.shutdownNow();
+    }
+
+    /**
+     * ワーカーでタスクを実行する
+     * 空いているワーカーがない場合は、ワーカーが空くまで待つ（待っている間にキャンセルされた場合はタスクを渡さずに終える）
+     *
+     * @param executionId 実行ID
+     * @param job         ジョブ定義（type: JVM）
+     * @param arguments   メインクラスに渡す引数（パラメータ埋め込み済み）
+     * @param onStarted   タスクをワーカーに渡した時点で、ワーカーのプロセスIDを受け取る
+     * @return タスクの終了時に完了する Future
+     */
+    public CompletableFuture<ProcessOutcome> run(String executionId, BatchConfig.Job job, List<String> arguments,
+            LongConsumer onStarted) {
+        Pool pool = pool(job);
+        Run run = new Run(pool, pool.acquire());
+        runs.put(executionId, run);
+        CompletableFuture<ProcessOutcome> outcome = run.worker.thenCompose(worker -> worker == null
+                ? CompletableFuture.completedFuture(CANCELLED)
+                : worker.run(executionId, job, arguments, onStarted, () -> run.cancelled));
+        outcome.whenComplete((result, error) -> runs.remove(executionId, run));
+        return outcome;
+    }
+
+    /**
+     * タスクを停止する
+     * ワーカー待ちの場合は待ちから外し、実行中の場合はタスク単位では停止できないため、
+     * ワーカーのプロセスツリーごと停止する（ワーカーは入れ替えられる）
+     *
+     * @param executionId 実行ID
+     */
+    public void cancel(String executionId) {
+        Run run = runs.get(executionId);
+        if (run == null) {
+            return;
+        }
+        // ワーカーを得た直後のタスクは、この印を見てワーカーに渡さずに終える
+        run.cancelled = true;
+        Worker worker = busy.get(executionId);
+        if (worker != null) {
+            worker.terminate(executionId);
+        } else if (run.pool.withdraw(run.worker)) {
+            run.worker.complete(null);
+        }
+    }
+
+    /**
+     * @return ジョブIDごとのプールのメトリクス
+     */
+    public Map<String, WorkerPoolMetrics> metrics() {
+        Map<String, WorkerPoolMetrics> metrics = new LinkedHashMap<>();
+        pools.forEach((jobId, pool) -> metrics.put(jobId, pool.metrics()));
+        return metrics;
+    }
+
+    private Pool pool(BatchConfig.Job job) {
+        return pools.computeIfAbsent(job.getId(), id -> new Pool(job));
+    }
+
+    private List<String> workerCommand(BatchConfig.Job job) {
+        BatchConfig.WorkerPool config = batchConfig.getWorkerPool();
+        String javaHome = config.getJavaHome() != null ? config.getJavaHome() : System.getProperty("java.home");
+
+        List<String> classpath = new ArrayList<>(config.getClasspath());
+        if (classpath.isEmpty()) {
+            classpath.add(workerClassLocation());
+        }
+        classpath.addAll(job.getClasspath());
+
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(javaHome, "bin", "java").toString());
+        command.addAll(config.getJvmOptions());
+        command.addAll(job.getJvmOptions());
+        command.add("-cp");
+        command.add(String.join(File.pathSeparator, classpath));
+        command.add(WorkerProtocol.MAIN_CLASS);
+        command.add(String.valueOf(config.getMaxHeapGrowthBytes()));
+        return command;
+    }
+
+    private static String workerClassLocation() {
+        URL location = BatchWorkerMain.class.getProtectionDomain().getCodeSource().getLocation();
+        try {
+            if ("file".equals(location.getProtocol())) {
+                return Path.of(location.toURI()).toString();
+            }
+        } catch (URISyntaxException e) {
+            // 下の例外にまとめる
+        }
+        throw new IllegalStateException(
+                "Cannot resolve worker classpath from " + location + "; configure batch.worker-pool.classpath");
+    }
+
+    /**
+     * ジョブ単位のワーカープール
+     */
+    private final class Pool {
+
+        private final BatchConfig.Job job;
+
+        // this で保護する
+        private final Set<Worker> workers = new HashSet<>();
+        private final ArrayDeque<Worker> idle = new ArrayDeque<>();
+        private final ArrayDeque<CompletableFuture<Worker>> waiters = new ArrayDeque<>();
+
+        private final AtomicLong started = new AtomicLong();
+        private final AtomicLong recycled = new AtomicLong();
+        private final AtomicLong completedRuns = new AtomicLong();
+
+        Pool(BatchConfig.Job job) {
+            this.job = job;
+        }
+
+        synchronized void fill() {
+            while (!closed && workers.size() < batchConfig.getWorkerPool().getSize() && spawn()) {
+            }
+        }
+
+        CompletableFuture<Worker> acquire() {
+            CompletableFuture<Worker> waiter = new CompletableFuture<>();
+            synchronized (this) {
+                Worker worker = idle.poll();
+                if (worker != null) {
+                    return CompletableFuture.completedFuture(worker);
+                }
+                if (workers.size() < batchConfig.getWorkerPool().getSize() && !spawn() && workers.isEmpty()) {
+                    return CompletableFuture.failedFuture(startFailure());
+                }
+                waiters.add(waiter);
+            }
+            return waiter;
+        }
+
+        /**
+         * ワーカー待ちから外す
+         *
+         * @return 待っていた場合 true（ワーカーを得た後は false）
+         */
+        synchronized boolean withdraw(CompletableFuture<Worker> waiter) {
+            return waiters.remove(waiter);
+        }
+
+        /**
+         * 起動完了・タスク完了したワーカーを待機中に戻す
+         */
+        void offer(Worker worker) {
+            CompletableFuture<Worker> waiter;
+            synchronized (this) {
+                if (!workers.contains(worker)) {
+                    return;
+                }
+                waiter = waiters.poll();
+                if (waiter == null) {
+                    idle.add(worker);
+                    return;
+                }
+            }
+            // 待機中の実行はロック外で再開する
+            waiter.complete(worker);
+        }
+
+        /**
+         * ワーカーをプールから外し、必要であれば代わりを起動する
+         *
+         * @param worker  ワーカー
+         * @param replace 代わりを起動する場合 true（起動に失敗したワーカーでは false）
+         */
+        void remove(Worker worker, boolean replace) {
+            List<CompletableFuture<Worker>> failed = List.of();
+            synchronized (this) {
+                if (!workers.remove(worker)) {
+                    return;
+                }
+                idle.remove(worker);
+                if (closed) {
+                    return;
+                }
+                if (replace && (batchConfig.getWorkerPool().isPrestart() || !waiters.isEmpty())) {
+                    spawn();
+                }
+                if (workers.isEmpty()) {
+                    // 起動できないワーカーを繰り返し起動しないよう、待機中の実行は失敗させる
+                    failed = new ArrayList<>(waiters);
+                    waiters.clear();
+                }
+            }
+            // 待機中の実行はロック外で再開する
+            failed.forEach(waiter -> waiter.completeExceptionally(startFailure()));
+        }
+
+        private IllegalStateException startFailure() {
+            return new IllegalStateException("JVM worker failed to start: " + job.getId());
+        }
+
+        /**
+         * this のロックを保持して呼び出すこと
+         *
+         * @return 起動できた場合 true
+         */
+        private boolean spawn() {
+            try {
+                Worker worker = new Worker(this, startProcess());
+                workers.add(worker);
+                started.incrementAndGet();
+                worker.start();
+                return true;
+            } catch (IOException | RuntimeException e) {
+                log.error("Failed to start JVM worker for job: {}", job.getId(), e);
+                return false;
+            }
+        }
+
+        private Process startProcess() throws IOException {
+            ProcessBuilder processBuilder = new ProcessBuilder(workerCommand(job));
+            processBuilder.directory(new File(job.getWorkingDirectory()));
+            processBuilder.environment().putAll(job.getEnvironment());
+            return processBuilder.start();
+        }
+
+        void close() {
+            List<Worker> snapshot;
+            synchronized (this) {
+                snapshot = new ArrayList<>(workers);
+            }
+            snapshot.forEach(worker -> worker.process.destroy());
+        }
+
+        synchronized WorkerPoolMetrics metrics() {
+            return WorkerPoolMetrics.builder()
+                    .workers(workers.size())
+                    .idle(idle.size())
+                    .waiting(waiters.size())
+                    .started(started.get())
+                    .recycled(recycled.get())
+                    .completedRuns(completedRuns.get())
+                    .build();
+        }
+    }
+
+    /**
+     * 常駐ワーカーJVM（同時に1タスクのみ実行する）
+     */
+    private final class Worker {
+
+        private final Pool pool;
+        private final Process process;
+        private final DataOutputStream requests;
+
+        private volatile Task current;
+        private volatile boolean ready;
+        private long baselineHeap;
+        private int runs;
+
+        Worker(Pool pool, Process process) {
+            this.pool = pool;
+            this.process = process;
+            this.requests = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+        }
+
+        void start() {
+            readers.execute(this::read);
+            readers.execute(this::drainDiagnostics);
+            processSupervisor.schedule(() -> {
+                if (!ready && process.isAlive()) {
+                    log.error("JVM worker startup timeout: {} (pid {})", pool.job.getId(), process.pid());
+                    process.destroyForcibly();
+                }
+            }, batchConfig.getWorkerPool().getStartupTimeoutMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        CompletableFuture<ProcessOutcome> run(String executionId, BatchConfig.Job job, List<String> arguments,
+                LongConsumer onStarted, BooleanSupplier cancelled) {
+            busy.put(executionId, this);
+            if (cancelled.getAsBoolean()) {
+                // ワーカーを待っている間にキャンセルされた
+                busy.remove(executionId, this);
+                pool.offer(this);
+                return CompletableFuture.completedFuture(CANCELLED);
+            }
+            Task task = new Task(executionId,
+                    outputPump.open(executionId, OutputStreamType.STDOUT),
+                    outputPump.open(executionId, OutputStreamType.STDERR));
+            current = task;
+            task.outcome.whenComplete((outcome, error) -> busy.remove(executionId, this));
+            if (cancelled.getAsBoolean()) {
+                // 上の確認の後、停止処理が current を設定する前にキャンセルされた。タスクを渡さずにワーカーごと停止する
+                terminate(executionId);
+                return task.outcome;
+            }
+            onStarted.accept(process.pid());
+            task.timeout = processSupervisor.schedule(() -> {
+                if (current == task) {
+                    log.warn("Batch execution timeout: {}", executionId);
+                    task.timedOut = true;
+                    terminate(executionId);
+                }
+            }, job.getTimeout(), TimeUnit.SECONDS);
+
+            try {
+                synchronized (requests) {
+                    requests.writeByte(WorkerProtocol.RUN);
+                    requests.writeUTF(job.getMainClass());
+                    requests.writeInt(arguments.size());
+                    for (String argument : arguments) {
+                        requests.writeUTF(argument);
+                    }
+                    requests.flush();
+                }
+            } catch (IOException e) {
+                // ワーカーが既に終了している場合、読み取り側が終端を検知済みのことがあるためここで完了させる
+                log.warn("Failed to send task {} to JVM worker (pid {})", executionId, process.pid(), e);
+                process.destroyForcibly();
+                task.finish(new ProcessOutcome(-1, false));
+            }
+            return task.outcome;
+        }
+
+        /**
+         * 指定の実行を処理中であれば、ワーカーのプロセスツリーを停止する
+         */
+        void terminate(String executionId) {
+            Task task = current;
+            if (task != null && task.executionId.equals(executionId)) {
+                processSupervisor.terminate(executionId, process.toHandle());
+            }
+        }
+
+        private void read() {
+            byte[] array = new byte[batchConfig.getOutput().getBufferSize()];
+            ByteBuffer buffer = ByteBuffer.wrap(array);
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(process.getInputStream()))) {
+                while (true) {
+                    byte type = in.readByte();
+                    int length = in.readInt();
+                    switch (type) {
+                        case WorkerProtocol.READY -> {
+                            baselineHeap = in.readLong();
+                            ready = true;
+                            log.info("JVM worker ready: {} (pid {})", pool.job.getId(), process.pid());
+                            pool.offer(this);
+                        }
+                        case WorkerProtocol.STDOUT, WorkerProtocol.STDERR -> {
+                            Task task = current;
+                            OutputSink.Channel channel = task == null ? OutputSink.DISCARD
+                                    : type == WorkerProtocol.STDOUT ? task.stdout : task.stderr;
+                            while (length > 0) {
+                                int read = Math.min(length, array.length);
+                                in.readFully(array, 0, read);
+                                buffer.clear().limit(read);
+                                channel.write(buffer);
+                                length -= read;
+                            }
+                        }
+                        case WorkerProtocol.EXIT -> {
+                            int exitCode = in.readInt();
+                            long usedHeap = in.readLong();
+                            Task task = current;
+                            current = null;
+                            release(usedHeap);
+                            if (task != null) {
+                                task.finish(new ProcessOutcome(exitCode, false));
+                            }
+                        }
+                        default -> throw new IOException("Unknown frame from JVM worker: " + type);
+                    }
+                }
+            } catch (EOFException e) {
+                // ワーカーの終了
+            } catch (IOException e) {
+                log.warn("Error reading JVM worker (pid {})", process.pid(), e);
+            } finally {
+                process.destroyForcibly();
+                int exitValue = process.onExit().join().exitValue();
+                pool.remove(this, ready);
+                Task task = current;
+                if (task != null) {
+                    // タスク中の System.exit・タイムアウト・クラッシュはワーカーの終了コードを使う
+                    task.finish(new ProcessOutcome(exitValue, task.timedOut));
+                }
+                if (!ready && !closed) {
+                    log.error("JVM worker exited before ready: {} (exitCode {})", pool.job.getId(), exitValue);
+                }
+            }
+        }
+
+        /**
+         * タスク完了後のワーカーを再利用するか入れ替えるか決める
+         */
+        private void release(long usedHeap) {
+            pool.completedRuns.incrementAndGet();
+            runs++;
+            BatchConfig.WorkerPool config = batchConfig.getWorkerPool();
+            long heapGrowth = usedHeap - baselineHeap;
+            if (runs < config.getMaxRunsPerWorker() && heapGrowth <= config.getMaxHeapGrowthBytes()) {
+                pool.offer(this);
+                return;
+            }
+
+            log.info("Recycling JVM worker: {} (pid {}, runs {}, heapGrowth {})", pool.job.getId(), process.pid(),
+                    runs, heapGrowth);
+            pool.recycled.incrementAndGet();
+            pool.remove(this, true);
+            try {
+                synchronized (requests) {
+                    requests.writeByte(WorkerProtocol.SHUTDOWN);
+                    requests.close();
+                }
+            } catch (IOException e) {
+                process.destroyForcibly();
+            }
+        }
+
+        /**
+         * ワーカー JVM 自体の標準エラー（起動失敗・クラッシュの情報）をログに出す
+         */
+        private void drainDiagnostics() {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getErrorStream()))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    log.warn("JVM worker {} (pid {}): {}", pool.job.getId(), process.pid(), line);
+                }
+            } catch (IOException e) {
+                // ワーカーの終了でストリームが閉じられた
+            }
+        }
+    }
+
+    /**
+     * ワーカー待ち・実行中のタスク
+     */
+    private static final class Run {
+
+        private final Pool pool;
+        private final CompletableFuture<Worker> worker; // 待ちから外した場合は null で完了する
+        private volatile boolean cancelled;
+
+        Run(Pool pool, CompletableFuture<Worker> worker) {
+            this.pool = pool;
+            this.worker = worker;
+        }
+    }
+
+    /**
+     * ワーカーで実行中のタスク
+     */
+    private final class Task {
+
+        private final String executionId;
+        private final OutputSink.Channel stdout;
+        private final OutputSink.Channel stderr;
+        private final CompletableFuture<ProcessOutcome> outcome = new CompletableFuture<>();
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private volatile ScheduledFuture<?> timeout;
+        private volatile boolean timedOut;
+
+        Task(String executionId, OutputSink.Channel stdout, OutputSink.Channel stderr) {
+            this.executionId = executionId;
+            this.stdout = stdout;
+            this.stderr = stderr;
+        }
+
+        void finish(ProcessOutcome result) {
+            if (!finished.compareAndSet(false, true)) {
+                return;
+            }
+            ScheduledFuture<?> scheduled = timeout;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+            stdout.close();
+            stderr.close();
+            log.debug("JVM worker task finished: {}", executionId);
+            // 完了処理（履歴の書き込み）でワーカーの読み取りを止めないよう別スレッドで完了させる
+            outcome.completeAsync(() -> result, readers);
+        }
+    }
+}
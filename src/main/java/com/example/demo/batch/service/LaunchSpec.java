@@ -0,0 +1,22 @@
+package com.example.demo.batch.service;
+
+import java.io.File;
+
+/**
+ * ジョブの起動仕様
+ * 実行ファイルの解決・実行権限の確認・テンプレートのコンパイルをジョブの登録時に済ませた不変の形式
+ *
+ * @param template         コンパイル済みのジョブテンプレート
+ * @param executable       実行ファイル（解決できた場合は絶対パス。type: JVM のジョブは null）
+ * @param workingDirectory 作業ディレクトリ
+ * @param problem          起動できない理由（起動できる場合は null）
+ */
+public record LaunchSpec(JobTemplate template, String executable, File workingDirectory, String problem) {
+
+    /**
+     * @return 登録時点で起動できることを確認できた場合 true
+     */
+    public boolean isLaunchable() {
+        return problem == null;
+    }
+}
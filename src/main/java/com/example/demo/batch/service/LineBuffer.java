@@ -0,0 +1,80 @@
+package com.example.demo.batch.service;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * バイト列を行単位に組み立てるバッファ
+ * 内部配列を再利用し、行ごとの割り当てを行わない
+ */
+public class LineBuffer {
+
+    /**
+     * 行の受け取り先
+     */
+    @FunctionalInterface
+    public interface LineConsumer {
+        /**
+         * 1行分のバイト列を受け取る（改行コードは含まない）
+         * 
+         * @param line   バイト配列（呼び出し後に再利用される）
+         * @param length 有効な長さ
+         */
+        void accept(byte[] line, int length);
+    }
+
+    private final int maxLineLength;
+    private byte[] buffer;
+    private int length;
+
+    /**
+     * @param maxLineLength 1行の最大長（超過分は途中で区切って通知する）
+     */
+    public LineBuffer(int maxLineLength) {
+        this.maxLineLength = maxLineLength;
+        this.buffer = new byte[Math.min(256, maxLineLength)];
+    }
+
+    /**
+     * バイト列を追加し、完成した行を通知する
+     * 
+     * @param data     追加するバイト列（position から limit まで、position は変更しない）
+     * @param consumer 行の受け取り先
+     */
+    public void append(ByteBuffer data, LineConsumer consumer) {
+        for (int i = data.position(); i < data.limit(); i++) {
+            byte b = data.get(i);
+            if (b == '\n') {
+                emit(consumer);
+            } else {
+                if (length == maxLineLength) {
+                    emit(consumer);
+                }
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, Math.min(buffer.length * 2, maxLineLength));
+                }
+                buffer[length++] = b;
+            }
+        }
+    }
+
+    /**
+     * 改行で終わっていない残りを行として通知する
+     * 
+     * @param consumer 行の受け取り先
+     */
+    public void flush(LineConsumer consumer) {
+        if (length > 0) {
+            emit(consumer);
+        }
+    }
+
+    private void emit(LineConsumer consumer) {
+        int end = length;
+        if (end > 0 && buffer[end - 1] == '\r') {
+            end--;
+        }
+        consumer.accept(buffer, end);
+        length = 0;
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.demo.batch.service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import com.example.demo.batch.dto.ExecutionProgress;
+import com.example.demo.batch.dto.ExecutionStatus;
+import com.example.demo.batch.entity.BatchExecution;
+
+/**
+ * 待機中・実行中のバッチ実行のメモリ上の状態
+ * 実行中のステータス照会はこのオブジェクトのみで応答し、データベースを参照しない
+ */
+public class LiveExecution {
+
+    private final BatchExecution execution; // this で保護する
+    private volatile Long pid;
+    private final AtomicLong outputBytes = new AtomicLong();
+    private volatile long lastOutputMillis;
+    private volatile ExecutionProgress progress;
+    private Runnable canceller; // this で保護する
+    private boolean cancelRequested; // this で保護する
+    private boolean abandoned; // this で保護する
+
+    LiveExecution(BatchExecution execution) {
+        this.execution = execution.toBuilder().build();
+    }
+
+    /**
+     * @return 実行ID
+     */
+    public String getId() {
+        return execution.getId();
+    }
+
+    /**
+     * ドメインメソッドで状態を遷移させる
+     * 
+     * @param transition 状態遷移
+     * @return 遷移前のステータスと遷移後の実行レコードのコピー
+     * @throws com.example.demo.batch.exception.BatchDomainException 遷移できない状態の場合
+     */
+    public synchronized Transition apply(Consumer<BatchExecution> transition) {
+        ExecutionStatus from = execution.getStatus();
+        BatchExecution working = execution.toBuilder().build();
+        transition.accept(working);
+        copyState(working);
+        return new Transition(from, working);
+    }
+
+    /**
+     * 永続化できなかった状態遷移を取り消し、DB の行（先に遷移させた経路の結果）に合わせる
+     * 取り消す遷移の後に別の遷移が行われていた場合は何もしない
+     * 
+     * @param applied   永続化できなかった遷移後の実行レコード
+     * @param persisted DB の実行レコード
+     */
+    public synchronized void revert(BatchExecution applied, BatchExecution persisted) {
+        if (execution.getStatus() == applied.getStatus()) {
+            copyState(persisted);
+        }
+    }
+
+    /**
+     * @return 現在の実行レコードのコピー
+     */
+    public synchronized BatchExecution copy() {
+        return execution.toBuilder().build();
+    }
+
+    /**
+     * @param pid 子プロセスのPID
+     */
+    public void setPid(long pid) {
+        this.pid = pid;
+    }
+
+    /**
+     * キャンセル要求時に実行中のプロセスを停止する処理を登録する
+     * 既にキャンセルが要求されている場合は即座に実行する
+     * 
+     * @param canceller 停止処理
+     */
+    public void onCancel(Runnable canceller) {
+        boolean requested;
+        synchronized (this) {
+            this.canceller = canceller;
+            requested = cancelRequested;
+        }
+        if (requested) {
+            canceller.run();
+        }
+    }
+
+    /**
+     * キャンセルを要求する
+     * 停止処理が登録済みであれば実行し、未登録であれば登録時に実行する
+     */
+    public void requestCancel() {
+        Runnable registered;
+        synchronized (this) {
+            cancelRequested = true;
+            registered = canceller;
+        }
+        if (registered != null) {
+            registered.run();
+        }
+    }
+
+    /**
+     * @return キャンセルが要求されている場合 true
+     */
+    public synchronized boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    /**
+     * 実行を放棄する（クラスタのリースを失った場合）
+     * プロセスの停止を要求し、以降の状態遷移をデータベースに記録しない
+     */
+    public void abandon() {
+        synchronized (this) {
+            abandoned = true;
+        }
+        requestCancel();
+    }
+
+    /**
+     * @return 実行を放棄した場合 true
+     */
+    public synchronized boolean isAbandoned() {
+        return abandoned;
+    }
+
+    /**
+     * 出力の受信を記録する
+     * 
+     * @param bytes 受信バイト数
+     */
+    public void recordOutput(int bytes) {
+        outputBytes.addAndGet(bytes);
+        lastOutputMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * 進捗マーカー行の内容を記録する
+     * 
+     * @param progress 最新の進捗
+     */
+    public void updateProgress(ExecutionProgress progress) {
+        this.progress = progress;
+    }
+
+    /**
+     * @return 現在の状態のスナップショット
+     */
+    public Snapshot snapshot() {
+        long lastOutput = lastOutputMillis;
+        return new Snapshot(copy(), pid, outputBytes.get(),
+                lastOutput == 0 ? null
+                        : LocalDateTime.ofInstant(Instant.ofEpochMilli(lastOutput), ZoneId.systemDefault()),
+                progress);
+    }
+
+    private void copyState(BatchExecution source) {
+        execution.setStatus(source.getStatus());
+        execution.setExitCode(source.getExitCode());
+        execution.setStartTime(source.getStartTime());
+        execution.setEndTime(source.getEndTime());
+    }
+
+    /**
+     * 状態遷移の結果
+     * 
+     * @param from      遷移前のステータス
+     * @param execution 遷移後の実行レコード
+     */
+    public record Transition(ExecutionStatus from, BatchExecution execution) {
+    }
+
+    /**
+     * 実行状態のスナップショット
+     * 
+     * @param execution      実行レコード
+     * @param pid            子プロセスのPID（未起動の場合 null）
+     * @param outputBytes    受信済み出力バイト数
+     * @param lastOutputTime 最終出力時刻（出力がない場合 null）
+     * @param progress       最新の進捗（進捗マーカー行を受信していない場合 null）
+     */
+    public record Snapshot(BatchExecution execution, Long pid, long outputBytes, LocalDateTime lastOutputTime,
+            ExecutionProgress progress) {
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.demo.batch.service;
+
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+import com.example.demo.batch.entity.BatchExecution;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 待機中・実行中のバッチ実行を保持するレジストリ
+ * 受付時に登録し、完了状態をデータベースへ引き渡した時点で削除する
+ */
+@Component
+@Slf4j
+public class LiveExecutionRegistry implements OutputSink {
+
+    private final ConcurrentHashMap<String, LiveExecution> executions = new ConcurrentHashMap<>();
+
+    /**
+     * 実行を登録する
+     * 
+     * @param execution 受付済みの実行レコード
+     * @return 登録した実行状態
+     */
+    public LiveExecution register(BatchExecution execution) {
+        LiveExecution live = new LiveExecution(execution);
+        executions.put(live.getId(), live);
+        return live;
+    }
+
+    /**
+     * 実行状態を取得する
+     * 
+     * @param executionId 実行ID
+     * @return 実行状態（待機中・実行中でない場合は空）
+     */
+    public Optional<LiveExecution> get(String executionId) {
+        return Optional.ofNullable(executions.get(executionId));
+    }
+
+    /**
+     * 実行を削除する
+     * 
+     * @param executionId 実行ID
+     */
+    public void remove(String executionId) {
+        if (executions.remove(executionId) != null) {
+            log.debug("Removed execution from live registry: {}", executionId);
+        }
+    }
+
+    /**
+     * @return 登録中の実行数
+     */
+    public int size() {
+        return executions.size();
+    }
+
+    @Override
+    public Channel open(String executionId, OutputStreamType type) {
+        LiveExecution live = executions.get(executionId);
+        if (live == null) {
+            return DISCARD;
+        }
+        return (ByteBuffer data) -> live.recordOutput(data.remaining());
+    }
+}
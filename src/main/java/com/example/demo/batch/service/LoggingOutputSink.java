@@ -0,0 +1,42 @@
+package com.example.demo.batch.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * プロセス出力をアプリケーションログに出力する Sink
+ * DEBUG が無効な場合は行の組み立て・文字列化を一切行わない
+ */
+@Component
+@Slf4j
+public class LoggingOutputSink implements OutputSink {
+
+    private static final int MAX_LINE_LENGTH = 8192;
+
+    @Override
+    public Channel open(String executionId, OutputStreamType type) {
+        if (!log.isDebugEnabled()) {
+            return DISCARD;
+        }
+        String logPrefix = type == OutputStreamType.STDOUT ? "Process output" : "Process error";
+        LineBuffer lineBuffer = new LineBuffer(MAX_LINE_LENGTH);
+        LineBuffer.LineConsumer logger = (line, length) -> log.debug("{} [{}]: {}", logPrefix, executionId,
+                new String(line, 0, length, Charset.defaultCharset()));
+
+        return new Channel() {
+            @Override
+            public void write(ByteBuffer data) {
+                lineBuffer.append(data, logger);
+            }
+
+            @Override
+            public void close() {
+                lineBuffer.flush(logger);
+            }
+        };
+    }
+}
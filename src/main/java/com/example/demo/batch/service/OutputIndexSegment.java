@@ -0,0 +1,369 @@
+package com.example.demo.batch.service;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * 実行出力の全文検索索引のセグメント（不変）
+ * 語ごとに、出現した実行とその出現位置（転置リスト）を持つ
+ * 語の辞書は開いた時点でメモリに読み込み、転置リストは検索のたびに該当する範囲だけをファイルから読む
+ *
+ * <pre>
+ * [転置リスト: 語ごとに 実行数（int）, 実行ごとに 実行の番号（int）, 出現数（int）, 記録した位置の数（int）, 位置（long）...]
+ * [実行: 実行数（int）, 実行ID（UTF）...]
+ * [辞書: 語数（int）, 語ごとに 語（UTF）, 転置リストの開始位置（long）]（語の昇順）
+ * [トレーラー: 実行の開始位置（long）, 辞書の開始位置（long）, MAGIC（int）]
+ * </pre>
+ */
+final class OutputIndexSegment {
+
+    private static final int MAGIC = 0x42494458; // "BIDX"
+    private static final int TRAILER_SIZE = Long.BYTES + Long.BYTES + Integer.BYTES;
+
+    private final Path path;
+    private final List<String> executionIds;
+    private final String[] terms;
+    private final long[] postingPositions; // 末尾に転置リストの終端位置を加えた terms.length + 1 個
+
+    private OutputIndexSegment(Path path, List<String> executionIds, String[] terms, long[] postingPositions) {
+        this.path = path;
+        this.executionIds = executionIds;
+        this.terms = terms;
+        this.postingPositions = postingPositions;
+    }
+
+    /**
+     * セグメントを開き、実行と語の辞書を読み込む
+     *
+     * @param path セグメントファイル
+     * @return セグメント
+     * @throws IOException 読み取りに失敗した場合、または形式が不正な場合
+     */
+    static OutputIndexSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < TRAILER_SIZE) {
+                throw new IOException("Corrupted index segment: " + path);
+            }
+            DataInputStream trailer = read(channel, size - TRAILER_SIZE, TRAILER_SIZE);
+            long executionsPosition = trailer.readLong();
+            long dictionaryPosition = trailer.readLong();
+            if (trailer.readInt() != MAGIC || executionsPosition < 0 || executionsPosition > dictionaryPosition
+                    || dictionaryPosition > size - TRAILER_SIZE) {
+                throw new IOException("Corrupted index segment: " + path);
+            }
+
+            DataInputStream in = read(channel, executionsPosition, size - TRAILER_SIZE - executionsPosition);
+            int executionCount = in.readInt();
+            List<String> executionIds = new ArrayList<>(executionCount);
+            for (int i = 0; i < executionCount; i++) {
+                executionIds.add(in.readUTF());
+            }
+            int termCount = in.readInt();
+            String[] terms = new String[termCount];
+            long[] postingPositions = new long[termCount + 1];
+            for (int i = 0; i < termCount; i++) {
+                terms[i] = in.readUTF();
+                postingPositions[i] = in.readLong();
+            }
+            postingPositions[termCount] = executionsPosition;
+            return new OutputIndexSegment(path, List.copyOf(executionIds), terms, postingPositions);
+        }
+    }
+
+    /**
+     * @return セグメントファイル
+     */
+    Path path() {
+        return path;
+    }
+
+    /**
+     * @return 登録されている実行ID
+     */
+    List<String> executionIds() {
+        return executionIds;
+    }
+
+    /**
+     * @return 語の数
+     */
+    int termCount() {
+        return terms.length;
+    }
+
+    /**
+     * 語の転置リストを読む
+     *
+     * @param term 語
+     * @return 実行IDごとの出現位置（語が登録されていない場合は空）
+     * @throws IOException 読み取りに失敗した場合
+     */
+    Map<String, Occurrences> postings(String term) throws IOException {
+        int index = Arrays.binarySearch(terms, term);
+        if (index < 0) {
+            return Map.of();
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return readPostings(read(channel, postingPositions[index],
+                    postingPositions[index + 1] - postingPositions[index]));
+        }
+    }
+
+    /**
+     * すべての語の転置リストを登録先に加える（セグメントの統合用）
+     *
+     * @param builder 登録先
+     * @param filter  残す実行IDの判定
+     * @throws IOException 読み取りに失敗した場合
+     */
+    void copyTo(Builder builder, Predicate<String> filter) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            DataInputStream in = read(channel, 0, postingPositions[terms.length]);
+            for (String term : terms) {
+                readPostings(in).forEach((executionId, occurrences) -> {
+                    if (filter.test(executionId)) {
+                        builder.add(term, executionId, occurrences);
+                    }
+                });
+            }
+        }
+    }
+
+    private Map<String, Occurrences> readPostings(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        Map<String, Occurrences> postings = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            String executionId = executionIds.get(in.readInt());
+            int total = in.readInt();
+            long[] offsets = new long[in.readInt()];
+            for (int j = 0; j < offsets.length; j++) {
+                offsets[j] = in.readLong();
+            }
+            postings.put(executionId, new Occurrences(total, offsets));
+        }
+        return postings;
+    }
+
+    private static DataInputStream read(FileChannel channel, long position, long length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(length));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of index segment");
+            }
+        }
+        return new DataInputStream(new ByteArrayInputStream(buffer.array()));
+    }
+
+    /**
+     * 1実行・1語の出現位置
+     *
+     * @param total   出現数
+     * @param offsets 出現位置（バイトオフセットの昇順。最大数を超えた分は記録しない）
+     */
+    record Occurrences(int total, long[] offsets) {
+
+        /**
+         * @return 出現位置をすべて記録していない場合 true
+         */
+        boolean isTruncated() {
+            return offsets.length < total;
+        }
+    }
+
+    /**
+     * セグメントの作成
+     * 書き出すまでの間はメモリ上の索引としても検索できる（呼び出し元で排他すること）
+     */
+    static final class Builder {
+
+        private final int maxOffsets;
+        private final Map<String, Map<String, Accumulator>> postings = new HashMap<>();
+        private final Map<String, Integer> executions = new LinkedHashMap<>();
+
+        /**
+         * @param maxOffsets 1実行・1語あたりに記録する出現位置の最大数
+         */
+        Builder(int maxOffsets) {
+            this.maxOffsets = maxOffsets;
+        }
+
+        /**
+         * 実行の出力を語に分割して登録する
+         *
+         * @param executionId    実行ID
+         * @param view           出力ビュー
+         * @param maxTokenLength 語の最大長（バイト）
+         * @throws IOException 出力の読み取りに失敗した場合
+         */
+        void add(String executionId, ExecutionOutputStore.OutputView view, int maxTokenLength) throws IOException {
+            executions.putIfAbsent(executionId, executions.size());
+            try (OutputTokenizer tokenizer = new OutputTokenizer(maxTokenLength,
+                    (token, offset) -> accumulator(token, executionId).add(offset, maxOffsets))) {
+                view.transferTo(0, view.length(), tokenizer);
+            }
+        }
+
+        /**
+         * 出現位置を登録する（セグメントの統合用）
+         */
+        void add(String term, String executionId, Occurrences occurrences) {
+            executions.putIfAbsent(executionId, executions.size());
+            accumulator(term, executionId).merge(occurrences, maxOffsets);
+        }
+
+        /**
+         * 別の登録内容をすべて加える
+         *
+         * @param other 加える登録内容
+         */
+        void addAll(Builder other) {
+            other.postings.forEach((term, termPostings) -> termPostings.forEach(
+                    (executionId, accumulator) -> add(term, executionId, accumulator.toOccurrences())));
+            other.executions.keySet().forEach(executionId -> executions.putIfAbsent(executionId, executions.size()));
+        }
+
+        /**
+         * @return 登録した実行がない場合 true
+         */
+        boolean isEmpty() {
+            return executions.isEmpty();
+        }
+
+        /**
+         * @return 登録した実行ID
+         */
+        List<String> executionIds() {
+            return List.copyOf(executions.keySet());
+        }
+
+        /**
+         * 登録済みの語の出現位置を取得する
+         *
+         * @param term 語
+         * @return 実行IDごとの出現位置（語が登録されていない場合は空）
+         */
+        Map<String, Occurrences> postings(String term) {
+            Map<String, Accumulator> found = postings.get(term);
+            if (found == null) {
+                return Map.of();
+            }
+            Map<String, Occurrences> result = new LinkedHashMap<>();
+            found.forEach((executionId, accumulator) -> result.put(executionId, accumulator.toOccurrences()));
+            return result;
+        }
+
+        /**
+         * セグメントファイルを書き出す
+         * 一時ファイルに書き出してから置き換えるため、読み取り側が書き込み途中の内容を参照することはない
+         *
+         * @param path 書き出し先
+         * @return 書き出したセグメント
+         * @throws IOException 書き込みに失敗した場合
+         */
+        OutputIndexSegment write(Path path) throws IOException {
+            Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+            TreeMap<String, Map<String, Accumulator>> sorted = new TreeMap<>(postings);
+            String[] terms = sorted.keySet().toArray(String[]::new);
+            long[] postingPositions = new long[terms.length + 1];
+            long executionsPosition;
+            long dictionaryPosition;
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                int index = 0;
+                for (Map<String, Accumulator> termPostings : sorted.values()) {
+                    postingPositions[index++] = out.size();
+                    out.writeInt(termPostings.size());
+                    for (Map.Entry<String, Accumulator> entry : termPostings.entrySet()) {
+                        Accumulator accumulator = entry.getValue();
+                        out.writeInt(executions.get(entry.getKey()));
+                        out.writeInt(accumulator.total);
+                        out.writeInt(accumulator.stored);
+                        for (int i = 0; i < accumulator.stored; i++) {
+                            out.writeLong(accumulator.offsets[i]);
+                        }
+                    }
+                }
+                executionsPosition = out.size();
+                postingPositions[terms.length] = executionsPosition;
+                out.writeInt(executions.size());
+                for (String executionId : executions.keySet()) {
+                    out.writeUTF(executionId);
+                }
+                dictionaryPosition = out.size();
+                out.writeInt(terms.length);
+                for (int i = 0; i < terms.length; i++) {
+                    out.writeUTF(terms[i]);
+                    out.writeLong(postingPositions[i]);
+                }
+                out.writeLong(executionsPosition);
+                out.writeLong(dictionaryPosition);
+                out.writeInt(MAGIC);
+                if (out.size() == Integer.MAX_VALUE) {
+                    // DataOutputStream.size() は Integer.MAX_VALUE で飽和する
+                    throw new IOException("Index segment too large: " + path);
+                }
+            }
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return new OutputIndexSegment(path, executionIds(), terms, postingPositions);
+        }
+
+        private Accumulator accumulator(String term, String executionId) {
+            return postings.computeIfAbsent(term, t -> new LinkedHashMap<>())
+                    .computeIfAbsent(executionId, id -> new Accumulator());
+        }
+    }
+
+    /**
+     * 登録中の出現位置
+     */
+    private static final class Accumulator {
+
+        private int total;
+        private int stored;
+        private long[] offsets = new long[1];
+
+        void add(long offset, int maxOffsets) {
+            total++;
+            if (stored < maxOffsets) {
+                if (stored == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, Math.min(maxOffsets, stored * 2));
+                }
+                offsets[stored++] = offset;
+            }
+        }
+
+        void merge(Occurrences occurrences, int maxOffsets) {
+            // 同じ実行が複数のセグメントにある場合（統合の途中で停止した場合）は後から加えたほうを正とする
+            total = 0;
+            stored = 0;
+            for (long offset : occurrences.offsets()) {
+                add(offset, maxOffsets);
+            }
+            total = Math.max(total, occurrences.total());
+        }
+
+        Occurrences toOccurrences() {
+            return new Occurrences(total, Arrays.copyOf(offsets, stored));
+        }
+    }
+}
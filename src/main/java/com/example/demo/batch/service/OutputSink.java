@@ -0,0 +1,46 @@
+package com.example.demo.batch.service;
+
+import java.nio.ByteBuffer;
+
+/**
+ * プロセス出力の書き込み先
+ * Spring Bean として登録すると ProcessOutputPump から自動的に出力が配信される
+ */
+public interface OutputSink {
+
+    /**
+     * 出力ストリームごとの書き込みチャネルを開く
+     * 
+     * @param executionId 実行ID
+     * @param type        ストリーム種別
+     * @return 書き込みチャネル
+     */
+    Channel open(String executionId, OutputStreamType type);
+
+    /**
+     * ストリーム単位の書き込みチャネル
+     * 同一チャネルへの write は単一スレッドから順番に呼び出される
+     */
+    interface Channel {
+
+        /**
+         * 読み取ったバイト列を書き込む
+         * バッファは呼び出し後に再利用されるため、参照を保持してはならない
+         * 
+         * @param data 読み取ったバイト列（position から limit まで）
+         */
+        void write(ByteBuffer data);
+
+        /**
+         * ストリームの終端で呼び出される
+         */
+        default void close() {
+        }
+    }
+
+    /**
+     * 何もしないチャネル
+     */
+    Channel DISCARD = data -> {
+    };
+}
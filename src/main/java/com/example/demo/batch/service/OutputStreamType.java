@@ -0,0 +1,9 @@
+package com.example.demo.batch.service;
+
+/**
+ * プロセス出力ストリームの種別
+ */
+public enum OutputStreamType {
+    STDOUT,
+    STDERR
+}
@@ -0,0 +1,106 @@
+package com.example.demo.batch.service;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 実行出力を語に分割する
+ * 英数字と非 ASCII 文字（UTF-8 の複数バイト文字）の連続を1語とし、ASCII の英字は小文字にそろえる
+ * 出力をデコードせずバイト列のまま走査するため、各語の位置は出力先頭からのバイトオフセットになる
+ * （WritableByteChannel として OutputView.transferTo から直接受け取る。チャンクの境界をまたぐ語も1語として扱う）
+ */
+final class OutputTokenizer implements WritableByteChannel {
+
+    /**
+     * 分割した語の受け取り先
+     */
+    @FunctionalInterface
+    interface TokenConsumer {
+
+        /**
+         * @param token  語
+         * @param offset 語の先頭のバイトオフセット
+         */
+        void accept(String token, long offset);
+    }
+
+    private final byte[] token;
+    private final TokenConsumer consumer;
+    private long position;
+    private long tokenStart = -1;
+    private int tokenLength;
+    private boolean open = true;
+
+    /**
+     * @param maxTokenLength 語の最大長（バイト。超える語は捨てる）
+     * @param consumer       分割した語の受け取り先
+     */
+    OutputTokenizer(int maxTokenLength, TokenConsumer consumer) {
+        this.token = new byte[maxTokenLength];
+        this.consumer = consumer;
+    }
+
+    /**
+     * 文字列を語に分割する（検索語の分割用）
+     *
+     * @param text           文字列
+     * @param maxTokenLength 語の最大長（バイト）
+     * @param consumer       分割した語の受け取り先（位置は文字列の UTF-8 表現の先頭からのバイトオフセット）
+     */
+    static void tokenize(String text, int maxTokenLength, TokenConsumer consumer) {
+        OutputTokenizer tokenizer = new OutputTokenizer(maxTokenLength, consumer);
+        tokenizer.write(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)));
+        tokenizer.close();
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+        int count = src.remaining();
+        while (src.hasRemaining()) {
+            byte b = src.get();
+            if (isTokenByte(b)) {
+                if (tokenStart < 0) {
+                    tokenStart = position;
+                    tokenLength = 0;
+                }
+                if (tokenLength < token.length) {
+                    token[tokenLength] = b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+                }
+                // 最大長を超えた語は区切りまで読み捨てる
+                tokenLength++;
+            } else {
+                emit();
+            }
+            position++;
+        }
+        return count;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * 末尾の語を確定する
+     */
+    @Override
+    public void close() {
+        if (open) {
+            emit();
+            open = false;
+        }
+    }
+
+    private void emit() {
+        if (tokenStart >= 0 && tokenLength <= token.length) {
+            consumer.accept(new String(token, 0, tokenLength, StandardCharsets.UTF_8), tokenStart);
+        }
+        tokenStart = -1;
+    }
+
+    private static boolean isTokenByte(byte b) {
+        return b < 0 || (b >= '0' && b <= '9') || (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z');
+    }
+}
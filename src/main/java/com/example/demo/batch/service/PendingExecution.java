@@ -0,0 +1,13 @@
+package com.example.demo.batch.service;
+
+import com.example.demo.batch.entity.BatchExecution;
+import com.example.demo.config.BatchConfig;
+
+/**
+ * 一括投入で受け付けた、実行エンジンへの投入前の実行
+ *
+ * @param job       ジョブ定義
+ * @param execution 待機中の実行レコード
+ */
+public record PendingExecution(BatchConfig.Job job, BatchExecution execution) {
+}
@@ -0,0 +1,173 @@
+package com.example.demo.batch.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.config.BatchConfig;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * プロセス出力の読み取りを一元管理するポンプ
+ * 仮想スレッド上で生のバイト列を再利用バッファに読み込み、登録済みの全 OutputSink に配信する
+ */
+@Component
+@Slf4j
+public class ProcessOutputPump {
+
+    @Autowired
+    private BatchConfig batchConfig;
+
+    @Autowired
+    private List<OutputSink> sinks;
+
+    private final Queue<ByteBuffer> bufferPool = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooledBuffers = new AtomicInteger();
+
+    private ExecutorService readers;
+
+    @PostConstruct
+    void init() {
+        readers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("batch-output-", 0).factory());
+        log.info("Process output pump initialized with sinks: {}",
+                sinks.stream().map(sink -> sink.getClass().getSimpleName()).toList());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        readers.shutdownNow();
+    }
+
+    /**
+     * プロセスの標準出力と標準エラーの読み取りを開始する
+     * 
+     * @param executionId 実行ID
+     * @param process     プロセス
+     * @return 両ストリームを読み終えた時点で完了する Future
+     */
+    public CompletableFuture<Void> pump(String executionId, Process process) {
+        // Sink が全チャネルの終了を判定できるよう、読み取り開始前に両チャネルを開いておく
+        OutputSink.Channel stdout = open(executionId, OutputStreamType.STDOUT);
+        OutputSink.Channel stderr = open(executionId, OutputStreamType.STDERR);
+        return CompletableFuture.allOf(
+                pump(executionId, process.getInputStream(), OutputStreamType.STDOUT, stdout),
+                pump(executionId, process.getErrorStream(), OutputStreamType.STDERR, stderr));
+    }
+
+    /**
+     * 単一ストリームの読み取りを開始する
+     * 
+     * @param executionId 実行ID
+     * @param stream      入力ストリーム
+     * @param type        ストリーム種別
+     * @param channel     open で取得した配信チャネル
+     * @return ストリームを読み終えた時点で完了する Future
+     */
+    public CompletableFuture<Void> pump(String executionId, InputStream stream, OutputStreamType type,
+            OutputSink.Channel channel) {
+        return CompletableFuture.runAsync(() -> drain(executionId, stream, type, channel), readers);
+    }
+
+    /**
+     * 全 Sink へ配信するチャネルを開く
+     * 
+     * @param executionId 実行ID
+     * @param type        ストリーム種別
+     * @return 配信チャネル
+     */
+    public OutputSink.Channel open(String executionId, OutputStreamType type) {
+        List<OutputSink.Channel> channels = new ArrayList<>(sinks.size());
+        for (OutputSink sink : sinks) {
+            OutputSink.Channel channel = sink.open(executionId, type);
+            if (channel != OutputSink.DISCARD) {
+                channels.add(channel);
+            }
+        }
+        return new FanOutChannel(channels.toArray(OutputSink.Channel[]::new));
+    }
+
+    private void drain(String executionId, InputStream stream, OutputStreamType type, OutputSink.Channel channel) {
+        ByteBuffer buffer = acquireBuffer();
+        try (stream) {
+            byte[] array = buffer.array();
+            int read;
+            while ((read = stream.read(array, 0, array.length)) != -1) {
+                buffer.clear().limit(read);
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            log.warn("Error reading {} of execution {}", type, executionId, e);
+        } finally {
+            channel.close();
+            releaseBuffer(buffer);
+        }
+    }
+
+    private ByteBuffer acquireBuffer() {
+        ByteBuffer buffer = bufferPool.poll();
+        if (buffer != null) {
+            pooledBuffers.decrementAndGet();
+            return buffer;
+        }
+        return ByteBuffer.allocate(batchConfig.getOutput().getBufferSize());
+    }
+
+    private void releaseBuffer(ByteBuffer buffer) {
+        if (pooledBuffers.incrementAndGet() <= batchConfig.getOutput().getMaxPooledBuffers()) {
+            bufferPool.offer(buffer.clear());
+        } else {
+            pooledBuffers.decrementAndGet();
+        }
+    }
+
+    /**
+     * 複数チャネルへ同じバイト列を配信するチャネル
+     */
+    private static final class FanOutChannel implements OutputSink.Channel {
+
+        private final OutputSink.Channel[] channels;
+
+        FanOutChannel(OutputSink.Channel[] channels) {
+            this.channels = channels;
+        }
+
+        @Override
+        public void write(ByteBuffer data) {
+            int position = data.position();
+            int limit = data.limit();
+            for (OutputSink.Channel channel : channels) {
+                data.limit(limit).position(position);
+                try {
+                    channel.write(data);
+                } catch (RuntimeException e) {
+                    log.warn("Output sink failed: {}", channel, e);
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            for (OutputSink.Channel channel : channels) {
+                try {
+                    channel.close();
+                } catch (RuntimeException e) {
+                    log.warn("Output sink failed on close: {}", channel, e);
+                }
+            }
+        }
+    }
+}
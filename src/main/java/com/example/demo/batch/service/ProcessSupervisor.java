@@ -0,0 +1,146 @@
+package com.example.demo.batch.service;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.config.BatchConfig;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 子プロセスの監視
+ * Process.onExit() と共有タイマーで終了・タイムアウトを検知し、待機スレッドを消費しない
+ */
+@Component
+@Slf4j
+public class ProcessSupervisor {
+
+    @Autowired
+    private BatchConfig batchConfig;
+
+    private ScheduledExecutorService timer;
+    private ExecutorService callbacks;
+
+    @PostConstruct
+    void init() {
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "batch-supervisor-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        callbacks = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("batch-completion-", 0).factory());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        timer.shutdownNow();
+        callbacks.shutdownNow();
+    }
+
+    /**
+     * プロセスの監視を開始する
+     * 
+     * @param executionId    実行ID
+     * @param process        監視対象プロセス
+     * @param timeoutSeconds タイムアウト（秒）
+     * @param outputDrained  出力の読み取り完了を表す Future
+     * @return プロセス終了時に完了する Future（完了処理は監視用スレッドで実行される）
+     */
+    public CompletableFuture<ProcessOutcome> supervise(String executionId, Process process, int timeoutSeconds,
+            CompletableFuture<Void> outputDrained) {
+        AtomicBoolean timedOut = new AtomicBoolean();
+        ScheduledFuture<?> timeoutTask = timer.schedule(() -> {
+            if (process.isAlive()) {
+                log.warn("Batch execution timeout: {}", executionId);
+                timedOut.set(true);
+                terminate(executionId, process.toHandle());
+            }
+        }, timeoutSeconds, TimeUnit.SECONDS);
+
+        long drainTimeoutMillis = batchConfig.getExecutor().getOutputDrainTimeoutMillis();
+        return process.onExit()
+                .thenCompose(exited -> {
+                    timeoutTask.cancel(false);
+                    // 孫プロセスがパイプを保持し続ける場合に備え、出力の読み切りは一定時間で打ち切る
+                    // （読み取り側と共有する Future を完了させないよう、コピーに期限を設ける）
+                    return outputDrained.copy()
+                            .orTimeout(drainTimeoutMillis, TimeUnit.MILLISECONDS)
+                            .exceptionally(e -> {
+                                Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                                if (!(cause instanceof TimeoutException)) {
+                                    throw new CompletionException(cause);
+                                }
+                                log.warn("Output drain timed out after exit: {}", executionId);
+                                return null;
+                            });
+                })
+                .thenApplyAsync(drained -> new ProcessOutcome(process.exitValue(), timedOut.get()), callbacks);
+    }
+
+    /**
+     * プロセスツリー全体を停止する
+     * ツリー全体に SIGTERM を送り、猶予時間後も残っているプロセスには SIGKILL を送る
+     * 親が先に終了すると子孫をたどれなくなるため、停止前にツリーを取得しておく
+     *
+     * @param executionId 実行ID（ログ用）
+     * @param root        ツリーの根のプロセス
+     * @return ツリー内のすべてのプロセスが終了した時点で完了する Future
+     */
+    public CompletableFuture<Void> terminate(String executionId, ProcessHandle root) {
+        Set<ProcessHandle> tree = new LinkedHashSet<>();
+        tree.add(root);
+        root.descendants().forEach(tree::add);
+        log.info("Terminating process tree of {}: {}", executionId, tree.stream().map(ProcessHandle::pid).toList());
+        tree.forEach(ProcessHandle::destroy);
+        CompletableFuture<Void> exited = CompletableFuture
+                .allOf(tree.stream().map(ProcessHandle::onExit).toArray(CompletableFuture[]::new));
+
+        timer.schedule(() -> {
+            // 猶予中に起動された子孫も対象にする
+            root.descendants().forEach(tree::add);
+            List<ProcessHandle> remaining = tree.stream().filter(ProcessHandle::isAlive).toList();
+            if (!remaining.isEmpty()) {
+                log.warn("Killing process tree of {} after grace period: {}", executionId,
+                        remaining.stream().map(ProcessHandle::pid).toList());
+                remaining.forEach(ProcessHandle::destroyForcibly);
+            }
+        }, batchConfig.getExecutor().getKillGracePeriodMillis(), TimeUnit.MILLISECONDS);
+        return exited;
+    }
+
+    /**
+     * 共有タイマーで処理を予約する
+     *
+     * @param task  実行する処理（短時間で終わること）
+     * @param delay 遅延
+     * @param unit  遅延の単位
+     * @return 予約のハンドル
+     */
+    public ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+        return timer.schedule(task, delay, unit);
+    }
+
+    /**
+     * プロセスの終了結果
+     * 
+     * @param exitCode 終了コード
+     * @param timedOut タイムアウトで強制終了した場合 true
+     */
+    public record ProcessOutcome(int exitCode, boolean timedOut) {
+    }
+}
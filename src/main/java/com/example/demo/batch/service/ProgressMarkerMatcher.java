@@ -0,0 +1,143 @@
+package com.example.demo.batch.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.example.demo.batch.dto.ExecutionProgress;
+
+/**
+ * 出力中の進捗マーカー行の検出
+ * 書式: {@code ##progress [進捗率] [key=value ...]}（例: {@code ##progress 42 processed=1200}）
+ * 行頭からバイト単位でマーカーを照合し、一致しない行は行末まで読み飛ばす（マーカー以外の行では割り当てを行わない）
+ * マーカー行の残りは固定長の配列に読み取り、行末で解析する。key=value 以外の語は無視する
+ * 同一インスタンスへの feed は単一スレッドから順番に呼び出すこと
+ */
+public final class ProgressMarkerMatcher {
+
+    static final byte[] MARKER = "##progress".getBytes(StandardCharsets.US_ASCII);
+
+    private static final int MAX_PAYLOAD_LENGTH = 512;
+    private static final int MAX_DETAILS = 16;
+
+    private static final int MATCHING = 0; // 行頭からマーカーを照合中
+    private static final int CAPTURING = 1; // マーカー行の残りを読み取り中
+    private static final int SKIPPING = 2; // マーカー行ではないため行末まで読み飛ばし中
+
+    private final byte[] payload = new byte[MAX_PAYLOAD_LENGTH];
+    private int state = MATCHING;
+    private int matched;
+    private int payloadLength;
+
+    /**
+     * バイト列を照合し、完成したマーカー行を通知する
+     *
+     * @param data     出力のバイト列（position から limit まで、position は変更しない）
+     * @param listener マーカー行の解析結果の受け取り先
+     */
+    public void feed(ByteBuffer data, Consumer<ExecutionProgress> listener) {
+        for (int i = data.position(); i < data.limit(); i++) {
+            byte b = data.get(i);
+            if (b == '\n') {
+                if (state == CAPTURING) {
+                    listener.accept(parse(payload, payloadLength));
+                }
+                state = MATCHING;
+                matched = 0;
+                payloadLength = 0;
+                continue;
+            }
+            switch (state) {
+                case MATCHING:
+                    if (matched < MARKER.length) {
+                        if (b == MARKER[matched]) {
+                            matched++;
+                        } else {
+                            state = SKIPPING;
+                        }
+                    } else {
+                        // 「##progressXXX」のような語はマーカーとみなさない
+                        state = b == ' ' || b == '\t' ? CAPTURING : SKIPPING;
+                    }
+                    break;
+                case CAPTURING:
+                    if (payloadLength < MAX_PAYLOAD_LENGTH) {
+                        payload[payloadLength++] = b;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * マーカー行の残りを解析する
+     *
+     * @param bytes  マーカーの後ろのバイト列
+     * @param length 有効な長さ
+     * @return 進捗
+     */
+    static ExecutionProgress parse(byte[] bytes, int length) {
+        Integer percent = null;
+        Map<String, String> details = new LinkedHashMap<>();
+        int position = 0;
+        boolean first = true;
+        while (position < length) {
+            while (position < length && isWhitespace(bytes[position])) {
+                position++;
+            }
+            int start = position;
+            int equals = -1;
+            while (position < length && !isWhitespace(bytes[position])) {
+                if (bytes[position] == '=' && equals < 0) {
+                    equals = position;
+                }
+                position++;
+            }
+            if (start == position) {
+                break;
+            }
+            if (first && equals < 0) {
+                percent = parsePercent(bytes, start, position);
+            } else if (equals > start && details.size() < MAX_DETAILS) {
+                details.put(new String(bytes, start, equals - start, StandardCharsets.UTF_8),
+                        new String(bytes, equals + 1, position - equals - 1, StandardCharsets.UTF_8));
+            }
+            first = false;
+        }
+        return new ExecutionProgress(percent, Collections.unmodifiableMap(details), LocalDateTime.now());
+    }
+
+    /**
+     * 進捗率を解析する（小数部は切り捨て、0〜100 に丸める。数値でない場合は null）
+     */
+    private static Integer parsePercent(byte[] bytes, int start, int end) {
+        int value = 0;
+        int digits = 0;
+        int position = start;
+        while (position < end && bytes[position] >= '0' && bytes[position] <= '9') {
+            value = Math.min(value * 10 + (bytes[position] - '0'), 1000);
+            digits++;
+            position++;
+        }
+        if (position < end && bytes[position] == '.') {
+            position++;
+            while (position < end && bytes[position] >= '0' && bytes[position] <= '9') {
+                position++;
+            }
+        }
+        if (digits == 0 || position < end) {
+            return null;
+        }
+        return Math.min(value, 100);
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.demo.batch.service;
+
+import java.nio.ByteBuffer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * 標準出力の進捗マーカー行（##progress）から実行中の進捗を更新する Sink
+ * 進捗はメモリ上の実行状態にのみ保持し、データベースには書き込まない
+ */
+@Component
+public class ProgressOutputSink implements OutputSink {
+
+    @Autowired
+    private LiveExecutionRegistry liveExecutions;
+
+    @Override
+    public Channel open(String executionId, OutputStreamType type) {
+        if (type != OutputStreamType.STDOUT) {
+            return DISCARD;
+        }
+        return liveExecutions.get(executionId)
+                .<Channel>map(live -> {
+                    ProgressMarkerMatcher matcher = new ProgressMarkerMatcher();
+                    return (ByteBuffer data) -> matcher.feed(data, live::updateProgress);
+                })
+                .orElse(DISCARD);
+    }
+}
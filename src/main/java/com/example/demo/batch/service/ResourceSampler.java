@@ -0,0 +1,231 @@
+package com.example.demo.batch.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.batch.dto.ResourceSample;
+import com.example.demo.batch.entity.ResourceUsage;
+import com.example.demo.config.BatchConfig;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 実行中のプロセスツリーのリソース使用量を一定間隔で計測する
+ * CPU時間は ProcessHandle、常駐メモリと I/O 量は /proc/&lt;pid&gt;/status・io から取得する（Linux 以外では 0）
+ * 終了したプロセスの最後の計測以降の使用量は含まれない
+ */
+@Component
+@Slf4j
+public class ResourceSampler {
+
+    private static final Path PROC = Path.of("/proc");
+
+    @Autowired
+    private BatchConfig batchConfig;
+
+    private final Map<String, Sampling> active = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService ticker;
+
+    @PostConstruct
+    void init() {
+        BatchConfig.Sampling config = batchConfig.getSampling();
+        if (!config.isEnabled()) {
+            return;
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "batch-resource-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(this::sampleAll, config.getIntervalMillis(), config.getIntervalMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    /**
+     * 計測を開始する
+     *
+     * @param executionId  実行ID
+     * @param pid          計測対象のプロセスID（子孫プロセスを含めて計測する）
+     * @param freshProcess 実行のために起動したプロセスの場合 true（常駐ワーカーのように既存のプロセスでは、
+     *                     開始時点の累積値を差し引く）
+     */
+    public void start(String executionId, long pid, boolean freshProcess) {
+        if (ticker == null) {
+            return;
+        }
+        ProcessHandle.of(pid).ifPresent(process -> {
+            Sampling sampling = new Sampling(process, freshProcess);
+            active.put(executionId, sampling);
+            sampling.sample();
+        });
+    }
+
+    /**
+     * 計測を終了する
+     *
+     * @param executionId 実行ID
+     * @return 時系列（計測していない場合は空）
+     */
+    Optional<ResourceSeries> finish(String executionId) {
+        return Optional.ofNullable(active.remove(executionId)).map(Sampling::finish);
+    }
+
+    /**
+     * 計測中の時系列を取得する
+     *
+     * @param executionId 実行ID
+     * @return 現時点の集計とサンプル（計測中でない場合は空）
+     */
+    Optional<LiveSeries> snapshot(String executionId) {
+        return Optional.ofNullable(active.get(executionId)).map(Sampling::snapshot);
+    }
+
+    private void sampleAll() {
+        for (Sampling sampling : active.values()) {
+            try {
+                sampling.sample();
+            } catch (RuntimeException e) {
+                log.warn("Resource sampling failed: pid {}", sampling.root.pid(), e);
+            }
+        }
+    }
+
+    private static long readRssKb(long pid) {
+        try (Stream<String> lines = Files.lines(PROC.resolve(Long.toString(pid)).resolve("status"))) {
+            return lines.filter(line -> line.startsWith("VmRSS:"))
+                    .findFirst()
+                    .map(line -> Long.parseLong(line.substring(6).replace("kB", "").trim()))
+                    .orElse(0L);
+        } catch (IOException | RuntimeException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * @return {読み込みバイト数, 書き込みバイト数}（取得できない場合は 0）
+     */
+    private static long[] readIoBytes(long pid) {
+        long[] io = new long[2];
+        try {
+            List<String> lines = Files.readAllLines(PROC.resolve(Long.toString(pid)).resolve("io"));
+            for (String line : lines) {
+                if (line.startsWith("read_bytes:")) {
+                    io[0] = Long.parseLong(line.substring(11).trim());
+                } else if (line.startsWith("write_bytes:")) {
+                    io[1] = Long.parseLong(line.substring(12).trim());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // /proc がない、権限がない、またはプロセスが終了した
+        }
+        return io;
+    }
+
+    /**
+     * 計測中の時系列の写し
+     *
+     * @param intervalMillis サンプルの間隔（ミリ秒）
+     * @param summary        現時点の集計
+     * @param samples        サンプル
+     */
+    record LiveSeries(long intervalMillis, ResourceUsage summary, List<ResourceSample> samples) {
+    }
+
+    /**
+     * 実行単位の計測状態
+     */
+    private final class Sampling {
+
+        private static final int CPU = 0;
+        private static final int READ = 1;
+        private static final int WRITE = 2;
+
+        private final ProcessHandle root;
+        private final boolean freshProcess;
+        private final long startNanos = System.nanoTime();
+        private final ResourceSeries series;
+
+        // this で保護する
+        // 子孫プロセスが終了すると累積値が減るため、プロセスごとの増分を足し込んで単調増加にする
+        private final Map<Long, long[]> lastCounters = new HashMap<>();
+        private final long[] totals = new long[3];
+        private boolean finished;
+
+        Sampling(ProcessHandle root, boolean freshProcess) {
+            BatchConfig.Sampling config = batchConfig.getSampling();
+            this.root = root;
+            this.freshProcess = freshProcess;
+            this.series = new ResourceSeries(config.getIntervalMillis(), config.getMaxSamples());
+        }
+
+        synchronized void sample() {
+            if (finished) {
+                return;
+            }
+            long rssKb = 0;
+            Set<Long> seen = new HashSet<>();
+            List<ProcessHandle> tree = Stream.concat(Stream.of(root), root.descendants())
+                    .filter(ProcessHandle::isAlive)
+                    .toList();
+            for (ProcessHandle process : tree) {
+                long pid = process.pid();
+                long[] io = readIoBytes(pid);
+                long[] current = {
+                        process.info().totalCpuDuration().map(Duration::toMillis).orElse(0L), io[0], io[1] };
+                rssKb += readRssKb(pid);
+                seen.add(pid);
+
+                long[] last = lastCounters.get(pid);
+                if (last == null) {
+                    // 既存のプロセスでは計測開始時点の累積値を基準にする
+                    last = process == root && !freshProcess ? current.clone() : new long[3];
+                    lastCounters.put(pid, last);
+                }
+                for (int i = 0; i < current.length; i++) {
+                    totals[i] += Math.max(0, current[i] - last[i]);
+                    last[i] = current[i];
+                }
+            }
+            lastCounters.keySet().retainAll(seen);
+
+            series.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), totals[CPU], rssKb,
+                    totals[READ] / 1024, totals[WRITE] / 1024);
+        }
+
+        synchronized ResourceSeries finish() {
+            finished = true;
+            series.finish();
+            return series;
+        }
+
+        synchronized LiveSeries snapshot() {
+            return new LiveSeries(series.sampleIntervalMillis(), series.summary(), series.samples());
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.demo.batch.service;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.example.demo.batch.dto.ResourceSample;
+import com.example.demo.batch.entity.ExecutionResourceSeries;
+import com.example.demo.batch.entity.ResourceUsage;
+
+/**
+ * 実行ごとのリソース使用量の時系列
+ * 各サンプルを前回との差分として int 配列に保持し、上限に達したら隣接サンプルを統合して間引く
+ * 累積値（経過時間・CPU時間・I/O量）も瞬間値（RSS）も差分の和で後のサンプルの値になるため、統合で値は失われない
+ *
+ * スレッドセーフではない（呼び出し側で同期すること）
+ */
+final class ResourceSeries {
+
+    private static final int FIELDS = 5; // 経過時間（ms）、CPU時間（ms）、RSS（KB）、読み込み（KB）、書き込み（KB）
+    private static final int ELAPSED = 0;
+    private static final int CPU = 1;
+    private static final int RSS = 2;
+    private static final int READ = 3;
+    private static final int WRITE = 4;
+
+    private final long intervalMillis;
+    private final int maxSamples;
+    private int[] deltas;
+    private int count;
+    private int stride = 1; // 何回の記録ごとに1サンプルを保持するか（間引きのたびに倍になる）
+    private int skipped;
+
+    // 直近に記録した値（差分の基準）と集計値
+    private final long[] last = new long[FIELDS];
+    private final long[] pending = new long[FIELDS]; // 間引き中に保持を見送った記録の直近値
+    private long peakRssKb;
+    private long rssKbTotal;
+    private long recorded;
+    private double peakCpuPercent;
+    private long previousElapsed;
+    private long previousCpu;
+
+    /**
+     * @param intervalMillis 記録の間隔（ミリ秒）
+     * @param maxSamples     保持するサンプル数の上限（2以上）
+     */
+    ResourceSeries(long intervalMillis, int maxSamples) {
+        this.intervalMillis = intervalMillis;
+        this.maxSamples = Math.max(2, maxSamples);
+        this.deltas = new int[Math.min(this.maxSamples, 64) * FIELDS];
+    }
+
+    /**
+     * サンプルを記録する
+     *
+     * @param elapsedMillis 計測開始からの経過時間（ミリ秒）
+     * @param cpuMillis     累積CPU時間（ミリ秒）
+     * @param rssKb         常駐メモリ（KB）
+     * @param readKb        累積読み込み量（KB）
+     * @param writeKb       累積書き込み量（KB）
+     */
+    void record(long elapsedMillis, long cpuMillis, long rssKb, long readKb, long writeKb) {
+        // 集計は間引きと関係なくすべての記録で行う
+        recorded++;
+        peakRssKb = Math.max(peakRssKb, rssKb);
+        rssKbTotal += rssKb;
+        long interval = elapsedMillis - previousElapsed;
+        if (interval > 0) {
+            peakCpuPercent = Math.max(peakCpuPercent, (cpuMillis - previousCpu) * 100.0 / interval);
+        }
+        previousElapsed = elapsedMillis;
+        previousCpu = cpuMillis;
+
+        pending[ELAPSED] = elapsedMillis;
+        pending[CPU] = cpuMillis;
+        pending[RSS] = rssKb;
+        pending[READ] = readKb;
+        pending[WRITE] = writeKb;
+        if (++skipped < stride) {
+            return;
+        }
+        skipped = 0;
+        append(pending);
+    }
+
+    private void append(long[] values) {
+        if (count == maxSamples) {
+            compact();
+        }
+        if ((count + 1) * FIELDS > deltas.length) {
+            deltas = Arrays.copyOf(deltas, Math.min(deltas.length * 2, maxSamples * FIELDS));
+        }
+        int base = count * FIELDS;
+        for (int field = 0; field < FIELDS; field++) {
+            deltas[base + field] = Math.toIntExact(values[field] - last[field]);
+            last[field] = values[field];
+        }
+        count++;
+    }
+
+    /**
+     * 隣接する2サンプルを1つに統合してサンプル数を半分にする
+     */
+    private void compact() {
+        int merged = 0;
+        for (int i = 0; i + 1 < count; i += 2, merged++) {
+            for (int field = 0; field < FIELDS; field++) {
+                deltas[merged * FIELDS + field] = deltas[i * FIELDS + field] + deltas[(i + 1) * FIELDS + field];
+            }
+        }
+        if (count % 2 == 1) {
+            System.arraycopy(deltas, (count - 1) * FIELDS, deltas, merged * FIELDS, FIELDS);
+            merged++;
+        }
+        count = merged;
+        stride *= 2;
+    }
+
+    /**
+     * 間引きで保持を見送った最後の記録を保持する（計測終了時に呼び出す）
+     */
+    void finish() {
+        if (skipped > 0) {
+            skipped = 0;
+            append(pending);
+        }
+    }
+
+    int size() {
+        return count;
+    }
+
+    /**
+     * @return 保持しているサンプルの間隔（間引きを反映したもの）
+     */
+    long sampleIntervalMillis() {
+        return intervalMillis * stride;
+    }
+
+    /**
+     * @return 集計値（記録がない場合は null）
+     */
+    ResourceUsage summary() {
+        if (recorded == 0) {
+            return null;
+        }
+        long elapsed = pending[ELAPSED];
+        long cpu = pending[CPU];
+        return ResourceUsage.builder()
+                .cpuTimeMillis(cpu)
+                .avgCpuPercent(elapsed > 0 ? cpu * 100.0 / elapsed : 0)
+                .peakCpuPercent(peakCpuPercent)
+                .peakRssKb(peakRssKb)
+                .avgRssKb(rssKbTotal / recorded)
+                .ioReadKb(pending[READ])
+                .ioWriteKb(pending[WRITE])
+                .build();
+    }
+
+    /**
+     * 差分をそのまま可変長整数（zigzag + varint）に符号化する
+     *
+     * @return 符号化したサンプル列
+     */
+    byte[] encode() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(count * FIELDS * 2);
+        for (int i = 0; i < count * FIELDS; i++) {
+            int value = (deltas[i] << 1) ^ (deltas[i] >> 31);
+            while ((value & ~0x7F) != 0) {
+                out.write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.write(value);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @param executionId 実行ID
+     * @return 保存用の符号化済み時系列
+     */
+    ExecutionResourceSeries toEntity(String executionId) {
+        return ExecutionResourceSeries.builder()
+                .executionId(executionId)
+                .intervalMillis(sampleIntervalMillis())
+                .sampleCount(count)
+                .samples(encode())
+                .build();
+    }
+
+    /**
+     * @return 保持しているサンプル（絶対値に復元したもの）
+     */
+    List<ResourceSample> samples() {
+        return toSamples(deltas, count);
+    }
+
+    /**
+     * encode で符号化したサンプル列を復元する
+     *
+     * @param encoded 符号化したサンプル列
+     * @param count   サンプル数
+     * @return サンプル
+     */
+    static List<ResourceSample> decode(byte[] encoded, int count) {
+        int[] values = new int[count * FIELDS];
+        int position = 0;
+        for (int i = 0; i < values.length; i++) {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = encoded[position++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            values[i] = (value >>> 1) ^ -(value & 1);
+        }
+        return toSamples(values, count);
+    }
+
+    private static List<ResourceSample> toSamples(int[] values, int count) {
+        List<ResourceSample> samples = new ArrayList<>(count);
+        long[] current = new long[FIELDS];
+        long previousElapsed = 0;
+        long previousCpu = 0;
+        for (int i = 0; i < count; i++) {
+            for (int field = 0; field < FIELDS; field++) {
+                current[field] += values[i * FIELDS + field];
+            }
+            long interval = current[ELAPSED] - previousElapsed;
+            samples.add(ResourceSample.builder()
+                    .elapsedMillis(current[ELAPSED])
+                    .cpuPercent(interval > 0 ? (current[CPU] - previousCpu) * 100.0 / interval : 0)
+                    .cpuTimeMillis(current[CPU])
+                    .rssKb(current[RSS])
+                    .readKb(current[READ])
+                    .writeKb(current[WRITE])
+                    .build());
+            previousElapsed = current[ELAPSED];
+            previousCpu = current[CPU];
+        }
+        return samples;
+    }
+}
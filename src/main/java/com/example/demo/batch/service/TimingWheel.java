@@ -0,0 +1,105 @@
+package com.example.demo.batch.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * ハッシュ化タイミングホイール
+ * 予定時刻を tick 単位でスロットに振り分け、1 tick ごとに1スロットだけを走査する
+ * 登録・取り出しの計算量は予定の総数に依存しない（1周を超える予定は周回数で管理する）
+ *
+ * <p>
+ * スレッドセーフではない。呼び出し元で排他すること。
+ * </p>
+ *
+ * @param <T> 予定の型
+ */
+class TimingWheel<T> {
+
+    private final long tickMillis;
+    private final List<List<Entry<T>>> slots;
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param tickMillis 1 tick の長さ（ミリ秒）
+     * @param wheelSize  スロット数
+     * @param nowMillis  現在時刻（エポックミリ秒）
+     */
+    TimingWheel(long tickMillis, int wheelSize, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.slots = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            slots.add(new ArrayList<>());
+        }
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    /**
+     * 予定を登録する（過去の時刻は次の tick で取り出される）
+     *
+     * @param deadlineMillis 予定時刻（エポックミリ秒）
+     * @param task           予定
+     */
+    void schedule(long deadlineMillis, T task) {
+        // 予定時刻より早く取り出さないよう切り上げる
+        long tick = Math.max(Math.ceilDiv(deadlineMillis, tickMillis), currentTick + 1);
+        long remaining = tick - currentTick - 1;
+        int slot = (int) (tick % slots.size());
+        slots.get(slot).add(new Entry<>(task, deadlineMillis, remaining / slots.size()));
+        size++;
+    }
+
+    /**
+     * 現在時刻までの tick を進め、期限を迎えた予定を渡す
+     *
+     * @param nowMillis 現在時刻（エポックミリ秒）
+     * @param expired   期限を迎えた予定の処理（予定時刻を受け取る）
+     */
+    void advance(long nowMillis, ExpiredConsumer<T> expired) {
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            List<Entry<T>> due = new ArrayList<>();
+            Iterator<Entry<T>> iterator = slots.get((int) (currentTick % slots.size())).iterator();
+            while (iterator.hasNext()) {
+                Entry<T> entry = iterator.next();
+                if (entry.rounds > 0) {
+                    entry.rounds--;
+                    continue;
+                }
+                iterator.remove();
+                size--;
+                due.add(entry);
+            }
+            // 処理中に再登録されてもスロットの走査に影響しないよう、走査後に渡す
+            due.forEach(entry -> expired.accept(entry.task, entry.deadlineMillis));
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 期限を迎えた予定の処理
+     */
+    @FunctionalInterface
+    interface ExpiredConsumer<T> {
+        void accept(T task, long deadlineMillis);
+    }
+
+    private static final class Entry<T> {
+
+        private final T task;
+        private final long deadlineMillis;
+        private long rounds;
+
+        Entry(T task, long deadlineMillis, long rounds) {
+            this.task = task;
+            this.deadlineMillis = deadlineMillis;
+            this.rounds = rounds;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.demo.batch.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.example.demo.batch.exception.BatchDomainException;
+import com.example.demo.batch.exception.BatchErrorCode;
+import com.example.demo.config.BatchConfig;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 検証済みのワークフロー定義
+ * ノードをトポロジカル順に保持し、後続ノードの索引を事前に構築する
+ */
+@Slf4j
+final class WorkflowGraph {
+
+    private final BatchConfig.Workflow workflow;
+    private final Map<String, BatchConfig.WorkflowNode> nodes;
+    private final Map<String, List<String>> dependents;
+
+    private WorkflowGraph(BatchConfig.Workflow workflow, Map<String, BatchConfig.WorkflowNode> nodes,
+            Map<String, List<String>> dependents) {
+        this.workflow = workflow;
+        this.nodes = nodes;
+        this.dependents = dependents;
+    }
+
+    /**
+     * ワークフロー定義を検証してグラフを構築する
+     *
+     * @param workflow ワークフロー定義
+     * @param jobs     ジョブIDごとのジョブ定義
+     * @return グラフ
+     * @throws BatchDomainException ノードIDの重複、未定義のジョブ・ノードの参照、循環がある場合
+     */
+    static WorkflowGraph of(BatchConfig.Workflow workflow, Map<String, BatchConfig.Job> jobs) {
+        Map<String, BatchConfig.WorkflowNode> declared = new LinkedHashMap<>();
+        for (BatchConfig.WorkflowNode node : workflow.getNodes()) {
+            if (node.getId() == null || declared.putIfAbsent(node.getId(), node) != null) {
+                throw invalid(workflow, "duplicate or missing node id: " + node.getId());
+            }
+            if (!jobs.containsKey(node.getJobId())) {
+                throw invalid(workflow, "unknown job: " + node.getJobId());
+            }
+        }
+
+        Map<String, List<String>> dependents = new HashMap<>();
+        Map<String, Integer> inDegree = new HashMap<>();
+        for (BatchConfig.WorkflowNode node : declared.values()) {
+            inDegree.put(node.getId(), node.getDependsOn().size());
+            for (String dependency : node.getDependsOn()) {
+                if (!declared.containsKey(dependency)) {
+                    throw invalid(workflow, "unknown dependency: " + dependency);
+                }
+                dependents.computeIfAbsent(dependency, id -> new ArrayList<>()).add(node.getId());
+            }
+        }
+
+        // Kahn 法でトポロジカル順に並べる（並べきれない場合は循環がある）
+        ArrayDeque<String> ready = new ArrayDeque<>();
+        inDegree.forEach((id, degree) -> {
+            if (degree == 0) {
+                ready.add(id);
+            }
+        });
+        Map<String, BatchConfig.WorkflowNode> ordered = new LinkedHashMap<>();
+        while (!ready.isEmpty()) {
+            String id = ready.poll();
+            ordered.put(id, declared.get(id));
+            for (String dependent : dependents.getOrDefault(id, List.of())) {
+                if (inDegree.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+        if (ordered.size() != declared.size()) {
+            throw invalid(workflow, "dependency cycle");
+        }
+        return new WorkflowGraph(workflow, Collections.unmodifiableMap(ordered), dependents);
+    }
+
+    private static BatchDomainException invalid(BatchConfig.Workflow workflow, String reason) {
+        log.error("Invalid workflow {}: {}", workflow.getId(), reason);
+        return new BatchDomainException(BatchErrorCode.INVALID_WORKFLOW);
+    }
+
+    BatchConfig.Workflow workflow() {
+        return workflow;
+    }
+
+    /**
+     * @return トポロジカル順のノード
+     */
+    Iterable<BatchConfig.WorkflowNode> nodes() {
+        return nodes.values();
+    }
+
+    BatchConfig.WorkflowNode node(String nodeId) {
+        return nodes.get(nodeId);
+    }
+
+    /**
+     * 指定ノードに依存するすべての後続ノードを取得する（推移的）
+     *
+     * @param nodeId ノードID
+     * @return 後続ノードIDの集合
+     */
+    Set<String> descendants(String nodeId) {
+        Set<String> result = new LinkedHashSet<>();
+        ArrayDeque<String> pending = new ArrayDeque<>(dependents.getOrDefault(nodeId, List.of()));
+        while (!pending.isEmpty()) {
+            String id = pending.poll();
+            if (result.add(id)) {
+                pending.addAll(dependents.getOrDefault(id, List.of()));
+            }
+        }
+        return result;
+    }
+}
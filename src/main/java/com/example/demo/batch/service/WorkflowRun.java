@@ -0,0 +1,115 @@
+package com.example.demo.batch.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.example.demo.config.BatchConfig;
+
+/**
+ * 実行中のワークフローの状態
+ * ノードの状態を保持し、完了通知に応じて次に実行できるノードを決める
+ */
+final class WorkflowRun {
+
+    /**
+     * ノードの状態
+     */
+    enum NodeState {
+        PENDING, // 先行ノードの完了待ち
+        RUNNING, // 実行中（待機キューを含む）
+        SUCCEEDED, // 成功
+        FAILED, // 失敗
+        SKIPPED // 先行ノードの失敗により実行しない
+    }
+
+    private final String id;
+    private final Long userId;
+    private final WorkflowGraph graph;
+
+    // this で保護する
+    private final Map<String, NodeState> states = new HashMap<>();
+
+    /**
+     * @param id        ワークフロー実行ID
+     * @param userId    実行ユーザーID
+     * @param graph     ワークフロー定義
+     * @param succeeded 成功済みとして扱うノードID（再実行時）
+     */
+    WorkflowRun(String id, Long userId, WorkflowGraph graph, Iterable<String> succeeded) {
+        this.id = id;
+        this.userId = userId;
+        this.graph = graph;
+        graph.nodes().forEach(node -> states.put(node.getId(), NodeState.PENDING));
+        succeeded.forEach(nodeId -> states.computeIfPresent(nodeId, (key, state) -> NodeState.SUCCEEDED));
+    }
+
+    String getId() {
+        return id;
+    }
+
+    Long getUserId() {
+        return userId;
+    }
+
+    WorkflowGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * 先行ノードがすべて成功したノードを実行中にして返す
+     *
+     * @return 実行を開始すべきノード
+     */
+    synchronized List<BatchConfig.WorkflowNode> takeReady() {
+        List<BatchConfig.WorkflowNode> ready = new ArrayList<>();
+        for (BatchConfig.WorkflowNode node : graph.nodes()) {
+            if (states.get(node.getId()) == NodeState.PENDING && node.getDependsOn().stream()
+                    .allMatch(dependency -> states.get(dependency) == NodeState.SUCCEEDED)) {
+                states.put(node.getId(), NodeState.RUNNING);
+                ready.add(node);
+            }
+        }
+        return ready;
+    }
+
+    /**
+     * ノードの完了を記録する
+     * 失敗した場合は、未実行の後続ノードをすべてスキップにする
+     *
+     * @param nodeId     ノードID
+     * @param successful 成功した場合 true
+     * @return 実行中のノードの完了として記録した場合 true（重複した通知の場合は false）
+     */
+    synchronized boolean finish(String nodeId, boolean successful) {
+        if (states.get(nodeId) != NodeState.RUNNING) {
+            return false;
+        }
+        states.put(nodeId, successful ? NodeState.SUCCEEDED : NodeState.FAILED);
+        if (!successful) {
+            graph.descendants(nodeId).forEach(descendant -> states.computeIfPresent(descendant,
+                    (key, state) -> state == NodeState.PENDING ? NodeState.SKIPPED : state));
+        }
+        return true;
+    }
+
+    /**
+     * @return 実行中・実行待ちのノードがない場合 true
+     */
+    synchronized boolean isDone() {
+        return states.values().stream()
+                .noneMatch(state -> state == NodeState.PENDING || state == NodeState.RUNNING);
+    }
+
+    /**
+     * @return すべてのノードが成功した場合 true
+     */
+    synchronized boolean isSuccessful() {
+        return states.values().stream().allMatch(state -> state == NodeState.SUCCEEDED);
+    }
+
+    synchronized NodeState state(String nodeId) {
+        return states.get(nodeId);
+    }
+}
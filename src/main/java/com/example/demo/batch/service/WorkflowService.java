@@ -0,0 +1,334 @@
+package com.example.demo.batch.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.batch.dto.ExecuteResponse;
+import com.example.demo.batch.dto.ExecutionStatus;
+import com.example.demo.batch.dto.WorkflowNodeStatus;
+import com.example.demo.batch.dto.WorkflowResponse;
+import com.example.demo.batch.dto.WorkflowStatusResponse;
+import com.example.demo.batch.entity.BatchExecution;
+import com.example.demo.batch.entity.WorkflowExecution;
+import com.example.demo.batch.exception.BatchDomainException;
+import com.example.demo.batch.exception.BatchErrorCode;
+import com.example.demo.batch.repository.BatchRepository;
+import com.example.demo.batch.repository.WorkflowRepository;
+import com.example.demo.config.BatchConfig;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ワークフロー（ジョブの依存関係 DAG）の実行サービス
+ * 先行ノードがすべて成功したノードから順に通常のバッチ実行として投入し、実行エンジンの上限内で並列に実行する
+ * ノードが失敗した場合は後続ノードをスキップし、失敗したワークフローは未成功のノードのみを再実行できる
+ */
+@Service
+@Slf4j
+public class WorkflowService implements ExecutionStatusListener {
+
+    @Autowired
+    private BatchConfig batchConfig;
+
+    @Autowired
+    private BatchExecuteService batchExecuteService;
+
+    @Autowired
+    private WorkflowRepository workflowRepository;
+
+    @Autowired
+    private BatchRepository batchRepository;
+
+    @Autowired
+    private BatchMapper batchMapper;
+
+    // ワークフローIDごとの検証済み定義
+    private Map<String, WorkflowGraph> graphs;
+
+    // 実行中のワークフロー
+    private final ConcurrentHashMap<String, WorkflowRun> runs = new ConcurrentHashMap<>();
+
+    // ノード完了後の後続ノードの投入（ステータス通知元のスレッドを塞がない）
+    private ExecutorService advancer;
+
+    @PostConstruct
+    void init() {
+        Map<String, BatchConfig.Job> jobs = batchConfig.getJobs().stream()
+                .collect(Collectors.toMap(BatchConfig.Job::getId, Function.identity(), (a, b) -> a));
+        Map<String, WorkflowGraph> built = new LinkedHashMap<>();
+        for (BatchConfig.Workflow workflow : batchConfig.getWorkflows()) {
+            built.put(workflow.getId(), WorkflowGraph.of(workflow, jobs));
+        }
+        graphs = Collections.unmodifiableMap(built);
+        advancer = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("batch-workflow-", 0).factory());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        advancer.shutdownNow();
+    }
+
+    /**
+     * 有効なワークフロー一覧を取得する
+     *
+     * @return 有効なワークフローのリスト
+     */
+    public List<WorkflowResponse> getAvailableWorkflows() {
+        return graphs.values().stream()
+                .map(WorkflowGraph::workflow)
+                .filter(BatchConfig.Workflow::isEnabled)
+                .map(workflow -> batchMapper.toWorkflowResponse(workflow))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * ワークフローを開始する
+     * ワークフロー実行レコードを作成してから、先行ノードのないノードを投入する
+     * （ノードごとに個別のトランザクションで投入し、1ノードの投入失敗で全体をロールバックしない）
+     *
+     * @param workflowId ワークフローID
+     * @param userId     ユーザーID
+     * @return ワークフロー実行ID
+     * @throws BatchDomainException ワークフローが見つからない場合
+     */
+    public ExecuteResponse startWorkflow(String workflowId, Long userId) {
+        log.info("Starting workflow: {}, userId: {}", workflowId, userId);
+
+        WorkflowGraph graph = Optional.ofNullable(graphs.get(workflowId))
+                .filter(candidate -> candidate.workflow().isEnabled())
+                .orElseThrow(() -> new BatchDomainException(BatchErrorCode.WORKFLOW_NOT_FOUND));
+
+        WorkflowExecution execution = WorkflowExecution.startNew(workflowId, graph.workflow().getName(), userId);
+        execution.setNodeId(batchConfig.getRecovery().getNodeName());
+        workflowRepository.insert(execution);
+
+        WorkflowRun run = new WorkflowRun(execution.getId(), userId, graph, List.of());
+        runs.put(run.getId(), run);
+        advance(run);
+        return new ExecuteResponse(execution.getId());
+    }
+
+    /**
+     * 失敗したワークフローを再実行する
+     * 直近の実行が成功したノードは再利用し、失敗・スキップしたノードのみを実行する
+     *
+     * @param workflowExecutionId ワークフロー実行ID
+     * @param userId              ユーザーID
+     * @param admin               管理者の場合 true
+     * @return ワークフロー実行ID（実行が存在しない、または参照権限がない場合は空）
+     * @throws BatchDomainException 失敗以外の状態の場合、または定義が存在しない場合
+     */
+    public Optional<ExecuteResponse> rerun(String workflowExecutionId, Long userId, boolean admin) {
+        Optional<WorkflowExecution> found = workflowRepository.findById(workflowExecutionId)
+                .filter(execution -> admin || execution.getUserId().equals(userId));
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        WorkflowExecution execution = found.get();
+        WorkflowGraph graph = Optional.ofNullable(graphs.get(execution.getWorkflowId()))
+                .orElseThrow(() -> new BatchDomainException(BatchErrorCode.WORKFLOW_NOT_FOUND));
+
+        execution.rerun();
+        execution.setNodeId(batchConfig.getRecovery().getNodeName());
+        if (workflowRepository.updateIfStatus(execution, ExecutionStatus.FAILED) == 0) {
+            // 同時に再実行された
+            throw new BatchDomainException(BatchErrorCode.WORKFLOW_NOT_RERUNNABLE);
+        }
+        List<String> succeeded = latestByNode(workflowExecutionId).values().stream()
+                .filter(BatchExecution::isSuccessful)
+                .map(BatchExecution::getWorkflowNodeId)
+                .toList();
+        log.info("Rerunning workflow: {}, reusing nodes: {}", workflowExecutionId, succeeded);
+
+        WorkflowRun run = new WorkflowRun(execution.getId(), execution.getUserId(), graph, succeeded);
+        runs.put(run.getId(), run);
+        advance(run);
+        return Optional.of(new ExecuteResponse(execution.getId()));
+    }
+
+    /**
+     * ワークフロー実行の状態を取得する
+     *
+     * @param workflowExecutionId ワークフロー実行ID
+     * @param userId              ユーザーID
+     * @param admin               管理者の場合 true
+     * @return ステータス（実行が存在しない、または参照権限がない場合は空）
+     */
+    @Transactional(readOnly = true)
+    public Optional<WorkflowStatusResponse> getWorkflowStatus(String workflowExecutionId, Long userId,
+            boolean admin) {
+        return workflowRepository.findById(workflowExecutionId)
+                .filter(execution -> admin || execution.getUserId().equals(userId))
+                .map(this::toStatusResponse);
+    }
+
+    @Override
+    public void onStatusChanged(BatchExecution execution) {
+        if (execution.getWorkflowExecutionId() == null || !execution.getStatus().isTerminal()) {
+            return;
+        }
+        WorkflowRun run = runs.get(execution.getWorkflowExecutionId());
+        if (run == null) {
+            return;
+        }
+        advancer.execute(() -> {
+            if (run.finish(execution.getWorkflowNodeId(), execution.isSuccessful())) {
+                advance(run);
+            }
+        });
+    }
+
+    /**
+     * 実行可能になったノードを投入し、すべて終わっていればワークフローを完了させる
+     *
+     * @param run 実行中のワークフロー
+     */
+    private void advance(WorkflowRun run) {
+        for (BatchConfig.WorkflowNode node : run.takeReady()) {
+            try {
+                batchExecuteService.startWorkflowNode(node.getJobId(), run.getUserId(), run.getId(), node.getId());
+            } catch (RuntimeException e) {
+                // 投入できなかったノードは失敗として後続に伝播させる
+                log.warn("Failed to start workflow node: {}/{}", run.getId(), node.getId(), e);
+                run.finish(node.getId(), false);
+            }
+        }
+        if (run.isDone() && runs.remove(run.getId(), run)) {
+            complete(run);
+        }
+    }
+
+    private void complete(WorkflowRun run) {
+        workflowRepository.findById(run.getId()).ifPresent(execution -> {
+            execution.complete(run.isSuccessful());
+            if (workflowRepository.updateIfStatus(execution, ExecutionStatus.RUNNING) == 0) {
+                log.warn("Workflow status transition lost: {}", run.getId());
+                return;
+            }
+            log.info("Workflow completed: {}, status: {}", run.getId(), execution.getStatus());
+        });
+    }
+
+    /**
+     * ノードごとの直近の実行を取得する
+     */
+    private Map<String, BatchExecution> latestByNode(String workflowExecutionId) {
+        Map<String, BatchExecution> latest = new HashMap<>();
+        for (BatchExecution execution : batchRepository.findByWorkflowExecutionId(workflowExecutionId)) {
+            latest.put(execution.getWorkflowNodeId(), execution);
+        }
+        return latest;
+    }
+
+    private WorkflowStatusResponse toStatusResponse(WorkflowExecution execution) {
+        WorkflowGraph graph = graphs.get(execution.getWorkflowId());
+        List<BatchExecution> history = batchRepository.findByWorkflowExecutionId(execution.getId());
+        Map<String, BatchExecution> latest = new HashMap<>();
+        Map<String, Integer> attempts = new HashMap<>();
+        for (BatchExecution node : history) {
+            latest.put(node.getWorkflowNodeId(), node);
+            attempts.merge(node.getWorkflowNodeId(), 1, Integer::sum);
+        }
+        WorkflowRun run = runs.get(execution.getId());
+        LocalDateTime now = LocalDateTime.now();
+
+        List<WorkflowNodeStatus> nodes = new ArrayList<>();
+        Map<String, Long> finishMillis = new HashMap<>();
+        Map<String, String> criticalPredecessor = new HashMap<>();
+        String criticalEnd = null;
+        if (graph != null) {
+            for (BatchConfig.WorkflowNode node : graph.nodes()) {
+                BatchExecution last = latest.get(node.getId());
+                long duration = durationMillis(last, now);
+
+                // クリティカルパス: 先行ノードの累積所要時間が最大の経路に自身の所要時間を加える
+                long start = 0;
+                for (String dependency : node.getDependsOn()) {
+                    if (finishMillis.get(dependency) >= start) {
+                        start = finishMillis.get(dependency);
+                        criticalPredecessor.put(node.getId(), dependency);
+                    }
+                }
+                finishMillis.put(node.getId(), start + duration);
+                if (criticalEnd == null || finishMillis.get(node.getId()) > finishMillis.get(criticalEnd)) {
+                    criticalEnd = node.getId();
+                }
+
+                nodes.add(WorkflowNodeStatus.builder()
+                        .nodeId(node.getId())
+                        .jobId(node.getJobId())
+                        .dependsOn(node.getDependsOn())
+                        .status(nodeStatus(execution, run, node.getId(), last))
+                        .executionId(last != null ? last.getId() : null)
+                        .exitCode(last != null ? last.getExitCode() : null)
+                        .startTime(last != null ? last.getStartTime() : null)
+                        .endTime(last != null ? last.getEndTime() : null)
+                        .durationMillis(duration)
+                        .attempts(attempts.getOrDefault(node.getId(), 0))
+                        .build());
+            }
+        }
+
+        List<String> criticalPath = new ArrayList<>();
+        for (String id = criticalEnd; id != null; id = criticalPredecessor.get(id)) {
+            criticalPath.add(0, id);
+        }
+        nodes.forEach(node -> node.setCritical(criticalPath.contains(node.getNodeId())));
+
+        return WorkflowStatusResponse.builder()
+                .workflowExecutionId(execution.getId())
+                .workflowId(execution.getWorkflowId())
+                .workflowName(execution.getWorkflowName())
+                .status(execution.getStatus())
+                .startTime(execution.getStartTime())
+                .endTime(execution.getEndTime())
+                .nodes(nodes)
+                .criticalPath(criticalPath)
+                .criticalPathMillis(criticalEnd != null ? finishMillis.get(criticalEnd) : 0)
+                .build();
+    }
+
+    private static String nodeStatus(WorkflowExecution execution, WorkflowRun run, String nodeId,
+            BatchExecution last) {
+        if (run != null) {
+            WorkflowRun.NodeState state = run.state(nodeId);
+            if (state == WorkflowRun.NodeState.PENDING || state == WorkflowRun.NodeState.SKIPPED) {
+                return state.name();
+            }
+            if (state == WorkflowRun.NodeState.RUNNING && (last == null || last.isCompleted())) {
+                // 再実行の投入直後（新しい実行レコードの作成前）
+                return ExecutionStatus.QUEUED.name();
+            }
+        }
+        if (last != null) {
+            return last.getStatus().name();
+        }
+        return execution.isCompleted() ? WorkflowRun.NodeState.SKIPPED.name() : WorkflowRun.NodeState.PENDING.name();
+    }
+
+    private static long durationMillis(BatchExecution execution, LocalDateTime now) {
+        if (execution == null || execution.isQueued()) {
+            return 0;
+        }
+        LocalDateTime end = execution.getEndTime() != null ? execution.getEndTime() : now;
+        return Math.max(0, Duration.between(execution.getStartTime(), end).toMillis());
+    }
+}
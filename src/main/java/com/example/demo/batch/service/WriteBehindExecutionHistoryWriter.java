@@ -0,0 +1,296 @@
+package com.example.demo.batch.service;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.batch.dto.ExecutionStatus;
+import com.example.demo.batch.dto.HistoryWriterMetrics;
+import com.example.demo.batch.entity.BatchExecution;
+import com.example.demo.batch.repository.BatchRepository;
+import com.example.demo.config.BatchConfig;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * バッチ実行履歴をまとめて書き込む（write-behind / group commit）
+ * 挿入・状態遷移を上限付きキューに積み、一定時間または一定件数ごとに MyBatis の BATCH セッションで
+ * 1トランザクションとしてフラッシュする
+ *
+ * <ul>
+ * <li>SYNC: 呼び出し元は自身を含むバッチのコミットを待つ（遅延は最大でフラッシュ間隔）</li>
+ * <li>ASYNC: 呼び出し元は待たない（プロセス停止時に未フラッシュの書き込みが失われうる）。
+ * 完了した実行は {@link #afterFlush} でフラッシュ後までメモリ上に残し、ステータス照会に古い行を返さない</li>
+ * </ul>
+ */
+@Component
+@ConditionalOnProperty(prefix = "batch.history", name = "write-behind", havingValue = "true")
+@Slf4j
+public class WriteBehindExecutionHistoryWriter implements ExecutionHistoryWriter {
+
+    @Autowired
+    private BatchConfig batchConfig;
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BatchRepository batchRepository;
+
+    private BlockingQueue<PendingWrite> queue;
+    private SqlSessionTemplate batchSession;
+    private TransactionTemplate transactionTemplate;
+    private Thread flusher;
+    private volatile boolean running;
+
+    // メトリクス（フラッシュスレッドのみが更新する）
+    private volatile long flushCount;
+    private volatile long flushedRows;
+    private volatile long failedRows;
+    private volatile long totalFlushNanos;
+    private volatile long maxFlushNanos;
+    private volatile long lastFlushNanos;
+
+    @PostConstruct
+    void init() {
+        BatchConfig.History config = batchConfig.getHistory();
+        queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+        batchSession = new SqlSessionTemplate(sqlSessionFactory, ExecutorType.BATCH);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        running = true;
+        flusher = new Thread(this::flushLoop, "batch-history-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("Write-behind history writer started: {}", config);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        // 停止前にキューに残っている書き込みをフラッシュする
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    @Override
+    public void insert(BatchExecution execution) {
+        CompletableFuture<Integer> result = enqueue(mapper -> mapper.insert(execution));
+        if (isSync()) {
+            result.join();
+        }
+    }
+
+    /**
+     * 1件ずつキューに積み、フラッシュ時に BATCH セッションでまとめて書き込む
+     * （SYNC の場合はすべての書き込みのコミットを待つ）
+     */
+    @Override
+    public void insertAll(List<BatchExecution> executions) {
+        List<CompletableFuture<Integer>> results = new ArrayList<>(executions.size());
+        for (BatchExecution execution : executions) {
+            results.add(enqueue(mapper -> mapper.insert(execution)));
+        }
+        if (isSync()) {
+            CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).join();
+        }
+    }
+
+    @Override
+    public boolean updateIfStatus(BatchExecution execution, ExecutionStatus expectedStatus) {
+        CompletableFuture<Integer> result = enqueue(mapper -> mapper.updateIfStatus(execution, expectedStatus));
+        if (isSync()) {
+            return result.join() > 0;
+        }
+        result.thenAccept(updated -> {
+            if (updated == 0) {
+                log.warn("Status transition lost on flush: {}, {} -> {}", execution.getId(), expectedStatus,
+                        execution.getStatus());
+            }
+        });
+        return true;
+    }
+
+    @Override
+    public void recordProcess(String executionId, long pid) {
+        enqueue(mapper -> mapper.updateProcess(executionId, pid));
+    }
+
+    /**
+     * 待ち合わせ用の印をキューに積み、それより前の書き込みのフラッシュ後に処理を実行する（SQL は発行しない）
+     */
+    @Override
+    public void afterFlush(Runnable action) {
+        if (isSync()) {
+            action.run();
+            return;
+        }
+        enqueue(null).whenComplete((result, error) -> action.run());
+    }
+
+    @Override
+    public HistoryWriterMetrics metrics() {
+        long flushes = flushCount;
+        return HistoryWriterMetrics.builder()
+                .mode("WRITE_BEHIND")
+                .durability(batchConfig.getHistory().getDurability().name())
+                .queueDepth(queue.size())
+                .flushCount(flushes)
+                .flushedRows(flushedRows)
+                .failedRows(failedRows)
+                .averageBatchSize(flushes == 0 ? 0 : (double) flushedRows / flushes)
+                .averageFlushMillis(flushes == 0 ? 0 : toMillis(totalFlushNanos) / flushes)
+                .maxFlushMillis(toMillis(maxFlushNanos))
+                .lastFlushMillis(toMillis(lastFlushNanos))
+                .build();
+    }
+
+    private boolean isSync() {
+        return batchConfig.getHistory().getDurability() == BatchConfig.Durability.SYNC;
+    }
+
+    private CompletableFuture<Integer> enqueue(Function<BatchRepository, Integer> statement) {
+        PendingWrite write = new PendingWrite(statement, new CompletableFuture<>(), System.nanoTime());
+        try {
+            // キューが満杯の場合は空くまで待つ（呼び出し元への背圧）
+            queue.put(write);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            write.result.completeExceptionally(e);
+        }
+        return write.result;
+    }
+
+    private void flushLoop() {
+        BatchConfig.History config = batchConfig.getHistory();
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(config.getFlushIntervalMillis());
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(intervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                // 先頭の書き込みからフラッシュ間隔が経過するか、最大件数に達するまで集める
+                List<PendingWrite> batch = new ArrayList<>();
+                batch.add(first);
+                long deadline = first.enqueuedNanos + intervalNanos;
+                while (batch.size() < config.getMaxBatchSize()) {
+                    long wait = deadline - System.nanoTime();
+                    PendingWrite next = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void flush(List<PendingWrite> pending) {
+        List<PendingWrite> batch = new ArrayList<>(pending.size());
+        List<PendingWrite> barriers = new ArrayList<>();
+        for (PendingWrite write : pending) {
+            (write.statement == null ? barriers : batch).add(write);
+        }
+        if (!batch.isEmpty()) {
+            long start = System.nanoTime();
+            try {
+                List<BatchResult> results = transactionTemplate.execute(status -> {
+                    BatchRepository mapper = batchSession.getMapper(BatchRepository.class);
+                    // BATCH セッションでは戻り値が件数にならないため、件数はフラッシュ結果から取得する
+                    batch.forEach(write -> write.statement.apply(mapper));
+                    return batchSession.flushStatements();
+                });
+                completeAll(batch, results);
+            } catch (RuntimeException e) {
+                // 一括書き込みに失敗した場合は1件ずつ書き込み、失敗した書き込みのみを切り分ける
+                log.error("Failed to flush {} history writes, retrying one by one", batch.size(), e);
+                batch.forEach(this::writeSingle);
+            }
+            recordFlush(batch.size(), System.nanoTime() - start);
+        }
+        barriers.forEach(barrier -> barrier.result.complete(0));
+    }
+
+    /**
+     * フラッシュ結果の件数で各書き込みを完了させる
+     * ドライバーが件数を返さなかった書き込みは、反映されたかどうかを判断できないため失敗として扱う
+     * （書き込み自体はコミット済みのため再実行はしない）
+     */
+    private void completeAll(List<PendingWrite> batch, List<BatchResult> results) {
+        // BATCH 実行の結果は同一ステートメントの連続ごとにまとめられ、追加順に並ぶ
+        List<Integer> counts = new ArrayList<>(batch.size());
+        for (BatchResult result : results) {
+            for (int count : result.getUpdateCounts()) {
+                counts.add(count);
+            }
+        }
+        if (counts.size() != batch.size()) {
+            failedRows += batch.size();
+            log.error("Flush returned {} update counts for {} history writes", counts.size(), batch.size());
+            IllegalStateException e = new IllegalStateException(
+                    "Update counts unavailable: " + counts.size() + " of " + batch.size());
+            batch.forEach(write -> write.result.completeExceptionally(e));
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            int count = counts.get(i);
+            if (count == Statement.SUCCESS_NO_INFO || count < 0) {
+                failedRows++;
+                batch.get(i).result.completeExceptionally(
+                        new IllegalStateException("Update count unavailable: " + count));
+            } else {
+                batch.get(i).result.complete(count);
+            }
+        }
+    }
+
+    private void writeSingle(PendingWrite write) {
+        try {
+            write.result.complete(transactionTemplate.execute(status -> write.statement.apply(batchRepository)));
+        } catch (RuntimeException e) {
+            failedRows++;
+            log.error("Failed to write execution history", e);
+            write.result.completeExceptionally(e);
+        }
+    }
+
+    private void recordFlush(int rows, long elapsedNanos) {
+        flushCount++;
+        flushedRows += rows;
+        totalFlushNanos += elapsedNanos;
+        lastFlushNanos = elapsedNanos;
+        maxFlushNanos = Math.max(maxFlushNanos, elapsedNanos);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    // statement が null の場合は afterFlush の待ち合わせ用の印
+    private record PendingWrite(Function<BatchRepository, Integer> statement, CompletableFuture<Integer> result,
+            long enqueuedNanos) {
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.demo.batch.worker;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * 常駐ワーカーJVMのエントリポイント
+ * 親プロセスから受け取ったタスクを1件ずつ同一JVM内で実行し、出力と終了コードをフレームで返す
+ * Spring に依存せず、タスクのクラスパスと同じ JVM 上で動作する
+ *
+ * タスクは public static int run(String[]) があればその戻り値を終了コードとし、
+ * なければ main(String[]) が正常に戻った場合を 0、例外で終了した場合を 1 とする
+ * タスクが System.exit を呼んだ場合はワーカーごと終了し、親はその終了コードを使う
+ *
+ * 引数: [ヒープ増加の閾値（バイト）] 超過時は GC 後の使用量を報告する
+ */
+public final class BatchWorkerMain {
+
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private final long heapGrowthThreshold;
+    private long baselineHeap;
+
+    private BatchWorkerMain(DataInputStream in, DataOutputStream out, long heapGrowthThreshold) {
+        this.in = in;
+        this.out = out;
+        this.heapGrowthThreshold = heapGrowthThreshold;
+    }
+
+    public static void main(String[] args) throws IOException {
+        long heapGrowthThreshold = args.length > 0 ? Long.parseLong(args[0]) : Long.MAX_VALUE;
+        DataInputStream in = new DataInputStream(new BufferedInputStream(System.in));
+        DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+
+        // 標準入出力はプロトコル専用にし、タスクからはフレーム化した出力と空の入力だけを見せる
+        System.setIn(new ByteArrayInputStream(new byte[0]));
+        System.setOut(new PrintStream(new BufferedOutputStream(new FrameOutputStream(out, WorkerProtocol.STDOUT)),
+                true));
+        System.setErr(new PrintStream(new BufferedOutputStream(new FrameOutputStream(out, WorkerProtocol.STDERR)),
+                true));
+
+        new BatchWorkerMain(in, out, heapGrowthThreshold).serve();
+    }
+
+    private void serve() throws IOException {
+        baselineHeap = usedHeap();
+        synchronized (out) {
+            out.writeByte(WorkerProtocol.READY);
+            out.writeInt(Long.BYTES);
+            out.writeLong(baselineHeap);
+            out.flush();
+        }
+
+        while (true) {
+            byte type;
+            try {
+                type = in.readByte();
+            } catch (EOFException e) {
+                return;
+            }
+            if (type == WorkerProtocol.SHUTDOWN) {
+                return;
+            }
+            if (type != WorkerProtocol.RUN) {
+                throw new IOException("Unknown request: " + type);
+            }
+
+            String mainClass = in.readUTF();
+            String[] args = new String[in.readInt()];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = in.readUTF();
+            }
+
+            int exitCode = runTask(mainClass, args);
+            System.out.flush();
+            System.err.flush();
+
+            long used = usedHeap();
+            if (used - baselineHeap > heapGrowthThreshold) {
+                // 回収可能なゴミを除いた使用量で再利用の可否を判断させる
+                System.gc();
+                used = usedHeap();
+            }
+            synchronized (out) {
+                out.writeByte(WorkerProtocol.EXIT);
+                out.writeInt(Integer.BYTES + Long.BYTES);
+                out.writeInt(exitCode);
+                out.writeLong(used);
+                out.flush();
+            }
+        }
+    }
+
+    private static int runTask(String mainClass, String[] args) {
+        try {
+            Class<?> taskClass = Class.forName(mainClass, true, Thread.currentThread().getContextClassLoader());
+            Method run = findStatic(taskClass, "run");
+            if (run != null && run.getReturnType() == int.class) {
+                return (int) run.invoke(null, (Object) args);
+            }
+            Method main = findStatic(taskClass, "main");
+            if (main == null) {
+                System.err.println("No static run(String[]) or main(String[]) in " + mainClass);
+                return 1;
+            }
+            main.invoke(null, (Object) args);
+            return 0;
+        } catch (InvocationTargetException e) {
+            e.getCause().printStackTrace();
+            return 1;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            e.printStackTrace();
+            return 1;
+        }
+    }
+
+    private static Method findStatic(Class<?> taskClass, String name) {
+        try {
+            Method method = taskClass.getMethod(name, String[].class);
+            return Modifier.isStatic(method.getModifiers()) ? method : null;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * 書き込まれたバイト列を出力フレームにして親へ送る
+     */
+    private static final class FrameOutputStream extends OutputStream {
+
+        private final DataOutputStream out;
+        private final byte type;
+
+        FrameOutputStream(DataOutputStream out, byte type) {
+            this.out = out;
+            this.type = type;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return;
+            }
+            synchronized (out) {
+                out.writeByte(type);
+                out.writeInt(len);
+                out.write(b, off, len);
+                out.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.demo.batch.worker;
+
+/**
+ * 常駐ワーカーJVMとの通信プロトコル
+ * ワーカーの標準入力・標準出力（パイプ）でフレームを送受信する
+ *
+ * <pre>
+ * 親 → ワーカー: [種別 1byte] 以降は種別ごとの本体
+ *   RUN      : [メインクラス UTF][引数の数 int][引数 UTF]...
+ *   SHUTDOWN : なし
+ * ワーカー → 親: [種別 1byte][本体の長さ int][本体]
+ *   READY    : [使用ヒープ long]（起動直後の基準値）
+ *   STDOUT   : タスクの標準出力のバイト列
+ *   STDERR   : タスクの標準エラーのバイト列
+ *   EXIT     : [終了コード int][使用ヒープ long]
+ * </pre>
+ */
+public final class WorkerProtocol {
+
+    /** タスクの実行要求 */
+    public static final byte RUN = 1;
+    /** ワーカーの終了要求 */
+    public static final byte SHUTDOWN = 2;
+
+    /** 起動完了 */
+    public static final byte READY = 1;
+    /** タスクの標準出力 */
+    public static final byte STDOUT = 2;
+    /** タスクの標準エラー */
+    public static final byte STDERR = 3;
+    /** タスクの終了 */
+    public static final byte EXIT = 4;
+
+    /** ワーカーのメインクラス */
+    public static final String MAIN_CLASS = "com.example.demo.batch.worker.BatchWorkerMain";
+
+    private WorkerProtocol() {
+    }
+}
@@ -5,6 +5,8 @@ import org.springframework.stereotype.Component;
 
 import lombok.Data;
 
+import java.net.InetAddress;
+import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -17,16 +19,339 @@ public class BatchConfig {
 
     private List<Job> jobs = new ArrayList<>();
 
+    private List<Workflow> workflows = new ArrayList<>();
+
+    private Executor executor = new Executor();
+
+    private Output output = new Output();
+
+    private Events events = new Events();
+
+    private History history = new History();
+
+    private Scheduler scheduler = new Scheduler();
+
+    private WorkerPool workerPool = new WorkerPool();
+
+    private Sampling sampling = new Sampling();
+
+    private Cluster cluster = new Cluster();
+
+    private Recovery recovery = new Recovery();
+
+    private Registry registry = new Registry();
+
+    private Limiter limiter = new Limiter();
+
+    private Artifacts artifacts = new Artifacts();
+
+    private Search search = new Search();
+
     @Data
     public static class Job {
         private String id;
         private String name;
         private String description = "";
         private boolean enabled = false;
+        private JobType type = JobType.PROCESS; // 実行方式
         private String command;
-        private List<String> arguments = new ArrayList<>();
-        private Map<String, String> environment = new HashMap<>();
+        private String mainClass; // JVM ジョブのメインクラス
+        private List<String> classpath = new ArrayList<>(); // JVM ジョブのクラスパス（ワーカーのクラスパスに追加する）
+        private List<String> jvmOptions = new ArrayList<>(); // JVM ジョブのワーカー起動オプション
+        private List<String> arguments = new ArrayList<>(); // 引数（{{パラメータ名}} で実行時パラメータを埋め込める）
+        private Map<String, String> environment = new HashMap<>(); // 環境変数（値に {{パラメータ名}} を埋め込める。JVM ジョブは不可）
+        private List<JobParameter> parameters = new ArrayList<>(); // 実行時に指定できるパラメータ
         private int timeout = 60;
         private String workingDirectory = "./";
+        private int maxConcurrency = 0; // ジョブ単位の同時実行数上限（0 = 全体上限のみ）
+        private boolean singleton = false; // true の場合は同一ジョブの重複実行を禁止
+        private int priority = 0; // 実行待ちキューでの優先度（大きいほど先に実行）
+        private String cron; // 定期実行の cron 式（秒 分 時 日 月 曜日。未指定の場合は定期実行しない）
+        private MisfirePolicy misfirePolicy = MisfirePolicy.FIRE_ONCE; // 予定時刻に起動できなかった場合の扱い
+        private int dedupWindowSeconds = 0; // 受付からこの秒数以内で待機中・実行中の同じ要求には既存の実行IDを返す（0 = 統合しない）
+        private List<String> artifacts = new ArrayList<>(); // 完了時に収集する成果物の glob（作業ディレクトリからの相対パス。例: out/*.csv）
+
+        /**
+         * ジョブ単位の同時実行数上限を取得する
+         *
+         * @return 同時実行数上限（0 の場合は上限なし）
+         */
+        public int concurrencyLimit() {
+            return singleton ? 1 : maxConcurrency;
+        }
+    }
+
+    /**
+     * ジョブの実行時パラメータの定義
+     */
+    @Data
+    public static class JobParameter {
+        private String name; // パラメータ名（引数・環境変数のテンプレートで {{name}} として参照する）
+        private String description = "";
+        private ParameterType type = ParameterType.STRING; // 値の型
+        private boolean required = false; // true の場合は指定必須（既定値がある場合は省略できる）
+        private String defaultValue; // 省略時の値（未指定かつ任意の場合は空文字列）
+        private List<String> allowedValues = new ArrayList<>(); // 指定できる値（空の場合は制限なし）
+        private String pattern; // STRING の値が一致すべき正規表現
+        private Long min; // INTEGER の最小値
+        private Long max; // INTEGER の最大値
+        private int maxLength = 1024; // STRING の最大文字数
+    }
+
+    /**
+     * ジョブの依存関係（DAG）で構成するワークフロー
+     */
+    @Data
+    public static class Workflow {
+        private String id;
+        private String name;
+        private String description = "";
+        private boolean enabled = false;
+        private List<WorkflowNode> nodes = new ArrayList<>();
+    }
+
+    /**
+     * ワークフローのノード
+     */
+    @Data
+    public static class WorkflowNode {
+        private String id; // ノードID（ワークフロー内で一意）
+        private String jobId; // 実行するジョブID
+        private List<String> dependsOn = new ArrayList<>(); // 先行ノードID（すべて成功した後に実行する）
+    }
+
+    /**
+     * バッチ実行エンジンの設定
+     */
+    @Data
+    public static class Executor {
+        private int maxConcurrency = 4; // 全体の同時実行数上限
+        private int queueCapacity = 100; // 実行待ちキューの最大件数
+        private int retryAfterSeconds = 5; // キュー満杯時に返す Retry-After（秒）
+        private int launcherThreads = 2; // プロセス起動用のスレッド数
+        private long outputDrainTimeoutMillis = 5000; // プロセス終了後に出力の読み切りを待つ時間（ミリ秒）
+        private long killGracePeriodMillis = 5000; // キャンセル・タイムアウト時に SIGTERM から SIGKILL へ切り替えるまでの猶予（ミリ秒）
+        private int defaultUserWeight = 1; // 実行待ちキューでのユーザーの既定の重み（1巡あたりの実行件数）
+        private Map<Long, Integer> userWeights = new HashMap<>(); // ユーザーIDごとの重み
+        private long idempotencyKeyTtlSeconds = 24 * 60 * 60L; // Idempotency-Key を記憶しておく時間（秒）
+        private int idempotencyKeyMaxEntries = 10000; // 記憶しておく Idempotency-Key の最大件数（超過時は古いものから忘れる）
+        private int maxBulkRequests = 1000; // 一括実行APIで1回に受け付ける要求の最大件数
+    }
+
+    /**
+     * プロセス出力の読み取り設定
+     */
+    @Data
+    public static class Output {
+        private int bufferSize = 8192; // 読み取りバッファのサイズ（バイト）
+        private int maxPooledBuffers = 64; // 再利用のためにプールしておくバッファの最大数
+        private String directory = "./batch-output"; // 実行出力の保存先ディレクトリ
+        private int segmentSize = 16 * 1024 * 1024; // 出力セグメント1ファイルのサイズ（バイト）
+        private int defaultReadLength = 64 * 1024; // 出力取得APIの既定の取得バイト数
+        private int maxReadLength = 8 * 1024 * 1024; // 出力取得APIの最大取得バイト数
+        private boolean compress = true; // 確定したセグメントをバックグラウンドでチャンク単位に圧縮する
+        private int compressionChunkSize = 64 * 1024; // 圧縮チャンクのサイズ（バイト。読み取り時はこの単位で展開する）
+        private int compressionLevel = 6; // deflate の圧縮レベル（1〜9）
+        private int retentionDays = 30; // 出力の保持日数（0 以下の場合は削除しない）
+        private long retentionIntervalMinutes = 60; // 保持期間の確認と未圧縮セグメントの圧縮を行う間隔（分。0 以下の場合は行わない）
+    }
+
+    /**
+     * 実行イベント配信（SSE）の設定
+     */
+    @Data
+    public static class Events {
+        private long timeoutMillis = 30 * 60 * 1000L; // SSE 接続のタイムアウト（ミリ秒）
+        private int maxBufferedLines = 256; // 購読者ごとに保持する未送信出力行の上限
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST; // 上限超過時の出力行の扱い
+    }
+
+    /**
+     * 実行履歴の書き込み設定
+     */
+    @Data
+    public static class History {
+        private boolean writeBehind = false; // true の場合は書き込みをまとめて非同期にフラッシュする
+        private long flushIntervalMillis = 50; // フラッシュ間隔（ミリ秒）
+        private int maxBatchSize = 500; // 1回のフラッシュで書き込む最大行数
+        private int queueCapacity = 10000; // 書き込み待ちキューの最大件数（満杯時は呼び出し元を待たせる）
+        private Durability durability = Durability.SYNC; // 書き込み完了の待ち方
+    }
+
+    /**
+     * 定期実行スケジューラの設定
+     */
+    @Data
+    public static class Scheduler {
+        private boolean enabled = true; // false の場合は cron による定期実行を行わない
+        private String systemUser = "system"; // 定期実行の実行ユーザー名
+        private String zone; // cron 式を評価するタイムゾーン（未指定の場合はシステム既定）
+        private long tickMillis = 1000; // タイミングホイールの1 tick の長さ（ミリ秒）
+        private int wheelSize = 512; // タイミングホイールのスロット数
+        private long misfireThresholdMillis = 60 * 1000L; // 予定時刻からこれ以上遅れた起動をミスファイアとみなす（ミリ秒）
+    }
+
+    /**
+     * 常駐ワーカーJVMプールの設定（type: JVM のジョブ用）
+     */
+    @Data
+    public static class WorkerPool {
+        private String javaHome; // ワーカーを起動する JDK（未指定の場合はアプリケーションと同じ JDK）
+        private List<String> classpath = new ArrayList<>(); // ワーカー本体のクラスパス（未指定の場合はアプリケーションのクラス出力先）
+        private List<String> jvmOptions = new ArrayList<>(); // 全ワーカー共通の起動オプション
+        private int size = 2; // ジョブごとの常駐ワーカー数
+        private boolean prestart = true; // true の場合は起動時にワーカーを立ち上げておく
+        private int maxRunsPerWorker = 100; // この回数実行したワーカーは入れ替える
+        private long maxHeapGrowthBytes = 256L * 1024 * 1024; // 起動直後からの使用ヒープ増加がこれを超えたワーカーは入れ替える
+        private long startupTimeoutMillis = 30 * 1000L; // ワーカーの起動待ちのタイムアウト（ミリ秒）
+    }
+
+    /**
+     * 実行中のリソース使用量（CPU・メモリ・I/O）の計測設定
+     */
+    @Data
+    public static class Sampling {
+        private boolean enabled = true; // false の場合は計測しない
+        private long intervalMillis = 1000; // 計測間隔（ミリ秒）
+        private int maxSamples = 720; // 実行ごとに保持するサンプル数の上限（超過時は隣接サンプルを統合して間引く）
+    }
+
+    /**
+     * 複数ノードでの実行の分散設定
+     * 有効な場合、受け付けた実行は DB の実行待ちキューに積み、空きのあるノードがリース付きで取得して実行する
+     * 出力・成果物・実行イベント・出力の全文検索は実行したノードのローカルにしかないため、参照は実行したノードに振り分ける必要がある
+     * （他のノードの実行を参照した場合は 409 と X-Batch-Node ヘッダーで実行したノードを返す。出力の全文検索は 409 で拒否する）
+     */
+    @Data
+    public static class Cluster {
+        private boolean enabled = false; // true の場合は DB の実行待ちキューを使う（ワークフローのノードは受け付けたノードで実行する）
+        private long pollIntervalMillis = 1000; // 実行待ちキューを確認する間隔（ミリ秒）
+        private long leaseMillis = 30 * 1000L; // リースの有効期間（ミリ秒。ハートビートが途絶えてからこの時間で他のノードが取得する）
+        private long heartbeatIntervalMillis = 10 * 1000L; // リースを延長する間隔（ミリ秒。リース期間より十分短くすること）
+        private int maxAttempts = 3; // 取得回数の上限（ノードの停止で中断された実行をこの回数まで再実行する）
+        private int queueCapacity = 1000; // 未取得の実行の最大件数（超過時は 429）
+    }
+
+    /**
+     * 全体の同時実行数上限の自動調整（AIMD）の設定
+     * 有効な場合、ホストの負荷・空きメモリ・タイムアウト率が閾値を超えると上限を乗算的に下げ、
+     * 余裕がある状態で実行待ちが続くと 1 ずつ上げる（初期値は executor.max-concurrency）
+     */
+    @Data
+    public static class Limiter {
+        private boolean enabled = false; // true の場合は上限を自動調整する
+        private int minConcurrency = 1; // 上限の下限
+        private int maxConcurrency = 16; // 上限の上限
+        private long adjustIntervalMillis = 5000; // 調整の間隔（ミリ秒）
+        private double maxLoadPerCpu = 1.0; // 1分間のロードアベレージ / CPU数 がこれを超えたら下げる
+        private double minAvailableMemoryRatio = 0.1; // 空きメモリの割合がこれを下回ったら下げる
+        private double maxTimeoutRate = 0.2; // 前回の調整以降に完了した実行のうちタイムアウトの割合がこれを超えたら下げる
+        private int minCompletions = 5; // タイムアウト率を判定するのに必要な完了件数
+        private long targetQueueWaitMillis = 1000; // 平均待ち時間がこれを超えて実行待ちが続く場合に上げる（ミリ秒）
+        private double decreaseFactor = 0.75; // 下げるときに掛ける係数
+        private long loadDecreaseCooldownMillis = 60 * 1000L; // 下げてからこの時間は負荷を理由に下げない（ミリ秒。ロードアベレージの集計期間以上にすること）
+        private int historySize = 120; // 保持する上限の変更履歴の件数
+    }
+
+    /**
+     * 実行の成果物の収集設定
+     */
+    @Data
+    public static class Artifacts {
+        private String directory = "./batch-artifacts"; // 実行ごとの成果物の保存先ディレクトリ
+        private int maxFiles = 100; // 1回の実行で収集する成果物の最大数
+        private int maxDepth = 8; // glob と照合する作業ディレクトリの最大の深さ
+    }
+
+    /**
+     * 実行出力の全文検索索引の設定
+     */
+    @Data
+    public static class Search {
+        private boolean enabled = true; // true の場合は完了した実行の出力を索引に登録する
+        private String directory = "./batch-index"; // 索引セグメントの保存先ディレクトリ
+        private int maxTokenLength = 64; // 索引に登録する語の最大長（バイト。超える語は登録しない）
+        private int maxOffsetsPerTerm = 16; // 1実行・1語あたりに記録する出現位置の最大数
+        private long flushIntervalMillis = 1000; // 登録済みの語をセグメントとして書き出す間隔（ミリ秒）
+        private int maxSegments = 8; // セグメント数の上限（超えた場合は小さいものから統合する）
+        private int maxHits = 1000; // 1回の検索で返す実行の最大数
+        private long retryIntervalMillis = 500; // 出力の終了を待つ間隔（ミリ秒）
+        private int maxRetries = 20; // 出力の終了を待つ最大回数
+    }
+
+    /**
+     * ジョブ定義の登録の設定
+     */
+    @Data
+    public static class Registry {
+        private String watchFile; // 変更を監視してジョブ定義を再読み込みする設定ファイル（未指定の場合は再読み込みしない）
+        private long reloadDelayMillis = 500; // 変更を検知してから再読み込みするまでの待ち時間（連続した書き込みをまとめる。ミリ秒）
+    }
+
+    /**
+     * 起動時の整合処理（再起動前から待機中・実行中のままの実行の回収）の設定
+     */
+    @Data
+    public static class Recovery {
+        private boolean enabled = true; // false の場合は起動時に回収しない
+        private String nodeName; // 実行履歴に記録するノード名。クラスタの実行待ちキューのノードIDも兼ねる（未指定の場合はホスト名。同じホストで複数起動する場合は別々の名前を指定する）
+        private int batchSize = 500; // 1回の取得・更新で扱う実行の件数
+        private long pidStartToleranceMillis = 5000; // 実行の開始時刻よりこれ以上後に起動したプロセスは PID の再利用とみなす（ミリ秒）
+
+        /**
+         * @return ノード名（未指定の場合はホスト名）
+         */
+        public String getNodeName() {
+            if (nodeName == null) {
+                try {
+                    nodeName = InetAddress.getLocalHost().getHostName();
+                } catch (UnknownHostException e) {
+                    nodeName = "localhost";
+                }
+            }
+            return nodeName;
+        }
+    }
+
+    /**
+     * ジョブの実行方式
+     */
+    public enum JobType {
+        PROCESS, // コマンドごとに新しいプロセスを起動する
+        JVM // 常駐ワーカーJVMでメインクラスを実行する
+    }
+
+    /**
+     * 実行時パラメータの型
+     */
+    public enum ParameterType {
+        STRING, // 文字列
+        INTEGER, // 整数（10進数）
+        BOOLEAN, // true / false
+        DATE // 日付（yyyy-MM-dd）
+    }
+
+    /**
+     * 定期実行が予定時刻に起動できなかった場合の扱い
+     */
+    public enum MisfirePolicy {
+        FIRE_ONCE, // 遅れて1回だけ起動する（複数回分の遅れもまとめて1回）
+        SKIP // 起動せず次の予定時刻を待つ
+    }
+
+    /**
+     * write-behind 時の書き込み完了の待ち方
+     */
+    public enum Durability {
+        SYNC, // コミットまで待つ（グループコミット）
+        ASYNC // 待たない（停止時に未フラッシュの書き込みが失われうる）
+    }
+
+    /**
+     * 購読者バッファが溢れた場合の出力行の扱い
+     */
+    public enum OverflowPolicy {
+        DROP_OLDEST, // 古い行を捨てて最新の行を残す
+        DROP_NEWEST // 新しい行を捨てる
     }
 }
@@ -0,0 +1,26 @@
+package com.example.demo.config;
+
+import java.util.Properties;
+
+import org.apache.ibatis.mapping.DatabaseIdProvider;
+import org.apache.ibatis.mapping.VendorDatabaseIdProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * MyBatis の設定
+ * 接続先の DB 製品名から databaseId を決定し、DB ごとに異なる SQL（databaseId 指定のステートメント）を使い分ける
+ */
+@Configuration
+public class MyBatisConfig {
+
+        @Bean
+        public DatabaseIdProvider databaseIdProvider() {
+                Properties vendors = new Properties();
+                vendors.setProperty("PostgreSQL", "postgresql");
+                vendors.setProperty("H2", "h2");
+                VendorDatabaseIdProvider provider = new VendorDatabaseIdProvider();
+                provider.setProperties(vendors);
+                return provider;
+        }
+}
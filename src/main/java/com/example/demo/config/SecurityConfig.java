@@ -39,6 +39,7 @@ public class SecurityConfig {
                                                 .requestMatchers("/login", "/css/login.css", "/favicon.ico").permitAll()
                                                 .requestMatchers("/admin/**").hasRole("ADMIN")
                                                 .requestMatchers("/user/**").hasAnyRole("USER", "ADMIN")
+                                                .requestMatchers("/api/batch/metrics").hasRole("ADMIN")
                                                 .requestMatchers("/api/batch/**").hasAnyRole("USER", "ADMIN")
                                                 .anyRequest()
                                                 .authenticated())
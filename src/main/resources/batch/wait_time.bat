@@ -4,17 +4,19 @@ REM バッチスクリプト：指定回数ループして待機
 REM 第一引数：ループ回数
 REM 第二引数：終了コード
 REM 第三引数：出力先（0=標準出力、1=標準エラー）
+REM 第四引数：結果ファイル（指定した場合はループ回数と終了コードを書き出す）
 
 setlocal enabledelayedexpansion
 
 if "%1"=="" (
-    echo Usage: wait_time.bat ^<loop_count^> ^<exit_code^> ^<output_type^>
+    echo Usage: wait_time.bat ^<loop_count^> ^<exit_code^> ^<output_type^> ^<result_file^>
     exit /b 1
 )
 
 set LOOP_COUNT=%1
 set EXIT_CODE=%2
 set OUTPUT_TYPE=%3
+set RESULT_FILE=%~4
 
 if "%EXIT_CODE%"=="" set EXIT_CODE=0
 if "%OUTPUT_TYPE%"=="" set OUTPUT_TYPE=0
@@ -24,6 +26,8 @@ if %OUTPUT_TYPE% equ 0 (
     for /l %%i in (1,1,%LOOP_COUNT%) do (
         echo loop %%i
         timeout /t 1 /nobreak > nul
+        set /a PERCENT=%%i * 100 / LOOP_COUNT
+        echo ##progress !PERCENT! loop=%%i
     )
     echo finish wait_time
 ) else (
@@ -35,4 +39,9 @@ if %OUTPUT_TYPE% equ 0 (
     echo finish wait_time 1>&2
 )
 
+if not "%RESULT_FILE%"=="" (
+    for %%f in ("%RESULT_FILE%") do if not exist "%%~dpf" mkdir "%%~dpf"
+    echo loops=%LOOP_COUNT% exit_code=%EXIT_CODE%> "%RESULT_FILE%"
+)
+
 exit /b %EXIT_CODE%
@@ -4,21 +4,25 @@
 # 第一引数：ループ回数
 # 第二引数：終了コード
 # 第三引数：出力先（0=標準出力、1=標準エラー）
+# 第四引数：結果ファイル（指定した場合はループ回数と終了コードを書き出す）
 
 if [ $# -lt 1 ]; then
-    echo "Usage: wait_time.sh <loop_count> [exit_code] [output_type]" >&2
+    echo "Usage: wait_time.sh <loop_count> [exit_code] [output_type] [result_file]" >&2
     exit 1
 fi
 
 LOOP_COUNT=$1
 EXIT_CODE=${2:-0}
 OUTPUT_TYPE=${3:-0}
+RESULT_FILE=$4
 
 if [ "$OUTPUT_TYPE" -eq 0 ]; then
     echo "start wait_time"
     for ((i=1; i<=LOOP_COUNT; i++)); do
         echo "loop $i"
         sleep 1
+        # 進捗マーカー行（##progress <進捗率> [key=value ...]）
+        echo "##progress $((i * 100 / LOOP_COUNT)) loop=$i"
     done
     echo "finish wait_time"
 else
@@ -30,4 +34,9 @@ else
     echo "finish wait_time" >&2
 fi
 
+if [ -n "$RESULT_FILE" ]; then
+    mkdir -p "$(dirname "$RESULT_FILE")"
+    echo "loops=$LOOP_COUNT exit_code=$EXIT_CODE" > "$RESULT_FILE"
+fi
+
 exit $EXIT_CODE
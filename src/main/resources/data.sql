@@ -17,6 +17,16 @@ VALUES
     FALSE,
     CURRENT_TIMESTAMP(),
     CURRENT_TIMESTAMP()
+)
+,(
+    -- 定期実行の実行ユーザー（ログイン不可）
+    'system',
+    'system@example.com',
+    '!',
+    FALSE,
+    FALSE,
+    CURRENT_TIMESTAMP(),
+    CURRENT_TIMESTAMP()
 );
 
 -- ロールの投入
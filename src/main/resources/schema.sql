@@ -1,5 +1,8 @@
 -- テーブルが既に存在する場合は削除 (開発・テスト用)
+DROP TABLE IF EXISTS batch_execution_queue;
+DROP TABLE IF EXISTS batch_execution_resource;
 DROP TABLE IF EXISTS batch_execution_history;
+DROP TABLE IF EXISTS batch_workflow_execution;
 DROP TABLE IF EXISTS user_role;
 DROP TABLE IF EXISTS role_definition;
 DROP TABLE IF EXISTS user_master;
@@ -42,9 +45,61 @@ CREATE TABLE batch_execution_history (
     start_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     end_time TIMESTAMP,
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    workflow_execution_id VARCHAR(36),
+    workflow_node_id VARCHAR(100),
+    cpu_time_millis BIGINT,
+    avg_cpu_percent DOUBLE,
+    peak_cpu_percent DOUBLE,
+    avg_rss_kb BIGINT,
+    peak_rss_kb BIGINT,
+    io_read_kb BIGINT,
+    io_write_kb BIGINT,
+    node_id VARCHAR(255),
+    pid BIGINT,
+    parameters VARCHAR(16000),
+    FOREIGN KEY (user_id) REFERENCES user_master(id) ON DELETE CASCADE
+);
+
+-- 実行ごとのリソース使用量の時系列（差分を可変長整数で符号化したサンプル列）
+-- 実行履歴は write-behind（ASYNC）で遅れて書き込まれることがあるため外部キーは設定しない
+CREATE TABLE batch_execution_resource (
+    execution_id VARCHAR(36) PRIMARY KEY,
+    interval_millis BIGINT NOT NULL,
+    sample_count INT NOT NULL,
+    samples BLOB NOT NULL
+);
+-- 複数ノードで共有する実行待ちキュー（batch.cluster.enabled の場合のみ使用）
+-- ノードはリース付きで行を取得し、ハートビートで延長する。リースが切れた行は他のノードが取得して再実行する
+CREATE TABLE batch_execution_queue (
+    execution_id VARCHAR(36) PRIMARY KEY,
+    job_id VARCHAR(100) NOT NULL,
+    user_id BIGINT NOT NULL,
+    priority INT NOT NULL,
+    enqueued_at TIMESTAMP NOT NULL,
+    lease_owner VARCHAR(255),
+    lease_expires_at TIMESTAMP,
+    attempts INT NOT NULL DEFAULT 0,
+    cancel_requested BOOLEAN NOT NULL DEFAULT FALSE
+);
+-- ワークフロー実行テーブルの作成（各ノードの実行は batch_execution_history に記録する）
+CREATE TABLE batch_workflow_execution (
+    id VARCHAR(36) PRIMARY KEY,
+    workflow_id VARCHAR(100) NOT NULL,
+    workflow_name VARCHAR(255) NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    user_id BIGINT NOT NULL,
+    start_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    end_time TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    node_id VARCHAR(255),
     FOREIGN KEY (user_id) REFERENCES user_master(id) ON DELETE CASCADE
 );
 
 CREATE INDEX idx_batch_job_id ON batch_execution_history(job_id);
 CREATE INDEX idx_batch_user_id ON batch_execution_history(user_id);
 CREATE INDEX idx_batch_start_time ON batch_execution_history(start_time);
+CREATE INDEX idx_batch_workflow_execution_id ON batch_execution_history(workflow_execution_id);
+CREATE INDEX idx_batch_node_status ON batch_execution_history(node_id, status);
+CREATE INDEX idx_batch_workflow_node_status ON batch_workflow_execution(node_id, status);
+CREATE INDEX idx_batch_queue_priority ON batch_execution_queue(priority, enqueued_at);
+CREATE INDEX idx_batch_queue_lease_owner ON batch_execution_queue(lease_owner);
@@ -242,6 +242,10 @@ function createStatusBadge(status) {
     let className = '';
 
     switch (status) {
+        case 'QUEUED':
+            displayText = '待機中';
+            className = 'status-queued';
+            break;
         case 'RUNNING':
             displayText = '実行中';
             className = 'status-running';
@@ -254,6 +258,14 @@ function createStatusBadge(status) {
             displayText = '失敗';
             className = 'status-failed';
             break;
+        case 'CANCELLED':
+            displayText = 'キャンセル';
+            className = 'status-cancelled';
+            break;
+        case 'LOST':
+            displayText = '結果不明';
+            className = 'status-lost';
+            break;
         default:
             displayText = status;
     }
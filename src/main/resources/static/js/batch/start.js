@@ -4,6 +4,8 @@ let currentPage = 0;
 const pageSize = 10;
 let totalPages = 1;
 let pollingInterval = null;
+let eventSource = null;
+const maxOutputLines = 1000;
 const csrfToken = document.querySelector('meta[name="csrf-token"]')?.content;
 const csrfHeader = document.querySelector('meta[name="csrf-header"]')?.content || 'X-CSRF-TOKEN';
 
@@ -99,6 +101,63 @@ function displayJobParameters() {
         tr.innerHTML = `<td>${row.name}</td><td>${row.value}</td>`;
         tbody.appendChild(tr);
     });
+
+    // 実行時パラメータの入力欄（* は指定必須）
+    (selectedJob.parameters || []).forEach(param => {
+        const tr = document.createElement('tr');
+        const label = document.createElement('td');
+        label.textContent = param.name + (param.required && param.defaultValue == null ? ' *' : '');
+        label.title = param.description || '';
+        const cell = document.createElement('td');
+        cell.appendChild(createParameterInput(param));
+        tr.append(label, cell);
+        tbody.appendChild(tr);
+    });
+}
+
+/**
+ * パラメータの型に応じた入力欄を作成する
+ */
+function createParameterInput(param) {
+    let input;
+    const choices = param.allowedValues && param.allowedValues.length > 0 ? param.allowedValues
+        : param.type === 'BOOLEAN' ? ['true', 'false'] : null;
+    if (choices) {
+        input = document.createElement('select');
+        const empty = document.createElement('option');
+        empty.value = '';
+        empty.textContent = '（既定値）';
+        input.appendChild(empty);
+        choices.forEach(choice => {
+            const option = document.createElement('option');
+            option.value = choice;
+            option.textContent = choice;
+            input.appendChild(option);
+        });
+    } else {
+        input = document.createElement('input');
+        input.type = param.type === 'INTEGER' ? 'number' : param.type === 'DATE' ? 'date' : 'text';
+        if (param.min != null) input.min = param.min;
+        if (param.max != null) input.max = param.max;
+        input.placeholder = param.description || '';
+    }
+    input.className = 'parameter-input';
+    input.dataset.name = param.name;
+    input.value = param.defaultValue || '';
+    return input;
+}
+
+/**
+ * 入力されたパラメータを取得する（空欄は既定値を使うため送らない）
+ */
+function collectParameters() {
+    const parameters = {};
+    document.querySelectorAll('#parametersTable .parameter-input').forEach(input => {
+        if (input.value !== '') {
+            parameters[input.dataset.name] = input.value;
+        }
+    });
+    return parameters;
 }
 
 /**
@@ -143,7 +202,8 @@ function executeBatch() {
     let headers = getHeaders();
 
     const requestBody = {
-        jobId: selectedJob.id
+        jobId: selectedJob.id,
+        parameters: collectParameters()
     };
 
     fetch('/api/batch/execute', {
@@ -151,12 +211,23 @@ function executeBatch() {
         headers: headers,
         body: JSON.stringify(requestBody)
     })
-        .then(response => response.json())
+        .then(response => {
+            // 実行待ちキューが満杯の場合は Retry-After を案内する
+            if (response.status === 429) {
+                const retryAfter = response.headers.get('Retry-After');
+                throw new Error('実行待ちが混み合っています。' + (retryAfter ? retryAfter + '秒後に' : 'しばらくしてから') + '再実行してください');
+            }
+            return response.json();
+        })
         .then(data => {
             if (data.executionId) {
                 currentExecutionId = data.executionId;
-                showAlert('バッチを実行しました: ' + data.executionId, 'success');
-                startPolling();
+                if (data.deduplicated) {
+                    showAlert('実行中の同じバッチを表示します: ' + data.executionId, 'info');
+                } else {
+                    showAlert('バッチを実行しました: ' + data.executionId, 'success');
+                }
+                startEventStream();
             } else {
                 showAlert('バッチの実行に失敗しました: ' + (data.error || '不明なエラー'), 'error');
                 executeBtn.disabled = false;
@@ -171,6 +242,89 @@ function executeBatch() {
         });
 }
 
+/**
+ * 実行イベント（ステータス・出力）の購読を開始する
+ * SSE が利用できない場合はポーリングに切り替える
+ */
+function startEventStream() {
+    stopEventStream();
+    clearOutput();
+
+    if (!window.EventSource) {
+        startPolling();
+        return;
+    }
+
+    eventSource = new EventSource('/api/batch/executions/' + currentExecutionId + '/events');
+    eventSource.addEventListener('status', event => {
+        onStatusReceived(JSON.parse(event.data));
+    });
+    eventSource.addEventListener('output', event => {
+        const output = JSON.parse(event.data);
+        appendOutput(output.line, output.stream === 'STDERR' ? 'output-stderr' : null);
+        // 進捗マーカー行（##progress <進捗率> ...）
+        const progress = output.stream === 'STDOUT' && /^##progress\s+(\d+)/.exec(output.line);
+        if (progress) {
+            showProgress(Math.min(Number(progress[1]), 100));
+        }
+    });
+    eventSource.addEventListener('dropped', event => {
+        appendOutput(`（表示が追いつかないため ${event.data} 行を省略しました）`, 'output-notice');
+    });
+    eventSource.onerror = () => {
+        // 接続が切れた場合はポーリングに切り替える
+        if (eventSource) {
+            stopEventStream();
+            startPolling();
+        }
+    };
+}
+
+/**
+ * 実行イベントの購読を停止する
+ */
+function stopEventStream() {
+    if (eventSource) {
+        eventSource.close();
+        eventSource = null;
+    }
+}
+
+/**
+ * 実行中の進捗を実行ボタンに表示する
+ */
+function showProgress(percent) {
+    if (percent == null) return;
+    document.getElementById('executeBtn').innerHTML = `<span class="loading"></span> 実行中... ${percent}%`;
+}
+
+/**
+ * 実行ログ表示をクリアして表示する
+ */
+function clearOutput() {
+    document.getElementById('outputSection').style.display = 'block';
+    document.getElementById('outputLog').textContent = '';
+}
+
+/**
+ * 実行ログに1行追加する
+ */
+function appendOutput(text, className) {
+    const outputLog = document.getElementById('outputLog');
+    const line = document.createElement('div');
+    line.textContent = text;
+    if (className) {
+        line.className = className;
+    }
+    outputLog.appendChild(line);
+
+    // 表示行数の上限を超えたら古い行から削除
+    while (outputLog.childElementCount > maxOutputLines) {
+        outputLog.removeChild(outputLog.firstElementChild);
+    }
+    outputLog.scrollTop = outputLog.scrollHeight;
+}
+
 /**
  * ステータスをポーリングする
  */
@@ -197,31 +351,46 @@ function checkStatus() {
 
     fetch('/api/batch/status/' + currentExecutionId)
         .then(response => response.json())
-        .then(status => {
-            console.log('Status:', status);
+        .then(status => onStatusReceived(status))
+        .catch(error => {
+            console.error('Error checking status:', error);
+        });
+}
 
-            // ステータスが完了またはエラーなら、ポーリングを停止
-            if (status.status !== 'RUNNING') {
-                clearInterval(pollingInterval);
-                pollingInterval = null;
+/**
+ * ステータスを受信した時の処理
+ */
+function onStatusReceived(status) {
+    console.log('Status:', status);
+
+    // ステータスが完了またはエラーなら、購読・ポーリングを停止
+    if (status.status === 'QUEUED' || status.status === 'RUNNING') {
+        if (status.progress) {
+            showProgress(status.progress.percent);
+        }
+        return;
+    }
 
-                const executeBtn = document.getElementById('executeBtn');
-                executeBtn.disabled = false;
-                executeBtn.innerHTML = '実行';
+    stopEventStream();
+    clearInterval(pollingInterval);
+    pollingInterval = null;
 
-                if (status.status === 'COMPLETED_SUCCESS') {
-                    showAlert('バッチ実行が完了しました', 'success');
-                } else if (status.status === 'FAILED') {
-                    showAlert('バッチ実行に失敗しました（終了コード: ' + status.exitCode + '）', 'error');
-                }
+    const executeBtn = document.getElementById('executeBtn');
+    executeBtn.disabled = false;
+    executeBtn.innerHTML = '実行';
+
+    if (status.status === 'COMPLETED_SUCCESS') {
+        showAlert('バッチ実行が完了しました', 'success');
+    } else if (status.status === 'FAILED') {
+        showAlert('バッチ実行に失敗しました（終了コード: ' + status.exitCode + '）', 'error');
+    } else if (status.status === 'CANCELLED') {
+        showAlert('バッチ実行をキャンセルしました', 'error');
+    } else if (status.status === 'LOST') {
+        showAlert('サーバーの再起動により、バッチ実行の結果を取得できませんでした', 'error');
+    }
 
-                // 履歴を更新
-                loadHistory(0);
-            }
-        })
-        .catch(error => {
-            console.error('Error checking status:', error);
-        });
+    // 履歴を更新
+    loadHistory(0);
 }
 
 /**
@@ -282,7 +451,10 @@ function getStatusBadge(status) {
     let className = '';
     let displayText = status;
 
-    if (status === 'RUNNING') {
+    if (status === 'QUEUED') {
+        className = 'status-queued';
+        displayText = '待機中';
+    } else if (status === 'RUNNING') {
         className = 'status-running';
         displayText = '実行中';
     } else if (status === 'COMPLETED_SUCCESS') {
@@ -291,6 +463,12 @@ function getStatusBadge(status) {
     } else if (status === 'FAILED') {
         className = 'status-failed';
         displayText = '失敗';
+    } else if (status === 'CANCELLED') {
+        className = 'status-cancelled';
+        displayText = 'キャンセル';
+    } else if (status === 'LOST') {
+        className = 'status-lost';
+        displayText = '結果不明';
     }
 
     return `<span class="status-badge ${className}">${displayText}</span>`;
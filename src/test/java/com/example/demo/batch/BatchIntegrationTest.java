@@ -3,22 +3,55 @@ package com.example.demo.batch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.hamcrest.Matchers.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.*;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.annotation.DirtiesContext.ClassMode;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
 
+import com.example.demo.batch.dto.ExecutionStatus;
+import com.example.demo.batch.entity.BatchExecution;
+import com.example.demo.batch.entity.WorkflowExecution;
+import com.example.demo.batch.repository.BatchRepository;
+import com.example.demo.batch.repository.WorkflowRepository;
+import com.example.demo.batch.service.AdaptiveConcurrencyLimiter;
+import com.example.demo.batch.service.BatchExecutor;
+import com.example.demo.batch.service.ExecutionStatusListener;
+import com.example.demo.batch.service.LiveExecutionRegistry;
+import com.example.demo.batch.service.ExecutionOutputStore;
+import com.example.demo.batch.service.ExecutionRecovery;
+import com.example.demo.batch.service.JobRegistry;
+import com.example.demo.config.BatchConfig;
 import com.example.demo.security.CustomUserDetails;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -43,6 +76,39 @@ public class BatchIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private BatchConfig batchConfig;
+
+    @Autowired
+    private BatchRepository batchRepository;
+
+    @Autowired
+    private WorkflowRepository workflowRepository;
+
+    @Autowired
+    private ExecutionRecovery executionRecovery;
+
+    @Autowired
+    private JobRegistry jobRegistry;
+
+    @Autowired
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    @Autowired
+    private BatchExecutor batchExecutor;
+
+    @Autowired
+    private ExecutionOutputStore outputStore;
+
+    @Autowired
+    private LiveExecutionRegistry liveExecutions;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StatusRecorder statusRecorder;
+
     private static final String TEST_JOB_ID = "wait_time_test";
 
     @Test
@@ -80,6 +146,1014 @@ public class BatchIntegrationTest {
                 .andExpect(jsonPath("$.content[0].jobName", equalTo("待機テスト（成功）")));
     }
 
+    @Test
+    @DisplayName("存在しないジョブIDを指定した場合は400が返ること")
+    public void testExecuteUnknownJobReturnsBadRequest() throws Exception {
+        CustomUserDetails userDetails = createUserDetails(2L, "user", "ROLE_USER");
+
+        mockMvc.perform(post("/api/batch/execute")
+                .with(user(userDetails))
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"jobId\":\"no_such_job\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.executionId", nullValue()))
+                .andExpect(jsonPath("$.error", notNullValue()));
+    }
+
+    @Test
+    @DisplayName("実行したバッチジョブの出力をオフセット指定で取得できること")
+    public void testExecutionOutputCanBeReadByOffset() throws Exception {
+        CustomUserDetails userDetails = createUserDetails(2L, "user", "ROLE_USER");
+        CustomUserDetails otherDetails = createUserDetails(3L, "other", "ROLE_USER");
+
+        String executionId = executeJob(TEST_JOB_ID, userDetails);
+        waitForBatchCompletion(executionId, userDetails);
+
+        // 先頭から全体を取得
+        MvcResult asyncResult = mockMvc.perform(get("/api/batch/executions/" + executionId + "/output")
+                .with(user(userDetails)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult outputResult = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Output-Complete", "true"))
+                .andReturn();
+        String output = outputResult.getResponse().getContentAsString();
+        assertThat(output).contains("start wait_time", "loop 1", "finish wait_time");
+
+        // 途中のオフセットから取得すると残りの部分のみが返る
+        int offset = output.indexOf("finish");
+        MvcResult tailAsync = mockMvc.perform(get("/api/batch/executions/" + executionId + "/output")
+                .param("offset", String.valueOf(offset))
+                .with(user(userDetails)))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(tailAsync))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Output-Next-Offset", String.valueOf(output.length())))
+                .andExpect(content().string(output.substring(offset)));
+
+        // 他のユーザーの実行出力は参照できない
+        mockMvc.perform(get("/api/batch/executions/" + executionId + "/output")
+                .with(user(otherDetails)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("完了時に収集した成果物を範囲指定でダウンロードできること")
+    public void testArtifactsAreCollectedAndServedWithRange() throws Exception {
+        CustomUserDetails userDetails = createUserDetails(2L, "user", "ROLE_USER");
+        CustomUserDetails otherDetails = createUserDetails(3L, "other", "ROLE_USER");
+        String content = "loops=1 exit_code=0\n";
+
+        String executionId = executeJob("wait_time_artifact", userDetails);
+        waitForBatchCompletion(executionId, userDetails);
+        String artifactsUrl = "/api/batch/executions/" + executionId + "/artifacts";
+
+        mockMvc.perform(get(artifactsUrl)
+                .with(user(userDetails)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name").value("wait_time_result.txt"))
+                .andExpect(jsonPath("$[0].size").value(content.length()));
+
+        // 全体を取得
+        MvcResult fullAsync = mockMvc.perform(get(artifactsUrl + "/wait_time_result.txt")
+                .with(user(userDetails)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(fullAsync))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andExpect(header().string("Content-Length", String.valueOf(content.length())))
+                .andExpect(content().string(content));
+
+        // 範囲を指定すると 206 で一部のみが返る
+        MvcResult rangeAsync = mockMvc.perform(get(artifactsUrl + "/wait_time_result.txt")
+                .header("Range", "bytes=6-6")
+                .with(user(userDetails)))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(rangeAsync))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 6-6/" + content.length()))
+                .andExpect(content().string("1"));
+
+        // 範囲外は 416
+        mockMvc.perform(get(artifactsUrl + "/wait_time_result.txt")
+                .header("Range", "bytes=1000-")
+                .with(user(userDetails)))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string("Content-Range", "bytes */" + content.length()));
+
+        // 存在しない成果物、および他のユーザーの実行の成果物は参照できない
+        mockMvc.perform(get(artifactsUrl + "/missing.txt")
+                .with(user(userDetails)))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get(artifactsUrl + "/wait_time_result.txt")
+                .with(user(otherDetails)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("確定した出力はチャンク単位で圧縮され、保持日数を過ぎると削除されること")
+    public void testOutputIsCompressedAndExpired() throws Exception {
+        CustomUserDetails userDetails = createUserDetails(2L, "user", "ROLE_USER");
+        // セグメント・チャンクともに複数に分かれるよう小さくする
+        batchConfig.getOutput().setSegmentSize(32);
+        batchConfig.getOutput().setCompressionChunkSize(8);
+
+        String executionId = executeJob(TEST_JOB_ID, userDetails);
+        waitForBatchCompletion(executionId, userDetails);
+        Path directory = Path.of(batchConfig.getOutput().getDirectory()).resolve(executionId);
+
+        // 未圧縮のセグメントがなくなるまで待つ
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (hasUncompressedSegments(directory) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(hasUncompressedSegments(directory)).isFalse();
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.filter(file -> file.toString().endsWith(".segz")).count()).isGreaterThan(1);
+        }
+
+        // 圧縮後も全体・チャンク途中のオフセットから読める
+        String output = readOutput(executionId, 0, userDetails);
+        assertThat(output).contains("start wait_time", "loop 1", "finish wait_time");
+        int offset = output.indexOf("loop 1") + 3;
+        assertThat(readOutput(executionId, offset, userDetails)).isEqualTo(output.substring(offset));
+
+        // 保持日数を過ぎた出力は削除される
+        Files.setLastModifiedTime(directory.resolve("segments"),
+                FileTime.from(Instant.now().minus(Duration.ofDays(batchConfig.getOutput().getRetentionDays() + 1))));
+        assertThat(outputStore.sweep()).isGreaterThanOrEqualTo(1);
+        assertThat(directory).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("出力に含まれる文字列で履歴を検索でき、一致位置が返ること")
+    public void testHistoryCanBeSearchedByOutputText() throws Exception {
+        CustomUserDetails userDetails = createUserDetails(2L, "user", "ROLE_USER");
+        CustomUserDetails otherDetails = createUserDetails(3L, "other", "ROLE_USER");
+
+        String executionId = executeJob(TEST_JOB_ID, userDetails);
+        waitForBatchCompletion(executionId, userDetails);
+        String output = readOutput(executionId, 0, userDetails);
+        long expectedOffset = output.indexOf("finish wait_time");
+
+        // 索引への登録はバックグラウンドで行われる
+        JsonNode hit = null;
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (hit == null && System.currentTimeMillis() < deadline) {
+            hit = findHistory(searchHistoryByOutput("FINISH wait_time", userDetails), executionId);
+            if (hit == null) {
+                Thread.sleep(100);
+            }
+        }
+        assertThat(hit).isNotNull();
+        assertThat(hit.get("outputMatchOffsets").get(0).asLong()).isEqualTo(expectedOffset);
+
+        // 語の並びが異なる場合・含まれない語の場合は一致しない
+        assertThat(findHistory(searchHistoryByOutput("wait_time finish", userDetails), executionId)).isNull();
+        assertThat(searchHistoryByOutput("no-such-output-text", userDetails).get("totalCount").asLong())
+                .isZero();
+
+        // 他のユーザーの実行は検索結果に含まれない
+        assertThat(findHistory(searchHistoryByOutput("finish wait_time", otherDetails), executionId)).isNull();
+
+        // 他のユーザーの一致は件数の上限に数えない
+        String otherExecutionId = executeJob(TEST_JOB_ID, otherDetails);
+        waitForBatchCompletion(otherExecutionId, otherDetails);
+        JsonNode otherHit = null;
+        deadline = System.currentTimeMillis() + 10_000;
+        while (otherHit == null && System.currentTimeMillis() < deadline) {
+            otherHit = findHistory(searchHistoryByOutput("finish wait_time", otherDetails), otherExecutionId);
+            if (otherHit == null) {
+                Thread.sleep(100);
+            }
+        }
+        assertThat(otherHit).isNotNull();
+        batchConfig.getSearch().setMaxHits(1);
+        JsonNode page = searchHistoryByOutput("finish wait_time", userDetails);
+        assertThat(page.get("totalCount").asLong()).isEqualTo(1);
+        assertThat(findHistory(page, executionId)).isNotNull();
+        page = searchHistoryByOutput("finish wait_time", otherDetails);
+        assertThat(page.get("totalCount").asLong()).isEqualTo(1);
+        assertThat(findHistory(page, otherExecutionId)).isNotNull();
+    }
+
+    private JsonNode searchHistoryByOutput(String outputText, CustomUserDetails userDetails) throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/batch/history/search")
+                .param("outputText", outputText)
+                .param("pageSize", "100")
+                .with(user(userDetails)))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+
+    private static JsonNode findHistory(JsonNode page, String executionId) {
+        for (JsonNode item : page.get("content")) {
+            if (executionId.equals(item.get("id").asText())) {
+                return item;
+            }
+        }
+        return null;
+    }
+
+    private static boolean hasUncompressedSegments(Path directory) throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.anyMatch(file -> file.toString().endsWith(".seg"));
+        }
+    }
+
+    private String readOutput(String executionId, long offset, CustomUserDetails userDetails) throws Exception {
+        MvcResult asyncResult = mockMvc.perform(get("/api/batch/executions/" + executionId + "/output")
+                .param("offset", String.valueOf(offset))
+                .with(user(userDetails)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    @Test
+    @DisplayName("実行のリソース使用量が計測され、集計が履歴に記録されること")
+    public void testExecutionResourcesAreSampled() throws Exception {
+        CustomUserDetails userDetails = createUserDetails(2L, "user", "ROLE_USER");
+        CustomUserDetails otherDetails = createUserDetails(3L, "other", "ROLE_USER");
+
+        String executionId = executeJob(TEST_JOB_ID, userDetails);
+        waitForBatchCompletion(executionId, userDetails);
+
+        mockMvc.perform(get("/api/batch/executions/" + executionId + "/resources")
+                .with(user(userDetails)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.complete").value(true))
+                .andExpect(jsonPath("$.samples", hasSize(greaterThan(1))))
+                .andExpect(jsonPath("$.summary.peakRssKb", greaterThan(0)));
+
+        // 集計は実行履歴の行に保存される
+        mockMvc.perform(get("/api/batch/status/" + executionId)
+                .with(user(userDetails)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.resourceUsage.peakRssKb", greaterThan(0)));
+
+        // 他のユーザーの実行は参照できない
+        mockMvc.perform(get("/api/batch/executions/" + executionId + "/resources")
+                .with(user(otherDetails)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("実行時パラメータが検証され、引数に埋め込まれて実行されること")
+    public void testJobParametersAreValidatedAndSubstituted() throws Exception {
+        CustomUserDetails userDetails = createUserDetails(2L, "user", "ROLE_USER");
+
+        // 必須パラメータの欠落・未定義のパラメータ・範囲外の値は拒否される
+        for (String parameters : List.of("{}", "{\"loops\":\"1\",\"unknown\":\"x\"}",
+                "{\"loops\":\"11\"}", "{\"loops\":\"1\",\"target-date\":\"2026-13-01\"}")) {
+            mockMvc.perform(post("/api/batch/execute")
+                    .with(user(userDetails))
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"jobId\":\"wait_time_param\",\"parameters\":" + parameters + "}"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.error").exists());
+        }
+
+        MvcResult executeResult = mockMvc.perform(post("/api/batch/execute")
+                .with(user(userDetails))
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"jobId\":\"wait_time_param\",\"parameters\":"
+                        + "{\"loops\":\" 1\",\"exit-code\":\"3\",\"target-date\":\"2026-01-31\"}}"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String executionId = objectMapper.readTree(executeResult.getResponse().getContentAsString())
+                .get("executionId").asText();
+        waitForBatchCompletion(executionId, userDetails);
+
+        // 終了コードは引数に埋め込んだ値になり、省略したパラメータは既定値で記録される
+        mockMvc.perform(get("/api/batch/status/" + executionId)
+                .with(user(userDetails)))
+                .andExpect(jsonPath("$.status").value("FAILED"))
+                .andExpect(jsonPath("$.exitCode").value(3))
+                .andExpect(jsonPath("$.parameters.loops").value("1"))
+                .andExpect(jsonPath("$.parameters.output").value("0"))
+                .andExpect(jsonPath("$.parameters.target-date").value("2026-01-31"));
+    }
+
+    @Test
+    @DisplayName("設定ファイルからジョブ定義を再読み込みでき、不正な定義では差し替わらないこと")
+    public void testJobRegistryReload(@TempDir Path directory) throws Exception {
+        CustomUserDetails userDetails = createUserDetails(2L, "user", "ROLE_USER");
+        Path file = directory.resolve("config.yml");
+        Files.writeString(file, """
+                batch:
+                  jobs:
+                    - id: reloaded_job
+                      name: 再読み込みしたジョブ
+                      enabled: true
+                      command: ./src/main/resources/batch/wait_time
+                      arguments: ["1", "0", "0"]
+                      timeout: 10
+                """);
+
+        assertThat(jobRegistry.reload(file)).isEqualTo(1);
+        mockMvc.perform(get("/api/batch/jobs")
+                .with(user(userDetails)))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value("reloaded_job"));
+        String executionId = executeJob("reloaded_job", userDetails);
+        waitForBatchCompletion(executionId, userDetails);
+        mockMvc.perform(get("/api/batch/status/" + executionId)
+                .with(user(userDetails)))
+                .andExpect(jsonPath("$.status").value("COMPLETED_SUCCESS"));
+
+        // 未定義のパラメータを参照する定義は拒否され、現在の定義が残る
+        Files.writeString(file, """
+                batch:
+                  jobs:
+                    - id: broken_job
+                      enabled: true
+                      command: ./src/main/resources/batch/wait_time
+                      arguments: ["{{undeclared}}"]
+                """);
+        assertThatThrownBy(() -> jobRegistry.reload(file)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(jobRegistry.find("reloaded_job")).isPresent();
+        assertThat(jobRegistry.find("broken_job")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("出力の進捗マーカー行から実行中の進捗がステータスに反映されること")
+    public void testProgressMarkersAreReportedInStatus() throws Exception {
+        CustomUserDetails userDetails = createUserDetails(2L, "user", "ROLE_USER");
+
+        MvcResult executeResult = mockMvc.perform(post("/api/batch/execute")
+                .with(user(userDetails))
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"jobId\":\"wait_time_param\",\"parameters\":{\"loops\":\"3\"}}"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String executionId = objectMapper.readTree(executeResult.getResponse().getContentAsString())
+                .get("executionId").asText();
+
+        // 1ループごとに ##progress <進捗率> loop=<回数> が出力される
+        JsonNode progress = null;
+        for (int retryCount = 0; retryCount < 30 && progress == null; retryCount++) {
+            Thread.sleep(200);
+            JsonNode status = objectMapper.readTree(mockMvc.perform(get("/api/batch/status/" + executionId)
+                    .with(user(userDetails)))
+                    .andReturn().getResponse().getContentAsString());
+            if (status.hasNonNull("progress")) {
+                progress = status.get("progress");
+            }
+        }
+        assertThat(progress).isNotNull();
+        assertThat(progress.get("percent").asInt()).isIn(33, 66, 100);
+        assertThat(progress.get("details").get("loop").asText()).isIn("1", "2", "3");
+
+        // 完了後は進捗を返さない（履歴には保存しない）
+        waitForBatchCompletion(executionId, userDetails);
+        mockMvc.perform(get("/api/batch/status/" + executionId)
+                .with(user(userDetails)))
+                .andExpect(jsonPath("$.status").value("COMPLETED_SUCCESS"))
+                .andExpect(jsonPath("$.progress").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("実行中のバッチをキャンセルでき、完了後はキャンセルできないこと")
+    public void testCancelRunningExecution() throws Exception {
+        CustomUserDetails userDetails = createUserDetails(2L, "user", "ROLE_USER");
+        CustomUserDetails otherDetails = createUserDetails(3L, "other", "ROLE_USER");
+
+        String executionId = executeJob("wait_time_error", userDetails);
+        Thread.sleep(300);
+
+        // 他のユーザーの実行はキャンセルできない
+        mockMvc.perform(post("/api/batch/executions/" + executionId + "/cancel")
+                .with(user(otherDetails))
+                .with(csrf()))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(post("/api/batch/executions/" + executionId + "/cancel")
+                .with(user(userDetails))
+                .with(csrf()))
+                .andExpect(status().isAccepted());
+        waitForBatchCompletion(executionId, userDetails);
+
+        mockMvc.perform(get("/api/batch/status/" + executionId)
+                .with(user(userDetails)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CANCELLED"));
+
+        // 完了した実行はキャンセルできない
+        mockMvc.perform(post("/api/batch/executions/" + executionId + "/cancel")
+                .with(user(userDetails))
+                .with(csrf()))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @DisplayName("実行中の同じ要求とIdempotency-Keyの再送には既存の実行IDが返ること")
+    public void testDuplicateExecuteRequestsAreCoalesced() throws Exception {
+        CustomUserDetails userDetails = createUserDetails(2L, "user", "ROLE_USER");
+        CustomUserDetails otherDetails = createUserDetails(3L, "other", "ROLE_USER");
+
+        // dedup-window-seconds を指定したジョブは実行中の同じ要求を統合する
+        String executionId = executeJob("wait_time_error", userDetails);
+        mockMvc.perform(post("/api/batch/execute")
+                .with(user(userDetails))
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"jobId\":\"wait_time_error\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.executionId").value(executionId))
+                .andExpect(jsonPath("$.deduplicated").value(true));
+
+        // 別のユーザーの要求は統合しない
+        String otherExecutionId = executeJob("wait_time_error", otherDetails);
+        assertThat(otherExecutionId).isNotEqualTo(executionId);
+        waitForBatchCompletion(executionId, userDetails);
+        waitForBatchCompletion(otherExecutionId, otherDetails);
+
+        // Idempotency-Key の再送には完了後も同じ実行IDを返す
+        String key = UUID.randomUUID().toString();
+        String keyedExecutionId = executeJobWithIdempotencyKey(TEST_JOB_ID, key, userDetails)
+                .andExpect(jsonPath("$.deduplicated").value(false))
+                .andReturn().getResponse().getContentAsString();
+        keyedExecutionId = objectMapper.readTree(keyedExecutionId).get("executionId").asText();
+        waitForBatchCompletion(keyedExecutionId, userDetails);
+        executeJobWithIdempotencyKey(TEST_JOB_ID, key, userDetails)
+                .andExpect(jsonPath("$.executionId").value(keyedExecutionId))
+                .andExpect(jsonPath("$.deduplicated").value(true));
+
+        // 同じキーを別のジョブに使うと拒否される
+        mockMvc.perform(post("/api/batch/execute")
+                .header("Idempotency-Key", key)
+                .with(user(userDetails))
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"jobId\":\"wait_time_error\"}"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    @DisplayName("再起動前から実行中のままの実行が、プロセスの生死に応じて再接続または結果不明になること")
+    public void testOrphanedExecutionsAreRecovered() throws Exception {
+        CustomUserDetails userDetails = createUserDetails(2L, "user", "ROLE_USER");
+        String nodeName = batchConfig.getRecovery().getNodeName();
+
+        // プロセスが生きている実行
+        Process process = new ProcessBuilder("sleep", "2").start();
+        BatchExecution alive = BatchExecution.queueNew(TEST_JOB_ID, "待機テスト（成功）", 2L);
+        alive.start();
+        alive.setNodeId(nodeName);
+        batchRepository.insert(alive);
+        batchRepository.updateProcess(alive.getId(), process.pid());
+
+        // プロセスが終了している実行と、待機中のままの実行
+        BatchExecution dead = BatchExecution.queueNew(TEST_JOB_ID, "待機テスト（成功）", 2L);
+        dead.start();
+        dead.setNodeId(nodeName);
+        batchRepository.insert(dead);
+        BatchExecution queued = BatchExecution.queueNew(TEST_JOB_ID, "待機テスト（成功）", 2L);
+        queued.setNodeId(nodeName);
+        batchRepository.insert(queued);
+
+        // 進行が途切れたワークフロー実行
+        WorkflowExecution workflow = WorkflowExecution.startNew("wait_time_workflow", "ワークフロー", 2L);
+        workflow.setNodeId(nodeName);
+        workflowRepository.insert(workflow);
+
+        ExecutionRecovery.Result result = executionRecovery.recover(LocalDateTime.now().plusSeconds(1));
+        assertThat(result).isEqualTo(new ExecutionRecovery.Result(1, 2, 0, 1));
+
+        mockMvc.perform(get("/api/batch/status/" + alive.getId())
+                .with(user(userDetails)))
+                .andExpect(jsonPath("$.status").value("RUNNING"));
+        mockMvc.perform(get("/api/batch/status/" + dead.getId())
+                .with(user(userDetails)))
+                .andExpect(jsonPath("$.status").value("LOST"));
+        assertThat(workflowRepository.findById(workflow.getId()).orElseThrow().getStatus().name())
+                .isEqualTo("FAILED");
+
+        // 再接続したプロセスの終了後は結果不明になる（終了コードは取得できない）
+        process.waitFor();
+        waitForBatchCompletion(alive.getId(), userDetails);
+        mockMvc.perform(get("/api/batch/status/" + alive.getId())
+                .with(user(userDetails)))
+                .andExpect(jsonPath("$.status").value("LOST"));
+    }
+
+    @Test
+    @DisplayName("SSEで実行の完了ステータスが配信されること")
+    public void testExecutionEventsStreamCompletion() throws Exception {
+        CustomUserDetails userDetails = createUserDetails(2L, "user", "ROLE_USER");
+
+        String executionId = executeJob(TEST_JOB_ID, userDetails);
+
+        MvcResult eventsResult = mockMvc.perform(get("/api/batch/executions/" + executionId + "/events")
+                .with(user(userDetails)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        waitForBatchCompletion(executionId, userDetails);
+
+        // 終了ステータスの送信後にストリームが閉じられる
+        eventsResult.getAsyncResult(10_000);
+        assertThat(eventsResult.getResponse().getContentAsString())
+                .contains("event:status")
+                .contains("COMPLETED_SUCCESS");
+    }
+
+    @Test
+    @DisplayName("ワークフローの失敗が後続ノードに伝播し、未成功のノードのみ再実行されること")
+    public void testWorkflowFailurePropagationAndRerun() throws Exception {
+        CustomUserDetails userDetails = createUserDetails(2L, "user", "ROLE_USER");
+
+        MvcResult executeResult = mockMvc.perform(post("/api/batch/workflows/sample_flow/execute")
+                .with(user(userDetails))
+                .with(csrf()))
+                .andExpect(status().isOk())
+                .andReturn();
+        String workflowExecutionId = objectMapper.readTree(executeResult.getResponse().getContentAsString())
+                .get("executionId").asText();
+
+        // 失敗したノードの後続はスキップされ、並列の分岐は成功する
+        JsonNode workflow = waitForWorkflowCompletion(workflowExecutionId, userDetails);
+        assertThat(workflow.get("status").asText()).isEqualTo("FAILED");
+        assertThat(nodeField(workflow, "prepare", "status")).isEqualTo("COMPLETED_SUCCESS");
+        assertThat(nodeField(workflow, "fail", "status")).isEqualTo("FAILED");
+        assertThat(nodeField(workflow, "parallel", "status")).isEqualTo("COMPLETED_SUCCESS");
+        assertThat(nodeField(workflow, "finish", "status")).isEqualTo("SKIPPED");
+        assertThat(workflow.get("criticalPath").get(0).asText()).isEqualTo("prepare");
+
+        // 再実行では成功済みのノードを再利用する
+        mockMvc.perform(post("/api/batch/workflows/executions/" + workflowExecutionId + "/rerun")
+                .with(user(userDetails))
+                .with(csrf()))
+                .andExpect(status().isOk());
+        workflow = waitForWorkflowCompletion(workflowExecutionId, userDetails);
+        assertThat(nodeField(workflow, "prepare", "attempts")).isEqualTo("1");
+        assertThat(nodeField(workflow, "fail", "attempts")).isEqualTo("2");
+        assertThat(nodeField(workflow, "finish", "status")).isEqualTo("SKIPPED");
+    }
+
+    @Test
+    @DisplayName("JVMジョブが常駐ワーカーを再利用して実行されること")
+    public void testJvmJobReusesWarmWorkers() throws Exception {
+        CustomUserDetails userDetails = createUserDetails(2L, "user", "ROLE_USER");
+        CustomUserDetails adminDetails = createUserDetails(1L, "admin", "ROLE_ADMIN");
+
+        // ワーカー数（2）より多く順番に実行する
+        for (int i = 0; i < 3; i++) {
+            String executionId = executeJob("wait_time_jvm", userDetails);
+            waitForBatchCompletion(executionId, userDetails);
+            mockMvc.perform(get("/api/batch/status/" + executionId)
+                    .with(user(userDetails)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.status").value("COMPLETED_SUCCESS"))
+                    .andExpect(jsonPath("$.exitCode").value(0));
+        }
+
+        MvcResult metricsResult = mockMvc.perform(get("/api/batch/metrics")
+                .with(user(adminDetails)))
+                .andExpect(status().isOk())
+                .andReturn();
+        JsonNode pool = objectMapper.readTree(metricsResult.getResponse().getContentAsString())
+                .get("workerPools").get("wait_time_jvm");
+        assertThat(pool.get("completedRuns").asLong()).isGreaterThanOrEqualTo(3);
+        assertThat(pool.get("started").asLong()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("ワーカーを待っているJVMジョブをキャンセルすると、ワーカーに渡されずにキャンセルされること")
+    public void testJvmJobCancelledWhileWaitingForWorker() throws Exception {
+        CustomUserDetails userDetails = createUserDetails(2L, "user", "ROLE_USER");
+        CustomUserDetails adminDetails = createUserDetails(1L, "admin", "ROLE_ADMIN");
+        batchConfig.getWorkerPool().setSize(1);
+
+        String runningId = executeJob("wait_time_jvm", userDetails);
+        String waitingId = executeJob("wait_time_jvm", userDetails);
+        mockMvc.perform(post("/api/batch/executions/" + waitingId + "/cancel")
+                .with(user(userDetails))
+                .with(csrf()))
+                .andExpect(status().isAccepted());
+
+        waitForBatchCompletion(waitingId, userDetails);
+        waitForBatchCompletion(runningId, userDetails);
+        mockMvc.perform(get("/api/batch/status/" + waitingId)
+                .with(user(userDetails)))
+                .andExpect(jsonPath("$.status").value("CANCELLED"));
+        mockMvc.perform(get("/api/batch/status/" + runningId)
+                .with(user(userDetails)))
+                .andExpect(jsonPath("$.status").value("COMPLETED_SUCCESS"));
+
+        // キャンセルした実行はワーカーで実行されていない
+        MvcResult metricsResult = mockMvc.perform(get("/api/batch/metrics")
+                .with(user(adminDetails)))
+                .andExpect(status().isOk())
+                .andReturn();
+        JsonNode pool = objectMapper.readTree(metricsResult.getResponse().getContentAsString())
+                .get("workerPools").get("wait_time_jvm");
+        assertThat(pool.get("completedRuns").asLong()).isEqualTo(1);
+        assertThat(pool.get("waiting").asLong()).isZero();
+    }
+
+    @Test
+    @DisplayName("メトリクスは管理者のみ取得できること")
+    public void testMetricsRequiresAdmin() throws Exception {
+        CustomUserDetails userDetails = createUserDetails(2L, "user", "ROLE_USER");
+        CustomUserDetails adminDetails = createUserDetails(1L, "admin", "ROLE_ADMIN");
+
+        mockMvc.perform(get("/api/batch/metrics")
+                .with(user(userDetails)))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(get("/api/batch/metrics")
+                .with(user(adminDetails)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.historyWriter.mode", notNullValue()));
+    }
+
+    @Test
+    @DisplayName("一括実行で要求ごとの結果が返り、キューの上限を超えた分だけが拒否されること")
+    public void testBulkExecuteAcceptsPartially() throws Exception {
+        CustomUserDetails userDetails = createUserDetails(2L, "user", "ROLE_USER");
+        // 実行枠（同時実行数上限）の分だけ受け付ける
+        batchConfig.getExecutor().setQueueCapacity(0);
+        int limit = batchExecutor.getConcurrencyLimit();
+
+        StringBuilder body = new StringBuilder("[{\"jobId\":\"unknown_job\"},")
+                .append("{\"jobId\":\"wait_time_param\",\"parameters\":{\"loops\":\"99\"}}");
+        for (int i = 0; i < limit + 2; i++) {
+            body.append(",{\"jobId\":\"").append(TEST_JOB_ID).append("\"}");
+        }
+        body.append("]");
+
+        MvcResult result = mockMvc.perform(post("/api/batch/execute/bulk")
+                .with(user(userDetails))
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body.toString()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(jsonPath("$.accepted").value(limit))
+                .andExpect(jsonPath("$.rejected").value(4))
+                .andExpect(jsonPath("$.results", hasSize(limit + 4)))
+                .andExpect(jsonPath("$.results[0].errorCode").value("JOB_NOT_FOUND"))
+                .andExpect(jsonPath("$.results[1].errorCode").value("INVALID_JOB_PARAMETER"))
+                .andExpect(jsonPath("$.results[2].executionId", notNullValue()))
+                .andExpect(jsonPath("$.results[" + (limit + 3) + "].errorCode").value("EXECUTION_QUEUE_FULL"))
+                .andReturn();
+
+        JsonNode results = objectMapper.readTree(result.getResponse().getContentAsString()).get("results");
+        for (int i = 2; i < limit + 2; i++) {
+            String executionId = results.get(i).get("executionId").asText();
+            assertThat(results.get(i).get("index").asInt()).isEqualTo(i);
+            assertThat(batchRepository.findById(executionId)).isPresent();
+            waitForBatchCompletion(executionId, userDetails);
+            mockMvc.perform(get("/api/batch/status/" + executionId)
+                    .with(user(userDetails)))
+                    .andExpect(jsonPath("$.status").value("COMPLETED_SUCCESS"));
+        }
+
+        // 空の要求は受け付けない
+        mockMvc.perform(post("/api/batch/execute/bulk")
+                .with(user(userDetails))
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("一括実行の要求内で重複統合期間のあるジョブが重なった場合は、同じ実行IDにまとめられること")
+    public void testBulkExecuteCoalescesDuplicatesWithinRequest() throws Exception {
+        CustomUserDetails userDetails = createUserDetails(2L, "user", "ROLE_USER");
+
+        MvcResult result = mockMvc.perform(post("/api/batch/execute/bulk")
+                .with(user(userDetails))
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"jobId\":\"wait_time_error\"},{\"jobId\":\"wait_time_error\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(2))
+                .andExpect(jsonPath("$.results[0].deduplicated").value(false))
+                .andExpect(jsonPath("$.results[1].deduplicated").value(true))
+                .andReturn();
+
+        JsonNode results = objectMapper.readTree(result.getResponse().getContentAsString()).get("results");
+        String executionId = results.get(0).get("executionId").asText();
+        assertThat(results.get(1).get("executionId").asText()).isEqualTo(executionId);
+        assertThat(batchRepository.findById(executionId)).isPresent();
+    }
+
+    @Test
+    @DisplayName("負荷で同時実行数上限を下げた後は、冷却期間が過ぎるまで負荷を理由に下げないこと")
+    public void testConcurrencyLimitLoadDecreaseCooldown() throws Exception {
+        // 常に負荷が閾値を超えている状態にする
+        batchConfig.getLimiter().setMaxLoadPerCpu(-1);
+        batchConfig.getLimiter().setMinAvailableMemoryRatio(0);
+        int initialLimit = batchExecutor.getConcurrencyLimit();
+        int decreased = Math.max(1, (int) Math.floor(initialLimit * batchConfig.getLimiter().getDecreaseFactor()));
+        assertThat(concurrencyLimiter.adjust()).isEqualTo(decreased);
+
+        // ロードアベレージに下げた効果が出るまでは下げ続けない
+        assertThat(concurrencyLimiter.adjust()).isEqualTo(decreased);
+        assertThat(concurrencyLimiter.metrics().getHistory()).hasSize(1);
+
+        batchConfig.getLimiter().setLoadDecreaseCooldownMillis(0);
+        assertThat(concurrencyLimiter.adjust())
+                .isEqualTo(Math.max(1, (int) Math.floor(decreased * batchConfig.getLimiter().getDecreaseFactor())));
+    }
+
+    @Test
+    @DisplayName("タイムアウトが続くと同時実行数上限が下がり、メトリクスに履歴が残ること")
+    public void testConcurrencyLimitDecreasesOnTimeouts() throws Exception {
+        CustomUserDetails adminDetails = createUserDetails(1L, "admin", "ROLE_ADMIN");
+        // テスト環境の負荷・空きメモリでは下げない
+        batchConfig.getLimiter().setMaxLoadPerCpu(Double.MAX_VALUE);
+        batchConfig.getLimiter().setMinAvailableMemoryRatio(0);
+        int initialLimit = batchExecutor.getConcurrencyLimit();
+        assertThat(initialLimit).isEqualTo(batchConfig.getExecutor().getMaxConcurrency());
+
+        // 完了件数が判定に必要な件数に満たない間は下げない
+        concurrencyLimiter.onStatusChanged(timedOutExecution());
+        assertThat(concurrencyLimiter.adjust()).isEqualTo(initialLimit);
+
+        for (int i = 0; i < batchConfig.getLimiter().getMinCompletions(); i++) {
+            concurrencyLimiter.onStatusChanged(timedOutExecution());
+        }
+        int expected = Math.max(1, (int) Math.floor(initialLimit * batchConfig.getLimiter().getDecreaseFactor()));
+        assertThat(concurrencyLimiter.adjust()).isEqualTo(expected);
+        assertThat(batchExecutor.getConcurrencyLimit()).isEqualTo(expected);
+
+        mockMvc.perform(get("/api/batch/metrics")
+                .with(user(adminDetails)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.concurrencyLimit.limit").value(expected))
+                .andExpect(jsonPath("$.concurrencyLimit.timeoutRate").value(1.0))
+                .andExpect(jsonPath("$.concurrencyLimit.history", hasSize(1)))
+                .andExpect(jsonPath("$.concurrencyLimit.history[0].previousLimit").value(initialLimit))
+                .andExpect(jsonPath("$.concurrencyLimit.history[0].reason").value("TIMEOUTS"));
+    }
+
+    @Test
+    @DisplayName("重複実行を禁止したジョブは、実行中の間は後続の実行が QUEUED で待機し、実行期間が重ならないこと")
+    public void testSingletonJobQueuesAndNeverOverlaps() throws Exception {
+        CustomUserDetails userDetails = createUserDetails(2L, "user", "ROLE_USER");
+        jobRegistry.find("wait_time_param").orElseThrow().setSingleton(true);
+
+        String first = executeJobWithLoops(2, userDetails);
+        String second = executeJobWithLoops(1, userDetails);
+        awaitStatus(first, ExecutionStatus.RUNNING);
+        mockMvc.perform(get("/api/batch/status/" + second)
+                .with(user(userDetails)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+
+        awaitNotLive(first);
+        awaitNotLive(second);
+        BatchExecution firstExecution = batchRepository.findById(first).orElseThrow();
+        BatchExecution secondExecution = batchRepository.findById(second).orElseThrow();
+        assertThat(firstExecution.getStatus()).isEqualTo(ExecutionStatus.COMPLETED_SUCCESS);
+        assertThat(secondExecution.getStatus()).isEqualTo(ExecutionStatus.COMPLETED_SUCCESS);
+        assertThat(secondExecution.getStartTime()).isAfterOrEqualTo(firstExecution.getEndTime());
+    }
+
+    @Test
+    @DisplayName("ジョブ単位の同時実行数上限を超えた実行は、全体の枠が空いていても QUEUED で待機すること")
+    public void testPerJobConcurrencyLimitQueuesExcessExecutions() throws Exception {
+        CustomUserDetails userDetails = createUserDetails(2L, "user", "ROLE_USER");
+        assertThat(batchExecutor.getConcurrencyLimit()).isGreaterThan(2);
+        jobRegistry.find("wait_time_param").orElseThrow().setMaxConcurrency(2);
+
+        List<String> executionIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            executionIds.add(executeJobWithLoops(2, userDetails));
+        }
+        awaitStatus(executionIds.get(0), ExecutionStatus.RUNNING);
+        awaitStatus(executionIds.get(1), ExecutionStatus.RUNNING);
+        assertThat(batchRepository.findById(executionIds.get(2)).orElseThrow().getStatus())
+                .isEqualTo(ExecutionStatus.QUEUED);
+        // 他のジョブは全体の枠で実行される
+        String other = executeJob(TEST_JOB_ID, userDetails);
+        awaitStatus(other, ExecutionStatus.RUNNING);
+
+        for (String executionId : executionIds) {
+            awaitNotLive(executionId);
+            assertThat(batchRepository.findById(executionId).orElseThrow().getStatus())
+                    .isEqualTo(ExecutionStatus.COMPLETED_SUCCESS);
+        }
+    }
+
+    @Test
+    @DisplayName("実行待ちキューが満杯の場合は、単体の実行要求に 429 と Retry-After が返ること")
+    public void testExecuteReturnsTooManyRequestsWhenQueueIsFull() throws Exception {
+        CustomUserDetails userDetails = createUserDetails(2L, "user", "ROLE_USER");
+        batchConfig.getExecutor().setQueueCapacity(0);
+        int limit = batchExecutor.getConcurrencyLimit();
+
+        List<String> executionIds = new ArrayList<>();
+        for (int i = 0; i < limit; i++) {
+            executionIds.add(executeJobWithLoops(2, userDetails));
+        }
+        mockMvc.perform(post("/api/batch/execute")
+                .with(user(userDetails))
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"jobId\":\"" + TEST_JOB_ID + "\"}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After",
+                        String.valueOf(batchConfig.getExecutor().getRetryAfterSeconds())))
+                .andExpect(jsonPath("$.executionId").doesNotExist())
+                .andExpect(jsonPath("$.error").value("Execution queue is full"));
+
+        // 枠が空けば再び受け付ける
+        for (String executionId : executionIds) {
+            awaitNotLive(executionId);
+        }
+        executeJob(TEST_JOB_ID, userDetails);
+    }
+
+    @Test
+    @DisplayName("完了の遷移が先に記録されたキャンセルに負けた場合、行を上書きせず完了を通知しないこと")
+    public void testLostCompletionTransitionKeepsWinningStatus() throws Exception {
+        CustomUserDetails userDetails = createUserDetails(2L, "user", "ROLE_USER");
+        String executionId = executeJobWithLoops(2, userDetails);
+        awaitStatus(executionId, ExecutionStatus.RUNNING);
+
+        // 他の経路（別ノードのキャンセルなど）が先に行を遷移させたことを再現する
+        jdbcTemplate.update("UPDATE batch_execution_history SET status = 'CANCELLED', end_time = CURRENT_TIMESTAMP"
+                + " WHERE id = ?", executionId);
+        awaitNotLive(executionId);
+
+        assertThat(batchRepository.findById(executionId).orElseThrow().getStatus())
+                .isEqualTo(ExecutionStatus.CANCELLED);
+        assertThat(statusRecorder.statusesOf(executionId)).containsExactly(ExecutionStatus.RUNNING);
+        mockMvc.perform(get("/api/batch/status/" + executionId)
+                .with(user(userDetails)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CANCELLED"));
+    }
+
+    @Test
+    @DisplayName("開始の遷移が失われた場合、メモリ上の状態を DB の行に戻し、プロセスを起動しないこと")
+    public void testLostStartTransitionRevertsLiveState() throws Exception {
+        CustomUserDetails userDetails = createUserDetails(2L, "user", "ROLE_USER");
+        jobRegistry.find("wait_time_param").orElseThrow().setSingleton(true);
+        String running = executeJobWithLoops(2, userDetails);
+        String queued = executeJobWithLoops(1, userDetails);
+        awaitStatus(running, ExecutionStatus.RUNNING);
+        assertThat(batchRepository.findById(queued).orElseThrow().getStatus()).isEqualTo(ExecutionStatus.QUEUED);
+
+        jdbcTemplate.update("UPDATE batch_execution_history SET status = 'CANCELLED', end_time = CURRENT_TIMESTAMP"
+                + " WHERE id = ?", queued);
+        awaitNotLive(running);
+        awaitNotLive(queued);
+
+        assertThat(batchRepository.findById(queued).orElseThrow().getStatus()).isEqualTo(ExecutionStatus.CANCELLED);
+        assertThat(statusRecorder.statusesOf(queued)).isEmpty();
+        assertThat(outputStore.view(queued).length()).isZero();
+        mockMvc.perform(get("/api/batch/status/" + queued)
+                .with(user(userDetails)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CANCELLED"));
+    }
+
+    @Test
+    @DisplayName("タイムアウトを超えた実行はプロセスを停止され、タイムアウトの失敗で終了すること")
+    public void testTimedOutExecutionEndsInTimeout() throws Exception {
+        CustomUserDetails userDetails = createUserDetails(2L, "user", "ROLE_USER");
+        jobRegistry.find("wait_time_param").orElseThrow().setTimeout(1);
+
+        long started = System.nanoTime();
+        String executionId = executeJobWithLoops(10, userDetails);
+        awaitNotLive(executionId);
+
+        BatchExecution execution = batchRepository.findById(executionId).orElseThrow();
+        assertThat(execution.isTimedOut()).isTrue();
+        assertThat(execution.getExitCode()).isEqualTo(BatchExecution.TIMEOUT_EXIT_CODE);
+        // 10 回のループを待たずに停止している
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(8));
+        mockMvc.perform(get("/api/batch/status/" + executionId)
+                .with(user(userDetails)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("FAILED"))
+                .andExpect(jsonPath("$.exitCode").value(BatchExecution.TIMEOUT_EXIT_CODE));
+    }
+
+    private String executeJobWithLoops(int loops, CustomUserDetails userDetails) throws Exception {
+        MvcResult executeResult = mockMvc.perform(post("/api/batch/execute")
+                .with(user(userDetails))
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"jobId\":\"wait_time_param\",\"parameters\":{\"loops\":\"" + loops + "\"}}"))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(executeResult.getResponse().getContentAsString()).get("executionId").asText();
+    }
+
+    private void awaitStatus(String executionId, ExecutionStatus expected) throws InterruptedException {
+        for (int retryCount = 0; retryCount < 100; retryCount++) {
+            if (batchRepository.findById(executionId).map(BatchExecution::getStatus).orElse(null) == expected) {
+                return;
+            }
+            Thread.sleep(100);
+        }
+        assertThat(batchRepository.findById(executionId).orElseThrow().getStatus()).isEqualTo(expected);
+    }
+
+    private void awaitNotLive(String executionId) throws InterruptedException {
+        for (int retryCount = 0; retryCount < 100 && liveExecutions.get(executionId).isPresent(); retryCount++) {
+            Thread.sleep(100);
+        }
+        assertThat(liveExecutions.get(executionId)).isEmpty();
+    }
+
+    private BatchExecution timedOutExecution() {
+        BatchExecution execution = BatchExecution.queueNew(TEST_JOB_ID, "Wait Time Test", 2L);
+        execution.start();
+        execution.timeout();
+        return execution;
+    }
+
+    /**
+     * バッチジョブを実行し、実行IDを返す
+     * 
+     * @param jobId       ジョブID
+     * @param userDetails ユーザー詳細
+     * @return 実行ID
+     * @throws Exception
+     */
+    private String executeJob(String jobId, CustomUserDetails userDetails) throws Exception {
+        MvcResult executeResult = mockMvc.perform(post("/api/batch/execute")
+                .with(user(userDetails))
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"jobId\":\"" + jobId + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(executeResult.getResponse().getContentAsString()).get("executionId").asText();
+    }
+
+    /**
+     * Idempotency-Key を指定してジョブを実行する
+     *
+     * @param jobId          ジョブID
+     * @param idempotencyKey Idempotency-Key
+     * @param userDetails    ユーザー詳細
+     * @return 実行結果
+     * @throws Exception
+     */
+    private ResultActions executeJobWithIdempotencyKey(String jobId, String idempotencyKey,
+            CustomUserDetails userDetails) throws Exception {
+        return mockMvc.perform(post("/api/batch/execute")
+                .header("Idempotency-Key", idempotencyKey)
+                .with(user(userDetails))
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"jobId\":\"" + jobId + "\"}"))
+                .andExpect(status().isOk());
+    }
+
+    /**
+     * ワークフロー実行の完了を待つ
+     *
+     * @param workflowExecutionId ワークフロー実行ID
+     * @param userDetails         ユーザー詳細
+     * @return 完了時のワークフロー実行ステータス
+     * @throws Exception
+     */
+    private JsonNode waitForWorkflowCompletion(String workflowExecutionId, CustomUserDetails userDetails)
+            throws Exception {
+        JsonNode workflow = null;
+        for (int retryCount = 0; retryCount < 30; retryCount++) {
+            MvcResult statusResult = mockMvc.perform(get("/api/batch/workflows/executions/" + workflowExecutionId)
+                    .with(user(userDetails)))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            workflow = objectMapper.readTree(statusResult.getResponse().getContentAsString());
+            if (!"RUNNING".equals(workflow.get("status").asText())) {
+                break;
+            }
+            Thread.sleep(500);
+        }
+        return workflow;
+    }
+
+    private String nodeField(JsonNode workflow, String nodeId, String field) {
+        for (JsonNode node : workflow.get("nodes")) {
+            if (nodeId.equals(node.get("nodeId").asText())) {
+                return node.get(field).asText();
+            }
+        }
+        return null;
+    }
+
     /**
      * CustomUserDetailsオブジェクトを作成するヘルパーメソッド
      * 
@@ -120,7 +1194,8 @@ public class BatchIntegrationTest {
             JsonNode jsonNode = objectMapper.readTree(responseBody);
             status = jsonNode.get("status").asText();
 
-            if ("COMPLETED_SUCCESS".equals(status) || "FAILED".equals(status)) {
+            if ("COMPLETED_SUCCESS".equals(status) || "FAILED".equals(status) || "CANCELLED".equals(status)
+                    || "LOST".equals(status)) {
                 // ジョブが完了した
                 break;
             }
@@ -130,4 +1205,31 @@ public class BatchIntegrationTest {
             retryCount++;
         }
     }
+
+    /**
+     * 永続化後に通知された状態遷移を記録する
+     */
+    @TestConfiguration
+    static class StatusRecorderConfig {
+
+        @Bean
+        StatusRecorder statusRecorder() {
+            return new StatusRecorder();
+        }
+    }
+
+    static class StatusRecorder implements ExecutionStatusListener {
+
+        private final Map<String, List<ExecutionStatus>> statuses = new ConcurrentHashMap<>();
+
+        @Override
+        public void onStatusChanged(BatchExecution execution) {
+            statuses.computeIfAbsent(execution.getId(), id -> new CopyOnWriteArrayList<>())
+                    .add(execution.getStatus());
+        }
+
+        List<ExecutionStatus> statusesOf(String executionId) {
+            return statuses.getOrDefault(executionId, List.of());
+        }
+    }
 }
@@ -0,0 +1,224 @@
+package com.example.demo.batch;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.*;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.example.demo.batch.entity.BatchExecution;
+import com.example.demo.batch.entity.QueuedExecution;
+import com.example.demo.batch.repository.BatchRepository;
+import com.example.demo.batch.repository.ExecutionQueueRepository;
+import com.example.demo.batch.service.ExecutionRecovery;
+import com.example.demo.security.CustomUserDetails;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * DB の実行待ちキュー（batch.cluster.enabled）の結合テスト
+ */
+@SpringBootTest(properties = {
+        "spring.profiles.active=test",
+        "batch.cluster.enabled=true",
+        "batch.recovery.node-name=test-node",
+        "batch.cluster.poll-interval-millis=100",
+        "batch.cluster.heartbeat-interval-millis=200",
+        "batch.cluster.lease-millis=1000" })
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = ClassMode.AFTER_EACH_TEST_METHOD)
+@DisplayName("DB の実行待ちキューの結合テスト")
+public class ClusterExecutionQueueIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BatchRepository batchRepository;
+
+    @Autowired
+    private ExecutionQueueRepository queueRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ExecutionRecovery executionRecovery;
+
+    @Test
+    @DisplayName("受け付けた実行がキューから取得されて実行され、完了後にキューから削除されること")
+    public void testQueuedExecutionIsClaimedAndCompleted() throws Exception {
+        CustomUserDetails userDetails = createUserDetails(2L, "user", "ROLE_USER");
+
+        MvcResult executeResult = mockMvc.perform(post("/api/batch/execute")
+                .with(user(userDetails))
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"jobId\":\"wait_time_test\"}"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String executionId = objectMapper.readTree(executeResult.getResponse().getContentAsString())
+                .get("executionId").asText();
+
+        assertThat(waitForCompletion(executionId).getStatus().name()).isEqualTo("COMPLETED_SUCCESS");
+        assertThat(queueRepository.exists(executionId)).isFalse();
+    }
+
+    @Test
+    @DisplayName("停止したノードのリースが切れた実行を別のノードが取得して再実行すること")
+    public void testExpiredLeaseOfDeadNodeIsReclaimed() throws Exception {
+        // 実行中のまま停止したノードの実行を再現する
+        BatchExecution execution = BatchExecution.queueNew("wait_time_test", "待機テスト（成功）", 2L);
+        execution.start();
+        batchRepository.insert(execution);
+        queueRepository.insert(QueuedExecution.builder()
+                .executionId(execution.getId())
+                .jobId("wait_time_test")
+                .userId(2L)
+                .enqueuedAt(LocalDateTime.now())
+                .build());
+        // ポーリングが先に取得した場合も同じく再実行される
+        queueRepository.claim(execution.getId(), "dead-node", -60 * 1000L);
+
+        assertThat(waitForCompletion(execution.getId()).getStatus().name()).isEqualTo("COMPLETED_SUCCESS");
+        assertThat(queueRepository.exists(execution.getId())).isFalse();
+    }
+
+    @Test
+    @DisplayName("リースを失った実行はローカルで停止され、状態遷移やキューの削除を記録しないこと")
+    public void testExecutionIsAbandonedWhenLeaseIsLost() throws Exception {
+        CustomUserDetails userDetails = createUserDetails(2L, "user", "ROLE_USER");
+
+        MvcResult executeResult = mockMvc.perform(post("/api/batch/execute")
+                .with(user(userDetails))
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"jobId\":\"wait_time_param\",\"parameters\":{\"loops\":\"10\"}}"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String executionId = objectMapper.readTree(executeResult.getResponse().getContentAsString())
+                .get("executionId").asText();
+        for (int retryCount = 0; retryCount < 30
+                && !queueRepository.findOwned("test-node").contains(executionId); retryCount++) {
+            Thread.sleep(100);
+        }
+        assertThat(queueRepository.findOwned("test-node")).contains(executionId);
+
+        // ハートビートが遅れている間に別のノードがリースを取得し直した状態を再現する
+        jdbcTemplate.update("UPDATE batch_execution_queue SET lease_owner = 'other-node',"
+                + " lease_expires_at = DATEADD(MINUTE, 1, CURRENT_TIMESTAMP) WHERE execution_id = ?", executionId);
+        Thread.sleep(3000);
+
+        assertThat(batchRepository.findById(executionId).orElseThrow().isCompleted()).isFalse();
+        assertThat(queueRepository.findOwned("other-node")).contains(executionId);
+        assertThat(queueRepository.delete(executionId, "test-node")).isZero();
+    }
+
+    @Test
+    @DisplayName("再起動前に取得していた実行は、プロセスが生きていればリースを引き継ぎ、いなければ再実行されること")
+    public void testLeasedExecutionsAreRecoveredAfterRestart() throws Exception {
+        // 再起動前にこのノードが取得して実行していた実行を再現する（リースはまだ有効）
+        Process process = new ProcessBuilder("sleep", "2").start();
+        BatchExecution alive = claimedRunningExecution();
+        batchRepository.updateProcess(alive.getId(), process.pid());
+        BatchExecution dead = claimedRunningExecution();
+
+        ExecutionRecovery.Result result = executionRecovery.recover(LocalDateTime.now().plusSeconds(1));
+        assertThat(result).isEqualTo(new ExecutionRecovery.Result(1, 0, 1, 0));
+
+        // プロセスが残っていない実行はリースを手放し、キューから取得し直して再実行する
+        assertThat(waitForCompletion(dead.getId()).getStatus().name()).isEqualTo("COMPLETED_SUCCESS");
+        assertThat(queueRepository.exists(dead.getId())).isFalse();
+
+        // 再接続した実行はリースを延長し続け、再実行されない
+        assertThat(queueRepository.findOwned("test-node")).contains(alive.getId());
+        process.waitFor();
+        assertThat(waitForCompletion(alive.getId()).getStatus().name()).isEqualTo("LOST");
+        assertThat(queueRepository.exists(alive.getId())).isFalse();
+    }
+
+    @Test
+    @DisplayName("他のノードで実行された実行の出力・成果物・イベントと出力の全文検索は 409 で拒否されること")
+    public void testNodeLocalReadsOfOtherNodeAreRejected() throws Exception {
+        CustomUserDetails userDetails = createUserDetails(2L, "user", "ROLE_USER");
+        BatchExecution execution = BatchExecution.queueNew("wait_time_test", "待機テスト（成功）", 2L);
+        execution.start();
+        execution.completeSuccessfully();
+        execution.setNodeId("other-node");
+        batchRepository.insert(execution);
+
+        for (String path : new String[] { "/output", "/artifacts", "/artifacts/result.txt", "/events" }) {
+            mockMvc.perform(get("/api/batch/executions/" + execution.getId() + path)
+                    .with(user(userDetails)))
+                    .andExpect(status().isConflict())
+                    .andExpect(header().string("X-Batch-Node", "other-node"));
+        }
+        mockMvc.perform(get("/api/batch/history/search")
+                .with(user(userDetails))
+                .param("outputText", "loop"))
+                .andExpect(status().isConflict());
+
+        // このノードで実行した実行はそのまま参照できる
+        BatchExecution local = BatchExecution.queueNew("wait_time_test", "待機テスト（成功）", 2L);
+        local.start();
+        local.completeSuccessfully();
+        local.setNodeId("test-node");
+        batchRepository.insert(local);
+        mockMvc.perform(get("/api/batch/executions/" + local.getId() + "/output")
+                .with(user(userDetails)))
+                .andExpect(status().isOk());
+    }
+
+    private BatchExecution claimedRunningExecution() {
+        BatchExecution execution = BatchExecution.queueNew("wait_time_test", "待機テスト（成功）", 2L);
+        execution.start();
+        execution.setNodeId("test-node");
+        batchRepository.insert(execution);
+        queueRepository.insert(QueuedExecution.builder()
+                .executionId(execution.getId())
+                .jobId("wait_time_test")
+                .userId(2L)
+                .enqueuedAt(LocalDateTime.now())
+                .build());
+        queueRepository.claim(execution.getId(), "test-node", 60 * 1000L);
+        return execution;
+    }
+
+    private BatchExecution waitForCompletion(String executionId) throws Exception {
+        BatchExecution execution = null;
+        for (int retryCount = 0; retryCount < 30; retryCount++) {
+            execution = batchRepository.findById(executionId).orElseThrow();
+            if (execution.isCompleted()) {
+                break;
+            }
+            Thread.sleep(500);
+        }
+        return execution;
+    }
+
+    private CustomUserDetails createUserDetails(Long userId, String username, String role) {
+        return new CustomUserDetails(
+                userId,
+                username,
+                "password",
+                Arrays.asList(new SimpleGrantedAuthority(role)),
+                true);
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.demo.batch;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.example.demo.batch.dto.ExecutionStatus;
+import com.example.demo.batch.dto.HistoryWriterMetrics;
+import com.example.demo.batch.dto.StatusResponse;
+import com.example.demo.batch.entity.BatchExecution;
+import com.example.demo.batch.repository.BatchRepository;
+import com.example.demo.batch.service.BatchExecuteService;
+import com.example.demo.batch.service.ExecutionHistoryWriter;
+import com.example.demo.batch.service.LiveExecutionRegistry;
+import com.example.demo.config.BatchConfig;
+import com.example.demo.security.CustomUserDetails;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 実行履歴の write-behind 書き込み（batch.history.write-behind）の結合テスト
+ */
+@SpringBootTest(properties = {
+        "spring.profiles.active=test",
+        "batch.history.write-behind=true",
+        "batch.history.flush-interval-millis=100" })
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = ClassMode.AFTER_EACH_TEST_METHOD)
+@DisplayName("実行履歴の write-behind 書き込みの結合テスト")
+public class WriteBehindHistoryIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BatchConfig batchConfig;
+
+    @Autowired
+    private BatchRepository batchRepository;
+
+    @Autowired
+    private ExecutionHistoryWriter historyWriter;
+
+    @Autowired
+    private BatchExecuteService batchService;
+
+    @Autowired
+    private LiveExecutionRegistry liveExecutions;
+
+    @Test
+    @DisplayName("SYNC: 一括投入した実行がまとめてフラッシュされ、完了後の行が最終状態になること")
+    public void testSyncGroupCommitPersistsCompletedExecutions() throws Exception {
+        CustomUserDetails userDetails = createUserDetails(2L, "user", "ROLE_USER");
+
+        MvcResult result = mockMvc.perform(post("/api/batch/execute/bulk")
+                .with(user(userDetails))
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"jobId\":\"wait_time_test\"},{\"jobId\":\"wait_time_test\"},"
+                        + "{\"jobId\":\"wait_time_test\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(3))
+                .andReturn();
+        List<String> executionIds = new ArrayList<>();
+        for (JsonNode item : objectMapper.readTree(result.getResponse().getContentAsString()).get("results")) {
+            executionIds.add(item.get("executionId").asText());
+        }
+
+        // SYNC ではコミットを待ってから応答するため、応答時点で行が存在する
+        for (String executionId : executionIds) {
+            assertThat(batchRepository.findById(executionId)).isPresent();
+        }
+        for (String executionId : executionIds) {
+            assertThat(waitForCompletion(executionId).getStatus()).isEqualTo(ExecutionStatus.COMPLETED_SUCCESS);
+        }
+
+        HistoryWriterMetrics metrics = historyWriter.metrics();
+        assertThat(metrics.getMode()).isEqualTo("WRITE_BEHIND");
+        assertThat(metrics.getDurability()).isEqualTo("SYNC");
+        // 挿入 3 件は1回のフラッシュにまとまる（以降は RUNNING・完了への遷移）
+        assertThat(metrics.getFlushedRows()).isGreaterThanOrEqualTo(9);
+        assertThat(metrics.getFlushCount()).isLessThan(metrics.getFlushedRows());
+        assertThat(metrics.getFailedRows()).isZero();
+    }
+
+    @Test
+    @DisplayName("SYNC: 状態遷移の CAS は、行のステータスが期待値と異なる場合に false を返すこと")
+    public void testSyncCompareAndSetResults() {
+        BatchExecution execution = BatchExecution.queueNew("wait_time_test", "待機テスト（成功）", 2L);
+        historyWriter.insert(execution);
+
+        execution.start();
+        assertThat(historyWriter.updateIfStatus(execution, ExecutionStatus.QUEUED)).isTrue();
+        // 既に RUNNING に遷移済みのため、QUEUED を期待した遷移は失われる
+        execution.cancel();
+        assertThat(historyWriter.updateIfStatus(execution, ExecutionStatus.QUEUED)).isFalse();
+        assertThat(batchRepository.findById(execution.getId()).orElseThrow().getStatus())
+                .isEqualTo(ExecutionStatus.RUNNING);
+        assertThat(historyWriter.updateIfStatus(execution, ExecutionStatus.RUNNING)).isTrue();
+        assertThat(batchRepository.findById(execution.getId()).orElseThrow().getStatus())
+                .isEqualTo(ExecutionStatus.CANCELLED);
+    }
+
+    @Test
+    @DisplayName("一括書き込みに失敗した場合は1件ずつ書き込み直し、失敗した書き込みのみが失敗すること")
+    public void testFailedFlushIsRetriedOneByOne() {
+        BatchExecution existing = BatchExecution.queueNew("wait_time_test", "待機テスト（成功）", 2L);
+        historyWriter.insert(existing);
+
+        // 主キーが重複する挿入と正常な挿入を同じフラッシュに含める
+        BatchExecution valid = BatchExecution.queueNew("wait_time_test", "待機テスト（成功）", 2L);
+        assertThatThrownBy(() -> historyWriter.insertAll(List.of(valid, existing)))
+                .isInstanceOf(CompletionException.class);
+
+        assertThat(batchRepository.findById(valid.getId())).isPresent();
+        assertThat(historyWriter.metrics().getFailedRows()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("ASYNC: 完了した実行は行がフラッシュされるまでメモリ上に残り、ステータス照会が古い行に戻らないこと")
+    public void testAsyncStatusNeverRegressesToUnflushedRow() throws Exception {
+        batchConfig.getHistory().setDurability(BatchConfig.Durability.ASYNC);
+        CustomUserDetails userDetails = createUserDetails(2L, "user", "ROLE_USER");
+
+        MvcResult result = mockMvc.perform(post("/api/batch/execute")
+                .with(user(userDetails))
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"jobId\":\"wait_time_test\"}"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String executionId = objectMapper.readTree(result.getResponse().getContentAsString())
+                .get("executionId").asText();
+
+        boolean completedSeen = false;
+        for (int retryCount = 0; retryCount < 2000; retryCount++) {
+            boolean live = liveExecutions.get(executionId).isPresent();
+            Optional<BatchExecution> row = batchRepository.findById(executionId);
+            if (!live) {
+                // メモリ上から取り除かれた時点で、行は最終状態までフラッシュ済み
+                assertThat(row).isPresent();
+                assertThat(row.get().isCompleted()).isTrue();
+            }
+            ExecutionStatus status = batchService.getExecutionStatus(executionId)
+                    .map(StatusResponse::getStatus)
+                    .orElse(null);
+            if (completedSeen) {
+                assertThat(status).isEqualTo(ExecutionStatus.COMPLETED_SUCCESS);
+            }
+            completedSeen = status == ExecutionStatus.COMPLETED_SUCCESS;
+            if (!live && completedSeen) {
+                break;
+            }
+            Thread.sleep(5);
+        }
+        assertThat(completedSeen).isTrue();
+        assertThat(liveExecutions.get(executionId)).isEmpty();
+    }
+
+    private BatchExecution waitForCompletion(String executionId) throws Exception {
+        BatchExecution execution = null;
+        for (int retryCount = 0; retryCount < 30; retryCount++) {
+            execution = batchRepository.findById(executionId).orElseThrow();
+            if (execution.isCompleted()) {
+                break;
+            }
+            Thread.sleep(500);
+        }
+        return execution;
+    }
+
+    private CustomUserDetails createUserDetails(Long userId, String username, String role) {
+        return new CustomUserDetails(
+                userId,
+                username,
+                "password",
+                Arrays.asList(new SimpleGrantedAuthority(role)),
+                true);
+    }
+}
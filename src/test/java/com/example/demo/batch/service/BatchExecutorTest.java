@@ -0,0 +1,116 @@
+package com.example.demo.batch.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.demo.batch.dto.QueueWaitMetrics;
+import com.example.demo.config.BatchConfig;
+
+/**
+ * バッチ実行エンジンの待機キューと待ち時間メトリクスの単体テスト
+ */
+@DisplayName("バッチ実行エンジン（BatchExecutor）の単体テスト")
+public class BatchExecutorTest {
+
+    private BatchExecutor executor;
+
+    // 実行IDごとの実行本体の完了（完了させると実行枠が空く）
+    private final Map<String, CompletableFuture<Void>> running = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        BatchConfig batchConfig = new BatchConfig();
+        batchConfig.getExecutor().setMaxConcurrency(1);
+        executor = new BatchExecutor();
+        ReflectionTestUtils.setField(executor, "batchConfig", batchConfig);
+        executor.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("待機件数・取り出し件数・待ち時間がユーザー別と優先度別に集計されること")
+    public void testQueueWaitMetricsPerUserAndPriority() throws Exception {
+        BatchConfig.Job low = job("low", 0);
+        BatchConfig.Job high = job("high", 10);
+        submit(low, "first", 1L);
+        awaitUntil(() -> running.containsKey("first"));
+        submit(low, "queued-low", 1L);
+        submit(high, "queued-high", 2L);
+
+        Map<Long, QueueWaitMetrics> byUser = executor.getQueueWaitByUser();
+        assertThat(byUser.get(1L).getQueued()).isEqualTo(1);
+        assertThat(byUser.get(1L).getDispatched()).isEqualTo(1);
+        assertThat(byUser.get(2L).getQueued()).isEqualTo(1);
+        assertThat(byUser.get(2L).getDispatched()).isZero();
+        Map<Integer, QueueWaitMetrics> byPriority = executor.getQueueWaitByPriority();
+        assertThat(byPriority.get(0).getQueued()).isEqualTo(1);
+        assertThat(byPriority.get(10).getQueued()).isEqualTo(1);
+
+        // 枠が空くと、後から投入された優先度の高い実行が先に開始される
+        Thread.sleep(20);
+        running.get("first").complete(null);
+        awaitUntil(() -> running.containsKey("queued-high"));
+        assertThat(running).doesNotContainKey("queued-low");
+
+        byUser = executor.getQueueWaitByUser();
+        assertThat(byUser.get(2L).getQueued()).isZero();
+        assertThat(byUser.get(2L).getDispatched()).isEqualTo(1);
+        assertThat(byUser.get(2L).getMaxWaitMillis()).isGreaterThanOrEqualTo(20);
+        byPriority = executor.getQueueWaitByPriority();
+        assertThat(byPriority.get(10).getDispatched()).isEqualTo(1);
+        assertThat(byPriority.get(0).getQueued()).isEqualTo(1);
+
+        running.get("queued-high").complete(null);
+        awaitUntil(() -> running.containsKey("queued-low"));
+        assertThat(executor.getQueueWaitByUser().get(1L).getDispatched()).isEqualTo(2);
+        assertThat(executor.getDispatchTotals().dispatched()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("待機中の実行を取り除くと待機件数から差し引かれること")
+    public void testCancelQueuedUpdatesMetrics() throws Exception {
+        BatchConfig.Job job = job("job", 0);
+        submit(job, "first", 1L);
+        awaitUntil(() -> running.containsKey("first"));
+        submit(job, "queued", 1L);
+
+        assertThat(executor.cancelQueued("queued")).isTrue();
+        assertThat(executor.cancelQueued("first")).isFalse();
+        assertThat(executor.getQueuedCount()).isZero();
+        assertThat(executor.getQueueWaitByUser().get(1L).getQueued()).isZero();
+        assertThat(executor.getQueueWaitByPriority().get(0).getQueued()).isZero();
+    }
+
+    private void submit(BatchConfig.Job job, String executionId, Long userId) {
+        executor.admit().submit(job, executionId, userId, () -> running.computeIfAbsent(executionId,
+                id -> new CompletableFuture<>()));
+    }
+
+    private static BatchConfig.Job job(String id, int priority) {
+        BatchConfig.Job job = new BatchConfig.Job();
+        job.setId(id);
+        job.setPriority(priority);
+        return job;
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        for (int retryCount = 0; retryCount < 100 && !condition.getAsBoolean(); retryCount++) {
+            Thread.sleep(20);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+}
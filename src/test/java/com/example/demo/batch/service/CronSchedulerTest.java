@@ -0,0 +1,171 @@
+package com.example.demo.batch.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.demo.batch.dto.ExecuteRequest;
+import com.example.demo.batch.dto.ExecuteResponse;
+import com.example.demo.batch.repository.BatchRepository;
+import com.example.demo.config.BatchConfig;
+import com.example.demo.users.entity.User;
+import com.example.demo.users.repository.UserRepository;
+
+/**
+ * cron 式による定期実行の単体テスト（時刻は引数で与える）
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("定期実行（CronScheduler）の単体テスト")
+public class CronSchedulerTest {
+
+    private static final Long SYSTEM_USER_ID = 99L;
+    // 2026-01-01T00:00:30Z（毎分0秒の予定の30秒前）
+    private static final long T0 = Instant.parse("2026-01-01T00:00:30Z").toEpochMilli();
+
+    @Mock
+    private BatchExecuteService batchExecuteService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private BatchRepository batchRepository;
+
+    private BatchConfig batchConfig;
+    private CronScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        batchConfig = new BatchConfig();
+        batchConfig.getScheduler().setZone("UTC");
+        scheduler = new CronScheduler();
+        ReflectionTestUtils.setField(scheduler, "batchConfig", batchConfig);
+        ReflectionTestUtils.setField(scheduler, "batchExecuteService", batchExecuteService);
+        ReflectionTestUtils.setField(scheduler, "userRepository", userRepository);
+        ReflectionTestUtils.setField(scheduler, "batchRepository", batchRepository);
+        when(userRepository.findByName("system"))
+                .thenReturn(Optional.of(User.builder().id(SYSTEM_USER_ID).name("system").build()));
+        lenient().when(batchExecuteService.startBatch(any(), anyLong())).thenReturn(new ExecuteResponse("id"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    @DisplayName("cron 式の次の予定時刻に、システムユーザーの実行として起動されること")
+    public void testFiresAtNextCronTimeAsSystemUser() {
+        useJob("0 * * * * *", BatchConfig.MisfirePolicy.FIRE_ONCE);
+        assertThat(scheduler.loadSchedules(T0)).isTrue();
+
+        scheduler.tick(T0 + 29_000);
+        verify(batchExecuteService, after(200).never()).startBatch(any(), anyLong());
+
+        scheduler.tick(T0 + 30_000);
+        ArgumentCaptor<ExecuteRequest> request = ArgumentCaptor.forClass(ExecuteRequest.class);
+        verify(batchExecuteService, timeout(1000)).startBatch(request.capture(), eq(SYSTEM_USER_ID));
+        assertThat(request.getValue().getJobId()).isEqualTo("cron_job");
+
+        // 次回は1分後
+        scheduler.tick(T0 + 89_000);
+        verify(batchExecuteService, after(200).times(1)).startBatch(any(), anyLong());
+        scheduler.tick(T0 + 90_000);
+        verify(batchExecuteService, timeout(1000).times(2)).startBatch(any(), eq(SYSTEM_USER_ID));
+    }
+
+    @Test
+    @DisplayName("cron 式が指定したタイムゾーンで評価されること")
+    public void testCronIsEvaluatedInConfiguredZone() {
+        batchConfig.getScheduler().setZone("Asia/Tokyo");
+        useJob("0 0 9 * * *", BatchConfig.MisfirePolicy.FIRE_ONCE);
+        // 09:00 JST = 00:00 UTC
+        long nineJst = Instant.parse("2026-01-01T00:00:00Z").toEpochMilli();
+        assertThat(scheduler.loadSchedules(nineJst - 60 * 60 * 1000L)).isTrue();
+
+        scheduler.tick(nineJst - 1000);
+        verify(batchExecuteService, after(200).never()).startBatch(any(), anyLong());
+        scheduler.tick(nineJst);
+        verify(batchExecuteService, timeout(1000)).startBatch(any(), eq(SYSTEM_USER_ID));
+    }
+
+    @Test
+    @DisplayName("FIRE_ONCE の場合、閾値を超えて遅れた予定を1回だけ起動すること")
+    public void testMisfireFireOnce() {
+        useJob("0 * * * * *", BatchConfig.MisfirePolicy.FIRE_ONCE);
+        scheduler.loadSchedules(T0);
+
+        // 00:01:00 の予定を 110 秒遅れ（00:02:50）で処理する（00:02:00 の分はまとめて1回）
+        scheduler.tick(T0 + 140_000);
+        verify(batchExecuteService, timeout(1000)).startBatch(any(), eq(SYSTEM_USER_ID));
+        verify(batchExecuteService, after(200).times(1)).startBatch(any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("SKIP の場合、閾値を超えて遅れた予定は起動せず、次の予定時刻に起動すること")
+    public void testMisfireSkip() {
+        useJob("0 * * * * *", BatchConfig.MisfirePolicy.SKIP);
+        scheduler.loadSchedules(T0);
+
+        scheduler.tick(T0 + 140_000);
+        verify(batchExecuteService, after(200).never()).startBatch(any(), anyLong());
+
+        // 遅れて処理した時刻（00:02:50）の次の予定（00:03:00）は通常どおり起動する
+        scheduler.tick(T0 + 150_000);
+        verify(batchExecuteService, timeout(1000)).startBatch(any(), eq(SYSTEM_USER_ID));
+    }
+
+    @Test
+    @DisplayName("FIRE_ONCE の場合、停止中に過ぎた予定を起動時に1回起動すること")
+    public void testMissedWhileStopped() {
+        useJob("0 * * * * *", BatchConfig.MisfirePolicy.FIRE_ONCE);
+        LocalDateTime lastRun = LocalDateTime.ofInstant(Instant.ofEpochMilli(T0 - 5 * 60 * 1000L),
+                ZoneId.systemDefault());
+        when(batchRepository.findLatestCreatedAt(anyString(), eq(SYSTEM_USER_ID))).thenReturn(Optional.of(lastRun));
+
+        scheduler.loadSchedules(T0);
+        verify(batchExecuteService, timeout(1000)).startBatch(any(), eq(SYSTEM_USER_ID));
+    }
+
+    @Test
+    @DisplayName("システムユーザーが存在しない場合は定期実行を開始しないこと")
+    public void testDisabledWithoutSystemUser() {
+        useJob("0 * * * * *", BatchConfig.MisfirePolicy.FIRE_ONCE);
+        when(userRepository.findByName("system")).thenReturn(Optional.empty());
+
+        assertThat(scheduler.loadSchedules(T0)).isFalse();
+    }
+
+    private void useJob(String cron, BatchConfig.MisfirePolicy misfirePolicy) {
+        BatchConfig.Job job = new BatchConfig.Job();
+        job.setId("cron_job");
+        job.setEnabled(true);
+        job.setCron(cron);
+        job.setMisfirePolicy(misfirePolicy);
+        batchConfig.setJobs(List.of(job));
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.demo.batch.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 優先度・ユーザー間の公平性を考慮した待機キューの単体テスト
+ */
+@DisplayName("待機キュー（FairShareQueue）の単体テスト")
+public class FairShareQueueTest {
+
+    private record Item(String name, Long userId, int priority, String jobId) {
+    }
+
+    @Test
+    @DisplayName("1人のユーザーが大量に投入しても、他のユーザーの要素が交互に取り出されること")
+    public void testUsersAreServedInTurnUnderHeavySubmitter() {
+        FairShareQueue<Item> queue = newQueue(Map.of());
+        for (int i = 0; i < 10; i++) {
+            queue.add(new Item("heavy-" + i, 1L, 0, "job"));
+        }
+        queue.add(new Item("light-0", 2L, 0, "job"));
+        queue.add(new Item("light-1", 2L, 0, "job"));
+        queue.add(new Item("other-0", 3L, 0, "job"));
+
+        assertThat(pollAll(queue, item -> true)).containsExactly(
+                "heavy-0", "light-0", "other-0", "heavy-1", "light-1",
+                "heavy-2", "heavy-3", "heavy-4", "heavy-5", "heavy-6", "heavy-7", "heavy-8", "heavy-9");
+        assertThat(queue.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("ユーザーの重みの件数ずつ続けて取り出されること")
+    public void testUserWeightAllowsConsecutivePolls() {
+        FairShareQueue<Item> queue = newQueue(Map.of(1L, 2));
+        for (int i = 0; i < 4; i++) {
+            queue.add(new Item("weighted-" + i, 1L, 0, "job"));
+        }
+        for (int i = 0; i < 2; i++) {
+            queue.add(new Item("normal-" + i, 2L, 0, "job"));
+        }
+
+        assertThat(pollAll(queue, item -> true)).containsExactly(
+                "weighted-0", "weighted-1", "normal-0", "weighted-2", "weighted-3", "normal-1");
+    }
+
+    @Test
+    @DisplayName("優先度の高い要素が、先に投入された低い優先度の要素より必ず先に取り出されること")
+    public void testHigherPriorityIsPolledFirst() {
+        FairShareQueue<Item> queue = newQueue(Map.of());
+        queue.add(new Item("low-0", 1L, 0, "job"));
+        queue.add(new Item("low-1", 2L, 0, "job"));
+        queue.add(new Item("mid-0", 1L, 5, "job"));
+        queue.add(new Item("high-0", 3L, 10, "job"));
+        queue.add(new Item("mid-1", 2L, 5, "job"));
+
+        assertThat(pollAll(queue, item -> true)).containsExactly("high-0", "mid-0", "mid-1", "low-0", "low-1");
+    }
+
+    @Test
+    @DisplayName("取り出せない要素（ジョブ単位の上限に達した要素）を飛ばし、後から取り出せること")
+    public void testIneligibleElementsAreSkippedAndKept() {
+        FairShareQueue<Item> queue = newQueue(Map.of());
+        queue.add(new Item("capped-0", 1L, 5, "capped"));
+        queue.add(new Item("free-0", 1L, 5, "free"));
+        queue.add(new Item("capped-1", 2L, 5, "capped"));
+        queue.add(new Item("low-0", 2L, 0, "free"));
+
+        Predicate<Item> notCapped = item -> !item.jobId().equals("capped");
+        assertThat(queue.poll(notCapped).name()).isEqualTo("free-0");
+        // 同じ優先度に取り出せる要素がなければ低い優先度に進む
+        assertThat(queue.poll(notCapped).name()).isEqualTo("low-0");
+        assertThat(queue.poll(notCapped)).isNull();
+        assertThat(queue.size()).isEqualTo(2);
+
+        // 上限が空けば飛ばした要素を取り出せる
+        assertThat(pollAll(queue, item -> true)).containsExactlyInAnyOrder("capped-0", "capped-1");
+    }
+
+    @Test
+    @DisplayName("条件に一致する要素を取り除けること")
+    public void testRemove() {
+        FairShareQueue<Item> queue = newQueue(Map.of());
+        queue.add(new Item("a", 1L, 0, "job"));
+        queue.add(new Item("b", 2L, 0, "job"));
+
+        assertThat(queue.remove(item -> item.name().equals("a")).name()).isEqualTo("a");
+        assertThat(queue.remove(item -> item.name().equals("a"))).isNull();
+        assertThat(pollAll(queue, item -> true)).containsExactly("b");
+    }
+
+    private static FairShareQueue<Item> newQueue(Map<Long, Integer> weights) {
+        return new FairShareQueue<>(Item::userId, Item::priority, userId -> weights.getOrDefault(userId, 1));
+    }
+
+    private static List<String> pollAll(FairShareQueue<Item> queue, Predicate<Item> eligible) {
+        List<String> names = new ArrayList<>();
+        Item item;
+        while ((item = queue.poll(eligible)) != null) {
+            names.add(item.name());
+        }
+        return names;
+    }
+}
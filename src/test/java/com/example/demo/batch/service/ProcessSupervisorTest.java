@@ -0,0 +1,64 @@
+package com.example.demo.batch.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.demo.config.BatchConfig;
+
+/**
+ * プロセス監視の単体テスト
+ */
+@DisplayName("プロセス監視（ProcessSupervisor）の単体テスト")
+public class ProcessSupervisorTest {
+
+    private ProcessSupervisor supervisor;
+
+    @BeforeEach
+    void setUp() {
+        BatchConfig batchConfig = new BatchConfig();
+        batchConfig.getExecutor().setOutputDrainTimeoutMillis(100);
+        batchConfig.getExecutor().setKillGracePeriodMillis(500);
+        supervisor = new ProcessSupervisor();
+        ReflectionTestUtils.setField(supervisor, "batchConfig", batchConfig);
+        supervisor.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        supervisor.shutdown();
+    }
+
+    @Test
+    @DisplayName("出力の読み切りが終わらなくても一定時間で完了し、読み取り側の Future は完了させないこと")
+    public void testDrainTimeoutDoesNotCompleteSharedFuture() throws Exception {
+        Process process = new ProcessBuilder("true").start();
+        CompletableFuture<Void> outputDrained = new CompletableFuture<>();
+
+        ProcessSupervisor.ProcessOutcome outcome = supervisor.supervise("exec", process, 10, outputDrained)
+                .get(5, TimeUnit.SECONDS);
+
+        assertThat(outcome).isEqualTo(new ProcessSupervisor.ProcessOutcome(0, false));
+        assertThat(outputDrained).isNotDone();
+    }
+
+    @Test
+    @DisplayName("タイムアウトを超えたプロセスは停止され、タイムアウトとして完了すること")
+    public void testTimeoutTerminatesProcess() throws Exception {
+        Process process = new ProcessBuilder("sleep", "30").start();
+
+        ProcessSupervisor.ProcessOutcome outcome = supervisor
+                .supervise("exec", process, 1, CompletableFuture.completedFuture(null))
+                .get(10, TimeUnit.SECONDS);
+
+        assertThat(outcome.timedOut()).isTrue();
+        assertThat(process.isAlive()).isFalse();
+    }
+}
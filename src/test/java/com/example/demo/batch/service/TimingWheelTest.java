@@ -0,0 +1,82 @@
+package com.example.demo.batch.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * タイミングホイールの単体テスト
+ */
+@DisplayName("タイミングホイール（TimingWheel）の単体テスト")
+public class TimingWheelTest {
+
+    private static final long TICK = 1000;
+
+    @Test
+    @DisplayName("予定時刻を切り上げた tick で取り出され、それより前には取り出されないこと")
+    public void testEntryExpiresAtCeilingTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 4, 0);
+        wheel.schedule(2500, "a");
+
+        assertThat(advance(wheel, 2999)).isEmpty();
+        assertThat(advance(wheel, 3000)).containsExactly("a@2500");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("1周を超える予定は同じスロットの周回数で区別され、周回が済むまで取り出されないこと")
+    public void testRoundsSeparateEntriesInSameSlot() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 4, 0);
+        // tick 2, 6, 10 はいずれもスロット 2（周回数 0, 1, 2）
+        wheel.schedule(10_000, "third");
+        wheel.schedule(2_000, "first");
+        wheel.schedule(6_000, "second");
+        assertThat(wheel.size()).isEqualTo(3);
+
+        assertThat(advance(wheel, 2_000)).containsExactly("first@2000");
+        assertThat(advance(wheel, 5_999)).isEmpty();
+        assertThat(advance(wheel, 6_000)).containsExactly("second@6000");
+        assertThat(advance(wheel, 9_999)).isEmpty();
+        assertThat(advance(wheel, 10_000)).containsExactly("third@10000");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("過去の予定時刻は次の tick で取り出されること")
+    public void testPastDeadlineExpiresOnNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 4, 5_000);
+        wheel.schedule(1_000, "late");
+
+        assertThat(advance(wheel, 5_999)).isEmpty();
+        assertThat(advance(wheel, 6_000)).containsExactly("late@1000");
+    }
+
+    @Test
+    @DisplayName("取り出した予定の処理中に再登録した予定は、同じ走査では取り出されないこと")
+    public void testRescheduleDuringAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 4, 0);
+        wheel.schedule(1_000, "repeat");
+        List<Long> fired = new ArrayList<>();
+
+        // 1周後（同じスロット）に再登録する
+        wheel.advance(1_000, (task, deadline) -> {
+            fired.add(deadline);
+            wheel.schedule(deadline + 4 * TICK, task);
+        });
+        assertThat(fired).containsExactly(1_000L);
+        assertThat(wheel.size()).isEqualTo(1);
+
+        wheel.advance(5_000, (task, deadline) -> fired.add(deadline));
+        assertThat(fired).containsExactly(1_000L, 5_000L);
+    }
+
+    private static List<String> advance(TimingWheel<String> wheel, long nowMillis) {
+        List<String> expired = new ArrayList<>();
+        wheel.advance(nowMillis, (task, deadline) -> expired.add(task + "@" + deadline));
+        return expired;
+    }
+}